@@ -0,0 +1,43 @@
+package aether.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.model.memory.CellStore;
+
+// Allocating and releasing one process's frames with existingProcesses already resident,
+// in 4-unit pages and with a spare 1% of memory so the frame search has to hunt.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class CellStoreBenchmark {
+    private static final int PAGE_SIZE = 4;
+
+    @Param({ "100", "10000", "1000000", "10000000" })
+    int existingProcesses;
+
+    @Param({ "1", "16" })
+    int pagesPerProcess;
+
+    private CellStore cellStore;
+    private int nextNode;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        long frames = (long) existingProcesses * pagesPerProcess;
+        frames += Math.max(frames / 100, pagesPerProcess);
+        cellStore = new CellStore(PAGE_SIZE, (int) (frames * PAGE_SIZE));
+        for (nextNode = 0; nextNode < existingProcesses; nextNode++) {
+            cellStore.allocateMemoryToProcess(nextNode, pagesPerProcess * PAGE_SIZE);
+        }
+    }
+
+    @Benchmark
+    public int allocateAndRelease() {
+        int node = nextNode++;
+        cellStore.allocateMemoryToProcess(node, pagesPerProcess * PAGE_SIZE);
+        return cellStore.releaseMemory(node);
+    }
+}
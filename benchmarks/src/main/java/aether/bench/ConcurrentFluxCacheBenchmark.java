@@ -0,0 +1,76 @@
+package aether.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.model.memory.ConcurrentFluxCache;
+import aether.model.memory.FluxCache;
+
+// One cache shared by every benchmark thread, each replaying its own reference
+// stream: a FluxCache behind a single lock against the sharded ConcurrentFluxCache.
+// Run with -t 1,2,4,8,16 to see how each scales.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConcurrentFluxCacheBenchmark {
+    private static final int TRACE_LENGTH = 1 << 20;
+
+    @Param({ "synchronized", "sharded" })
+    String cache;
+
+    @Param({ "100000" })
+    int capacity;
+
+    @Param({ "0.9" })
+    double hitRatio;
+
+    private FluxCache locked;
+    private ConcurrentFluxCache sharded;
+
+    @State(Scope.Thread)
+    public static class Stream {
+        int[] trace;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentFluxCacheBenchmark bench) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            trace = new int[TRACE_LENGTH];
+            for (int i = 0; i < TRACE_LENGTH; i++) {
+                trace[i] = random.nextDouble() < bench.hitRatio
+                        ? random.nextInt(bench.capacity)
+                        : bench.capacity + random.nextInt(Integer.MAX_VALUE - bench.capacity);
+            }
+        }
+
+        int next() {
+            int page = trace[cursor];
+            cursor = (cursor + 1) & (TRACE_LENGTH - 1);
+            return page;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        locked = new FluxCache(capacity);
+        sharded = new ConcurrentFluxCache(capacity);
+        for (int page = 0; page < capacity; page++) {
+            locked.accessPage(page);
+            sharded.access(page);
+        }
+    }
+
+    @Benchmark
+    public boolean access(Stream stream) {
+        int page = stream.next();
+        if (cache.equals("sharded")) {
+            return sharded.access(page);
+        }
+        synchronized (locked) {
+            return locked.accessPage(page);
+        }
+    }
+}
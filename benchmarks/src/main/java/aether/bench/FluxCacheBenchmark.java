@@ -0,0 +1,50 @@
+package aether.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.model.memory.FluxCache;
+
+// Page references drawn so that roughly hitRatio of them fall inside the cache's
+// working set.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FluxCacheBenchmark {
+    private static final int TRACE_LENGTH = 1 << 20;
+
+    @Param({ "100", "10000", "1000000", "10000000" })
+    int capacity;
+
+    @Param({ "0.5", "0.9", "0.99" })
+    double hitRatio;
+
+    private FluxCache cache;
+    private int[] trace;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new FluxCache(capacity);
+        for (int page = 0; page < capacity; page++) {
+            cache.accessPage(page);
+        }
+        SplittableRandom random = new SplittableRandom(11);
+        trace = new int[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            trace[i] = random.nextDouble() < hitRatio
+                    ? random.nextInt(capacity)
+                    : capacity + random.nextInt(Integer.MAX_VALUE - capacity);
+        }
+    }
+
+    @Benchmark
+    public boolean accessPage() {
+        boolean hit = cache.accessPage(trace[cursor]);
+        cursor = (cursor + 1) & (TRACE_LENGTH - 1);
+        return hit;
+    }
+}
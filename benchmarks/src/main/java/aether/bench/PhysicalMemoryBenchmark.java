@@ -0,0 +1,58 @@
+package aether.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.model.memory.PhysicalMemory;
+
+// Page-sized moves in off-heap PhysicalMemory over frames spread across 64 MB, so
+// most of them miss the CPU caches like page-ins and copies on a real kernel would.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicalMemoryBenchmark {
+    private static final int FRAMES = 1 << 14;
+
+    @Param({ "4096" })
+    int pageSize;
+
+    private PhysicalMemory memory;
+    private ByteBuffer page;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        memory = new PhysicalMemory(pageSize, FRAMES);
+        page = ByteBuffer.allocateDirect(pageSize);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            page.clear();
+            memory.writePage(frame, page);
+        }
+    }
+
+    private int nextFrame() {
+        next = (next + 7919) & (FRAMES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public void copyPage() {
+        int frame = nextFrame();
+        memory.copyPage(frame, frame ^ 1);
+    }
+
+    @Benchmark
+    public void zeroPage() {
+        memory.zeroPage(nextFrame());
+    }
+
+    @Benchmark
+    public ByteBuffer readPage() {
+        page.clear();
+        memory.readPage(nextFrame(), page);
+        return page;
+    }
+}
@@ -0,0 +1,45 @@
+package aether.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.core.AetherKernel;
+import aether.core.SchedulingPolicy;
+
+// Steady-state dispatch cost with the ready set held at readyTasks entries: every
+// operation dispatches one task, completes it and admits a replacement.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SchedulerBenchmark {
+
+    @Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+    int readyTasks;
+
+    @Param({ "FCFS", "SJF" })
+    String policy;
+
+    private AetherKernel kernel;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = new AetherKernel();
+        kernel.setSchedulingPolicy(SchedulingPolicy.forName(policy, 0));
+        random = new SplittableRandom(42);
+        for (int i = 0; i < readyTasks; i++) {
+            kernel.admitTask(kernel.spawnTask(1 + random.nextInt(1000), 0, random.nextInt(10)));
+        }
+    }
+
+    @Benchmark
+    public int lowLevelScheduling() {
+        int taskID = kernel.dispatchNext();
+        kernel.completeTask(taskID);
+        kernel.admitTask(kernel.spawnTask(1 + random.nextInt(1000), 0, random.nextInt(10)));
+        return taskID;
+    }
+}
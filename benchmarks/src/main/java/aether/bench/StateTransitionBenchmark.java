@@ -0,0 +1,52 @@
+package aether.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.core.AetherKernel;
+import aether.core.SchedulingPolicy;
+
+// Round trips through the kernel state machine on a random task out of a ready set
+// of readyTasks entries.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class StateTransitionBenchmark {
+
+    @Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+    int readyTasks;
+
+    @Param({ "FCFS", "SJF" })
+    String policy;
+
+    private AetherKernel kernel;
+    private int[] ids;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = new AetherKernel();
+        kernel.setSchedulingPolicy(SchedulingPolicy.forName(policy, 0));
+        random = new SplittableRandom(7);
+        ids = new int[readyTasks];
+        for (int i = 0; i < readyTasks; i++) {
+            ids[i] = kernel.spawnTask(1 + random.nextInt(1000), 0, random.nextInt(10));
+            kernel.admitTask(ids[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean suspendResume() {
+        int taskID = ids[random.nextInt(ids.length)];
+        return kernel.suspendTask(taskID) & kernel.resumeTask(taskID);
+    }
+
+    @Benchmark
+    public boolean blockWakeup() {
+        int taskID = ids[random.nextInt(ids.length)];
+        return kernel.blockTask(taskID) & kernel.wakeupTask(taskID);
+    }
+}
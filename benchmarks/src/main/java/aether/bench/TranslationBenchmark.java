@@ -0,0 +1,55 @@
+package aether.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import aether.model.memory.CellStore;
+import aether.model.memory.Tlb;
+
+// CellStore.translate over uniformly random addresses in a workingSetPages working set:
+// small sets stay in the 64-entry TLB, large ones walk the page table on most lookups.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TranslationBenchmark {
+    private static final int PAGE_SIZE = 4096;
+    private static final int ADDRESSES = 1 << 16;
+
+    @Param({ "32", "4096", "262144" })
+    int workingSetPages;
+
+    @Param({ "2", "4" })
+    int levels;
+
+    @Param({ "false", "true" })
+    boolean hugePages;
+
+    private CellStore cellStore;
+    private long[] addresses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int hugeSpan = levels == 2 ? 1024 : 512;
+        int frames = workingSetPages + 2 * hugeSpan;
+        cellStore = new CellStore(PAGE_SIZE, frames * PAGE_SIZE, levels, new Tlb(16, 4, Tlb.Replacement.LRU));
+        if (hugePages) {
+            cellStore.allocateHugePages(1, (workingSetPages + hugeSpan - 1) / hugeSpan);
+        } else {
+            cellStore.allocateMemoryToProcess(1, (long) workingSetPages * PAGE_SIZE);
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        addresses = new long[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses[i] = random.nextLong((long) workingSetPages * PAGE_SIZE);
+        }
+    }
+
+    @Benchmark
+    public long translate() {
+        return cellStore.translate(1, addresses[next++ & (ADDRESSES - 1)]);
+    }
+}
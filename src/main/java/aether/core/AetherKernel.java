@@ -1,129 +1,406 @@
 package aether.core;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
 import aether.model.memory.CellStore;
 import aether.model.memory.FluxCache;
 
+// Task creation and submission (newTask, addNewTask, createTask) are safe from any
+// thread and feed a lock-free queue. Everything else, starting with
+// levelOneScheduling, belongs to a single scheduler thread and takes no locks.
 public class AetherKernel {
-    private Map<Integer, TaskNode> taskTable;
-    private int taskIDCounter = 1;
-    private Queue<TaskNode> readyQueue;
-    private Queue<TaskNode> blockedQueue;
-    private Queue<TaskNode> newQueue;
+    // Called on the scheduler thread after every state or priority change. The view is
+    // reused between calls; a Terminated task is reported just before it is removed.
+    // Any number can be registered, and each is removed by the identity it was added
+    // with, so observers can come and go in any order.
+    public interface TaskListener {
+        void taskChanged(TaskNode task);
+    }
+
+    private TaskStore taskTable;
+    private MpscQueue<TaskNode> submissions;
+    private LongAdder pendingAdmissions;
+    private SchedulingPolicy policy;
+    private TaskLists stateLists;
+    private long clock;
+    private TaskListener[] listeners = new TaskListener[0]; // copied on change, scheduler thread only
+
+    // Reusable views handed to the policy so scheduling never allocates.
+    private final TaskNode cursor = new TaskNode(-1, TaskState.NEW, null, 0, 0, 0);
+    private final TaskNode candidateCursor = new TaskNode(-1, TaskState.NEW, null, 0, 0, 0);
+    private final TaskNode listenerCursor = new TaskNode(-1, TaskState.NEW, null, 0, 0, 0);
 
     private CellStore cellStore;
     private FluxCache fluxCache;
+    private KernelSync sync;
+    private ResourceBanker banker;
+    private Mailboxes mailboxes;
 
     public AetherKernel() {
-        taskTable = new HashMap<>();
-        readyQueue = new LinkedList<>();
-        blockedQueue = new LinkedList<>();
-        newQueue = new LinkedList<>();
+        this(new CellStore("config.txt"));
+    }
+
+    // A kernel over the given memory, e.g. one with a swap device attached.
+    public AetherKernel(CellStore cellStore) {
+        taskTable = new TaskStore();
+        submissions = new MpscQueue<>();
+        pendingAdmissions = new LongAdder();
+        policy = new FcfsPolicy();
+        stateLists = new TaskLists();
 
-        cellStore = new CellStore("config.txt");
+        this.cellStore = cellStore;
         fluxCache = new FluxCache(3);
     }
 
+    // Takes a standalone node from newTask; it becomes Ready at the next
+    // levelOneScheduling pass. A view of a task the kernel already holds is left as is.
     public void addNewTask(TaskNode task) {
-        newQueue.add(task);
+        pendingAdmissions.increment();
+        submissions.offer(task);
     }
 
     public void levelOneScheduling() {
-        while (!newQueue.isEmpty()) {
-            TaskNode task = newQueue.poll();
-            task.setState("Ready");
-            readyQueue.add(task);
+        TaskNode task;
+        int admitted = 0;
+        while ((task = submissions.poll()) != null) {
+            int slot = taskTable.slotOf(task.getProcessID());
+            if (slot < 0 && task.getState() == TaskState.TERMINATED) {
+                // An ID createTask reserved but could not back with memory.
+                taskTable.release(task.getProcessID());
+                continue;
+            }
+            admitted++;
+            if (slot < 0) {
+                if (!taskTable.isReserved(task.getProcessID())) {
+                    continue; // already terminated, or not an ID from newTask
+                }
+                slot = taskTable.insert(task);
+                taskTable.setState(slot, TaskState.NEW);
+            }
+            if (taskTable.state(slot) == TaskState.NEW) {
+                moveTo(task.getProcessID(), slot, TaskState.READY);
+            }
         }
+        pendingAdmissions.add(-admitted);
     }
 
-    public TaskNode lowLevelScheduling(String algorithm) {
-        if (readyQueue.isEmpty()) {
-            return null;
+    // Scheduler-thread creation path that writes straight into the task table and
+    // allocates nothing. The task stays New until admitTask.
+    public int spawnTask(int burstTime, int arrivalTime, int priority) {
+        return spawnTask(burstTime, arrivalTime, priority, "User");
+    }
+
+    public int spawnTask(int burstTime, int arrivalTime, int priority, String owner) {
+        int taskID = taskTable.reserve();
+        int slot = taskTable.insert(taskID, TaskState.NEW, owner, priority, burstTime, arrivalTime);
+        stateLists.add(taskID, TaskState.NEW);
+        notifyChanged(slot);
+        return taskID;
+    }
+
+    public boolean admitTask(int taskID) {
+        return transition(taskID, TaskState.NEW, TaskState.READY);
+    }
+
+    public int dispatchNext() {
+        int taskID = policy.pollNext();
+        if (taskID < 0) {
+            return -1;
         }
+        int slot = taskTable.slotOf(taskID);
+        taskTable.setState(slot, TaskState.RUNNING);
+        stateLists.add(taskID, TaskState.RUNNING);
+        notifyChanged(slot);
+        return taskID;
+    }
 
-        TaskNode selectedTask = null;
+    // For schedulers that pick from run queues of their own, such as SmpScheduler's
+    // cores: the chosen Ready task goes Running.
+    public boolean dispatchTask(int taskID) {
+        return transition(taskID, TaskState.READY, TaskState.RUNNING);
+    }
 
-        if (algorithm.equals("FCFS")) {
-            selectedTask = readyQueue.poll();
-        } else if (algorithm.equals("SJF")) {
-            selectedTask = readyQueue.stream()
-                    .min(Comparator.comparingInt(TaskNode::getBurstTime))
-                    .orElse(null);
+    public TaskNode lowLevelScheduling() {
+        int taskID = dispatchNext();
+        return taskID < 0 ? null : taskTable.get(taskID);
+    }
 
-            if (selectedTask != null) {
-                readyQueue.remove(selectedTask);
-            }
+    // Re-points the caller's view at the dispatched task instead of allocating one.
+    public TaskNode lowLevelScheduling(TaskNode into) {
+        int taskID = dispatchNext();
+        return taskID < 0 ? null : view(into, taskID);
+    }
+
+    public void setSchedulingPolicy(SchedulingPolicy newPolicy) {
+        for (int id = stateLists.first(TaskState.READY); id >= 0; id = stateLists.next(id)) {
+            policy.remove(id);
+            newPolicy.enqueue(view(cursor, id), clock);
         }
+        policy = newPolicy;
+    }
 
-        return selectedTask;
+    public SchedulingPolicy getSchedulingPolicy() {
+        return policy;
     }
 
-    public void createTask(int burstTime, int arrivalTime, int priority) {
-        int taskID = taskIDCounter++;
-        TaskNode task = new TaskNode(taskID, "Ready", "User", priority, burstTime, arrivalTime);
-        taskTable.put(taskID, task);
+    public boolean shouldPreempt(int runningID) {
+        int candidate = policy.peekNext();
+        if (candidate < 0 || !taskTable.contains(runningID)) {
+            return false;
+        }
+        return policy.shouldPreempt(view(cursor, runningID), view(candidateCursor, candidate), clock);
+    }
+
+    public int timeSliceOf(int taskID) {
+        return policy.timeSlice(view(cursor, taskID));
+    }
 
-        cellStore.allocateMemoryToProcess(taskID);
+    // The running task used its whole slice: let the policy react, then re-queue it.
+    public boolean expireSlice(int taskID) {
+        if (!taskTable.contains(taskID)) {
+            return false;
+        }
+        policy.onSliceExpired(view(cursor, taskID));
+        return preemptTask(taskID);
+    }
 
-        readyQueue.add(task);
+    public TaskNode newTask(int burstTime, int arrivalTime, int priority) {
+        return newTask(burstTime, arrivalTime, priority, "User");
     }
 
-    public void destroyTask(int taskID) {
-        taskTable.remove(taskID);
-        readyQueue.removeIf(p -> p.getProcessID() == taskID);
-        blockedQueue.removeIf(p -> p.getProcessID() == taskID);
+    public TaskNode newTask(int burstTime, int arrivalTime, int priority, String owner) {
+        return new TaskNode(taskTable.reserve(), TaskState.NEW, owner, priority, burstTime, arrivalTime);
     }
 
-    public void suspendTask(int taskID) {
-        TaskNode task = taskTable.get(taskID);
-        if (task != null && readyQueue.remove(task)) {
-            task.setState("Suspended");
-            blockedQueue.add(task);
+    // The task becomes Ready at the next levelOneScheduling pass.
+    // Returns null, creating nothing, when no frame is free for the task.
+    public TaskNode createTask(int burstTime, int arrivalTime, int priority) {
+        TaskNode task = newTask(burstTime, arrivalTime, priority);
+        if (!cellStore.allocateMemoryToProcess(task.getProcessID())) {
+            // Only the scheduler thread frees slots, so the ID goes back through the queue.
+            submissions.offer(new TaskNode(task.getProcessID(), TaskState.TERMINATED, null, 0, 0, 0));
+            return null;
         }
+        addNewTask(task);
+        return task;
     }
 
-    public void resumeTask(int taskID) {
-        TaskNode task = taskTable.get(taskID);
-        if (task != null && blockedQueue.remove(task)) {
-            task.setState("Ready");
-            readyQueue.add(task);
+    // fork(): a Ready copy of the task (owner, priority, remaining burst, affinity)
+    // whose memory shares the parent's frames copy-on-write. Returns the child's ID, or
+    // -1 when the task does not exist or its memory could not be shared.
+    public int fork(int taskID) {
+        int parent = taskTable.slotOf(taskID);
+        if (parent < 0) {
+            return -1;
+        }
+        String owner = taskTable.owner(parent);
+        int priority = taskTable.priority(parent);
+        int burst = taskTable.burst(parent);
+        int remaining = taskTable.remaining(parent);
+        int affinity = taskTable.affinity(parent);
+        int childID = taskTable.reserve();
+        if (cellStore.getNodeMemory(taskID) != null && !cellStore.forkMemory(taskID, childID)) {
+            taskTable.release(childID);
+            return -1;
         }
+        int slot = taskTable.insert(childID, TaskState.NEW, owner, priority, burst, (int) clock);
+        taskTable.setRemaining(slot, remaining);
+        taskTable.setAffinity(slot, affinity);
+        stateLists.add(childID, TaskState.NEW);
+        notifyChanged(slot);
+        admitTask(childID);
+        return childID;
     }
 
-    public void blockTask(int taskID) {
-        TaskNode task = taskTable.get(taskID);
-        if (task != null && readyQueue.remove(task)) {
-            task.setState("Blocked");
-            blockedQueue.add(task);
+    public void destroyTask(int taskID) {
+        int slot = taskTable.slotOf(taskID);
+        if (slot >= 0) {
+            moveTo(taskID, slot, TaskState.TERMINATED);
         }
     }
 
-    public void wakeupTask(int taskID) {
-        TaskNode task = taskTable.get(taskID);
-        if (task != null && blockedQueue.remove(task)) {
-            task.setState("Ready");
-            readyQueue.add(task);
+    public boolean completeTask(int taskID) {
+        return transition(taskID, TaskState.RUNNING, TaskState.TERMINATED);
+    }
+
+    public boolean preemptTask(int taskID) {
+        return transition(taskID, TaskState.RUNNING, TaskState.READY);
+    }
+
+    public boolean suspendTask(int taskID) {
+        int slot = taskTable.slotOf(taskID);
+        if (slot < 0 || taskTable.state(slot) == TaskState.BLOCKED) {
+            return false;
         }
+        return transition(taskID, taskTable.state(slot), TaskState.SUSPENDED);
+    }
+
+    public boolean resumeTask(int taskID) {
+        return transition(taskID, TaskState.SUSPENDED, TaskState.READY);
+    }
+
+    public boolean blockTask(int taskID) {
+        int slot = taskTable.slotOf(taskID);
+        return slot >= 0 && transition(taskID, taskTable.state(slot), TaskState.BLOCKED);
+    }
+
+    public boolean wakeupTask(int taskID) {
+        return transition(taskID, TaskState.BLOCKED, TaskState.READY);
     }
 
     public void changePriority(int taskID, int newPriority) {
-        TaskNode task = taskTable.get(taskID);
-        if (task != null) {
-            task.setPriority(newPriority);
+        int slot = taskTable.slotOf(taskID);
+        if (slot >= 0) {
+            taskTable.setPriority(slot, newPriority);
+            if (taskTable.state(slot) == TaskState.READY) {
+                policy.onPriorityChanged(taskTable.viewInto(cursor, slot), clock);
+            }
+            notifyChanged(slot);
+        }
+    }
+
+    private boolean transition(int taskID, TaskState from, TaskState to) {
+        int slot = taskTable.slotOf(taskID);
+        if (slot < 0 || taskTable.state(slot) != from || !from.canTransitionTo(to)) {
+            return false;
+        }
+        moveTo(taskID, slot, to);
+        return true;
+    }
+
+    private void moveTo(int taskID, int slot, TaskState next) {
+        if (taskTable.state(slot) == TaskState.READY) {
+            policy.remove(taskID);
+        }
+        taskTable.setState(slot, next);
+        notifyChanged(slot);
+        if (next == TaskState.TERMINATED) {
+            stateLists.remove(taskID);
+            taskTable.remove(taskID);
+            policy.onTaskExit(taskID);
+            if (sync != null) {
+                sync.taskExited(taskID);
+            }
+            if (banker != null) {
+                banker.taskExited(taskID);
+            }
+            if (mailboxes != null) {
+                mailboxes.taskExited(taskID);
+            }
+            if (cellStore.hasAllocations()) {
+                cellStore.releaseMemory(taskID);
+            }
+            return;
+        }
+        stateLists.add(taskID, next);
+        if (next == TaskState.READY) {
+            policy.enqueue(taskTable.viewInto(cursor, slot), clock);
         }
     }
 
-    public Map<Integer, TaskNode> getTaskTable() {
+    private void notifyChanged(int slot) {
+        TaskListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        TaskNode task = taskTable.viewInto(listenerCursor, slot);
+        for (TaskListener listener : current) {
+            listener.taskChanged(task);
+        }
+    }
+
+    private TaskNode view(TaskNode target, int taskID) {
+        return taskTable.viewInto(target, taskTable.slotOf(taskID));
+    }
+
+    public void addTaskListener(TaskListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public boolean removeTaskListener(TaskListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                TaskListener[] remaining = new TaskListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public TaskNode getTask(int taskID) {
+        return taskTable.get(taskID);
+    }
+
+    public List<TaskNode> getTasks() {
+        return taskTable.views();
+    }
+
+    public TaskStore getTaskStore() {
         return taskTable;
     }
 
-    public Queue<TaskNode> getReadyQueue() {
-        return readyQueue;
+    public long getClock() {
+        return clock;
+    }
+
+    public void setClock(long clock) {
+        this.clock = clock;
+    }
+
+    public int countInState(TaskState state) {
+        if (state == TaskState.NEW) {
+            return (int) pendingAdmissions.sum() + stateLists.count(TaskState.NEW);
+        }
+        return stateLists.count(state);
+    }
+
+    // Walks the tasks in a state without allocating: firstInState, then nextInState
+    // until -1. The order is unspecified.
+    public int firstInState(TaskState state) {
+        return stateLists.first(state);
+    }
+
+    public int nextInState(int taskID) {
+        return stateLists.next(taskID);
+    }
+
+    public List<TaskNode> getTasksInState(TaskState state) {
+        List<TaskNode> tasks = new ArrayList<>(stateLists.count(state));
+        for (int id = stateLists.first(state); id >= 0; id = stateLists.next(id)) {
+            tasks.add(taskTable.get(id));
+        }
+        return tasks;
     }
 
-    public Queue<TaskNode> getBlockedQueue() {
-        return blockedQueue;
+    // Mutexes, semaphores, condition variables and rw locks for the kernel's tasks.
+    public KernelSync getSync() {
+        if (sync == null) {
+            sync = new KernelSync(this);
+        }
+        return sync;
+    }
+
+    // Banker's-algorithm allocation of counted resources to the kernel's tasks.
+    public ResourceBanker getBanker() {
+        if (banker == null) {
+            banker = new ResourceBanker(this);
+        }
+        return banker;
+    }
+
+    // Ring-buffer mailboxes for message passing between the kernel's tasks.
+    public Mailboxes getMailboxes() {
+        if (mailboxes == null) {
+            mailboxes = new Mailboxes(this);
+        }
+        return mailboxes;
     }
 
     public CellStore getCellStore() {
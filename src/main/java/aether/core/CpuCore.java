@@ -0,0 +1,225 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// One simulated CPU. Its run queue is a copy of the kernel's SchedulingPolicy, which
+// decides what the core runs next; alongside it, a shared WaitQueues channel keeps
+// the core's tasks in the order they were queued, so idle cores can steal from the
+// tail. Each core is guarded by its own monitor, so there is no global scheduler
+// lock.
+public class CpuCore {
+    public static final int EMPTY = -1;
+
+    private final int coreID;
+    private final TaskStore tasks;
+    private final SchedulingPolicy queue;
+    private final WaitQueues order;
+    private final TaskNode view = new TaskNode(-1, TaskState.NEW, null, 0, 0, 0);
+
+    // Tasks finished on a worker thread, retired later on the kernel's thread.
+    private int[] finished = new int[64];
+    private int finishedCount;
+
+    private volatile long clock; // read by thieves and the round check on other threads
+    private long busyTime;
+    private long dispatched;
+    private long completed;
+    private long steals;
+    private long migrationsIn;
+    private long migrationsOut;
+    private long totalWaiting;
+    private long totalTurnaround;
+
+    public CpuCore(int coreID, TaskStore tasks, SchedulingPolicy queue, WaitQueues order) {
+        this.coreID = coreID;
+        this.tasks = tasks;
+        this.queue = queue;
+        this.order = order;
+    }
+
+    public synchronized void push(TaskNode task, long now) {
+        queue.enqueue(task, now);
+        order.add(task.getProcessID(), coreID);
+    }
+
+    // The task the core's policy picks next, or EMPTY.
+    public synchronized int pop() {
+        int taskID = queue.pollNext();
+        if (taskID < 0) {
+            return EMPTY;
+        }
+        order.remove(taskID);
+        return taskID;
+    }
+
+    public synchronized int peek() {
+        return queue.peekNext();
+    }
+
+    public synchronized boolean remove(int taskID) {
+        if (!queue.remove(taskID)) {
+            return false;
+        }
+        order.remove(taskID);
+        return true;
+    }
+
+    // Takes the most recently queued task that is not pinned to another core.
+    synchronized int stealTail(int thiefID) {
+        if (queue.size() <= 1) {
+            return EMPTY;
+        }
+        for (int taskID = order.last(coreID); taskID >= 0; taskID = order.previous(taskID)) {
+            int affinity = tasks.affinity(TaskStore.slotIndex(taskID));
+            if (affinity < 0 || affinity == thiefID) {
+                queue.remove(taskID);
+                order.remove(taskID);
+                queue.onTaskExit(taskID); // the task's policy state moves with it
+                migrationsOut++;
+                return taskID;
+            }
+        }
+        return EMPTY;
+    }
+
+    // A stolen task starts afresh in this core's policy.
+    synchronized void adopt(int taskID) {
+        queue.onTaskExit(taskID);
+    }
+
+    synchronized int timeSlice(int taskID) {
+        return queue.timeSlice(tasks.viewInto(view, TaskStore.slotIndex(taskID)));
+    }
+
+    synchronized boolean shouldPreempt(TaskNode running, TaskNode candidate, long now) {
+        return queue.shouldPreempt(running, candidate, now);
+    }
+
+    synchronized void onSliceExpired(TaskNode task) {
+        queue.onSliceExpired(task);
+    }
+
+    synchronized void onPriorityChanged(TaskNode task, long now) {
+        queue.onPriorityChanged(task, now);
+    }
+
+    synchronized void onTaskExit(int taskID) {
+        queue.onTaskExit(taskID);
+    }
+
+    // Re-queues a task whose slice ran out on a worker thread, where the kernel cannot
+    // be called; the kernel still has it Ready.
+    synchronized void requeue(int taskID) {
+        tasks.viewInto(view, TaskStore.slotIndex(taskID));
+        queue.onSliceExpired(view);
+        push(view, clock);
+    }
+
+    // Runs a task for one slice (0 for the rest of its burst) on this core's virtual
+    // clock and returns whether it finished. Slots are disjoint between cores, so the
+    // column writes below never race.
+    boolean execute(int slot, boolean stolen, int slice) {
+        if (stolen) {
+            steals++;
+            migrationsIn++;
+        }
+        int arrival = tasks.arrival(slot);
+        long start = Math.max(clock, arrival);
+        if (tasks.startTime(slot) < 0) {
+            tasks.setStartTime(slot, start);
+        }
+        int remaining = tasks.remaining(slot);
+        int run = slice > 0 && slice < remaining ? slice : remaining;
+        clock = start + run;
+        busyTime += run;
+        dispatched++;
+        tasks.setRemaining(slot, remaining - run);
+        if (run < remaining) {
+            return false;
+        }
+        tasks.setCompletionTime(slot, clock);
+        completed++;
+        long turnaround = clock - arrival;
+        totalTurnaround += turnaround;
+        totalWaiting += turnaround - tasks.burst(slot);
+        return true;
+    }
+
+    // An idle core's clock moves up to the next arrival.
+    void idleUntil(long time) {
+        clock = Math.max(clock, time);
+    }
+
+    void finish(int taskID) {
+        if (finishedCount == finished.length) {
+            finished = Arrays.copyOf(finished, finishedCount * 2);
+        }
+        finished[finishedCount++] = taskID;
+    }
+
+    int finishedCount() {
+        return finishedCount;
+    }
+
+    int finishedAt(int i) {
+        return finished[i];
+    }
+
+    void clearFinished() {
+        finishedCount = 0;
+    }
+
+    public int getCoreID() {
+        return coreID;
+    }
+
+    public synchronized int getLoad() {
+        return queue.size();
+    }
+
+    public long getClock() {
+        return clock;
+    }
+
+    public long getBusyTime() {
+        return busyTime;
+    }
+
+    // Slices run, so a task preempted by its quantum counts once per slice.
+    public long getDispatched() {
+        return dispatched;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getSteals() {
+        return steals;
+    }
+
+    public long getMigrationsIn() {
+        return migrationsIn;
+    }
+
+    public synchronized long getMigrationsOut() {
+        return migrationsOut;
+    }
+
+    long getTotalWaiting() {
+        return totalWaiting;
+    }
+
+    long getTotalTurnaround() {
+        return totalTurnaround;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CPU%-3d dispatched=%d completed=%d busy=%d clock=%d steals=%d migratedIn=%d migratedOut=%d load=%d",
+                coreID, dispatched, completed, busyTime, clock, steals, migrationsIn, getMigrationsOut(), getLoad());
+    }
+}
@@ -0,0 +1,43 @@
+package aether.core;
+
+import aether.model.process.TaskNode;
+
+public class FcfsPolicy implements SchedulingPolicy {
+    protected final TaskHeap queue = new TaskHeap();
+    private long sequence;
+
+    @Override
+    public String getName() {
+        return "FCFS";
+    }
+
+    @Override
+    public SchedulingPolicy copy() {
+        return new FcfsPolicy();
+    }
+
+    @Override
+    public void enqueue(TaskNode task, long now) {
+        queue.add(task.getProcessID(), sequence++);
+    }
+
+    @Override
+    public int peekNext() {
+        return queue.peek();
+    }
+
+    @Override
+    public int pollNext() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean remove(int taskID) {
+        return queue.remove(taskID);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
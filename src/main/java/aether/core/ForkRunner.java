@@ -0,0 +1,132 @@
+package aether.core;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import aether.model.memory.CellStore;
+
+// A forking server: a parent touches all of its pages, then forks children that each
+// write to a fraction of them. Compares AetherKernel.fork, which shares frames
+// copy-on-write, with an eager fork that copies the whole address space, on frames
+// in use, bytes copied and time per fork.
+public class ForkRunner {
+    private static final int PAGE_SIZE = 4096;
+
+    public static class Result {
+        private final boolean eager;
+        private final double writeFraction;
+        private final int usedFrames;
+        private final long copiedBytes;
+        private final long savedBytes;
+        private final long cowFaults;
+        private final double forkMicros;
+
+        Result(boolean eager, double writeFraction, int usedFrames, long copiedBytes, long savedBytes,
+                long cowFaults, double forkMicros) {
+            this.eager = eager;
+            this.writeFraction = writeFraction;
+            this.usedFrames = usedFrames;
+            this.copiedBytes = copiedBytes;
+            this.savedBytes = savedBytes;
+            this.cowFaults = cowFaults;
+            this.forkMicros = forkMicros;
+        }
+
+        public boolean isEager() {
+            return eager;
+        }
+
+        public double getWriteFraction() {
+            return writeFraction;
+        }
+
+        public int getUsedFrames() {
+            return usedFrames;
+        }
+
+        public long getCopiedBytes() {
+            return copiedBytes;
+        }
+
+        public long getSavedBytes() {
+            return savedBytes;
+        }
+
+        public long getCowFaults() {
+            return cowFaults;
+        }
+
+        public double getForkMicros() {
+            return forkMicros;
+        }
+    }
+
+    public static Result run(int pages, int children, double writeFraction, boolean eager) {
+        CellStore memory = new CellStore(PAGE_SIZE, (children + 1) * pages * PAGE_SIZE);
+        AetherKernel kernel = new AetherKernel(memory);
+        int parent = kernel.spawnTask(1000, 0, 0, "Server");
+        kernel.admitTask(parent);
+        long bytes = (long) pages * PAGE_SIZE;
+        if (!memory.allocateMemoryToProcess(parent, bytes)) {
+            throw new IllegalStateException("No room for the parent's " + pages + " pages");
+        }
+        ByteBuffer word = ByteBuffer.allocateDirect(Long.BYTES);
+        for (int page = 0; page < pages; page++) {
+            store(memory, parent, (long) page * PAGE_SIZE, page, word);
+        }
+
+        SplittableRandom random = new SplittableRandom(7);
+        long copied = 0;
+        long forkNanos = 0;
+        for (int i = 0; i < children; i++) {
+            long start = System.nanoTime();
+            int child;
+            if (eager) {
+                child = kernel.spawnTask(1000, 0, 0, "Server");
+                kernel.admitTask(child);
+                if (!memory.allocateMemoryToProcess(child, bytes)) {
+                    throw new IllegalStateException("No room for child " + i);
+                }
+                copied += memory.copy(parent, 0, child, 0, bytes);
+            } else {
+                child = kernel.fork(parent);
+                if (child < 0) {
+                    throw new IllegalStateException("Fork " + i + " failed");
+                }
+            }
+            forkNanos += System.nanoTime() - start;
+            for (int page = 0; page < pages; page++) {
+                if (random.nextDouble() < writeFraction) {
+                    store(memory, child, (long) page * PAGE_SIZE + 8, i, word);
+                }
+            }
+        }
+        return new Result(eager, writeFraction, memory.getUsedFrames(), copied + memory.getCowBytes(),
+                memory.getSavedBytes(), memory.getCowFaults(), forkNanos / 1e3 / children);
+    }
+
+    private static void store(CellStore memory, int nodeID, long address, long value, ByteBuffer word) {
+        word.clear();
+        word.putLong(0, value);
+        if (memory.write(nodeID, address, word) != Long.BYTES) {
+            throw new IllegalStateException("Write to node " + nodeID + " at " + address + " failed");
+        }
+    }
+
+    // Usage: ForkRunner [pages] [children]
+    public static void main(String[] args) {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int children = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        System.out.printf("Parent of %d pages (%d KB), %d children%n", pages, pages * PAGE_SIZE / 1024, children);
+        System.out.printf("%n%7s %8s %8s %12s %12s %10s %10s%n", "Fork", "Writes", "Frames", "Copied KB", "Saved KB",
+                "COW faults", "us/fork");
+        for (double writeFraction : new double[] { 0, 0.01, 0.1, 0.5, 1 }) {
+            for (boolean eager : new boolean[] { true, false }) {
+                Result r = run(pages, children, writeFraction, eager);
+                System.out.printf("%7s %7.0f%% %8d %12d %12d %10d %10.1f%n", r.isEager() ? "eager" : "cow",
+                        r.getWriteFraction() * 100, r.getUsedFrames(), r.getCopiedBytes() / 1024,
+                        r.getSavedBytes() / 1024, r.getCowFaults(), r.getForkMicros());
+            }
+        }
+    }
+}
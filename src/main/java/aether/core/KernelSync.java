@@ -0,0 +1,393 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// Kernel synchronization objects for simulated tasks: mutexes, counting semaphores,
+// condition variables and reader-writer locks. A task that has to wait is blocked with
+// AetherKernel.blockTask and queued FIFO on the object; whoever frees the object hands
+// it straight to the next waiter and wakes it with wakeupTask, so a woken task already
+// holds what it waited for. Mutexes and reader-writer locks have owners and are
+// tracked in a WaitForGraph: a wait that would close a cycle returns DEADLOCK and the
+// task does not block. Semaphores and condition variables have no owner (any task may
+// post or signal), so they stay out of the graph; ResourceBanker covers counted
+// resources instead. Scheduler thread only, like the rest of the kernel.
+public class KernelSync {
+    public static final int ACQUIRED = 0;
+    public static final int BLOCKED = 1;
+    public static final int DEADLOCK = 2;
+    public static final int INVALID = -1;
+
+    public static final byte MUTEX = 1;
+    public static final byte SEMAPHORE = 2;
+    public static final byte CONDITION = 3;
+    public static final byte RW_LOCK = 4;
+
+    private static final int NONE = -1;
+    private static final byte READ = 1;
+    private static final byte WRITE = 2;
+
+    private final AetherKernel kernel;
+    private final TaskStore tasks;
+    private final WaitForGraph graph = new WaitForGraph();
+    private final WaitQueues waiters = new WaitQueues();
+
+    // Per object: type (0 when free), semaphore permits or reader count (-1 while a
+    // writer holds a rw lock), and the owning task of a mutex or write-held rw lock.
+    private byte[] type = new byte[16];
+    private int[] count = new int[16];
+    private int[] owner = new int[16];
+    private int[] freeIDs = new int[16];
+    private int freeCount;
+    private int nextID;
+
+    // Per waiting task: whether it wants to read or write, and the mutex a condition
+    // waiter gets back.
+    private byte[] waitMode = new byte[16];
+    private int[] condMutex = new int[16];
+
+    private long acquisitions;
+    private long contended;
+    private long handoffs;
+    private long deadlocks;
+
+    public KernelSync(AetherKernel kernel) {
+        this.kernel = kernel;
+        this.tasks = kernel.getTaskStore();
+    }
+
+    public int createMutex() {
+        return create(MUTEX, 0);
+    }
+
+    public int createSemaphore(int permits) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Permits must be non-negative: " + permits);
+        }
+        return create(SEMAPHORE, permits);
+    }
+
+    public int createCondition() {
+        return create(CONDITION, 0);
+    }
+
+    public int createRwLock() {
+        return create(RW_LOCK, 0);
+    }
+
+    // Only an object nobody holds or waits on can be destroyed.
+    public boolean destroy(int objectID) {
+        if (typeOf(objectID) == 0 || waiters.count(objectID) > 0 || owner[objectID] != NONE
+                || (type[objectID] == RW_LOCK && count[objectID] != 0)) {
+            return false;
+        }
+        type[objectID] = 0;
+        if (freeCount == freeIDs.length) {
+            freeIDs = Arrays.copyOf(freeIDs, freeCount * 2);
+        }
+        freeIDs[freeCount++] = objectID;
+        return true;
+    }
+
+    public int lock(int taskID, int mutexID) {
+        if (typeOf(mutexID) != MUTEX || !canRun(taskID)) {
+            return INVALID;
+        }
+        if (owner[mutexID] == NONE) {
+            grant(mutexID, taskID, WRITE);
+            return ACQUIRED;
+        }
+        return waitOwned(taskID, mutexID, WRITE);
+    }
+
+    public boolean unlock(int taskID, int mutexID) {
+        if (typeOf(mutexID) != MUTEX || owner[mutexID] != taskID) {
+            return false;
+        }
+        graph.removeHold(mutexID, taskID);
+        owner[mutexID] = NONE;
+        int next = waiters.poll(mutexID);
+        if (next >= 0) {
+            graph.removeWait(next, mutexID);
+            handOver(mutexID, next, WRITE);
+        }
+        return true;
+    }
+
+    public int down(int taskID, int semaphoreID) {
+        if (typeOf(semaphoreID) != SEMAPHORE || !canRun(taskID)) {
+            return INVALID;
+        }
+        if (count[semaphoreID] > 0) {
+            count[semaphoreID]--;
+            acquisitions++;
+            return ACQUIRED;
+        }
+        kernel.blockTask(taskID);
+        waiters.add(taskID, semaphoreID);
+        contended++;
+        return BLOCKED;
+    }
+
+    // The permit goes straight to the longest waiter if there is one.
+    public boolean up(int semaphoreID) {
+        if (typeOf(semaphoreID) != SEMAPHORE) {
+            return false;
+        }
+        int next = waiters.poll(semaphoreID);
+        if (next >= 0) {
+            handoffs++;
+            acquisitions++;
+            kernel.wakeupTask(next);
+        } else {
+            count[semaphoreID]++;
+        }
+        return true;
+    }
+
+    // Releases the mutex, which the task must own, and blocks until signalled. The
+    // task wakes up owning the mutex again.
+    public int await(int taskID, int conditionID, int mutexID) {
+        if (typeOf(conditionID) != CONDITION || typeOf(mutexID) != MUTEX || owner[mutexID] != taskID
+                || !canRun(taskID)) {
+            return INVALID;
+        }
+        kernel.blockTask(taskID);
+        condMutex[ensureTask(taskID)] = mutexID;
+        waiters.add(taskID, conditionID);
+        contended++;
+        unlock(taskID, mutexID);
+        return BLOCKED;
+    }
+
+    // Moves the longest waiter over to its mutex: it wakes at once if the mutex is
+    // free and otherwise queues for it. A waiter whose wait for the mutex would
+    // deadlock is woken without it and counted in getDeadlocks. Returns the waiter,
+    // or -1 if there was none.
+    public int signal(int conditionID) {
+        if (typeOf(conditionID) != CONDITION) {
+            return NONE;
+        }
+        int waiter = waiters.poll(conditionID);
+        if (waiter < 0) {
+            return NONE;
+        }
+        int mutexID = condMutex[TaskStore.slotIndex(waiter)];
+        if (owner[mutexID] == NONE) {
+            handOver(mutexID, waiter, WRITE);
+        } else if (graph.addWait(waiter, mutexID)) {
+            waiters.add(waiter, mutexID);
+            waitMode[TaskStore.slotIndex(waiter)] = WRITE;
+        } else {
+            deadlocks++;
+            kernel.wakeupTask(waiter);
+        }
+        return waiter;
+    }
+
+    public int broadcast(int conditionID) {
+        int signalled = 0;
+        while (signal(conditionID) >= 0) {
+            signalled++;
+        }
+        return signalled;
+    }
+
+    // Readers share the lock, but queue behind any waiting writer so writers are not
+    // starved.
+    public int readLock(int taskID, int lockID) {
+        if (typeOf(lockID) != RW_LOCK || !canRun(taskID)) {
+            return INVALID;
+        }
+        if (count[lockID] >= 0 && waiters.count(lockID) == 0) {
+            grant(lockID, taskID, READ);
+            return ACQUIRED;
+        }
+        return waitOwned(taskID, lockID, READ);
+    }
+
+    public int writeLock(int taskID, int lockID) {
+        if (typeOf(lockID) != RW_LOCK || !canRun(taskID)) {
+            return INVALID;
+        }
+        if (count[lockID] == 0 && waiters.count(lockID) == 0) {
+            grant(lockID, taskID, WRITE);
+            return ACQUIRED;
+        }
+        return waitOwned(taskID, lockID, WRITE);
+    }
+
+    // Drops one read hold or the write hold of the task.
+    public boolean rwUnlock(int taskID, int lockID) {
+        if (typeOf(lockID) != RW_LOCK) {
+            return false;
+        }
+        if (count[lockID] < 0) {
+            if (owner[lockID] != taskID) {
+                return false;
+            }
+            owner[lockID] = NONE;
+            count[lockID] = 0;
+            graph.removeHold(lockID, taskID);
+        } else if (count[lockID] > 0 && graph.removeHold(lockID, taskID)) {
+            count[lockID]--;
+        } else {
+            return false;
+        }
+        admitWaiters(lockID);
+        return true;
+    }
+
+    // Called by the kernel as a task terminates: it leaves any wait queue and gives
+    // up every mutex and rw lock it holds, waking their next waiters.
+    public void taskExited(int taskID) {
+        int waitingOn = waiters.channelOf(taskID);
+        if (waitingOn >= 0) {
+            waiters.remove(taskID);
+            graph.removeWait(taskID, waitingOn);
+            if (type[waitingOn] == RW_LOCK) {
+                admitWaiters(waitingOn); // readers queued behind a departed writer
+            }
+        }
+        int held;
+        while ((held = graph.firstHeld(taskID)) >= 0) {
+            if (type[held] == MUTEX) {
+                unlock(taskID, held);
+            } else {
+                rwUnlock(taskID, held);
+            }
+        }
+    }
+
+    // Hands a free rw lock to the writer at the head of its queue, or to every reader
+    // up to the next writer.
+    private void admitWaiters(int lockID) {
+        int next;
+        while ((next = waiters.first(lockID)) >= 0) {
+            if (waitMode[TaskStore.slotIndex(next)] == WRITE ? count[lockID] != 0 : count[lockID] < 0) {
+                return;
+            }
+            waiters.remove(next);
+            graph.removeWait(next, lockID);
+            handOver(lockID, next, waitMode[TaskStore.slotIndex(next)]);
+        }
+    }
+
+    // Queues the task on an owned object unless that would close a cycle.
+    private int waitOwned(int taskID, int objectID, byte mode) {
+        if (!graph.addWait(taskID, objectID)) {
+            deadlocks++;
+            return DEADLOCK;
+        }
+        kernel.blockTask(taskID);
+        waitMode[ensureTask(taskID)] = mode;
+        waiters.add(taskID, objectID);
+        contended++;
+        return BLOCKED;
+    }
+
+    private void handOver(int objectID, int taskID, byte mode) {
+        grant(objectID, taskID, mode);
+        handoffs++;
+        kernel.wakeupTask(taskID);
+    }
+
+    // The task waits on nothing when it is granted, so its hold edge cannot close a cycle.
+    private void grant(int objectID, int taskID, byte mode) {
+        if (type[objectID] == MUTEX) {
+            owner[objectID] = taskID;
+        } else if (mode == WRITE) {
+            owner[objectID] = taskID;
+            count[objectID] = -1;
+        } else {
+            count[objectID]++;
+        }
+        graph.addHold(objectID, taskID);
+        acquisitions++;
+    }
+
+    private boolean canRun(int taskID) {
+        int slot = tasks.slotOf(taskID);
+        if (slot < 0) {
+            return false;
+        }
+        TaskState state = tasks.state(slot);
+        return state == TaskState.READY || state == TaskState.RUNNING;
+    }
+
+    private int create(byte objectType, int initialCount) {
+        int objectID;
+        if (freeCount > 0) {
+            objectID = freeIDs[--freeCount];
+        } else {
+            objectID = nextID++;
+            if (objectID == type.length) {
+                int capacity = type.length * 2;
+                type = Arrays.copyOf(type, capacity);
+                count = Arrays.copyOf(count, capacity);
+                owner = Arrays.copyOf(owner, capacity);
+            }
+        }
+        type[objectID] = objectType;
+        count[objectID] = initialCount;
+        owner[objectID] = NONE;
+        return objectID;
+    }
+
+    private byte typeOf(int objectID) {
+        return objectID >= 0 && objectID < nextID ? type[objectID] : 0;
+    }
+
+    // Per-task wait state is indexed by store slot.
+    private int ensureTask(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= waitMode.length) {
+            int capacity = Math.max(slot + 1, waitMode.length * 2);
+            waitMode = Arrays.copyOf(waitMode, capacity);
+            condMutex = Arrays.copyOf(condMutex, capacity);
+        }
+        return slot;
+    }
+
+    // MUTEX, SEMAPHORE, CONDITION or RW_LOCK, or 0 for no object.
+    public byte getType(int objectID) {
+        return typeOf(objectID);
+    }
+
+    // The mutex owner or rw lock writer, or -1.
+    public int getOwner(int objectID) {
+        return typeOf(objectID) != 0 ? owner[objectID] : NONE;
+    }
+
+    // Free permits of a semaphore, or readers (-1 for a writer) of a rw lock.
+    public int getCount(int objectID) {
+        return typeOf(objectID) != 0 ? count[objectID] : 0;
+    }
+
+    public int getWaiting(int objectID) {
+        return waiters.count(objectID);
+    }
+
+    public WaitForGraph getGraph() {
+        return graph;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    // Requests that had to block.
+    public long getContended() {
+        return contended;
+    }
+
+    // Grants made directly to a woken waiter.
+    public long getHandoffs() {
+        return handoffs;
+    }
+
+    public long getDeadlocks() {
+        return deadlocks;
+    }
+}
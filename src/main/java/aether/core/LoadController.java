@@ -0,0 +1,169 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.memory.WorkingSetTracker;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// Thrashing control for a SimulationEngine with paging. While the global fault rate
+// is above suspendAbove, the least important runnable task (highest priority value,
+// then largest working set) is suspended through AetherKernel.suspendTask so the rest
+// fit in memory. Once the rate is below resumeBelow and a suspended task's last
+// working set fits next to the active ones, the most important suspended task is
+// resumed. Each decision is followed by one global window of references so the rate
+// can reflect the new mix, and an evaluation that changes nothing waits a sixteenth
+// of one. A suspended task is also resumed when nothing else is left to run or to
+// wait for.
+public class LoadController {
+    private final SimulationEngine engine;
+    private final AetherKernel kernel;
+    private final TaskStore tasks;
+    private final WorkingSetTracker tracker;
+    private final int frames;
+    private final double suspendAbove;
+    private final double resumeBelow;
+
+    // Suspended tasks and their working sets when suspended; a suspended task makes
+    // no references, so its working set cannot change until it is resumed.
+    private int[] suspended = new int[16];
+    private long[] suspendedSets = new long[16];
+    private int suspendedCount;
+    private long suspendedWorkingSet;
+    private long nextDecision;
+
+    private long suspensions;
+    private long resumptions;
+
+    public LoadController(SimulationEngine engine, WorkingSetTracker tracker, int frames, double suspendAbove,
+            double resumeBelow) {
+        if (resumeBelow > suspendAbove) {
+            throw new IllegalArgumentException("Resume threshold " + resumeBelow + " is above the suspend threshold "
+                    + suspendAbove);
+        }
+        this.engine = engine;
+        this.kernel = engine.getKernel();
+        this.tasks = kernel.getTaskStore();
+        this.tracker = tracker;
+        this.frames = frames;
+        this.suspendAbove = suspendAbove;
+        this.resumeBelow = resumeBelow;
+    }
+
+    // Called by the engine after every event.
+    public void update() {
+        if (tracker.getReferences() < nextDecision) {
+            return;
+        }
+        double rate = tracker.getGlobalFaultRate();
+        boolean acted = false;
+        if (rate > suspendAbove) {
+            acted = suspendOne();
+        } else if (rate < resumeBelow && suspendedCount > 0) {
+            int candidate = mostImportantSuspended();
+            long active = tracker.getTotalWorkingSet() - suspendedWorkingSet;
+            if (candidate >= 0 && active + suspendedSets[candidate] <= frames) {
+                resume(candidate);
+                acted = true;
+            }
+        }
+        long window = tracker.getGlobalWindow();
+        nextDecision = tracker.getReferences() + (acted ? window : Math.max(1, window / 16));
+    }
+
+    // Called by the engine when the CPU is about to idle: unless some task will wake
+    // up, resumes the most important suspended one. Returns whether it did.
+    public boolean resumeIfStalled() {
+        if (suspendedCount == 0 || kernel.countInState(TaskState.BLOCKED) > 0
+                || kernel.countInState(TaskState.READY) > 0) {
+            return false;
+        }
+        int candidate = mostImportantSuspended();
+        if (candidate < 0) {
+            return false;
+        }
+        resume(candidate);
+        return true;
+    }
+
+    private boolean suspendOne() {
+        int runnable = kernel.countInState(TaskState.READY) + kernel.countInState(TaskState.RUNNING);
+        if (runnable + kernel.countInState(TaskState.BLOCKED) < 2) {
+            return false; // never suspend the last task
+        }
+        int victim = -1;
+        victim = lessImportant(victim, engine.getRunningTaskID());
+        for (int id = kernel.firstInState(TaskState.READY); id >= 0; id = kernel.nextInState(id)) {
+            victim = lessImportant(victim, id);
+        }
+        if (victim < 0 || !engine.suspend(victim)) {
+            return false;
+        }
+        if (suspendedCount == suspended.length) {
+            suspended = Arrays.copyOf(suspended, suspendedCount * 2);
+            suspendedSets = Arrays.copyOf(suspendedSets, suspendedCount * 2);
+        }
+        long workingSet = tracker.getWorkingSetSize(victim);
+        suspended[suspendedCount] = victim;
+        suspendedSets[suspendedCount++] = workingSet;
+        suspendedWorkingSet += workingSet;
+        suspensions++;
+        return true;
+    }
+
+    // Of two task IDs (-1 for none), the one to suspend first.
+    private int lessImportant(int current, int candidate) {
+        if (candidate < 0 || !tasks.contains(candidate)) {
+            return current;
+        }
+        if (current < 0) {
+            return candidate;
+        }
+        int a = tasks.priority(tasks.slotOf(current));
+        int b = tasks.priority(tasks.slotOf(candidate));
+        if (a != b) {
+            return b > a ? candidate : current;
+        }
+        return tracker.getWorkingSetSize(candidate) > tracker.getWorkingSetSize(current) ? candidate : current;
+    }
+
+    // The index of the suspended task to resume first, or -1. Tasks killed while
+    // suspended are dropped on the way.
+    private int mostImportantSuspended() {
+        int best = -1;
+        for (int i = 0; i < suspendedCount; i++) {
+            if (!tasks.contains(suspended[i])) {
+                drop(i--);
+            } else if (best < 0 || lessImportant(suspended[best], suspended[i]) == suspended[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private void resume(int index) {
+        int taskID = suspended[index];
+        drop(index);
+        if (engine.resume(taskID)) {
+            resumptions++;
+        }
+    }
+
+    private void drop(int index) {
+        suspendedWorkingSet -= suspendedSets[index];
+        suspendedCount--;
+        suspended[index] = suspended[suspendedCount];
+        suspendedSets[index] = suspendedSets[suspendedCount];
+    }
+
+    public int getSuspendedCount() {
+        return suspendedCount;
+    }
+
+    public long getSuspensions() {
+        return suspensions;
+    }
+
+    public long getResumptions() {
+        return resumptions;
+    }
+}
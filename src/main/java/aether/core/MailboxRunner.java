@@ -0,0 +1,197 @@
+package aether.core;
+
+import java.lang.management.ManagementFactory;
+import aether.model.memory.CellStore;
+import aether.model.process.TaskState;
+
+// Message-passing throughput. Rings: real producer threads against one consumer
+// thread through an SpscRing or MpscRing, one message per call and in batches.
+// Pipeline: three kernel tasks, producer -> filter -> consumer, exchanging messages
+// through Mailboxes on the scheduler thread, each step skipped while its task is
+// blocked on a full or empty mailbox. Both report messages per second and the bytes
+// allocated per message, which should be zero.
+public class MailboxRunner {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static class Result {
+        private final double messagesPerSecond;
+        private final double bytesPerMessage;
+
+        Result(double messagesPerSecond, double bytesPerMessage) {
+            this.messagesPerSecond = messagesPerSecond;
+            this.bytesPerMessage = bytesPerMessage;
+        }
+
+        public double getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        public double getBytesPerMessage() {
+            return bytesPerMessage;
+        }
+    }
+
+    public static Result runRing(boolean multiProducer, int producers, long messages, int capacity, int batch)
+            throws InterruptedException {
+        MessageRing ring = multiProducer ? new MpscRing(capacity) : new SpscRing(capacity);
+        long perProducer = messages / producers;
+        Thread[] threads = new Thread[producers];
+        long[] allocated = new long[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                long before = THREADS.getCurrentThreadAllocatedBytes();
+                long[] out = new long[batch];
+                long next = 0;
+                while (next < perProducer) {
+                    int length = (int) Math.min(batch, perProducer - next);
+                    for (int i = 0; i < length; i++) {
+                        out[i] = next + i;
+                    }
+                    int offset = 0;
+                    while (offset < length) {
+                        int sent = batch == 1 ? (ring.offer(out[0]) ? 1 : 0) : ring.offer(out, offset, length - offset);
+                        if (sent == 0) {
+                            Thread.yield();
+                        }
+                        offset += sent;
+                    }
+                    next += length;
+                }
+                allocated[producer] = THREADS.getCurrentThreadAllocatedBytes() - before;
+            }, "aether-producer-" + p);
+        }
+
+        long total = perProducer * producers;
+        long[] in = new long[Math.max(batch, 64)];
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long received = 0;
+        long checksum = 0;
+        while (received < total) {
+            int count = ring.drain(in, 0, batch);
+            if (count == 0) {
+                Thread.yield();
+            }
+            for (int i = 0; i < count; i++) {
+                checksum += in[i];
+            }
+            received += count;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - before;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long producerBytes : allocated) {
+            bytes += producerBytes;
+        }
+        if (checksum != producers * (perProducer * (perProducer - 1) / 2)) {
+            throw new IllegalStateException("Messages were lost or duplicated");
+        }
+        return new Result(total / seconds, (double) bytes / total);
+    }
+
+    public static Result runPipeline(long messages, int capacity, int batch, boolean print) {
+        AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+        Mailboxes mailboxes = kernel.getMailboxes();
+        int producer = spawn(kernel, "Producer");
+        int filter = spawn(kernel, "Filter");
+        int consumer = spawn(kernel, "Consumer");
+        mailboxes.open(filter, capacity, false);
+        mailboxes.open(consumer, capacity, false);
+
+        long[] out = new long[batch];
+        long[] relay = new long[batch];
+        long[] in = new long[batch];
+        long produced = 0;
+        int relayed = 0; // messages the filter holds
+        int relayOffset = 0; // of which already forwarded
+        long consumed = 0;
+        long checksum = 0;
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        while (consumed < messages) {
+            if (produced < messages && isReady(kernel, producer)) {
+                int length = (int) Math.min(batch, messages - produced);
+                for (int i = 0; i < length; i++) {
+                    out[i] = produced + i;
+                }
+                produced += mailboxes.send(producer, filter, out, 0, length);
+            }
+            if (isReady(kernel, filter)) {
+                if (relayOffset == relayed) {
+                    relayed = Math.max(0, mailboxes.receive(filter, relay, 0, batch));
+                    relayOffset = 0;
+                    for (int i = 0; i < relayed; i++) {
+                        relay[i] <<= 1; // the filter's work
+                    }
+                } else {
+                    relayOffset += mailboxes.send(filter, consumer, relay, relayOffset, relayed - relayOffset);
+                }
+            }
+            if (isReady(kernel, consumer)) {
+                int count = Math.max(0, mailboxes.receive(consumer, in, 0, batch));
+                for (int i = 0; i < count; i++) {
+                    checksum += in[i];
+                }
+                consumed += count;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - before;
+        if (checksum != messages * (messages - 1)) {
+            throw new IllegalStateException("Pipeline lost or duplicated messages");
+        }
+        if (print) {
+            for (int taskID : new int[] { filter, consumer }) {
+                System.out.printf("  %-8s mailbox: %.1f M msg/s, depth %d, max depth %d of %d, %d full and %d "
+                        + "empty waits%n", kernel.getTask(taskID).getOwner(),
+                        mailboxes.getThroughput(taskID) / 1e6, mailboxes.getDepth(taskID),
+                        mailboxes.getMaxDepth(taskID), mailboxes.getCapacity(taskID),
+                        mailboxes.getFullWaits(taskID), mailboxes.getEmptyWaits(taskID));
+            }
+        }
+        return new Result(messages / seconds, (double) bytes / messages);
+    }
+
+    private static int spawn(AetherKernel kernel, String owner) {
+        int taskID = kernel.spawnTask(1000, 0, 0, owner);
+        kernel.admitTask(taskID);
+        return taskID;
+    }
+
+    private static boolean isReady(AetherKernel kernel, int taskID) {
+        return kernel.getTaskStore().state(kernel.getTaskStore().slotOf(taskID)) != TaskState.BLOCKED;
+    }
+
+    // Usage: MailboxRunner [messages] [capacity] [producers]
+    public static void main(String[] args) throws InterruptedException {
+        long messages = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+        int producers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        System.out.printf("%d messages, %d-slot rings, %d CPUs%n", messages, capacity,
+                Runtime.getRuntime().availableProcessors());
+        runRing(false, 1, messages / 10, capacity, 64); // warm-up
+        runPipeline(messages / 10, capacity, 64, false);
+        System.out.printf("%n%-24s %7s %12s %10s%n", "Path", "Batch", "M msg/s", "B/msg");
+        for (int batch : new int[] { 1, 64 }) {
+            Result r = runRing(false, 1, messages, capacity, batch);
+            System.out.printf("%-24s %7d %12.1f %10.3f%n", "SPSC ring, 1 producer", batch,
+                    r.getMessagesPerSecond() / 1e6, r.getBytesPerMessage());
+            r = runRing(true, producers, messages, capacity, batch);
+            System.out.printf("%-24s %7d %12.1f %10.3f%n", "MPSC ring, " + producers + " producers", batch,
+                    r.getMessagesPerSecond() / 1e6, r.getBytesPerMessage());
+        }
+        for (int batch : new int[] { 1, 64 }) {
+            Result r = runPipeline(messages, capacity, batch, batch == 64);
+            System.out.printf("%-24s %7d %12.1f %10.3f%n", "Kernel pipeline, 3 tasks", batch,
+                    r.getMessagesPerSecond() / 1e6, r.getBytesPerMessage());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// Message passing between the kernel's tasks. A task may open one mailbox: a bounded
+// MessageRing of long messages, preallocated when it opens, that is either
+// single-producer (the first task to send becomes its only sender) or
+// multi-producer. Sends and receives are scheduler-thread calls like the rest of the
+// kernel, and they allocate nothing. A call that can move nothing blocks the task:
+// a sender facing a full mailbox until the receiver takes something, the receiver of
+// an empty one until a message arrives. The woken task then repeats its call. Each
+// mailbox counts its traffic, so its throughput and queue depth can be read.
+public class Mailboxes {
+    public static final int INVALID = -1;
+
+    private static final int NONE = -1;
+
+    private final AetherKernel kernel;
+    private final TaskStore tasks;
+    private final WaitQueues senders = new WaitQueues(); // channel: receiving task's slot
+    private final long[] one = new long[1];
+
+    // Per receiving task, indexed by its store slot; receiver holds the task's ID so an
+    // ID kept past its task's exit cannot reach the next task in the slot.
+    private MessageRing[] boxes = new MessageRing[16];
+    private int[] receiver = new int[16];
+    private int[] soleSender = new int[16]; // single-producer: the bound sender, or -1
+    private boolean[] receiverWaiting = new boolean[16];
+    private long[] sent = new long[16];
+    private long[] received = new long[16];
+    private int[] maxDepth = new int[16];
+    private long[] openedAt = new long[16];
+    private long[] fullWaits = new long[16];
+    private long[] emptyWaits = new long[16];
+
+    public Mailboxes(AetherKernel kernel) {
+        this.kernel = kernel;
+        this.tasks = kernel.getTaskStore();
+    }
+
+    // Gives the task a mailbox of at least capacity slots. False if it already has
+    // one or does not exist.
+    public boolean open(int taskID, int capacity, boolean multiProducer) {
+        if (tasks.slotOf(taskID) < 0 || capacity <= 0 || boxOf(taskID) != null) {
+            return false;
+        }
+        int slot = ensureTask(taskID);
+        boxes[slot] = multiProducer ? new MpscRing(capacity) : new SpscRing(capacity);
+        receiver[slot] = taskID;
+        soleSender[slot] = NONE;
+        receiverWaiting[slot] = false;
+        sent[slot] = 0;
+        received[slot] = 0;
+        maxDepth[slot] = 0;
+        fullWaits[slot] = 0;
+        emptyWaits[slot] = 0;
+        openedAt[slot] = System.nanoTime();
+        return true;
+    }
+
+    // Drops the mailbox and its messages. Blocked senders, and the owner if it was
+    // waiting to receive, are woken and find it gone.
+    public boolean close(int taskID) {
+        if (boxOf(taskID) == null) {
+            return false;
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        boxes[slot] = null;
+        if (receiverWaiting[slot]) {
+            receiverWaiting[slot] = false;
+            kernel.wakeupTask(taskID);
+        }
+        int sender;
+        while ((sender = senders.poll(slot)) >= 0) {
+            kernel.wakeupTask(sender);
+        }
+        return true;
+    }
+
+    // 1 if sent, 0 if the mailbox was full and the sender is now blocked.
+    public int send(int senderID, int receiverID, long message) {
+        one[0] = message;
+        return send(senderID, receiverID, one, 0, 1);
+    }
+
+    // Sends as many of the messages as fit and returns how many; 0 means none fit and
+    // the sender is now blocked.
+    public int send(int senderID, int receiverID, long[] messages, int offset, int length) {
+        MessageRing box = boxOf(receiverID);
+        if (box == null || length <= 0 || !canRun(senderID) || !bindSender(box, senderID, receiverID)) {
+            return INVALID;
+        }
+        int slot = TaskStore.slotIndex(receiverID);
+        int count = box.offer(messages, offset, length);
+        if (count == 0) {
+            kernel.blockTask(senderID);
+            senders.add(senderID, slot);
+            fullWaits[slot]++;
+            return 0;
+        }
+        sent[slot] += count;
+        maxDepth[slot] = Math.max(maxDepth[slot], box.size());
+        if (receiverWaiting[slot]) {
+            receiverWaiting[slot] = false;
+            kernel.wakeupTask(receiverID);
+        }
+        return count;
+    }
+
+    // Copies up to max waiting messages into the array and returns how many; 0 means
+    // the mailbox was empty and the receiver is now blocked.
+    public int receive(int receiverID, long[] into, int offset, int max) {
+        MessageRing box = boxOf(receiverID);
+        if (box == null || max <= 0 || !canRun(receiverID)) {
+            return INVALID;
+        }
+        int slot = TaskStore.slotIndex(receiverID);
+        int count = box.drain(into, offset, max);
+        if (count == 0) {
+            kernel.blockTask(receiverID);
+            receiverWaiting[slot] = true;
+            emptyWaits[slot]++;
+            return 0;
+        }
+        received[slot] += count;
+        // Every freed ring slot lets one blocked sender try again.
+        int sender;
+        for (int i = 0; i < count && (sender = senders.poll(slot)) >= 0; i++) {
+            kernel.wakeupTask(sender);
+        }
+        return count;
+    }
+
+    // Called by the kernel as a task terminates.
+    public void taskExited(int taskID) {
+        senders.remove(taskID);
+        if (boxOf(taskID) != null) {
+            close(taskID);
+        }
+    }
+
+    private boolean bindSender(MessageRing box, int senderID, int receiverID) {
+        if (box instanceof MpscRing) {
+            return true;
+        }
+        // Rebinds once the previous sender has terminated.
+        int slot = TaskStore.slotIndex(receiverID);
+        if (soleSender[slot] == NONE || tasks.slotOf(soleSender[slot]) < 0) {
+            soleSender[slot] = senderID;
+        }
+        return soleSender[slot] == senderID;
+    }
+
+    // The task's own mailbox; still found while the kernel reports the task's exit.
+    private MessageRing boxOf(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        return taskID >= 0 && slot < boxes.length && receiver[slot] == taskID ? boxes[slot] : null;
+    }
+
+    private boolean canRun(int taskID) {
+        int slot = tasks.slotOf(taskID);
+        if (slot < 0) {
+            return false;
+        }
+        TaskState state = tasks.state(slot);
+        return state == TaskState.READY || state == TaskState.RUNNING;
+    }
+
+    private int ensureTask(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= boxes.length) {
+            int capacity = Math.max(slot + 1, boxes.length * 2);
+            boxes = Arrays.copyOf(boxes, capacity);
+            receiver = Arrays.copyOf(receiver, capacity);
+            soleSender = Arrays.copyOf(soleSender, capacity);
+            receiverWaiting = Arrays.copyOf(receiverWaiting, capacity);
+            sent = Arrays.copyOf(sent, capacity);
+            received = Arrays.copyOf(received, capacity);
+            maxDepth = Arrays.copyOf(maxDepth, capacity);
+            openedAt = Arrays.copyOf(openedAt, capacity);
+            fullWaits = Arrays.copyOf(fullWaits, capacity);
+            emptyWaits = Arrays.copyOf(emptyWaits, capacity);
+        }
+        return slot;
+    }
+
+    public boolean hasMailbox(int taskID) {
+        return boxOf(taskID) != null;
+    }
+
+    // Messages waiting in the task's mailbox.
+    public int getDepth(int taskID) {
+        MessageRing box = boxOf(taskID);
+        return box == null ? 0 : box.size();
+    }
+
+    public int getMaxDepth(int taskID) {
+        return boxOf(taskID) == null ? 0 : maxDepth[TaskStore.slotIndex(taskID)];
+    }
+
+    public int getCapacity(int taskID) {
+        MessageRing box = boxOf(taskID);
+        return box == null ? 0 : box.capacity();
+    }
+
+    public long getSent(int taskID) {
+        return boxOf(taskID) == null ? 0 : sent[TaskStore.slotIndex(taskID)];
+    }
+
+    public long getReceived(int taskID) {
+        return boxOf(taskID) == null ? 0 : received[TaskStore.slotIndex(taskID)];
+    }
+
+    // Messages received per second since the mailbox opened.
+    public double getThroughput(int taskID) {
+        if (boxOf(taskID) == null) {
+            return 0;
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        long elapsed = System.nanoTime() - openedAt[slot];
+        return elapsed <= 0 ? 0 : received[slot] * 1e9 / elapsed;
+    }
+
+    // Sends that blocked on a full mailbox.
+    public long getFullWaits(int taskID) {
+        return boxOf(taskID) == null ? 0 : fullWaits[TaskStore.slotIndex(taskID)];
+    }
+
+    // Receives that blocked on an empty mailbox.
+    public long getEmptyWaits(int taskID) {
+        return boxOf(taskID) == null ? 0 : emptyWaits[TaskStore.slotIndex(taskID)];
+    }
+}
@@ -0,0 +1,19 @@
+package aether.core;
+
+// Bounded lock-free ring of long messages with every slot allocated up front, so
+// sending and receiving never allocate. Batched calls move as many messages as fit
+// and publish them with a single index update.
+public interface MessageRing {
+    boolean offer(long message);
+
+    // Returns how many of the messages were taken, in order, possibly 0.
+    int offer(long[] messages, int offset, int length);
+
+    // Consumer only. Returns how many messages were copied out, possibly 0.
+    int drain(long[] into, int offset, int max);
+
+    // Messages waiting; exact when called by the consumer or a sole producer.
+    int size();
+
+    int capacity();
+}
@@ -0,0 +1,144 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskStore;
+
+// Multi-level feedback queue. New tasks start in level 0; a task that uses its
+// whole slice drops a level, and each level doubles the slice. Every
+// boostInterval ticks all tasks return to level 0 so long jobs cannot starve.
+public class MlfqPolicy implements SchedulingPolicy {
+    private final TaskHeap[] levels;
+    private final int baseQuantum;
+    private final long boostInterval;
+    private byte[] taskLevel = new byte[16];
+    private int[] taskEpoch = new int[16];
+    private int epoch;
+    private long lastBoost;
+    private long sequence;
+    private int size;
+
+    public MlfqPolicy(int levelCount, int baseQuantum, long boostInterval) {
+        if (levelCount < 1 || levelCount > Byte.MAX_VALUE || baseQuantum <= 0) {
+            throw new IllegalArgumentException("Invalid MLFQ shape: " + levelCount + " levels, quantum " + baseQuantum);
+        }
+        this.levels = new TaskHeap[levelCount];
+        for (int i = 0; i < levelCount; i++) {
+            levels[i] = new TaskHeap();
+        }
+        this.baseQuantum = baseQuantum;
+        this.boostInterval = boostInterval;
+    }
+
+    @Override
+    public String getName() {
+        return "MLFQ(" + levels.length + "x" + baseQuantum + ")";
+    }
+
+    @Override
+    public SchedulingPolicy copy() {
+        return new MlfqPolicy(levels.length, baseQuantum, boostInterval);
+    }
+
+    @Override
+    public void enqueue(TaskNode task, long now) {
+        if (boostInterval > 0 && now - lastBoost >= boostInterval) {
+            boost(now);
+        }
+        int taskID = task.getProcessID();
+        ensureCapacity(TaskStore.slotIndex(taskID));
+        levels[levelOf(taskID)].add(taskID, sequence++);
+        size++;
+    }
+
+    @Override
+    public int peekNext() {
+        for (TaskHeap level : levels) {
+            if (!level.isEmpty()) {
+                return level.peek();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int pollNext() {
+        for (TaskHeap level : levels) {
+            if (!level.isEmpty()) {
+                size--;
+                return level.poll();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean remove(int taskID) {
+        if (TaskStore.slotIndex(taskID) < taskLevel.length && levels[levelOf(taskID)].remove(taskID)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int timeSlice(TaskNode task) {
+        return baseQuantum << levelOf(task.getProcessID());
+    }
+
+    @Override
+    public boolean shouldPreempt(TaskNode running, TaskNode candidate, long now) {
+        return levelOf(candidate.getProcessID()) < levelOf(running.getProcessID());
+    }
+
+    @Override
+    public void onSliceExpired(TaskNode task) {
+        int taskID = task.getProcessID();
+        int slot = TaskStore.slotIndex(taskID);
+        ensureCapacity(slot);
+        int level = levelOf(taskID);
+        taskLevel[slot] = (byte) Math.min(level + 1, levels.length - 1);
+        taskEpoch[slot] = epoch;
+    }
+
+    @Override
+    public void onTaskExit(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot < taskLevel.length) {
+            taskLevel[slot] = 0; // the next task in the slot starts at the top
+        }
+    }
+
+    public int levelOf(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= taskLevel.length || taskEpoch[slot] != epoch) {
+            return 0;
+        }
+        return taskLevel[slot];
+    }
+
+    private void boost(long now) {
+        lastBoost = now;
+        epoch++;
+        for (int i = 1; i < levels.length; i++) {
+            int taskID;
+            while ((taskID = levels[i].poll()) >= 0) {
+                levels[0].add(taskID, sequence++);
+            }
+        }
+    }
+
+    // Levels are indexed by store slot, so they stop growing at the peak live task count.
+    private void ensureCapacity(int slot) {
+        if (slot >= taskLevel.length) {
+            int capacity = Math.max(slot + 1, taskLevel.length * 2);
+            taskLevel = Arrays.copyOf(taskLevel, capacity);
+            taskEpoch = Arrays.copyOf(taskEpoch, capacity);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package aether.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Unbounded lock-free multi-producer / single-consumer queue (Vyukov style).
+// offer() may be called from any thread; poll() only from the consumer.
+public class MpscQueue<E> {
+    private static final class Node<E> {
+        E value;
+        volatile Node<E> next;
+
+        Node(E value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head;
+
+    public MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+
+    public void offer(E value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        Node<E> node = new Node<>(value);
+        Node<E> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    // May briefly return null while a producer is between its swap and its link.
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E value = next.value;
+        next.value = null;
+        head = next;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return head.next == null && head == tail.get();
+    }
+}
@@ -0,0 +1,99 @@
+package aether.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Multi-producer / single-consumer MessageRing. A producer claims a run of positions
+// with one CAS on the tail, writes its messages and stamps each slot with its
+// position + 1; the consumer reads slots in order for as long as the stamps match,
+// so a producer that claimed but has not written yet just ends the batch there.
+// Free space is judged against a shared copy of the consumer's position that
+// producers refresh only when the ring looks full.
+public class MpscRing implements MessageRing {
+    private static final int PAD = 16; // longs, two cache lines
+    private static final int TAIL = PAD; // producers: next position to claim
+    private static final int HEAD_SEEN = 2 * PAD; // producers' copy of HEAD
+    private static final int HEAD = 4 * PAD; // consumer: next position to read
+
+    private final long[] slots;
+    private final AtomicLongArray stamps;
+    private final int mask;
+    private final AtomicLongArray positions = new AtomicLongArray(6 * PAD);
+
+    public MpscRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        slots = new long[size];
+        stamps = new AtomicLongArray(size);
+        mask = size - 1;
+    }
+
+    @Override
+    public boolean offer(long message) {
+        long tail;
+        do {
+            tail = positions.get(TAIL);
+            if (tail - positions.getOpaque(HEAD_SEEN) >= slots.length && freeAfterRefresh(tail) <= 0) {
+                return false;
+            }
+        } while (!positions.compareAndSet(TAIL, tail, tail + 1));
+        int index = (int) tail & mask;
+        slots[index] = message;
+        stamps.setRelease(index, tail + 1);
+        return true;
+    }
+
+    @Override
+    public int offer(long[] messages, int offset, int length) {
+        long tail;
+        int count;
+        do {
+            tail = positions.get(TAIL);
+            long free = slots.length - (tail - positions.getOpaque(HEAD_SEEN));
+            if (free < length) {
+                free = freeAfterRefresh(tail);
+            }
+            count = (int) Math.min(length, free);
+            if (count <= 0) {
+                return 0;
+            }
+        } while (!positions.compareAndSet(TAIL, tail, tail + count));
+        for (int i = 0; i < count; i++) {
+            int index = (int) (tail + i) & mask;
+            slots[index] = messages[offset + i];
+            stamps.setRelease(index, tail + i + 1);
+        }
+        return count;
+    }
+
+    private long freeAfterRefresh(long tail) {
+        long head = positions.getAcquire(HEAD);
+        positions.setOpaque(HEAD_SEEN, head);
+        return slots.length - (tail - head);
+    }
+
+    @Override
+    public int drain(long[] into, int offset, int max) {
+        long head = positions.getPlain(HEAD);
+        int count = 0;
+        while (count < max) {
+            int index = (int) (head + count) & mask;
+            if (stamps.getAcquire(index) != head + count + 1) {
+                break;
+            }
+            into[offset + count++] = slots[index];
+        }
+        if (count > 0) {
+            positions.setRelease(HEAD, head + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(0, positions.getAcquire(TAIL) - positions.getAcquire(HEAD));
+    }
+
+    @Override
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,102 @@
+package aether.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import aether.model.memory.CellStore;
+import aether.model.memory.SwapDevice;
+import aether.model.memory.WorkingSetTracker;
+
+// Runs a batch of tasks under round robin with physical memory shrinking below their
+// combined footprint, swapping to a memory-mapped file. Each task references a hot
+// tenth of its pages most of the time. Reports page faults, swap traffic, write-back
+// batching and what the faults do to CPU utilization and turnaround: the point where
+// the ready queue empties because every task waits on a page is thrashing. Each
+// level runs once without and once with a LoadController watching working sets.
+public class PagingRunner {
+    private static final int PAGE_SIZE = 4096;
+    private static final double SUSPEND_ABOVE = 0.20;
+    private static final double RESUME_BELOW = 0.05;
+
+    // 90% of references go to the first tenth of a task's pages, 30% are stores.
+    static final class LocalityStream implements SimulationEngine.ReferenceStream {
+        private final SplittableRandom random;
+        private final int pages;
+        private final int hot;
+
+        LocalityStream(int pages, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.pages = pages;
+            this.hot = Math.max(pages / 10, 1);
+        }
+
+        @Override
+        public long next(int taskID) {
+            long page = random.nextInt(10) != 0 ? random.nextInt(hot) : random.nextInt(pages);
+            return page << 1 | (random.nextInt(10) < 3 ? 1 : 0);
+        }
+    }
+
+    // window is the working-set window tau; 0 runs without tracking or load control.
+    public static SimulationEngine run(int tasks, int pagesPerTask, int frames, int burst, int quantum, int batch,
+            long latency, String replacement, int window) throws IOException {
+        Path file = Files.createTempFile("aether-swap", ".bin");
+        try (SwapDevice swap = new SwapDevice(file, tasks * pagesPerTask, PAGE_SIZE)) {
+            CellStore memory = new CellStore(PAGE_SIZE, frames * PAGE_SIZE);
+            memory.setReplacementPolicy(replacement);
+            memory.attachSwap(swap, batch);
+            SimulationEngine engine = new SimulationEngine(new AetherKernel(memory),
+                    SchedulingPolicy.forName("RR", quantum));
+            engine.setPaging(new LocalityStream(pagesPerTask, 42), pagesPerTask, latency);
+            if (window > 0) {
+                WorkingSetTracker workingSets = new WorkingSetTracker(window, 4 * window);
+                engine.setWorkingSetTracker(workingSets);
+                engine.setLoadController(new LoadController(engine, workingSets, frames, SUSPEND_ABOVE, RESUME_BELOW));
+            }
+            for (int i = 0; i < tasks; i++) {
+                engine.submit(burst, 0, i % 10);
+            }
+            engine.run();
+            return engine;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Usage: PagingRunner [tasks] [pagesPerTask] [burst] [quantum] [swapBatch] [faultLatency] [policy] [window]
+    public static void main(String[] args) throws IOException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int pagesPerTask = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        int burst = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int quantum = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int batch = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+        long latency = args.length > 5 ? Long.parseLong(args[5]) : 100;
+        String replacement = args.length > 6 ? args[6] : "LRU";
+        int window = args.length > 7 ? Integer.parseInt(args[7]) : 1000;
+
+        int footprint = tasks * pagesPerTask;
+        System.out.printf("%d tasks x %d pages, burst %d, RR q=%d, %s, swap batch %d, fault latency %d%n", tasks,
+                pagesPerTask, burst, quantum, replacement, batch, latency);
+        System.out.printf("Load control: working-set window %d, suspend above %.0f%% faults, resume below %.0f%%%n",
+                window, SUSPEND_ABOVE * 100, RESUME_BELOW * 100);
+        System.out.printf("%n%10s %8s %7s %10s %10s %10s %8s %10s %7s %12s %10s%n", "Overcommit", "Frames", "Control",
+                "Faults", "Swap out", "Written", "Syncs", "Pages/sync", "Util", "Turnaround", "Makespan");
+        for (double overcommit : new double[] { 1, 2, 4, 8, 16 }) {
+            int frames = (int) (footprint / overcommit);
+            for (int control : new int[] { 0, window }) {
+                long start = System.nanoTime();
+                SimulationEngine engine = run(tasks, pagesPerTask, frames, burst, quantum, batch, latency, replacement,
+                        control);
+                CellStore memory = engine.getKernel().getCellStore();
+                SwapDevice swap = memory.getSwapDevice();
+                System.out.printf("%9.1fx %8d %7s %10d %10d %10d %8d %10.1f %6.1f%% %12.0f %10d   (%.2f s)%n",
+                        overcommit, frames, control > 0 ? "on" : "off", engine.getPageFaults(), memory.getSwapOuts(),
+                        swap.getPagesWritten(), swap.getSyncs(),
+                        swap.getSyncs() == 0 ? 0 : (double) swap.getPagesWritten() / swap.getSyncs(),
+                        engine.getUtilization() * 100, engine.getAverageTurnaroundTime(), engine.getClock(),
+                        (System.nanoTime() - start) / 1e9);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskStore;
+
+// Lower priority values dispatch first. With aging, a waiting task gains one
+// priority level every agingInterval ticks. Ordering by
+// priority * agingInterval + enqueueTime is equivalent and never changes while
+// the task waits, so aging costs nothing per tick.
+public class PriorityPolicy implements SchedulingPolicy {
+    private final TaskHeap queue = new TaskHeap();
+    private final boolean preemptive;
+    private final int agingInterval;
+    private long[] enqueuedAt = new long[16];
+    private long sequence;
+
+    public PriorityPolicy(boolean preemptive, int agingInterval) {
+        this.preemptive = preemptive;
+        this.agingInterval = agingInterval;
+    }
+
+    @Override
+    public String getName() {
+        if (agingInterval > 0) {
+            return (preemptive ? "PRIORITY_AGING" : "PRIORITY_AGING_NP") + "(" + agingInterval + ")";
+        }
+        return preemptive ? "PRIORITY_PREEMPTIVE" : "PRIORITY";
+    }
+
+    @Override
+    public SchedulingPolicy copy() {
+        return new PriorityPolicy(preemptive, agingInterval);
+    }
+
+    @Override
+    public void enqueue(TaskNode task, long now) {
+        int taskID = task.getProcessID();
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= enqueuedAt.length) {
+            enqueuedAt = Arrays.copyOf(enqueuedAt, Math.max(slot + 1, enqueuedAt.length * 2));
+        }
+        enqueuedAt[slot] = agingInterval > 0 ? now : sequence++;
+        queue.add(taskID, key(task.getPriority(), enqueuedAt[slot]));
+    }
+
+    private long key(int priority, long since) {
+        if (agingInterval > 0) {
+            return (long) priority * agingInterval + since;
+        }
+        return ((long) priority << 32) | (since & 0xFFFFFFFFL);
+    }
+
+    public int effectivePriority(TaskNode task, long now) {
+        int taskID = task.getProcessID();
+        if (agingInterval <= 0 || !queue.contains(taskID)) {
+            return task.getPriority();
+        }
+        return task.getPriority() - (int) ((now - enqueuedAt[TaskStore.slotIndex(taskID)]) / agingInterval);
+    }
+
+    @Override
+    public boolean shouldPreempt(TaskNode running, TaskNode candidate, long now) {
+        if (!preemptive) {
+            return false;
+        }
+        if (agingInterval <= 0) {
+            return candidate.getPriority() < running.getPriority();
+        }
+        // Whole levels only: the waiting task must have aged past the running one.
+        return effectivePriority(candidate, now) < running.getPriority();
+    }
+
+    @Override
+    public void onPriorityChanged(TaskNode task, long now) {
+        int taskID = task.getProcessID();
+        if (queue.contains(taskID)) {
+            queue.changeKey(taskID, key(task.getPriority(), enqueuedAt[TaskStore.slotIndex(taskID)]));
+        }
+    }
+
+    @Override
+    public int peekNext() {
+        return queue.peek();
+    }
+
+    @Override
+    public int pollNext() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean remove(int taskID) {
+        return queue.remove(taskID);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
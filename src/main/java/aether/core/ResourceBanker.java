@@ -0,0 +1,385 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// Banker's algorithm over counted resource classes (tape drives, buffers, licences).
+// A task first declares its maximum claim on a class; each request is then granted
+// only if the state stays safe, and otherwise the task blocks until a release makes
+// it safe. Scheduler thread only.
+//
+// For one class the state is safe exactly when, taking the claimants in order of
+// remaining need, every need is covered by what is available plus what all
+// claimants with a smaller need hold. Each class therefore keeps a segment tree
+// indexed by need, with held units summed per node and the tightest
+// "need - units held below it" kept per subtree, so the whole safety test is a
+// comparison at the root and a request costs O(log units) however many tasks claim
+// the class. Checking classes separately is exact because a task may only wait for a
+// class while it holds nothing of any other; a request that would have to wait
+// while holding another class is refused instead.
+//
+// A release retries the oldest waiter of the class with the full check, then grants
+// every waiter whose whole remaining need is now available, lowest need first. Those
+// need no check, since such a task could run to completion straight away; a second
+// tree per class counts waiters by need to find them in O(log units).
+public class ResourceBanker {
+    public static final int GRANTED = 0;
+    public static final int BLOCKED = 1;
+    public static final int REFUSED = -1;
+
+    private static final int NONE = -1;
+    private static final long NO_NEED = Long.MIN_VALUE / 4;
+
+    private final AetherKernel kernel;
+    private final TaskStore tasks;
+    private final WaitQueues arrivals = new WaitQueues(); // per class
+    private final WaitQueues byNeed = new WaitQueues(); // per class and need
+
+    // Per class: total and available units, and the need-indexed segment tree.
+    private int classes;
+    private int[] total = new int[4];
+    private int[] available = new int[4];
+    private int[][] claimants = new int[4][]; // leaves: tasks at each need
+    private long[][] held = new long[4][];    // units held per subtree
+    private long[][] tightest = new long[4][]; // max over needs of need - held below it
+    private int[][] waiting = new int[4][]; // waiters per subtree of the same tree
+    private int[] needBase = new int[4]; // first byNeed channel of the class
+    private int nextNeedBase;
+
+    // Claim records, linked per task.
+    private int[] claimTask = new int[64];
+    private int[] claimClass = new int[64];
+    private int[] claimMax = new int[64];
+    private int[] claimHeld = new int[64];
+    private int[] claimNext = new int[64];
+    private int freeClaim = NONE;
+    private int claimHighWater;
+
+    // Per task: first claim record, classes it holds units of, and what it waits for.
+    private int[] taskClaims = new int[16];
+    private int[] heldClasses = new int[16];
+    private int[] waitClaim = new int[16];
+    private int[] waitUnits = new int[16];
+
+    private long granted;
+    private long blocked;
+    private long unsafe;
+    private long refused;
+
+    public ResourceBanker(AetherKernel kernel) {
+        this.kernel = kernel;
+        this.tasks = kernel.getTaskStore();
+        Arrays.fill(taskClaims, NONE);
+    }
+
+    public int createClass(int units) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("A resource class needs at least one unit: " + units);
+        }
+        int classID = classes++;
+        if (classID == total.length) {
+            int capacity = total.length * 2;
+            total = Arrays.copyOf(total, capacity);
+            available = Arrays.copyOf(available, capacity);
+            claimants = Arrays.copyOf(claimants, capacity);
+            held = Arrays.copyOf(held, capacity);
+            tightest = Arrays.copyOf(tightest, capacity);
+            waiting = Arrays.copyOf(waiting, capacity);
+            needBase = Arrays.copyOf(needBase, capacity);
+        }
+        int leaves = Integer.highestOneBit(units) << 1; // needs 0..units
+        total[classID] = units;
+        available[classID] = units;
+        claimants[classID] = new int[leaves];
+        held[classID] = new long[leaves * 2];
+        tightest[classID] = new long[leaves * 2];
+        Arrays.fill(tightest[classID], NO_NEED);
+        waiting[classID] = new int[leaves * 2];
+        needBase[classID] = nextNeedBase;
+        nextNeedBase += leaves;
+        return classID;
+    }
+
+    // Admission: the task may use up to max units of the class. Refused if the class
+    // does not have that many, if the task already claims it, or if the claim would
+    // leave the state unsafe.
+    public boolean declareClaim(int taskID, int classID, int max) {
+        if (classID < 0 || classID >= classes || max <= 0 || max > total[classID] || tasks.slotOf(taskID) < 0
+                || findClaim(taskID, classID) != NONE) {
+            refused++;
+            return false;
+        }
+        place(classID, max, 1, 0);
+        if (!isSafe(classID)) {
+            place(classID, max, -1, 0);
+            unsafe++;
+            return false;
+        }
+        int claim = newClaim();
+        int slot = ensureTask(taskID);
+        claimTask[claim] = taskID;
+        claimClass[claim] = classID;
+        claimMax[claim] = max;
+        claimHeld[claim] = 0;
+        claimNext[claim] = taskClaims[slot];
+        taskClaims[slot] = claim;
+        return true;
+    }
+
+    public int request(int taskID, int classID, int units) {
+        int claim = findClaim(taskID, classID);
+        if (claim == NONE || units <= 0 || claimHeld[claim] + units > claimMax[claim] || !canRun(taskID)) {
+            refused++;
+            return REFUSED;
+        }
+        if (tryGrant(claim, units)) {
+            return GRANTED;
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        if (heldClasses[slot] > (claimHeld[claim] > 0 ? 1 : 0)) {
+            refused++; // would wait while holding another class
+            return REFUSED;
+        }
+        kernel.blockTask(taskID);
+        waitClaim[slot] = claim;
+        waitUnits[slot] = units;
+        int need = claimMax[claim] - claimHeld[claim];
+        arrivals.add(taskID, classID);
+        byNeed.add(taskID, needBase[classID] + need);
+        countWaiting(classID, need, 1);
+        blocked++;
+        return BLOCKED;
+    }
+
+    public boolean release(int taskID, int classID, int units) {
+        int claim = findClaim(taskID, classID);
+        if (claim == NONE || units <= 0 || units > claimHeld[claim]) {
+            return false;
+        }
+        move(claim, -units);
+        admitWaiters(classID);
+        return true;
+    }
+
+    // Gives back everything the task holds and withdraws its claims.
+    public void retire(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (taskID < 0 || slot >= taskClaims.length
+                || (taskClaims[slot] != NONE && claimTask[taskClaims[slot]] != taskID)) {
+            return;
+        }
+        if (arrivals.channelOf(taskID) >= 0) {
+            wake(taskID); // the request it waited on is withdrawn
+        }
+        int claim = taskClaims[slot];
+        while (claim != NONE) {
+            int classID = claimClass[claim];
+            if (claimHeld[claim] > 0) {
+                move(claim, -claimHeld[claim]);
+            }
+            place(classID, claimMax[claim], -1, 0);
+            int next = claimNext[claim];
+            claimNext[claim] = freeClaim;
+            freeClaim = claim;
+            admitWaiters(classID);
+            claim = next;
+        }
+        taskClaims[slot] = NONE;
+    }
+
+    // Called by the kernel as a task terminates.
+    public void taskExited(int taskID) {
+        retire(taskID);
+    }
+
+    // Grants the units if they are available and the state stays safe afterwards.
+    private boolean tryGrant(int claim, int units) {
+        int classID = claimClass[claim];
+        if (units > available[classID]) {
+            return false;
+        }
+        move(claim, units);
+        if (!isSafe(classID)) {
+            move(claim, -units);
+            unsafe++;
+            return false;
+        }
+        granted++;
+        return true;
+    }
+
+    private void admitWaiters(int classID) {
+        int oldest = arrivals.first(classID);
+        int slot = TaskStore.slotIndex(oldest);
+        if (oldest >= 0 && tryGrant(waitClaim[slot], waitUnits[slot])) {
+            wake(oldest);
+        }
+        int need;
+        while ((need = lowestWaitingNeed(classID)) >= 0 && need <= available[classID]) {
+            int next = byNeed.first(needBase[classID] + need);
+            slot = TaskStore.slotIndex(next);
+            if (!tryGrant(waitClaim[slot], waitUnits[slot])) {
+                return; // cannot happen while the state is safe
+            }
+            wake(next);
+        }
+    }
+
+    private void wake(int taskID) {
+        int classID = arrivals.channelOf(taskID);
+        countWaiting(classID, byNeed.channelOf(taskID) - needBase[classID], -1);
+        arrivals.remove(taskID);
+        byNeed.remove(taskID);
+        kernel.wakeupTask(taskID);
+    }
+
+    // Moves units between the class's pool and the claim, keeping the tree in step.
+    private void move(int claim, int units) {
+        int classID = claimClass[claim];
+        int taskID = claimTask[claim];
+        int before = claimHeld[claim];
+        int after = before + units;
+        place(classID, claimMax[claim] - before, -1, -before);
+        place(classID, claimMax[claim] - after, 1, after);
+        claimHeld[claim] = after;
+        available[classID] -= units;
+        if (before == 0 && after > 0) {
+            heldClasses[TaskStore.slotIndex(taskID)]++;
+        } else if (before > 0 && after == 0) {
+            heldClasses[TaskStore.slotIndex(taskID)]--;
+        }
+    }
+
+    // Adds claimants and held units at a need and refreshes the path to the root.
+    private void place(int classID, int need, int claimantDelta, long heldDelta) {
+        int[] leafClaimants = claimants[classID];
+        long[] sums = held[classID];
+        long[] worst = tightest[classID];
+        int leaves = leafClaimants.length;
+        leafClaimants[need] += claimantDelta;
+        int node = leaves + need;
+        sums[node] += heldDelta;
+        worst[node] = leafClaimants[need] > 0 ? need : NO_NEED;
+        for (node >>= 1; node > 0; node >>= 1) {
+            int left = node << 1;
+            sums[node] = sums[left] + sums[left + 1];
+            worst[node] = Math.max(worst[left], worst[left + 1] - sums[left]);
+        }
+    }
+
+    private void countWaiting(int classID, int need, int delta) {
+        int[] counts = waiting[classID];
+        for (int node = (counts.length >> 1) + need; node > 0; node >>= 1) {
+            counts[node] += delta;
+        }
+    }
+
+    private int lowestWaitingNeed(int classID) {
+        int[] counts = waiting[classID];
+        if (counts[1] == 0) {
+            return NONE;
+        }
+        int leaves = counts.length >> 1;
+        int node = 1;
+        while (node < leaves) {
+            node <<= 1;
+            if (counts[node] == 0) {
+                node++;
+            }
+        }
+        return node - leaves;
+    }
+
+    private boolean isSafe(int classID) {
+        return tightest[classID][1] <= available[classID];
+    }
+
+    private int findClaim(int taskID, int classID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (taskID < 0 || slot >= taskClaims.length) {
+            return NONE;
+        }
+        for (int claim = taskClaims[slot]; claim != NONE; claim = claimNext[claim]) {
+            if (claimClass[claim] == classID && claimTask[claim] == taskID) {
+                return claim;
+            }
+        }
+        return NONE;
+    }
+
+    private int newClaim() {
+        if (freeClaim != NONE) {
+            int claim = freeClaim;
+            freeClaim = claimNext[claim];
+            return claim;
+        }
+        if (claimHighWater == claimTask.length) {
+            int capacity = claimTask.length * 2;
+            claimTask = Arrays.copyOf(claimTask, capacity);
+            claimClass = Arrays.copyOf(claimClass, capacity);
+            claimMax = Arrays.copyOf(claimMax, capacity);
+            claimHeld = Arrays.copyOf(claimHeld, capacity);
+            claimNext = Arrays.copyOf(claimNext, capacity);
+        }
+        return claimHighWater++;
+    }
+
+    private boolean canRun(int taskID) {
+        int slot = tasks.slotOf(taskID);
+        if (slot < 0) {
+            return false;
+        }
+        TaskState state = tasks.state(slot);
+        return state == TaskState.READY || state == TaskState.RUNNING;
+    }
+
+    // Per-task claim lists and waits are indexed by store slot.
+    private int ensureTask(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= taskClaims.length) {
+            int old = taskClaims.length;
+            int capacity = Math.max(slot + 1, old * 2);
+            taskClaims = Arrays.copyOf(taskClaims, capacity);
+            heldClasses = Arrays.copyOf(heldClasses, capacity);
+            waitClaim = Arrays.copyOf(waitClaim, capacity);
+            waitUnits = Arrays.copyOf(waitUnits, capacity);
+            Arrays.fill(taskClaims, old, capacity, NONE);
+        }
+        return slot;
+    }
+
+    public int getAvailable(int classID) {
+        return available[classID];
+    }
+
+    public int getTotal(int classID) {
+        return total[classID];
+    }
+
+    public int getHeld(int taskID, int classID) {
+        int claim = findClaim(taskID, classID);
+        return claim == NONE ? 0 : claimHeld[claim];
+    }
+
+    public int getWaiting(int classID) {
+        return arrivals.count(classID);
+    }
+
+    public long getGranted() {
+        return granted;
+    }
+
+    public long getBlocked() {
+        return blocked;
+    }
+
+    // Requests or claims held back because granting them would have been unsafe.
+    public long getUnsafe() {
+        return unsafe;
+    }
+
+    public long getRefused() {
+        return refused;
+    }
+}
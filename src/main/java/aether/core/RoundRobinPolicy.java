@@ -0,0 +1,29 @@
+package aether.core;
+
+import aether.model.process.TaskNode;
+
+public class RoundRobinPolicy extends FcfsPolicy {
+    private final int quantum;
+
+    public RoundRobinPolicy(int quantum) {
+        if (quantum <= 0) {
+            throw new IllegalArgumentException("Quantum must be positive: " + quantum);
+        }
+        this.quantum = quantum;
+    }
+
+    @Override
+    public String getName() {
+        return "RR(q=" + quantum + ")";
+    }
+
+    @Override
+    public SchedulingPolicy copy() {
+        return new RoundRobinPolicy(quantum);
+    }
+
+    @Override
+    public int timeSlice(TaskNode task) {
+        return quantum;
+    }
+}
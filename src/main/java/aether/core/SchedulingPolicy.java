@@ -0,0 +1,69 @@
+package aether.core;
+
+import aether.model.process.TaskNode;
+
+// Orders the kernel's ready set. The kernel owns task state; a policy only sees
+// tasks while they are Ready and hands back task IDs to dispatch.
+public interface SchedulingPolicy {
+
+    String getName();
+
+    // An empty policy with the same parameters, e.g. one per CPU run queue.
+    SchedulingPolicy copy();
+
+    void enqueue(TaskNode task, long now);
+
+    int peekNext();
+
+    int pollNext();
+
+    boolean remove(int taskID);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // CPU time granted per dispatch; 0 lets the task run to completion.
+    default int timeSlice(TaskNode task) {
+        return 0;
+    }
+
+    // Whether the ready candidate should take the CPU from the running task.
+    default boolean shouldPreempt(TaskNode running, TaskNode candidate, long now) {
+        return false;
+    }
+
+    // The running task used its whole slice and is about to be re-queued.
+    default void onSliceExpired(TaskNode task) {
+    }
+
+    default void onPriorityChanged(TaskNode task, long now) {
+    }
+
+    // The task terminated; per-task state can be dropped.
+    default void onTaskExit(int taskID) {
+    }
+
+    static SchedulingPolicy forName(String name, int quantum) {
+        switch (name.toUpperCase()) {
+            case "FCFS":
+                return new FcfsPolicy();
+            case "SJF":
+                return new SjfPolicy();
+            case "SRTF":
+                return new SrtfPolicy();
+            case "RR":
+                return new RoundRobinPolicy(quantum > 0 ? quantum : 4);
+            case "PRIORITY":
+                return new PriorityPolicy(false, 0);
+            case "PRIORITY_AGING":
+                return new PriorityPolicy(true, 10);
+            case "MLFQ":
+                return new MlfqPolicy(3, quantum > 0 ? quantum : 4, 1000);
+            default:
+                throw new IllegalArgumentException("Unknown scheduling policy: " + name);
+        }
+    }
+}
@@ -0,0 +1,621 @@
+package aether.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import aether.model.memory.CellStore;
+import aether.model.memory.PageTable;
+import aether.model.memory.WorkingSetTracker;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// Headless discrete-event driver for AetherKernel. Arrivals, completions, quantum
+// expiries and I/O completions are events on a virtual clock, and the kernel decides
+// what runs under whichever SchedulingPolicy the engine was given. A submitted task
+// is a newTask node held until its arrival, when it goes through addNewTask and
+// levelOneScheduling; each dispatch is a lowLevelScheduling call. Arrivals do not
+// go through createTask, which would queue the task before its arrival time and give
+// it one frame rather than the pages setPaging asks for.
+//
+// With paging enabled every task gets memory on arrival and references one page per
+// unit of CPU time; a reference to a swapped-out page ends the run with a page fault
+// that pages it in and blocks the task for the fault latency. References reach
+// memory only as the clock passes them, so a run cut short leaves no trace of the
+// time it never ran. A WorkingSetTracker sees every reference and a LoadController
+// may suspend and resume tasks to stop thrashing.
+public class SimulationEngine {
+    public static final byte ARRIVAL = 1;
+    public static final byte COMPLETION = 2;
+    public static final byte PREEMPTION = 3;
+    public static final byte IO_COMPLETION = 4;
+    public static final byte PAGE_FAULT = 5;
+
+    // The task view is reused between calls and is only valid during the callback.
+    public interface CompletionListener {
+        void taskCompleted(TaskNode task, long waitingTime, long turnaroundTime, long responseTime);
+    }
+
+    // Tasks in arrival order, pulled only as far as the clock has reached so a long
+    // trace never has to be resident. hasNext loads the next task, consume drops it.
+    public interface TaskSource {
+        boolean hasNext();
+
+        int arrival();
+
+        int burst();
+
+        int priority();
+
+        String owner();
+
+        void consume();
+    }
+
+    // Exponential inter-arrival gaps and bursts, priorities 0-9, generated as the clock
+    // reaches them so only the tasks in the system are ever resident.
+    public static class RandomSource implements TaskSource {
+        private final SplittableRandom random;
+        private final long tasks;
+        private final double meanGap;
+        private final double meanBurst;
+        private long produced;
+        private double nextArrival;
+        private int burst;
+        private int priority;
+        private boolean loaded;
+
+        public RandomSource(long tasks, double meanGap, double meanBurst, long seed) {
+            this.random = new SplittableRandom(seed);
+            this.tasks = tasks;
+            this.meanGap = meanGap;
+            this.meanBurst = meanBurst;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!loaded && produced < tasks) {
+                nextArrival += -Math.log(1 - random.nextDouble()) * meanGap;
+                burst = 1 + (int) (-Math.log(1 - random.nextDouble()) * meanBurst);
+                priority = random.nextInt(10);
+                loaded = true;
+            }
+            return loaded;
+        }
+
+        @Override
+        public int arrival() {
+            return (int) nextArrival;
+        }
+
+        @Override
+        public int burst() {
+            return burst;
+        }
+
+        @Override
+        public int priority() {
+            return priority;
+        }
+
+        @Override
+        public String owner() {
+            return "User";
+        }
+
+        @Override
+        public void consume() {
+            loaded = false;
+            produced++;
+        }
+    }
+
+    // The pages a task references while it runs, one per unit of CPU time.
+    public interface ReferenceStream {
+        // Returns page << 1, plus 1 for a store.
+        long next(int taskID);
+    }
+
+    private final AetherKernel kernel;
+    private final SchedulingPolicy policy;
+    private final TaskStore tasks;
+
+    // Every task has at most one pending event, so the event queue is keyed by task ID.
+    // The per-task columns are indexed by TaskStore slot, so they stop growing once the
+    // store has reached the peak live task count.
+    private final TaskHeap events = new TaskHeap(1024);
+    private TaskNode[] arriving = new TaskNode[1024]; // submitted, not yet arrived
+    private byte[] eventTypes = new byte[1024];
+    private long[] blockedTime = new long[1024];
+    private long[] faultPage = new long[1024];
+
+    private CellStore memory;
+    private ReferenceStream references;
+    private long pagesPerTask;
+    private long faultLatency;
+    private WorkingSetTracker workingSets;
+    private LoadController loadController;
+
+    // The running task's references from pendingBase on, drawn at dispatch to find the
+    // first fault; those before pendingApplied have been applied to memory.
+    private long[] pending = new long[64];
+    private int pendingLength;
+    private int pendingApplied;
+    private long pendingBase;
+
+    private long clock;
+    private int running = -1;
+    private int runningSlot = -1;
+    private long sliceStart;
+    private CompletionListener listener;
+    private TaskSource source;
+    private final TaskNode dispatched = new TaskNode(-1, TaskState.NEW, null, 0, 0, 0);
+    private final TaskNode completed = new TaskNode(-1, TaskState.NEW, null, 0, 0, 0);
+
+    private long completedTasks;
+    private long totalWaiting;
+    private long totalTurnaround;
+    private long totalResponse;
+    private long maxResponse;
+    private long busyTime;
+    private long contextSwitches;
+    private long preemptions;
+    private long pageFaults;
+    private long referenceCount;
+    private long oomKills;
+
+    public SimulationEngine(AetherKernel kernel, SchedulingPolicy policy) {
+        this.kernel = kernel;
+        this.policy = policy;
+        this.tasks = kernel.getTaskStore();
+        kernel.setSchedulingPolicy(policy);
+    }
+
+    public void setCompletionListener(CompletionListener listener) {
+        this.listener = listener;
+    }
+
+    public void setTaskSource(TaskSource source) {
+        this.source = source;
+    }
+
+    // Gives each arriving task pagesPerTask pages of the kernel's CellStore and replays
+    // its references against them. A task that cannot get memory is killed on arrival.
+    public void setPaging(ReferenceStream references, long pagesPerTask, long faultLatency) {
+        this.memory = kernel.getCellStore();
+        this.references = references;
+        this.pagesPerTask = pagesPerTask;
+        this.faultLatency = faultLatency;
+    }
+
+    public void setWorkingSetTracker(WorkingSetTracker workingSets) {
+        this.workingSets = workingSets;
+    }
+
+    public void setLoadController(LoadController loadController) {
+        this.loadController = loadController;
+    }
+
+    public int submit(int burstTime, int arrivalTime, int priority) {
+        return submit(burstTime, arrivalTime, priority, "User");
+    }
+
+    public int submit(int burstTime, int arrivalTime, int priority, String owner) {
+        TaskNode task = kernel.newTask(burstTime, arrivalTime, priority, owner);
+        int taskID = task.getProcessID();
+        int slot = TaskStore.slotIndex(taskID);
+        ensureCapacity(slot);
+        arriving[slot] = task;
+        blockedTime[slot] = 0;
+        schedule(taskID, Math.max(arrivalTime, clock), ARRIVAL);
+        return taskID;
+    }
+
+    // Takes a task off the CPU (or out of the ready set) for an I/O of the given latency.
+    public boolean blockFor(int taskID, long latency) {
+        if (running == taskID) {
+            events.remove(taskID);
+            stopRunning();
+        }
+        if (!kernel.blockTask(taskID)) {
+            return false;
+        }
+        blockedTime[tasks.slotOf(taskID)] += latency;
+        schedule(taskID, clock + latency, IO_COMPLETION);
+        return true;
+    }
+
+    // Takes a Ready or running task out of scheduling until resume.
+    public boolean suspend(int taskID) {
+        if (running == taskID) {
+            events.remove(taskID);
+            stopRunning();
+        }
+        return kernel.suspendTask(taskID);
+    }
+
+    public boolean resume(int taskID) {
+        return kernel.resumeTask(taskID);
+    }
+
+    public void run() {
+        while (step()) {
+        }
+    }
+
+    public void runUntil(long time) {
+        while (pullArrivals() && eventTime(events.peekKey()) <= time) {
+            step();
+        }
+        clock = Math.max(clock, time);
+    }
+
+    public boolean step() {
+        if (!pullArrivals()) {
+            return false;
+        }
+        long key = events.peekKey();
+        int taskID = events.poll();
+        int slot = TaskStore.slotIndex(taskID);
+        boolean current = tasks.slotOf(taskID) >= 0 || tasks.isReserved(taskID);
+        clock = eventTime(key);
+        kernel.setClock(clock);
+        if (running >= 0 && !isRunning(running)) {
+            // Killed or moved off the CPU behind the engine's back.
+            running = -1;
+            runningSlot = -1;
+            pendingLength = 0;
+        }
+        if (running >= 0 && references != null) {
+            // The references up to now happened before this event.
+            applyReferences();
+        }
+
+        // A task killed behind the engine's back leaves its event behind.
+        switch (current ? eventTypes[slot] : 0) {
+            case ARRIVAL:
+                TaskNode task = arriving[slot];
+                arriving[slot] = null;
+                if (references != null && !memory.allocateMemoryToProcess(taskID, pagesPerTask * memory.getPageSize())) {
+                    oomKills++;
+                    tasks.release(taskID);
+                    break;
+                }
+                kernel.addNewTask(task);
+                kernel.levelOneScheduling();
+                break;
+            case COMPLETION:
+                if (isRunning(taskID)) {
+                    finishRunning();
+                }
+                break;
+            case PREEMPTION:
+                if (isRunning(taskID)) {
+                    stopRunning();
+                    kernel.expireSlice(taskID);
+                }
+                break;
+            case IO_COMPLETION:
+                kernel.wakeupTask(taskID);
+                break;
+            case PAGE_FAULT:
+                if (isRunning(taskID)) {
+                    stopRunning();
+                    pageFaults++;
+                    referenceCount++;
+                    if (workingSets != null) {
+                        workingSets.reference(taskID, faultPage[slot], true);
+                    }
+                    if (memory.pageIn(taskID, faultPage[slot])) {
+                        blockFor(taskID, faultLatency);
+                    } else {
+                        release(taskID);
+                        kernel.destroyTask(taskID);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (loadController != null) {
+            loadController.update();
+        }
+        // Let every event at this instant land before the CPU is handed out.
+        if (events.isEmpty() || eventTime(events.peekKey()) > clock) {
+            dispatch();
+        }
+        return true;
+    }
+
+    // Submits source tasks arriving no later than the next pending event, or the next
+    // source task when nothing else is pending. Returns whether any event is pending.
+    private boolean pullArrivals() {
+        if (source != null) {
+            while (source.hasNext() && (events.isEmpty() || source.arrival() <= eventTime(events.peekKey()))) {
+                submit(source.burst(), source.arrival(), source.priority(), source.owner());
+                source.consume();
+            }
+        }
+        return !events.isEmpty();
+    }
+
+    private void dispatch() {
+        if (running >= 0) {
+            chargeRunning();
+            if (!kernel.shouldPreempt(running)) {
+                if (references != null) {
+                    recheckReferences();
+                }
+                return;
+            }
+            int preempted = running;
+            events.remove(preempted);
+            stopRunning();
+            kernel.preemptTask(preempted);
+            preemptions++;
+        }
+        TaskNode next = kernel.lowLevelScheduling(dispatched);
+        if (next == null && loadController != null && loadController.resumeIfStalled()) {
+            next = kernel.lowLevelScheduling(dispatched);
+        }
+        if (next == null) {
+            return;
+        }
+        int taskID = next.getProcessID();
+        int slot = tasks.slotOf(taskID);
+        if (tasks.startTime(slot) < 0) {
+            tasks.setStartTime(slot, clock);
+        }
+        running = taskID;
+        runningSlot = slot;
+        sliceStart = clock;
+        contextSwitches++;
+
+        int remaining = tasks.remaining(slot);
+        int slice = kernel.timeSliceOf(taskID);
+        int run = slice > 0 && slice < remaining ? slice : remaining;
+        int fault = references == null ? run : drawReferences(taskID, run);
+        if (fault < run) {
+            schedule(taskID, clock + fault, PAGE_FAULT);
+        } else if (run < remaining) {
+            schedule(taskID, clock + slice, PREEMPTION);
+        } else {
+            schedule(taskID, clock + remaining, COMPLETION);
+        }
+    }
+
+    // Draws the references of the next run time units without applying them; returns
+    // how many are resident before the first fault, which is left in faultPage, or run
+    // if none faults.
+    private int drawReferences(int taskID, int run) {
+        pendingBase = clock;
+        pendingLength = 0;
+        pendingApplied = 0;
+        for (int t = 0; t < run; t++) {
+            long reference = references.next(taskID);
+            if (pendingLength == pending.length) {
+                pending = Arrays.copyOf(pending, pendingLength * 2);
+            }
+            pending[pendingLength++] = reference;
+            if (memory.frameOf(taskID, reference >>> 1) == PageTable.UNMAPPED) {
+                faultPage[runningSlot] = reference >>> 1;
+                return t;
+            }
+        }
+        return run;
+    }
+
+    // Applies the running task's references up to the clock: a use and, for a store, a
+    // dirty page in memory, and a reference in the working sets. The faulting reference
+    // that ends a run is left to the PAGE_FAULT event.
+    private void applyReferences() {
+        int due = (int) Math.min(clock - pendingBase, pendingLength);
+        while (pendingApplied < due) {
+            long reference = pending[pendingApplied++];
+            long page = reference >>> 1;
+            referenceCount++;
+            boolean resident = memory.touch(running, page, (reference & 1) != 0);
+            if (!resident) {
+                // A copy-on-write earlier in the slice reclaimed the page; the time has
+                // already passed, so it is paged back in without blocking.
+                pageFaults++;
+                memory.pageIn(running, page);
+            }
+            if (workingSets != null) {
+                workingSets.reference(running, page, !resident);
+            }
+        }
+    }
+
+    // Events since dispatch may have evicted pages the rest of the slice references;
+    // the first such reference becomes the run's page fault.
+    private void recheckReferences() {
+        for (int t = pendingApplied; t < pendingLength; t++) {
+            long page = pending[t] >>> 1;
+            if (memory.frameOf(running, page) == PageTable.UNMAPPED) {
+                if (t == pendingLength - 1 && eventTypes[runningSlot] == PAGE_FAULT) {
+                    return;
+                }
+                events.remove(running);
+                faultPage[runningSlot] = page;
+                pendingLength = t + 1;
+                schedule(running, pendingBase + t, PAGE_FAULT);
+                return;
+            }
+        }
+    }
+
+    // Brings the running task's remaining time up to the current clock.
+    private void chargeRunning() {
+        if (references != null) {
+            applyReferences();
+        }
+        long elapsed = clock - sliceStart;
+        tasks.setRemaining(runningSlot, (int) (tasks.remaining(runningSlot) - elapsed));
+        busyTime += elapsed;
+        sliceStart = clock;
+    }
+
+    // References the task did not reach before leaving the CPU are dropped.
+    private void stopRunning() {
+        chargeRunning();
+        running = -1;
+        runningSlot = -1;
+        pendingLength = 0;
+    }
+
+    private void finishRunning() {
+        int taskID = running;
+        int slot = runningSlot;
+        stopRunning();
+        tasks.setRemaining(slot, 0);
+        tasks.setCompletionTime(slot, clock);
+
+        long turnaround = clock - tasks.arrival(slot);
+        long waiting = turnaround - tasks.burst(slot) - blockedTime[slot];
+        long response = tasks.startTime(slot) - tasks.arrival(slot);
+
+        completedTasks++;
+        totalTurnaround += turnaround;
+        totalWaiting += waiting;
+        totalResponse += response;
+        maxResponse = Math.max(maxResponse, response);
+
+        if (listener != null) {
+            listener.taskCompleted(tasks.viewInto(completed, slot), waiting, turnaround, response);
+        }
+        kernel.completeTask(taskID);
+        release(taskID);
+    }
+
+    private void release(int taskID) {
+        if (workingSets != null) {
+            workingSets.release(taskID);
+        }
+    }
+
+    private boolean isRunning(int taskID) {
+        return running == taskID && tasks.idAt(runningSlot) == taskID
+                && tasks.state(runningSlot) == TaskState.RUNNING;
+    }
+
+    // Same-instant events resolve as completion, I/O, arrival, then preemption, so
+    // a preempted task re-enters the ready set behind tasks that arrived with it.
+    private void schedule(int taskID, long time, byte type) {
+        eventTypes[TaskStore.slotIndex(taskID)] = type;
+        events.add(taskID, (time << 2) | order(type));
+    }
+
+    private static int order(byte type) {
+        switch (type) {
+            case COMPLETION:
+            case PAGE_FAULT:
+                return 0;
+            case IO_COMPLETION:
+                return 1;
+            case ARRIVAL:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    private static long eventTime(long key) {
+        return key >>> 2;
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot >= eventTypes.length) {
+            int capacity = Math.max(slot + 1, eventTypes.length * 2);
+            arriving = Arrays.copyOf(arriving, capacity);
+            eventTypes = Arrays.copyOf(eventTypes, capacity);
+            blockedTime = Arrays.copyOf(blockedTime, capacity);
+            faultPage = Arrays.copyOf(faultPage, capacity);
+        }
+    }
+
+    public AetherKernel getKernel() {
+        return kernel;
+    }
+
+    public long getClock() {
+        return clock;
+    }
+
+    public int getRunningTaskID() {
+        return running;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public long getContextSwitches() {
+        return contextSwitches;
+    }
+
+    public long getPreemptions() {
+        return preemptions;
+    }
+
+    public long getPageFaults() {
+        return pageFaults;
+    }
+
+    public long getReferences() {
+        return referenceCount;
+    }
+
+    public long getOomKills() {
+        return oomKills;
+    }
+
+    public double getAverageWaitingTime() {
+        return completedTasks == 0 ? 0 : (double) totalWaiting / completedTasks;
+    }
+
+    public double getAverageTurnaroundTime() {
+        return completedTasks == 0 ? 0 : (double) totalTurnaround / completedTasks;
+    }
+
+    public double getAverageResponseTime() {
+        return completedTasks == 0 ? 0 : (double) totalResponse / completedTasks;
+    }
+
+    public long getMaxResponseTime() {
+        return maxResponse;
+    }
+
+    public double getUtilization() {
+        return clock == 0 ? 0 : (double) busyTime / clock;
+    }
+
+    public String summary() {
+        return String.format("%s | tasks=%d clock=%d util=%.1f%% wait=%.2f turnaround=%.2f response=%.2f maxResponse=%d switches=%d preemptions=%d",
+                policy.getName(), completedTasks, clock, getUtilization() * 100, getAverageWaitingTime(),
+                getAverageTurnaroundTime(), getAverageResponseTime(), maxResponse, contextSwitches, preemptions);
+    }
+
+    // Usage: SimulationEngine [tasks] [FCFS|SJF|SRTF|RR|PRIORITY|PRIORITY_AGING|MLFQ] [quantum] [meanInterArrival] [meanBurst]
+    public static void main(String[] args) {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String algorithm = args.length > 1 ? args[1] : "SJF";
+        int quantum = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        double meanGap = args.length > 3 ? Double.parseDouble(args[3]) : 10;
+        double meanBurst = args.length > 4 ? Double.parseDouble(args[4]) : 9;
+
+        // An untimed run first, so the measured one is not mostly JIT compilation.
+        SimulationEngine warmUp = new SimulationEngine(new AetherKernel(), SchedulingPolicy.forName(algorithm, quantum));
+        warmUp.setTaskSource(new RandomSource(Math.min(tasks, 1_000_000), meanGap, meanBurst, 7));
+        warmUp.run();
+
+        SimulationEngine engine = new SimulationEngine(new AetherKernel(), SchedulingPolicy.forName(algorithm, quantum));
+        engine.setTaskSource(new RandomSource(tasks, meanGap, meanBurst, 42));
+
+        long start = System.nanoTime();
+        engine.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(engine.summary());
+        System.out.printf("Simulated %d tasks in %.2f s (%.0f tasks/s)%n", tasks, seconds, tasks / seconds);
+    }
+}
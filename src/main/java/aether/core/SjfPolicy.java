@@ -0,0 +1,47 @@
+package aether.core;
+
+import aether.model.process.TaskNode;
+
+public class SjfPolicy implements SchedulingPolicy {
+    protected final TaskHeap queue = new TaskHeap();
+    private long sequence;
+
+    @Override
+    public String getName() {
+        return "SJF";
+    }
+
+    @Override
+    public SchedulingPolicy copy() {
+        return new SjfPolicy();
+    }
+
+    @Override
+    public void enqueue(TaskNode task, long now) {
+        queue.add(task.getProcessID(), ((long) jobLength(task) << 32) | (sequence++ & 0xFFFFFFFFL));
+    }
+
+    protected int jobLength(TaskNode task) {
+        return task.getBurstTime();
+    }
+
+    @Override
+    public int peekNext() {
+        return queue.peek();
+    }
+
+    @Override
+    public int pollNext() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean remove(int taskID) {
+        return queue.remove(taskID);
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
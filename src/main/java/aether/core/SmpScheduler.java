@@ -0,0 +1,465 @@
+package aether.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskStore;
+
+// Multi-processor mode for AetherKernel. The scheduler installs itself as the
+// kernel's SchedulingPolicy and gives every CPU a copy of the policy it replaced, so
+// each core orders its own run queue the way the kernel would. A task that becomes
+// Ready is queued on a core (its affinity core if pinned, else the core it last ran
+// on, else the less loaded of two sampled cores) and stays Ready there; an idle core
+// steals the newest unpinned task from the busiest one.
+//
+// runSequential makes the kernel's transitions as it goes, so only the tasks on a
+// core are Running. runParallel cannot call the kernel from its worker threads: a
+// slice that runs out is re-queued on the core directly, and finished tasks are
+// retired on the calling thread once the cores have drained. Arrivals come from a
+// SimulationEngine.TaskSource as the cores' clocks reach them.
+public class SmpScheduler implements SchedulingPolicy {
+    private static final int NONE = -1;
+
+    private final AetherKernel kernel;
+    private final SchedulingPolicy policy;
+    private final CpuCore[] cores;
+    private final TaskStore tasks;
+    private final WaitQueues order;
+    private int[] home = new int[1024]; // core queuing or running the task, by slot
+    private SimulationEngine.TaskSource source;
+    private long window = 1024;
+    private int nextCore;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    public SmpScheduler(AetherKernel kernel, int coreCount) {
+        if (coreCount < 1) {
+            throw new IllegalArgumentException("Core count must be positive: " + coreCount);
+        }
+        this.kernel = kernel;
+        this.tasks = kernel.getTaskStore();
+        this.policy = kernel.getSchedulingPolicy();
+        this.order = new WaitQueues(coreCount);
+        this.cores = new CpuCore[coreCount];
+        for (int i = 0; i < coreCount; i++) {
+            cores[i] = new CpuCore(i, tasks, policy.copy(), order);
+        }
+        Arrays.fill(home, NONE);
+        kernel.setSchedulingPolicy(this);
+    }
+
+    public void setTaskSource(SimulationEngine.TaskSource source) {
+        this.source = source;
+    }
+
+    // runParallel admits arrivals this much virtual time ahead per round.
+    public void setParallelWindow(long window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        this.window = window;
+    }
+
+    // Admits the kernel's queued tasks, which land on run queues as they become
+    // Ready. Returns how many tasks are queued on the cores.
+    public int distribute() {
+        kernel.levelOneScheduling();
+        return size();
+    }
+
+    @Override
+    public String getName() {
+        return "SMP x" + cores.length + " " + policy.getName();
+    }
+
+    // The cores' queues cannot be nested inside another scheduler.
+    @Override
+    public SchedulingPolicy copy() {
+        throw new UnsupportedOperationException("An SmpScheduler is bound to its kernel");
+    }
+
+    @Override
+    public void enqueue(TaskNode task, long now) {
+        int slot = TaskStore.slotIndex(task.getProcessID());
+        if (slot >= home.length) {
+            int old = home.length;
+            home = Arrays.copyOf(home, Math.max(slot + 1, old * 2));
+            Arrays.fill(home, old, home.length, NONE);
+        }
+        int affinity = task.getAffinity();
+        CpuCore core;
+        if (affinity >= 0 && affinity < cores.length) {
+            core = cores[affinity];
+        } else if (home[slot] != NONE) {
+            core = cores[home[slot]];
+        } else {
+            CpuCore a = cores[nextRandom(cores.length)];
+            CpuCore b = cores[nextRandom(cores.length)];
+            core = a.getLoad() <= b.getLoad() ? a : b;
+        }
+        home[slot] = core.getCoreID();
+        core.push(task, now);
+    }
+
+    // A single global dispatch, as the kernel's own dispatchNext makes, takes from
+    // the cores in turn.
+    @Override
+    public int peekNext() {
+        for (int i = 0; i < cores.length; i++) {
+            int taskID = cores[(nextCore + i) % cores.length].peek();
+            if (taskID >= 0) {
+                return taskID;
+            }
+        }
+        return NONE;
+    }
+
+    @Override
+    public int pollNext() {
+        for (int i = 0; i < cores.length; i++) {
+            CpuCore core = cores[(nextCore + i) % cores.length];
+            int taskID = core.pop();
+            if (taskID >= 0) {
+                nextCore = (core.getCoreID() + 1) % cores.length;
+                return taskID;
+            }
+        }
+        return NONE;
+    }
+
+    @Override
+    public boolean remove(int taskID) {
+        CpuCore core = homeOf(taskID);
+        return core != null && core.remove(taskID);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (CpuCore core : cores) {
+            size += core.getLoad();
+        }
+        return size;
+    }
+
+    @Override
+    public int timeSlice(TaskNode task) {
+        CpuCore core = homeOf(task.getProcessID());
+        return core == null ? 0 : core.timeSlice(task.getProcessID());
+    }
+
+    @Override
+    public boolean shouldPreempt(TaskNode running, TaskNode candidate, long now) {
+        CpuCore core = homeOf(candidate.getProcessID());
+        return core != null && core.shouldPreempt(running, candidate, now);
+    }
+
+    @Override
+    public void onSliceExpired(TaskNode task) {
+        CpuCore core = homeOf(task.getProcessID());
+        if (core != null) {
+            core.onSliceExpired(task);
+        }
+    }
+
+    @Override
+    public void onPriorityChanged(TaskNode task, long now) {
+        CpuCore core = homeOf(task.getProcessID());
+        if (core != null) {
+            core.onPriorityChanged(task, now);
+        }
+    }
+
+    @Override
+    public void onTaskExit(int taskID) {
+        CpuCore core = homeOf(taskID);
+        if (core != null) {
+            core.onTaskExit(taskID);
+            home[TaskStore.slotIndex(taskID)] = NONE;
+        }
+    }
+
+    private CpuCore homeOf(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        return taskID >= 0 && slot < home.length && home[slot] != NONE ? cores[home[slot]] : null;
+    }
+
+    // Deterministic run: the core with the lowest virtual clock always goes next,
+    // so arrivals and stealing decisions follow simulated time.
+    public void runSequential() {
+        TaskHeap byClock = new TaskHeap(cores.length);
+        for (CpuCore core : cores) {
+            byClock.add(core.getCoreID(), core.getClock());
+        }
+        while (!byClock.isEmpty()) {
+            CpuCore core = cores[byClock.poll()];
+            admitArrivals(core.getClock());
+            if (runOne(core, true, Long.MAX_VALUE)) {
+                byClock.add(core.getCoreID(), core.getClock());
+            } else if (source != null && source.hasNext()) {
+                core.idleUntil(source.arrival());
+                byClock.add(core.getCoreID(), core.getClock());
+            }
+        }
+    }
+
+    // Runs the simulated cores on worker threads, each owning a stripe of cores, in
+    // rounds: each round admits the arrivals of the next window of virtual time and
+    // runs the cores until their clocks pass its end or they drain. Per-core clocks
+    // stay consistent but steal order is host-timing dependent.
+    public void runParallel(int threads) throws InterruptedException {
+        int workers = Math.max(1, Math.min(threads, cores.length));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        long horizon = minClock();
+        try {
+            while (size() > 0 || (source != null && source.hasNext())) {
+                if (source == null) {
+                    horizon = Long.MAX_VALUE; // nothing more arrives, so one round drains it all
+                } else {
+                    horizon = Math.max(horizon, size() == 0 && source.hasNext() ? source.arrival() : horizon) + window;
+                }
+                admitArrivals(horizon);
+                long limit = horizon;
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < workers; w++) {
+                    int first = w;
+                    futures.add(pool.submit(() -> {
+                        while (true) {
+                            boolean progressed = false;
+                            for (int c = first; c < cores.length; c += workers) {
+                                for (int batch = 0; batch < 64 && runOne(cores[c], false, limit); batch++) {
+                                    progressed = true;
+                                }
+                            }
+                            if (!progressed) {
+                                if (!anyRunnable(limit)) {
+                                    return;
+                                }
+                                Thread.yield(); // the core holding the work may share this host CPU
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                retire();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("SMP worker failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void runParallel() throws InterruptedException {
+        runParallel(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Runs one slice on the core unless its clock has reached the limit. On the
+    // kernel's thread the task goes Running for the slice and is completed or
+    // re-queued through the kernel.
+    private boolean runOne(CpuCore core, boolean onKernelThread, long limit) {
+        if (core.getClock() >= limit) {
+            return false;
+        }
+        boolean stolen = false;
+        int taskID = core.pop();
+        if (taskID == CpuCore.EMPTY) {
+            taskID = steal(core);
+            stolen = taskID != CpuCore.EMPTY;
+        }
+        if (taskID == CpuCore.EMPTY) {
+            return false;
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        if (stolen) {
+            core.adopt(taskID);
+            home[slot] = core.getCoreID();
+        }
+        if (onKernelThread) {
+            kernel.dispatchTask(taskID);
+        }
+        boolean done = core.execute(slot, stolen, core.timeSlice(taskID));
+        if (onKernelThread) {
+            kernel.setClock(core.getClock());
+            if (done) {
+                kernel.completeTask(taskID);
+            } else {
+                kernel.expireSlice(taskID);
+            }
+        } else if (done) {
+            core.finish(taskID);
+        } else {
+            core.requeue(taskID);
+        }
+        return true;
+    }
+
+    // Steals from the busiest other core that is not behind the thief, scanning from
+    // the thief's neighbour so ties spread across victims. A core behind the thief
+    // would reach its own tasks sooner.
+    private int steal(CpuCore thief) {
+        CpuCore best = null;
+        int bestLoad = 1;
+        for (int i = 1; i < cores.length; i++) {
+            CpuCore victim = cores[(thief.getCoreID() + i) % cores.length];
+            int load = victim.getLoad();
+            if (load > bestLoad && victim.getClock() >= thief.getClock()) {
+                best = victim;
+                bestLoad = load;
+            }
+        }
+        return best == null ? CpuCore.EMPTY : best.stealTail(thief.getCoreID());
+    }
+
+    private boolean anyRunnable(long limit) {
+        for (CpuCore core : cores) {
+            if (core.getClock() < limit && core.getLoad() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Submits source tasks arriving by the given time.
+    private void admitArrivals(long time) {
+        if (source == null) {
+            return;
+        }
+        boolean admitted = false;
+        while (source.hasNext() && source.arrival() <= time) {
+            kernel.addNewTask(kernel.newTask(source.burst(), source.arrival(), source.priority(), source.owner()));
+            source.consume();
+            admitted = true;
+        }
+        if (admitted) {
+            kernel.setClock(time);
+            kernel.levelOneScheduling();
+        }
+    }
+
+    // Tasks finished on worker threads pass through Running to Terminated here.
+    private void retire() {
+        for (CpuCore core : cores) {
+            for (int i = 0; i < core.finishedCount(); i++) {
+                int taskID = core.finishedAt(i);
+                kernel.dispatchTask(taskID);
+                kernel.completeTask(taskID);
+            }
+            core.clearFinished();
+        }
+    }
+
+    private long minClock() {
+        long clock = Long.MAX_VALUE;
+        for (CpuCore core : cores) {
+            clock = Math.min(clock, core.getClock());
+        }
+        return clock;
+    }
+
+    public CpuCore[] getCores() {
+        return cores;
+    }
+
+    public long getMakespan() {
+        long makespan = 0;
+        for (CpuCore core : cores) {
+            makespan = Math.max(makespan, core.getClock());
+        }
+        return makespan;
+    }
+
+    public long getCompleted() {
+        long completed = 0;
+        for (CpuCore core : cores) {
+            completed += core.getCompleted();
+        }
+        return completed;
+    }
+
+    public long getMigrations() {
+        long migrations = 0;
+        for (CpuCore core : cores) {
+            migrations += core.getMigrationsIn();
+        }
+        return migrations;
+    }
+
+    public double getAverageWaitingTime() {
+        long waiting = 0;
+        for (CpuCore core : cores) {
+            waiting += core.getTotalWaiting();
+        }
+        long done = getCompleted();
+        return done == 0 ? 0 : (double) waiting / done;
+    }
+
+    public double getAverageTurnaroundTime() {
+        long turnaround = 0;
+        for (CpuCore core : cores) {
+            turnaround += core.getTotalTurnaround();
+        }
+        long done = getCompleted();
+        return done == 0 ? 0 : (double) turnaround / done;
+    }
+
+    public String summary() {
+        return String.format("%s | tasks=%d makespan=%d wait=%.2f turnaround=%.2f migrations=%d",
+                getName(), getCompleted(), getMakespan(), getAverageWaitingTime(), getAverageTurnaroundTime(),
+                getMigrations());
+    }
+
+    // Usage: SmpScheduler [cores] [tasks] [threads|0 for sequential] [policy] [quantum] [meanInterArrival|0 for all at once]
+    public static void main(String[] args) throws InterruptedException {
+        int coreCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int tasks = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String algorithm = args.length > 3 ? args[3] : "FCFS";
+        int quantum = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        double meanGap = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+
+        AetherKernel kernel = new AetherKernel();
+        kernel.setSchedulingPolicy(SchedulingPolicy.forName(algorithm, quantum));
+        SmpScheduler smp = new SmpScheduler(kernel, coreCount);
+        if (meanGap > 0) {
+            smp.setTaskSource(new SimulationEngine.RandomSource(tasks, meanGap, 10, 42));
+        } else {
+            Random random = new Random(42);
+            for (int i = 0; i < tasks; i++) {
+                TaskNode task = kernel.newTask(1 + random.nextInt(20), 0, random.nextInt(10));
+                if (i % 10 == 0) {
+                    task.setAffinity(random.nextInt(coreCount));
+                }
+                kernel.addNewTask(task);
+            }
+            smp.distribute();
+        }
+
+        long start = System.nanoTime();
+        if (threads > 0) {
+            smp.runParallel(threads);
+        } else {
+            smp.runSequential();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(smp.summary());
+        for (CpuCore core : smp.getCores()) {
+            System.out.println("  " + core);
+        }
+        System.out.printf("Ran %d tasks in %.2f s%n", tasks, seconds);
+    }
+
+    private int nextRandom(int bound) {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) ((seed >>> 33) % bound);
+    }
+}
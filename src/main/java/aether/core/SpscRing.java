@@ -0,0 +1,94 @@
+package aether.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Single-producer / single-consumer MessageRing. Each side owns one position and keeps
+// a private copy of the other's, rereading the shared one only when the copy says
+// the ring is full (producer) or empty (consumer). Both sides live in one padded
+// array so their hot words sit on different cache lines.
+public class SpscRing implements MessageRing {
+    private static final int PAD = 16; // longs, two cache lines
+    private static final int TAIL = PAD; // producer: next position to write
+    private static final int HEAD_SEEN = PAD + 1; // producer's copy of HEAD
+    private static final int HEAD = 3 * PAD; // consumer: next position to read
+    private static final int TAIL_SEEN = 3 * PAD + 1; // consumer's copy of TAIL
+
+    private final long[] slots;
+    private final int mask;
+    private final AtomicLongArray positions = new AtomicLongArray(5 * PAD);
+
+    public SpscRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        slots = new long[size];
+        mask = size - 1;
+    }
+
+    @Override
+    public boolean offer(long message) {
+        long tail = positions.getPlain(TAIL);
+        if (tail - positions.getPlain(HEAD_SEEN) == slots.length) {
+            long head = positions.getAcquire(HEAD);
+            positions.setPlain(HEAD_SEEN, head);
+            if (tail - head == slots.length) {
+                return false;
+            }
+        }
+        slots[(int) tail & mask] = message;
+        positions.setRelease(TAIL, tail + 1);
+        return true;
+    }
+
+    @Override
+    public int offer(long[] messages, int offset, int length) {
+        long tail = positions.getPlain(TAIL);
+        long free = slots.length - (tail - positions.getPlain(HEAD_SEEN));
+        if (free < length) {
+            long head = positions.getAcquire(HEAD);
+            positions.setPlain(HEAD_SEEN, head);
+            free = slots.length - (tail - head);
+        }
+        int count = (int) Math.min(length, free);
+        if (count > 0) {
+            copyIn(messages, offset, tail, count);
+            positions.setRelease(TAIL, tail + count);
+        }
+        return count;
+    }
+
+    @Override
+    public int drain(long[] into, int offset, int max) {
+        long head = positions.getPlain(HEAD);
+        long ready = positions.getPlain(TAIL_SEEN) - head;
+        if (ready < max) {
+            long tail = positions.getAcquire(TAIL);
+            positions.setPlain(TAIL_SEEN, tail);
+            ready = tail - head;
+        }
+        int count = (int) Math.min(max, ready);
+        if (count > 0) {
+            int start = (int) head & mask;
+            int first = Math.min(count, slots.length - start);
+            System.arraycopy(slots, start, into, offset, first);
+            System.arraycopy(slots, 0, into, offset + first, count - first);
+            positions.setRelease(HEAD, head + count);
+        }
+        return count;
+    }
+
+    private void copyIn(long[] messages, int offset, long tail, int count) {
+        int start = (int) tail & mask;
+        int first = Math.min(count, slots.length - start);
+        System.arraycopy(messages, offset, slots, start, first);
+        System.arraycopy(messages, offset + first, slots, 0, count - first);
+    }
+
+    @Override
+    public int size() {
+        return (int) (positions.getAcquire(TAIL) - positions.getAcquire(HEAD));
+    }
+
+    @Override
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,27 @@
+package aether.core;
+
+import aether.model.process.TaskNode;
+
+// Preemptive SJF: ordered by remaining time, and a shorter arrival takes the CPU.
+public class SrtfPolicy extends SjfPolicy {
+
+    @Override
+    public String getName() {
+        return "SRTF";
+    }
+
+    @Override
+    public SchedulingPolicy copy() {
+        return new SrtfPolicy();
+    }
+
+    @Override
+    protected int jobLength(TaskNode task) {
+        return task.getRemainingTime();
+    }
+
+    @Override
+    public boolean shouldPreempt(TaskNode running, TaskNode candidate, long now) {
+        return candidate.getRemainingTime() < running.getRemainingTime();
+    }
+}
@@ -0,0 +1,198 @@
+package aether.core;
+
+import java.util.SplittableRandom;
+import aether.model.memory.CellStore;
+import aether.model.process.TaskState;
+
+// Drives the kernel's synchronization objects and the Banker at growing scale. The
+// work per operation (graph edges examined, segment tree levels) stays about flat from
+// a thousand tasks to a hundred thousand; the time per operation still grows once the
+// kernel's arrays outgrow the caches. Every size is run once untimed first so the JIT
+// has compiled the paths the large graphs take. Lock mode: random tasks lock random
+// mutexes and rw locks (mostly reading) in random order, and a task told DEADLOCK
+// backs off by dropping everything it holds. Banker mode: every task claims part of
+// one resource class and requests and releases units of it at random.
+public class SyncRunner {
+    public static class Result {
+        private final int tasks;
+        private final long operations;
+        private final double nanosPerOperation;
+        private final long blocked;
+        private final long deadlocks;
+        private final double visitedPerInsert;
+
+        Result(int tasks, long operations, double nanosPerOperation, long blocked, long deadlocks,
+                double visitedPerInsert) {
+            this.tasks = tasks;
+            this.operations = operations;
+            this.nanosPerOperation = nanosPerOperation;
+            this.blocked = blocked;
+            this.deadlocks = deadlocks;
+            this.visitedPerInsert = visitedPerInsert;
+        }
+
+        public int getTasks() {
+            return tasks;
+        }
+
+        public long getOperations() {
+            return operations;
+        }
+
+        public double getNanosPerOperation() {
+            return nanosPerOperation;
+        }
+
+        public long getBlocked() {
+            return blocked;
+        }
+
+        // Deadlocks found (lock mode) or requests held back as unsafe (Banker mode).
+        public long getDeadlocks() {
+            return deadlocks;
+        }
+
+        // Graph edges the cycle searches examined per inserted edge; 0 in Banker mode.
+        public double getVisitedPerInsert() {
+            return visitedPerInsert;
+        }
+    }
+
+    public static Result runLocks(int tasks, int objects, long operations, int maxHeld) {
+        AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+        KernelSync sync = kernel.getSync();
+        int[] ids = spawn(kernel, tasks);
+        int[] locks = new int[objects];
+        for (int i = 0; i < objects; i++) {
+            locks[i] = (i & 1) == 0 ? sync.createMutex() : sync.createRwLock();
+        }
+
+        SplittableRandom random = new SplittableRandom(11);
+        long start = System.nanoTime();
+        for (long op = 0; op < operations; op++) {
+            int taskID = ids[random.nextInt(tasks)];
+            if (kernel.getTaskStore().state(kernel.getTaskStore().slotOf(taskID)) == TaskState.BLOCKED) {
+                continue;
+            }
+            WaitForGraph graph = sync.getGraph();
+            if (graph.heldCount(taskID) >= maxHeld || (graph.heldCount(taskID) > 0 && random.nextInt(3) == 0)) {
+                release(sync, taskID, graph.firstHeld(taskID));
+                continue;
+            }
+            int lockID = locks[random.nextInt(objects)];
+            int outcome;
+            if (sync.getType(lockID) == KernelSync.MUTEX) {
+                outcome = sync.lock(taskID, lockID);
+            } else if (random.nextInt(5) == 0) {
+                outcome = sync.writeLock(taskID, lockID);
+            } else {
+                outcome = sync.readLock(taskID, lockID);
+            }
+            if (outcome == KernelSync.DEADLOCK) {
+                int held;
+                while ((held = graph.firstHeld(taskID)) >= 0) {
+                    release(sync, taskID, held);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        WaitForGraph graph = sync.getGraph();
+        return new Result(tasks, operations, (double) elapsed / operations, sync.getContended(),
+                sync.getDeadlocks(), (double) graph.getVisited() / Math.max(1, graph.getInserts()));
+    }
+
+    public static Result runBanker(int tasks, int classes, int unitsPerClass, long operations, int maxClaim) {
+        AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+        ResourceBanker banker = kernel.getBanker();
+        int[] ids = spawn(kernel, tasks);
+        for (int c = 0; c < classes; c++) {
+            banker.createClass(unitsPerClass);
+        }
+        SplittableRandom random = new SplittableRandom(13);
+        int[] classOf = new int[tasks];
+        int[] claimOf = new int[tasks];
+        for (int i = 0; i < tasks; i++) {
+            classOf[i] = random.nextInt(classes);
+            claimOf[i] = 1 + random.nextInt(maxClaim);
+            banker.declareClaim(ids[i], classOf[i], claimOf[i]);
+        }
+
+        long start = System.nanoTime();
+        for (long op = 0; op < operations; op++) {
+            int i = random.nextInt(tasks);
+            int taskID = ids[i];
+            if (kernel.getTaskStore().state(kernel.getTaskStore().slotOf(taskID)) == TaskState.BLOCKED) {
+                continue;
+            }
+            int held = banker.getHeld(taskID, classOf[i]);
+            if (held == claimOf[i] || (held > 0 && random.nextBoolean())) {
+                banker.release(taskID, classOf[i], 1 + random.nextInt(held));
+            } else {
+                banker.request(taskID, classOf[i], 1 + random.nextInt(claimOf[i] - held));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(tasks, operations, (double) elapsed / operations, banker.getBlocked(),
+                banker.getUnsafe(), 0);
+    }
+
+    private static int[] spawn(AetherKernel kernel, int tasks) {
+        int[] ids = new int[tasks];
+        for (int i = 0; i < tasks; i++) {
+            ids[i] = kernel.spawnTask(100, 0, 0, "Sync");
+            kernel.admitTask(ids[i]);
+        }
+        return ids;
+    }
+
+    private static void release(KernelSync sync, int taskID, int lockID) {
+        if (sync.getType(lockID) == KernelSync.MUTEX) {
+            sync.unlock(taskID, lockID);
+        } else {
+            sync.rwUnlock(taskID, lockID);
+        }
+    }
+
+    // Usage: SyncRunner [operations] [maxHeld] [classes] [maxClaim]
+    public static void main(String[] args) {
+        long operations = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        int maxHeld = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int classes = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int maxClaim = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        int[] sizes = { 1_000, 10_000, 100_000 };
+        for (int tasks : sizes) {
+            runLocks(tasks, tasks, operations, maxHeld);
+        }
+        System.out.printf("Locks: tasks and as many mutexes/rw locks, up to %d held each, %d operations%n", maxHeld,
+                operations);
+        System.out.printf("%8s %10s %8s %10s %10s %14s%n", "Tasks", "ns/op", "x 1e3", "Blocked", "Deadlocks",
+                "Visited/edge");
+        double base = 0;
+        for (int tasks : sizes) {
+            Result r = runLocks(tasks, tasks, operations, maxHeld);
+            base = base == 0 ? r.getNanosPerOperation() : base;
+            System.out.printf("%8d %10.1f %8.2f %10d %10d %14.2f%n", r.getTasks(), r.getNanosPerOperation(),
+                    r.getNanosPerOperation() / base, r.getBlocked(), r.getDeadlocks(), r.getVisitedPerInsert());
+        }
+
+        for (int tasks : sizes) {
+            runBanker(tasks, classes, units(tasks, classes, maxClaim), operations, maxClaim);
+        }
+        System.out.printf("%nBanker: %d classes, claims of 1..%d units, %d operations%n", classes, maxClaim,
+                operations);
+        System.out.printf("%8s %10s %8s %10s %10s%n", "Tasks", "ns/op", "x 1e3", "Blocked", "Unsafe");
+        base = 0;
+        for (int tasks : sizes) {
+            Result r = runBanker(tasks, classes, units(tasks, classes, maxClaim), operations, maxClaim);
+            base = base == 0 ? r.getNanosPerOperation() : base;
+            System.out.printf("%8d %10.1f %8.2f %10d %10d%n", r.getTasks(), r.getNanosPerOperation(),
+                    r.getNanosPerOperation() / base, r.getBlocked(), r.getDeadlocks());
+        }
+    }
+
+    // Enough units for about a quarter of the total claims.
+    private static int units(int tasks, int classes, int maxClaim) {
+        return Math.max(maxClaim, tasks * (maxClaim + 1) / 8 / classes);
+    }
+}
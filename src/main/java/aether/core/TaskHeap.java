@@ -0,0 +1,194 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskStore;
+
+// Addressable binary min-heap of task IDs ordered by a long key. Heap positions are
+// indexed by the task's store slot so removal and re-keying are O(log n) without
+// scanning, and the index stops growing at the peak live task count. An entry left
+// by an earlier task in the same slot is replaced when the new task is added.
+public class TaskHeap {
+    private int[] ids;
+    private long[] keys;
+    private int[] slots; // slots[slotIndex(taskID)] = heap index + 1, 0 when absent
+    private int size;
+
+    public TaskHeap() {
+        this(16);
+    }
+
+    public TaskHeap(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 4);
+        ids = new int[capacity];
+        keys = new long[capacity];
+        slots = new int[capacity];
+    }
+
+    public void add(int taskID, long key) {
+        int slot = ensureSlotCapacity(taskID);
+        if (slots[slot] != 0) {
+            if (ids[slots[slot] - 1] == taskID) {
+                changeKey(taskID, key);
+                return;
+            }
+            removeAt(slots[slot] - 1);
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        ids[size] = taskID;
+        keys[size] = key;
+        slots[slot] = size + 1;
+        siftUp(size++);
+    }
+
+    public int peek() {
+        return size == 0 ? -1 : ids[0];
+    }
+
+    public long peekKey() {
+        return size == 0 ? Long.MAX_VALUE : keys[0];
+    }
+
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int top = ids[0];
+        removeAt(0);
+        return top;
+    }
+
+    public boolean remove(int taskID) {
+        if (!contains(taskID)) {
+            return false;
+        }
+        removeAt(slots[TaskStore.slotIndex(taskID)] - 1);
+        return true;
+    }
+
+    public boolean changeKey(int taskID, long key) {
+        if (!contains(taskID)) {
+            return false;
+        }
+        int index = slots[TaskStore.slotIndex(taskID)] - 1;
+        long old = keys[index];
+        keys[index] = key;
+        if (key < old) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+        return true;
+    }
+
+    public long keyOf(int taskID) {
+        return contains(taskID) ? keys[slots[TaskStore.slotIndex(taskID)] - 1] : Long.MAX_VALUE;
+    }
+
+    public boolean contains(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        return taskID >= 0 && slot < slots.length && slots[slot] != 0 && ids[slots[slot] - 1] == taskID;
+    }
+
+    // Raw heap position access, for callers that iterate the heap.
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[TaskStore.slotIndex(ids[i])] = 0;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int index) {
+        slots[TaskStore.slotIndex(ids[index])] = 0;
+        int last = --size;
+        if (index == last) {
+            return;
+        }
+        ids[index] = ids[last];
+        keys[index] = keys[last];
+        slots[TaskStore.slotIndex(ids[index])] = index + 1;
+        if (index > 0 && less(index, (index - 1) >>> 1)) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+    }
+
+    private void siftUp(int index) {
+        int id = ids[index];
+        long key = keys[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(key, id, keys[parent], ids[parent])) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        place(index, id, key);
+    }
+
+    private void siftDown(int index) {
+        int id = ids[index];
+        long key = keys[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && less(right, child)) {
+                child = right;
+            }
+            if (!less(keys[child], ids[child], key, id)) {
+                break;
+            }
+            move(child, index);
+            index = child;
+        }
+        place(index, id, key);
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        keys[to] = keys[from];
+        slots[TaskStore.slotIndex(ids[to])] = to + 1;
+    }
+
+    private void place(int index, int id, long key) {
+        ids[index] = id;
+        keys[index] = key;
+        slots[TaskStore.slotIndex(id)] = index + 1;
+    }
+
+    private boolean less(int a, int b) {
+        return less(keys[a], ids[a], keys[b], ids[b]);
+    }
+
+    private static boolean less(long keyA, int idA, long keyB, int idB) {
+        return keyA < keyB || (keyA == keyB && idA < idB);
+    }
+
+    private int ensureSlotCapacity(int taskID) {
+        if (taskID < 0) {
+            throw new IllegalArgumentException("Task ID must be non-negative: " + taskID);
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slot + 1, slots.length * 2));
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,117 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+
+// One intrusive doubly-linked FIFO per TaskState. Links live in arrays indexed by
+// the task's store slot, and a task sits on at most one list, so every move is O(1)
+// and the arrays stop growing at the peak live task count. Callers pass live IDs
+// only; a stale ID would reach whichever task now holds its slot.
+public class TaskLists {
+    private static final int NONE = -1;
+    private static final TaskState[] STATES = TaskState.values();
+
+    private int[] next;
+    private int[] prev;
+    private byte[] owner; // TaskState ordinal + 1, 0 when unlinked
+    private final int[] head;
+    private final int[] tail;
+    private final int[] counts;
+
+    public TaskLists() {
+        int states = STATES.length;
+        next = new int[16];
+        prev = new int[16];
+        owner = new byte[16];
+        head = new int[states];
+        tail = new int[states];
+        counts = new int[states];
+        Arrays.fill(head, NONE);
+        Arrays.fill(tail, NONE);
+    }
+
+    public void add(int taskID, TaskState state) {
+        int slot = slotOf(taskID);
+        if (owner[slot] != 0) {
+            remove(taskID);
+        }
+        int s = state.ordinal();
+        next[slot] = NONE;
+        prev[slot] = tail[s];
+        if (tail[s] == NONE) {
+            head[s] = taskID;
+        } else {
+            next[TaskStore.slotIndex(tail[s])] = taskID;
+        }
+        tail[s] = taskID;
+        owner[slot] = (byte) (s + 1);
+        counts[s]++;
+    }
+
+    public boolean remove(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (taskID < 0 || slot >= owner.length || owner[slot] == 0) {
+            return false;
+        }
+        int s = owner[slot] - 1;
+        int n = next[slot];
+        int p = prev[slot];
+        if (p == NONE) {
+            head[s] = n;
+        } else {
+            next[TaskStore.slotIndex(p)] = n;
+        }
+        if (n == NONE) {
+            tail[s] = p;
+        } else {
+            prev[TaskStore.slotIndex(n)] = p;
+        }
+        owner[slot] = 0;
+        counts[s]--;
+        return true;
+    }
+
+    public int poll(TaskState state) {
+        int first = head[state.ordinal()];
+        if (first != NONE) {
+            remove(first);
+        }
+        return first;
+    }
+
+    public TaskState stateOf(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (taskID < 0 || slot >= owner.length || owner[slot] == 0) {
+            return null;
+        }
+        return STATES[owner[slot] - 1];
+    }
+
+    public int first(TaskState state) {
+        return head[state.ordinal()];
+    }
+
+    public int next(int taskID) {
+        return next[TaskStore.slotIndex(taskID)];
+    }
+
+    public int count(TaskState state) {
+        return counts[state.ordinal()];
+    }
+
+    // The task's slot, with the link arrays grown to cover it.
+    private int slotOf(int taskID) {
+        if (taskID < 0) {
+            throw new IllegalArgumentException("Task ID must be non-negative: " + taskID);
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= owner.length) {
+            int capacity = Math.max(slot + 1, owner.length * 2);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            owner = Arrays.copyOf(owner, capacity);
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,386 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskStore;
+
+// Resource-allocation graph of tasks and single-owner resources: a hold edge runs from
+// a resource to each task holding it and a wait edge from a blocked task to the
+// resource it waits for. A wait edge that closes a cycle is a deadlock and is refused.
+//
+// Cycles are found incrementally (Pearce-Kelly): the graph keeps a topological order
+// of its nodes, and a new edge x -> y that already agrees with it (ord[x] < ord[y])
+// cannot close a cycle and costs O(1). So does an edge into a node with no way out or
+// from a node with no way in, which just moves that node to the end or the start of
+// the order; this covers every hold edge, since a task is granted a resource only
+// when it waits for nothing. Otherwise only the nodes ordered between y and x are
+// searched and reordered, so the cost follows the affected region rather than the
+// size of the graph.
+public class WaitForGraph {
+    private static final int NONE = -1;
+
+    // A task in store slot t is node 2t, resource r is node 2r + 1.
+    private int[] ord = new int[0];
+    private int[] outHead = new int[0];
+    private int[] inHead = new int[0];
+    private int[] outDegree = new int[0];
+    private int[] inDegree = new int[0];
+    private int[] mark = new int[0];
+    private int epoch;
+    // Positions in use lie in minOrd..maxOrd; they are unique but not contiguous.
+    private int minOrd;
+    private int maxOrd = -1;
+
+    // Edge pool, linked into the source's out list and the target's in list.
+    private int[] from = new int[64];
+    private int[] to = new int[64];
+    private int[] outNext = new int[64];
+    private int[] outPrev = new int[64];
+    private int[] inNext = new int[64];
+    private int[] inPrev = new int[64];
+    private int freeEdge = NONE;
+    private int edgeHighWater;
+    private int edges;
+
+    // Scratch for the searches, reused between inserts.
+    private int[] stack = new int[64];
+    private int[] forward = new int[64];
+    private int[] backward = new int[64];
+    private int[] pool = new int[128];
+    private long[] keys = new long[64];
+    private int forwardCount;
+    private int backwardCount;
+
+    private long inserts;
+    private long reorders;
+    private long visited;
+    private long cycles;
+
+    public static int taskNode(int taskID) {
+        return TaskStore.slotIndex(taskID) << 1;
+    }
+
+    public static int resourceNode(int resourceID) {
+        return (resourceID << 1) | 1;
+    }
+
+    // Adds the wait edge task -> resource unless it would close a cycle.
+    public boolean addWait(int taskID, int resourceID) {
+        return insert(taskNode(taskID), resourceNode(resourceID));
+    }
+
+    public boolean removeWait(int taskID, int resourceID) {
+        return removeEdge(taskNode(taskID), resourceNode(resourceID));
+    }
+
+    // Adds the hold edge resource -> task; a task may hold a resource more than once.
+    public boolean addHold(int resourceID, int taskID) {
+        return insert(resourceNode(resourceID), taskNode(taskID));
+    }
+
+    public boolean removeHold(int resourceID, int taskID) {
+        return removeEdge(resourceNode(resourceID), taskNode(taskID));
+    }
+
+    // Some resource the task holds, or -1.
+    public int firstHeld(int taskID) {
+        int node = taskNode(taskID);
+        return node < inHead.length && inHead[node] != NONE ? from[inHead[node]] >> 1 : NONE;
+    }
+
+    public int heldCount(int taskID) {
+        int node = taskNode(taskID);
+        return node < inDegree.length ? inDegree[node] : 0;
+    }
+
+    public boolean holds(int taskID, int resourceID) {
+        return findEdge(resourceNode(resourceID), taskNode(taskID)) != NONE;
+    }
+
+    private boolean insert(int x, int y) {
+        ensureNode(Math.max(x, y));
+        inserts++;
+        if (x == y) {
+            cycles++;
+            return false;
+        }
+        if (ord[x] > ord[y] && outDegree[y] == 0) {
+            ord[y] = nextMaxOrd();
+        } else if (ord[x] > ord[y] && inDegree[x] == 0) {
+            ord[x] = nextMinOrd();
+        } else if (ord[x] > ord[y]) {
+            int upper = ord[x];
+            int lower = ord[y];
+            epoch++;
+            reorders++;
+            if (!searchForward(y, upper)) {
+                cycles++;
+                return false;
+            }
+            searchBackward(x, lower);
+            reorder();
+        }
+        link(x, y);
+        return true;
+    }
+
+    // Collects the nodes reachable from start and ordered before upper; false if the
+    // search reaches the node at upper, i.e. the new edge would close a cycle.
+    private boolean searchForward(int start, int upper) {
+        forwardCount = 0;
+        int top = 0;
+        stack[top++] = start;
+        mark[start] = epoch;
+        while (top > 0) {
+            int node = stack[--top];
+            forward = push(forward, forwardCount++, node);
+            for (int e = outHead[node]; e != NONE; e = outNext[e]) {
+                int next = to[e];
+                visited++;
+                if (ord[next] == upper) {
+                    return false;
+                }
+                if (mark[next] != epoch && ord[next] < upper) {
+                    mark[next] = epoch;
+                    stack = push(stack, top++, next);
+                }
+            }
+        }
+        return true;
+    }
+
+    // Collects the nodes that reach start and are ordered after lower.
+    private void searchBackward(int start, int lower) {
+        backwardCount = 0;
+        int top = 0;
+        stack[top++] = start;
+        mark[start] = epoch;
+        while (top > 0) {
+            int node = stack[--top];
+            backward = push(backward, backwardCount++, node);
+            for (int e = inHead[node]; e != NONE; e = inNext[e]) {
+                int previous = from[e];
+                visited++;
+                if (mark[previous] != epoch && ord[previous] > lower) {
+                    mark[previous] = epoch;
+                    stack = push(stack, top++, previous);
+                }
+            }
+        }
+    }
+
+    // Hands the affected positions out again: everything that reaches x first, then
+    // everything reachable from y, each group keeping its relative order.
+    private void reorder() {
+        sortByOrd(backward, backwardCount);
+        sortByOrd(forward, forwardCount);
+        int total = backwardCount + forwardCount;
+        if (pool.length < total) {
+            pool = new int[Math.max(total, pool.length * 2)];
+        }
+        for (int i = 0; i < backwardCount; i++) {
+            pool[i] = ord[backward[i]];
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            pool[backwardCount + i] = ord[forward[i]];
+        }
+        Arrays.sort(pool, 0, total);
+        for (int i = 0; i < backwardCount; i++) {
+            ord[backward[i]] = pool[i];
+        }
+        for (int i = 0; i < forwardCount; i++) {
+            ord[forward[i]] = pool[backwardCount + i];
+        }
+    }
+
+    // Insertion sort for the usual handful of nodes, packed keys beyond that.
+    private void sortByOrd(int[] nodes, int count) {
+        if (count <= 16) {
+            for (int i = 1; i < count; i++) {
+                int node = nodes[i];
+                int j = i - 1;
+                while (j >= 0 && ord[nodes[j]] > ord[node]) {
+                    nodes[j + 1] = nodes[j];
+                    j--;
+                }
+                nodes[j + 1] = node;
+            }
+            return;
+        }
+        if (keys.length < count) {
+            keys = new long[Math.max(count, keys.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            keys[i] = (long) ord[nodes[i]] << 32 | nodes[i];
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            nodes[i] = (int) keys[i];
+        }
+    }
+
+    private void link(int x, int y) {
+        int e = freeEdge;
+        if (e != NONE) {
+            freeEdge = outNext[e];
+        } else {
+            if (edgeHighWater == from.length) {
+                int capacity = from.length * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                outNext = Arrays.copyOf(outNext, capacity);
+                outPrev = Arrays.copyOf(outPrev, capacity);
+                inNext = Arrays.copyOf(inNext, capacity);
+                inPrev = Arrays.copyOf(inPrev, capacity);
+            }
+            e = edgeHighWater++;
+        }
+        from[e] = x;
+        to[e] = y;
+        outPrev[e] = NONE;
+        outNext[e] = outHead[x];
+        if (outHead[x] != NONE) {
+            outPrev[outHead[x]] = e;
+        }
+        outHead[x] = e;
+        inPrev[e] = NONE;
+        inNext[e] = inHead[y];
+        if (inHead[y] != NONE) {
+            inPrev[inHead[y]] = e;
+        }
+        inHead[y] = e;
+        outDegree[x]++;
+        inDegree[y]++;
+        edges++;
+    }
+
+    private boolean removeEdge(int x, int y) {
+        int e = findEdge(x, y);
+        if (e == NONE) {
+            return false;
+        }
+        if (outPrev[e] == NONE) {
+            outHead[x] = outNext[e];
+        } else {
+            outNext[outPrev[e]] = outNext[e];
+        }
+        if (outNext[e] != NONE) {
+            outPrev[outNext[e]] = outPrev[e];
+        }
+        if (inPrev[e] == NONE) {
+            inHead[y] = inNext[e];
+        } else {
+            inNext[inPrev[e]] = inNext[e];
+        }
+        if (inNext[e] != NONE) {
+            inPrev[inNext[e]] = inPrev[e];
+        }
+        outDegree[x]--;
+        inDegree[y]--;
+        edges--;
+        outNext[e] = freeEdge;
+        freeEdge = e;
+        return true;
+    }
+
+    // Walks the shorter of x's out list and y's in list.
+    private int findEdge(int x, int y) {
+        if (Math.max(x, y) >= ord.length) {
+            return NONE;
+        }
+        if (outDegree[x] <= inDegree[y]) {
+            for (int e = outHead[x]; e != NONE; e = outNext[e]) {
+                if (to[e] == y) {
+                    return e;
+                }
+            }
+        } else {
+            for (int e = inHead[y]; e != NONE; e = inNext[e]) {
+                if (from[e] == x) {
+                    return e;
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private int nextMaxOrd() {
+        if (maxOrd == Integer.MAX_VALUE) {
+            renumber();
+        }
+        return ++maxOrd;
+    }
+
+    private int nextMinOrd() {
+        if (minOrd == Integer.MIN_VALUE) {
+            renumber();
+        }
+        return --minOrd;
+    }
+
+    // Packs the positions back into 0..capacity-1 once either end runs out.
+    private void renumber() {
+        int[] nodes = new int[ord.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        sortByOrd(nodes, nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            ord[nodes[i]] = i;
+        }
+        minOrd = 0;
+        maxOrd = nodes.length - 1;
+    }
+
+    // New nodes have no edges, so any unused position in the order will do.
+    private void ensureNode(int node) {
+        if (node < ord.length) {
+            return;
+        }
+        int old = ord.length;
+        int capacity = Math.max(node + 1, Math.max(64, old * 2));
+        if (maxOrd > Integer.MAX_VALUE - (capacity - old)) {
+            renumber();
+        }
+        ord = Arrays.copyOf(ord, capacity);
+        outHead = Arrays.copyOf(outHead, capacity);
+        inHead = Arrays.copyOf(inHead, capacity);
+        outDegree = Arrays.copyOf(outDegree, capacity);
+        inDegree = Arrays.copyOf(inDegree, capacity);
+        mark = Arrays.copyOf(mark, capacity);
+        for (int i = old; i < capacity; i++) {
+            ord[i] = ++maxOrd;
+        }
+        Arrays.fill(outHead, old, capacity, NONE);
+        Arrays.fill(inHead, old, capacity, NONE);
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    public int getEdges() {
+        return edges;
+    }
+
+    public long getInserts() {
+        return inserts;
+    }
+
+    // Inserts that went against the current order and had to search.
+    public long getReorders() {
+        return reorders;
+    }
+
+    // Edges examined by all searches so far.
+    public long getVisited() {
+        return visited;
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+}
@@ -0,0 +1,136 @@
+package aether.core;
+
+import java.util.Arrays;
+import aether.model.process.TaskStore;
+
+// One intrusive FIFO per wait channel (a lock, a semaphore, a resource class...). A
+// task waits on at most one channel at a time, so the links live in arrays indexed by
+// the task's store slot and every enqueue, dequeue and cancel is O(1) without
+// allocating.
+public class WaitQueues {
+    private static final int NONE = -1;
+
+    private int[] next = new int[16];
+    private int[] prev = new int[16];
+    private int[] channel = new int[16]; // channel + 1, 0 when not waiting
+    private int[] head = new int[16];
+    private int[] tail = new int[16];
+    private int[] counts = new int[16];
+
+    public WaitQueues() {
+        Arrays.fill(head, NONE);
+        Arrays.fill(tail, NONE);
+    }
+
+    // Sized for channels 0 to channels - 1 up front, so adding to them never
+    // reallocates the per-channel arrays.
+    public WaitQueues(int channels) {
+        this();
+        ensureChannel(channels - 1);
+    }
+
+    public void add(int taskID, int channelID) {
+        int slot = ensureTask(taskID);
+        ensureChannel(channelID);
+        if (channel[slot] != 0) {
+            remove(taskID);
+        }
+        next[slot] = NONE;
+        prev[slot] = tail[channelID];
+        if (tail[channelID] == NONE) {
+            head[channelID] = taskID;
+        } else {
+            next[TaskStore.slotIndex(tail[channelID])] = taskID;
+        }
+        tail[channelID] = taskID;
+        channel[slot] = channelID + 1;
+        counts[channelID]++;
+    }
+
+    public boolean remove(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        if (taskID < 0 || slot >= channel.length || channel[slot] == 0) {
+            return false;
+        }
+        int c = channel[slot] - 1;
+        int n = next[slot];
+        int p = prev[slot];
+        if (p == NONE) {
+            head[c] = n;
+        } else {
+            next[TaskStore.slotIndex(p)] = n;
+        }
+        if (n == NONE) {
+            tail[c] = p;
+        } else {
+            prev[TaskStore.slotIndex(n)] = p;
+        }
+        channel[slot] = 0;
+        counts[c]--;
+        return true;
+    }
+
+    public int poll(int channelID) {
+        int first = first(channelID);
+        if (first != NONE) {
+            remove(first);
+        }
+        return first;
+    }
+
+    // The channel the task waits on, or -1.
+    public int channelOf(int taskID) {
+        int slot = TaskStore.slotIndex(taskID);
+        return taskID >= 0 && slot < channel.length ? channel[slot] - 1 : NONE;
+    }
+
+    public int first(int channelID) {
+        return channelID < head.length ? head[channelID] : NONE;
+    }
+
+    public int next(int taskID) {
+        return next[TaskStore.slotIndex(taskID)];
+    }
+
+    // The most recently queued task, or -1.
+    public int last(int channelID) {
+        return channelID < tail.length ? tail[channelID] : NONE;
+    }
+
+    public int previous(int taskID) {
+        return prev[TaskStore.slotIndex(taskID)];
+    }
+
+    public int count(int channelID) {
+        return channelID < counts.length ? counts[channelID] : 0;
+    }
+
+    private int ensureTask(int taskID) {
+        if (taskID < 0) {
+            throw new IllegalArgumentException("Task ID must be non-negative: " + taskID);
+        }
+        int slot = TaskStore.slotIndex(taskID);
+        if (slot >= channel.length) {
+            int capacity = Math.max(slot + 1, channel.length * 2);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            channel = Arrays.copyOf(channel, capacity);
+        }
+        return slot;
+    }
+
+    private void ensureChannel(int channelID) {
+        if (channelID < 0) {
+            throw new IllegalArgumentException("Channel ID must be non-negative: " + channelID);
+        }
+        if (channelID >= head.length) {
+            int old = head.length;
+            int capacity = Math.max(channelID + 1, old * 2);
+            head = Arrays.copyOf(head, capacity);
+            tail = Arrays.copyOf(tail, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            Arrays.fill(head, old, capacity, NONE);
+            Arrays.fill(tail, old, capacity, NONE);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package aether.model.memory;
+
+// Counters and capacity shared by the replacement policies.
+public abstract class AbstractReplacementPolicy implements ReplacementPolicy {
+    protected static final int NIL = -1;
+
+    protected final int capacity;
+    protected long hits;
+    protected long misses;
+    protected long evictions;
+    protected int lastEvicted = NIL;
+
+    protected AbstractReplacementPolicy(int capacity) {
+        this.capacity = Math.max(capacity, 0);
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getLastEvicted() {
+        return lastEvicted;
+    }
+
+    @Override
+    public long getHits() {
+        return hits;
+    }
+
+    @Override
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public double getHitRatio() {
+        long accesses = hits + misses;
+        return accesses == 0 ? 0 : (double) hits / accesses;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(%d) hits=%d misses=%d faultRate=%.4f", getName(), capacity, hits, misses,
+                getFaultRate());
+    }
+}
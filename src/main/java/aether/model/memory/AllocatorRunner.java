@@ -0,0 +1,99 @@
+package aether.model.memory;
+
+import java.util.SplittableRandom;
+
+// Drives a buddy zone and a slab allocator on top of another zone with random
+// alloc/free pairs around a steady live set and reports throughput and
+// fragmentation. Request sizes are log-uniform, so small requests dominate but
+// large ones keep showing up.
+public class AllocatorRunner {
+
+    // Allocations of 1..maxPages pages and frees against the zone, keeping about a
+    // quarter of it allocated. Returns the seconds spent.
+    public static double runBuddy(BuddyAllocator zone, long operations, int maxPages, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] live = new int[zone.getFrames()];
+        int liveCount = 0;
+        double logMax = Math.log(maxPages + 1);
+        long start = System.nanoTime();
+        for (long op = 0; op < operations; op++) {
+            boolean allocate = liveCount == 0 || zone.getFreePages() > zone.getFrames() * 3 / 4
+                    ? random.nextInt(4) != 0 : random.nextInt(4) == 0;
+            if (allocate) {
+                int pages = (int) Math.exp(random.nextDouble() * logMax);
+                int block = zone.allocate(Math.max(pages, 1));
+                if (block != BuddyAllocator.NONE) {
+                    live[liveCount++] = block;
+                    continue;
+                }
+            }
+            if (liveCount > 0) {
+                int victim = random.nextInt(liveCount);
+                zone.free(live[victim]);
+                live[victim] = live[--liveCount];
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    // The same for slab objects of 1..maxObject bytes, with about liveTarget objects live.
+    public static double runSlab(SlabAllocator slabs, long operations, int liveTarget, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] addresses = new long[liveTarget * 2];
+        int[] sizes = new int[liveTarget * 2];
+        int liveCount = 0;
+        double logMax = Math.log(slabs.getMaxObject());
+        long start = System.nanoTime();
+        for (long op = 0; op < operations; op++) {
+            boolean allocate = liveCount < liveTarget ? random.nextInt(4) != 0 : random.nextInt(4) == 0;
+            if (allocate && liveCount < addresses.length) {
+                int size = (int) Math.exp(random.nextDouble() * logMax) + 1;
+                size = Math.min(size, slabs.getMaxObject());
+                long address = slabs.allocate(size);
+                if (address != SlabAllocator.NONE) {
+                    addresses[liveCount] = address;
+                    sizes[liveCount++] = size;
+                    continue;
+                }
+            }
+            if (liveCount > 0) {
+                int victim = random.nextInt(liveCount);
+                slabs.free(addresses[victim], sizes[victim]);
+                liveCount--;
+                addresses[victim] = addresses[liveCount];
+                sizes[victim] = sizes[liveCount];
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    // Usage: AllocatorRunner [operations] [zoneOrder] [maxBuddyPages] [pageSize]
+    public static void main(String[] args) {
+        long operations = args.length > 0 ? Long.parseLong(args[0]) : 20_000_000;
+        int zoneOrder = args.length > 1 ? Integer.parseInt(args[1]) : 18;
+        int maxPages = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        int pageSize = args.length > 3 ? Integer.parseInt(args[3]) : 4096;
+
+        // One zone for the buddy run and a half-size one for the slabs.
+        long capacity = (3L << (zoneOrder - 1)) * pageSize;
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Zones of order " + zoneOrder + " with " + pageSize
+                    + "-byte pages exceed the simulated memory size");
+        }
+        CellStore store = new CellStore(pageSize, (int) capacity);
+        BuddyAllocator buddy = store.reserveZone(zoneOrder);
+        BuddyAllocator slabZone = store.reserveZone(zoneOrder - 1);
+        if (buddy == null || slabZone == null) {
+            throw new IllegalStateException("Cannot reserve zones of order " + zoneOrder);
+        }
+
+        double seconds = runBuddy(buddy, operations, maxPages, 1);
+        System.out.printf("Buddy: %d ops in %.2f s (%.1f Mops/s)%n  %s%n", operations, seconds,
+                operations / seconds / 1e6, buddy);
+
+        SlabAllocator slabs = new SlabAllocator(slabZone, pageSize);
+        seconds = runSlab(slabs, operations, slabZone.getFrames() * 4, 2);
+        System.out.printf("Slab:  %d ops in %.2f s (%.1f Mops/s)%n  %s, %d bytes in objects%n", operations, seconds,
+                operations / seconds / 1e6, slabs, slabs.getObjectBytes());
+    }
+}
@@ -0,0 +1,168 @@
+package aether.model.memory;
+
+import java.util.function.IntConsumer;
+
+// Adaptive Replacement Cache (Megiddo and Modha). T1 holds pages seen once recently,
+// T2 pages seen at least twice; the ghost lists B1 and B2 remember pages recently
+// evicted from each. A ghost hit in B1 grows the target size p of T1, a ghost hit in
+// B2 shrinks it, so the split between recency and frequency tracks the workload.
+public class ArcPolicy extends AbstractReplacementPolicy {
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+
+    private final int[] pages;
+    private final EntryLists lists;
+    private final PageIndex entryOf;
+    private int target;
+
+    public ArcPolicy(int capacity) {
+        super(capacity);
+        int entries = this.capacity * 2;
+        pages = new int[entries];
+        lists = new EntryLists(entries, 4);
+        entryOf = new PageIndex(entries);
+    }
+
+    @Override
+    public String getName() {
+        return "ARC";
+    }
+
+    @Override
+    public boolean access(int page) {
+        lastEvicted = NIL;
+        int entry = entryOf.get(page);
+        int list = entry >= 0 ? lists.listOf(entry) : NIL;
+        if (list == T1 || list == T2) {
+            hits++;
+            lists.moveToHead(T2, entry);
+            return true;
+        }
+        misses++;
+        if (capacity == 0) {
+            return false;
+        }
+
+        if (list == B1) {
+            target = Math.min(capacity, target + Math.max(lists.count(B2) / lists.count(B1), 1));
+            lists.remove(entry);
+            makeRoom(false);
+            lists.addHead(T2, entry);
+            return false;
+        }
+        if (list == B2) {
+            target = Math.max(0, target - Math.max(lists.count(B1) / lists.count(B2), 1));
+            lists.remove(entry);
+            makeRoom(true);
+            lists.addHead(T2, entry);
+            return false;
+        }
+
+        int recent = lists.count(T1) + lists.count(B1);
+        if (recent == capacity) {
+            if (lists.count(T1) < capacity) {
+                dropGhost(B1);
+                makeRoom(false);
+            } else {
+                int victim = lists.tail(T1);
+                lastEvicted = pages[victim];
+                evictions++;
+                entryOf.remove(pages[victim]);
+                lists.release(victim);
+            }
+        } else {
+            int total = recent + lists.count(T2) + lists.count(B2);
+            if (total >= capacity) {
+                if (total == 2 * capacity) {
+                    dropGhost(B2);
+                }
+                makeRoom(false);
+            }
+        }
+        entry = lists.allocate();
+        pages[entry] = page;
+        entryOf.put(page, entry);
+        lists.addHead(T1, entry);
+        return false;
+    }
+
+    // Ghosts normally exist only once the cache is full, but evict() can leave free
+    // frames behind them, so only replace when every frame is in use.
+    private void makeRoom(boolean hitInB2) {
+        if (size() == capacity) {
+            replace(hitInB2);
+        }
+    }
+
+    // Moves the LRU page of T1 or T2 to the matching ghost list.
+    private int replace(boolean hitInB2) {
+        int t1 = lists.count(T1);
+        boolean fromT1 = t1 > 0 && (t1 > target || (hitInB2 && t1 == target) || lists.count(T2) == 0);
+        int victim = lists.tail(fromT1 ? T1 : T2);
+        lists.remove(victim);
+        lists.addHead(fromT1 ? B1 : B2, victim);
+        lastEvicted = pages[victim];
+        evictions++;
+        return lastEvicted;
+    }
+
+    private void dropGhost(int list) {
+        int ghost = lists.tail(list);
+        if (ghost != NIL) {
+            entryOf.remove(pages[ghost]);
+            lists.release(ghost);
+        }
+    }
+
+    @Override
+    public int evict() {
+        lastEvicted = NIL;
+        if (size() == 0) {
+            return NIL;
+        }
+        // Keep the ghost lists within their bound of capacity entries in total.
+        if (lists.count(B1) + lists.count(B2) >= capacity) {
+            dropGhost(lists.count(B1) > lists.count(B2) ? B1 : B2);
+        }
+        return replace(false);
+    }
+
+    // Ghost entries are forgotten too; only a resident page reports true.
+    @Override
+    public boolean remove(int page) {
+        int entry = entryOf.remove(page);
+        if (entry < 0) {
+            return false;
+        }
+        boolean resident = lists.listOf(entry) <= T2;
+        lists.release(entry);
+        return resident;
+    }
+
+    @Override
+    public boolean contains(int page) {
+        int entry = entryOf.get(page);
+        return entry >= 0 && lists.listOf(entry) <= T2;
+    }
+
+    @Override
+    public int size() {
+        return lists.count(T1) + lists.count(T2);
+    }
+
+    public int getTargetSize() {
+        return target;
+    }
+
+    @Override
+    public void forEachResident(IntConsumer action) {
+        for (int e = lists.head(T2); e != NIL; e = lists.next(e)) {
+            action.accept(pages[e]);
+        }
+        for (int e = lists.head(T1); e != NIL; e = lists.next(e)) {
+            action.accept(pages[e]);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// Binary buddy allocator over a zone of contiguous frames. Blocks are 2^order frames
+// aligned to their size within the zone, so a block's buddy is found by flipping bit
+// `order` of its offset. Free blocks sit in one array-linked list per order and a
+// bitmask of the non-empty orders picks the smallest fitting block in O(1); allocate
+// and free then split or merge at most log2(frames) times. Not thread-safe.
+public class BuddyAllocator {
+    public static final int NONE = -1;
+    private static final byte NOT_FREE = -1;
+    private static final int NIL = -1;
+
+    private final int baseFrame;
+    private final int frames;
+    private final int maxOrder;
+    private final int[] next;       // free-list links, by offset in the zone
+    private final int[] prev;
+    private final byte[] freeOrder; // order of the free block starting here, or NOT_FREE
+    private final byte[] usedOrder; // order of the allocated block starting here, or NOT_FREE
+    private final int[] requested;  // pages asked for by the allocated block starting here
+    private final int[] heads;
+    private final int[] counts;
+    private int nonEmpty;           // bit k set while order k has a free block
+
+    private int freePages;
+    private long requestedPages;
+    private long allocatedPages;
+    private long allocations;
+    private long failures;
+
+    public BuddyAllocator(int baseFrame, int frames) {
+        if (frames <= 0) {
+            throw new IllegalArgumentException("A buddy zone needs at least one frame, not " + frames);
+        }
+        this.baseFrame = baseFrame;
+        this.frames = frames;
+        this.maxOrder = 31 - Integer.numberOfLeadingZeros(frames);
+        next = new int[frames];
+        prev = new int[frames];
+        freeOrder = new byte[frames];
+        usedOrder = new byte[frames];
+        requested = new int[frames];
+        heads = new int[maxOrder + 1];
+        counts = new int[maxOrder + 1];
+        Arrays.fill(freeOrder, NOT_FREE);
+        Arrays.fill(usedOrder, NOT_FREE);
+        Arrays.fill(heads, NIL);
+
+        // Cover the zone with the largest aligned blocks that fit.
+        int offset = 0;
+        while (offset < frames) {
+            int order = offset == 0 ? maxOrder : Math.min(Integer.numberOfTrailingZeros(offset), maxOrder);
+            while (offset + (1 << order) > frames) {
+                order--;
+            }
+            push(offset, order);
+            offset += 1 << order;
+        }
+        freePages = frames;
+    }
+
+    // Returns the first frame of a block of at least pages frames, or NONE.
+    public int allocate(int pages) {
+        if (pages <= 0) {
+            throw new IllegalArgumentException("Invalid page count: " + pages);
+        }
+        int order = orderFor(pages);
+        int candidates = order > maxOrder ? 0 : nonEmpty & (-1 << order);
+        if (candidates == 0) {
+            failures++;
+            return NONE;
+        }
+        int k = Integer.numberOfTrailingZeros(candidates);
+        int block = heads[k];
+        unlink(block, k);
+        while (k > order) {
+            k--;
+            push(block + (1 << k), k);
+        }
+        usedOrder[block] = (byte) order;
+        requested[block] = pages;
+        freePages -= 1 << order;
+        allocatedPages += 1 << order;
+        requestedPages += pages;
+        allocations++;
+        return baseFrame + block;
+    }
+
+    // Frees the block that allocate returned, merging it with free buddies.
+    public void free(int frame) {
+        int block = frame - baseFrame;
+        if (block < 0 || block >= frames || usedOrder[block] == NOT_FREE) {
+            throw new IllegalStateException("Frame " + frame + " does not start an allocated block");
+        }
+        int order = usedOrder[block];
+        usedOrder[block] = NOT_FREE;
+        freePages += 1 << order;
+        allocatedPages -= 1 << order;
+        requestedPages -= requested[block];
+        while (order < maxOrder) {
+            int buddy = block ^ (1 << order);
+            if (buddy >= frames || freeOrder[buddy] != order) {
+                break;
+            }
+            unlink(buddy, order);
+            block = Math.min(block, buddy);
+            order++;
+        }
+        push(block, order);
+    }
+
+    // Size in frames of the block starting at frame, or 0 if none is allocated there.
+    public int blockSize(int frame) {
+        int block = frame - baseFrame;
+        if (block < 0 || block >= frames || usedOrder[block] == NOT_FREE) {
+            return 0;
+        }
+        return 1 << usedOrder[block];
+    }
+
+    public static int orderFor(int pages) {
+        return pages <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(pages - 1);
+    }
+
+    private void push(int block, int order) {
+        int head = heads[order];
+        next[block] = head;
+        prev[block] = NIL;
+        if (head != NIL) {
+            prev[head] = block;
+        }
+        heads[order] = block;
+        freeOrder[block] = (byte) order;
+        counts[order]++;
+        nonEmpty |= 1 << order;
+    }
+
+    private void unlink(int block, int order) {
+        int p = prev[block];
+        int n = next[block];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            heads[order] = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        }
+        freeOrder[block] = NOT_FREE;
+        if (--counts[order] == 0) {
+            nonEmpty &= ~(1 << order);
+        }
+    }
+
+    public int getBaseFrame() {
+        return baseFrame;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public int getMaxOrder() {
+        return maxOrder;
+    }
+
+    public int getFreePages() {
+        return freePages;
+    }
+
+    public long getAllocatedPages() {
+        return allocatedPages;
+    }
+
+    public long getRequestedPages() {
+        return requestedPages;
+    }
+
+    public int getFreeBlocks(int order) {
+        return counts[order];
+    }
+
+    public int getLargestFreeBlock() {
+        return nonEmpty == 0 ? 0 : Integer.highestOneBit(nonEmpty);
+    }
+
+    // Share of allocated frames lost to rounding requests up to a power of two.
+    public double getInternalFragmentation() {
+        return allocatedPages == 0 ? 0 : 1 - (double) requestedPages / allocatedPages;
+    }
+
+    // Share of free frames outside the largest free block, i.e. unusable for one big request.
+    public double getExternalFragmentation() {
+        return freePages == 0 ? 0 : 1 - (double) getLargestFreeBlock() / freePages;
+    }
+
+    public long getAllocations() {
+        return allocations;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Buddy[%d frames] free=%d largest=%d internal=%.3f external=%.3f", frames, freePages,
+                getLargestFreeBlock(), getInternalFragmentation(), getExternalFragmentation());
+    }
+}
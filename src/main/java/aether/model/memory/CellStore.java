@@ -1,77 +1,900 @@
 package aether.model.memory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
 import java.util.*;
 
+// Physical memory as TotalMemory / PageSize frames (both read from the config file).
+// Each process gets a NodeMemory whose multi-level page table maps its virtual pages
+// onto frames from the FrameAllocator; the replacement policy sees global frame
+// numbers, and processes share a frame only after a fork. Everything a process holds
+// is freed by releaseMemory. translate() resolves virtual addresses through a TLB
+// tagged with the task ID and counts hits, misses and page walks. The frames' bytes
+// live off-heap in PhysicalMemory; read, write and copy move them by virtual address,
+// and frames are zeroed before a process sees them. With a SwapDevice attached memory can be
+// overcommitted: when frames run out the replacement policy picks victims that are
+// written to swap in batches, and their pages come back through pageIn on a fault.
+// forkMemory shares a process's frames with a child copy-on-write: a per-frame count
+// of extra mappings makes the first write by either side copy the page.
 public class CellStore {
-    private Map<Integer, NodeMemory> nodeMemoryMap;
+    public static final long FAULT = -1;
+
     private int cellSize;
+    private int pageShift; // log2(cellSize), or -1 when the page size is not a power of two
     private int totalCapacity;
-    private FluxCache fluxCache;
+    private int pageTableLevels;
+    private int hugeShift; // a huge page is 2^hugeShift pages
+    private FrameAllocator frames;
+    private final PhysicalMemory memory;
+    private ReplacementPolicy fluxCache;
+    private Tlb tlb;
+
+    // nodeID -> slot in nodes; slots of released processes are reused.
+    private final PageIndex nodeSlots = new PageIndex(64);
+    private NodeMemory[] nodes = new NodeMemory[64];
+    private int[] freeSlots = new int[64];
+    private int freeSlotCount;
+    private int slotLimit;
+    private volatile int residentNodes;
+    private int[] scratch = new int[16];
+
+    // Page tables of exited processes, cleared and handed to the next ones.
+    private static final int TABLE_POOL = 256;
+    private final PageTable[] tablePool = new PageTable[TABLE_POOL];
+    private int pooledTables;
+
+    // Demand paging, set up by attachSwap: per frame the owning process and virtual page
+    // (-1 for frames that are not pageable, e.g. huge pages), the swap slot that still
+    // holds a copy of the page (-1 if none) and a dirty bit.
+    private SwapDevice swap;
+    private int swapBatch;
+    private int[] frameOwner;
+    private long[] framePage;
+    private int[] frameSlot;
+    private long[] dirty;
+    private int pageableFrames;
+    private long swapIns;
+    private long swapOuts;
+    private long reclaims;
+
+    // Copy-on-write: per frame, the number of page tables mapping it beyond the first.
+    // Allocated by the first fork; sharedFrames counts frames with a nonzero entry.
+    private int[] frameShares;
+    private int[] slotShares; // the same for swap slots of swapped-out pages
+    private int sharedFrames;
+    private long sharedMappings;
+    private long forks;
+    private long cowFaults;
+    private long cowBytes;
+
+    private long translations;
+    private long pageWalks;
+    private long walkReads;
+    private long faults;
 
     public CellStore(String configFilePath) {
-        nodeMemoryMap = new HashMap<>();
-        this.cellSize = loadCellSize(configFilePath);
-        this.totalCapacity = loadTotalCapacity(configFilePath);
-        this.fluxCache = new FluxCache(totalCapacity / cellSize);
+        this(loadCellSizeFrom(configFilePath), loadTotalCapacity(configFilePath),
+                loadInt(configFilePath, 2, "PageTableLevels"),
+                new Tlb(loadInt(configFilePath, 16, "TlbSets"), loadInt(configFilePath, 4, "TlbWays"),
+                        Tlb.Replacement.valueOf(loadSetting(configFilePath, "LRU", "TlbReplacement").toUpperCase())));
+        String swapFile = loadSetting(configFilePath, "", "SwapFile");
+        if (!swapFile.isEmpty()) {
+            try {
+                attachSwap(new SwapDevice(Paths.get(swapFile),
+                        loadInt(configFilePath, 4 * frames.getTotalFrames(), "SwapSlots"), cellSize),
+                        loadInt(configFilePath, 32, "SwapBatch"));
+            } catch (IOException e) {
+                System.err.println("Cannot open swap file " + swapFile + ". Running without swap.");
+            }
+        }
+    }
+
+    public CellStore(int cellSize, int totalCapacity) {
+        this(cellSize, totalCapacity, 2, new Tlb(16, 4, Tlb.Replacement.LRU));
+    }
+
+    public CellStore(int cellSize, int totalCapacity, int pageTableLevels, Tlb tlb) {
+        if (cellSize <= 0 || totalCapacity < 0) {
+            throw new IllegalArgumentException("Invalid memory geometry: " + totalCapacity + " / " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.pageShift = Integer.bitCount(cellSize) == 1 ? Integer.numberOfTrailingZeros(cellSize) : -1;
+        this.totalCapacity = totalCapacity;
+        this.pageTableLevels = pageTableLevels;
+        this.hugeShift = new PageTable(pageTableLevels).getHugeShift();
+        this.frames = new FrameAllocator(totalCapacity / cellSize);
+        this.memory = new PhysicalMemory(cellSize, frames.getTotalFrames());
+        this.fluxCache = new FluxCache(frames.getTotalFrames());
+        this.tlb = tlb;
+        tlb.setHugeShift(hugeShift);
     }
 
     public int loadCellSize(String configFilePath) {
-        int defaultSize = 4096;
+        return loadCellSizeFrom(configFilePath);
+    }
+
+    private static int loadCellSizeFrom(String configFilePath) {
+        return loadInt(configFilePath, 4096, "PageSize", "CellSize");
+    }
+
+    private static int loadTotalCapacity(String configFilePath) {
+        return loadInt(configFilePath, 1024, "TotalMemory", "TotalCapacity");
+    }
+
+    private static int loadInt(String configFilePath, int defaultValue, String... keys) {
+        return Integer.parseInt(loadSetting(configFilePath, String.valueOf(defaultValue), keys));
+    }
+
+    private static String loadSetting(String configFilePath, String defaultValue, String... keys) {
         File configFile = new File(configFilePath);
         if (!configFile.exists())
-            return defaultSize;
+            return defaultValue;
 
         try (BufferedReader reader = new BufferedReader(new FileReader(configFile))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.startsWith("PageSize") || line.startsWith("CellSize")) {
-                    String[] parts = line.split("=");
-                    if (parts.length == 2) {
-                        return Integer.parseInt(parts[1].trim());
-                    }
+                String[] parts = line.trim().split("=");
+                if (parts.length == 2 && Arrays.asList(keys).contains(parts[0].trim())) {
+                    return parts[1].trim();
                 }
             }
         } catch (IOException e) {
             System.err.println("Error reading config. Defaulting.");
         }
-        return defaultSize;
+        return defaultValue;
     }
 
-    private int loadTotalCapacity(String configFilePath) {
-        int defaultCapacity = 1024;
-        File configFile = new File(configFilePath);
-        if (!configFile.exists())
-            return defaultCapacity;
+    // A process created without a size gets a single page.
+    public boolean allocateMemoryToProcess(int nodeID) {
+        return allocateMemoryToProcess(nodeID, cellSize);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(configFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.startsWith("TotalMemory") || line.startsWith("TotalCapacity")) {
-                    String[] parts = line.split("=");
-                    if (parts.length == 2) {
-                        return Integer.parseInt(parts[1].trim());
+    // Backs size bytes with frames and maps them after the process's existing pages.
+    // Returns false, allocating nothing, when there are not enough free frames.
+    public synchronized boolean allocateMemoryToProcess(int nodeID, long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid allocation size: " + size);
+        }
+        int pages = NodeMemory.pagesFor(size, cellSize);
+        if (swap != null) {
+            return allocatePageable(nodeID, size, pages);
+        }
+        ensureScratch(pages);
+        if (!frames.allocate(scratch, pages)) {
+            return false;
+        }
+        nodeMemory(nodeID).extend(scratch, pages, size);
+        for (int i = 0; i < pages; i++) {
+            memory.zeroPage(scratch[i]);
+            fluxCache.access(scratch[i]);
+        }
+        return true;
+    }
+
+    // Overcommitting allocation: frames come from reclaim once none are free. Each page
+    // reclaimed frees a frame and takes at most one swap slot, so the check up front
+    // guarantees the loop never runs dry.
+    private boolean allocatePageable(int nodeID, long size, int pages) {
+        if (pages > frames.getFreeFrames() + (long) Math.min(pageableFrames, swap.getFreeSlots())) {
+            return false;
+        }
+        NodeMemory nodeMem = nodeMemory(nodeID);
+        for (int i = 0; i < pages; i++) {
+            int frame = takeFrame();
+            if (frame == FrameAllocator.NONE) {
+                throw new IllegalStateException("Reclaim freed fewer frames than swap had room for");
+            }
+            memory.zeroPage(frame);
+            track(frame, nodeID, nodeMem.mapNext(frame), -1, true);
+            fluxCache.access(frame);
+        }
+        nodeMem.grow(size);
+        return true;
+    }
+
+    // Lets allocations overcommit memory. When no frame is free, up to batch victims of
+    // the replacement policy are swapped out (only dirty pages are written) followed by
+    // one sync. Huge pages stay resident. Attach before any process holds memory.
+    public synchronized void attachSwap(SwapDevice swap, int batch) {
+        if (residentNodes > 0) {
+            throw new IllegalStateException("Attach swap before processes allocate memory");
+        }
+        if (swap.getPageSize() != cellSize || batch <= 0) {
+            throw new IllegalArgumentException("Swap of " + swap.getPageSize() + "-byte pages in batches of " + batch
+                    + " does not fit " + cellSize + "-byte frames");
+        }
+        int total = frames.getTotalFrames();
+        frameOwner = new int[total];
+        framePage = new long[total];
+        frameSlot = new int[total];
+        dirty = new long[(total + 63) >>> 6];
+        Arrays.fill(framePage, -1);
+        Arrays.fill(frameSlot, -1);
+        this.swap = swap;
+        this.swapBatch = batch;
+    }
+
+    // Brings a swapped-out page back into a frame, reclaiming others if memory is full.
+    // Returns whether the page is resident afterwards; false if it is not mapped at all
+    // or no frame could be freed.
+    public synchronized boolean pageIn(int nodeID, long page) {
+        NodeMemory nodeMem = getNodeMemory(nodeID);
+        if (nodeMem == null) {
+            return false;
+        }
+        PageTable table = nodeMem.getPageTable();
+        int slot = table.swapSlotOf(page);
+        if (slot < 0) {
+            return table.frameOf(page) != PageTable.UNMAPPED;
+        }
+        int frame = takeFrame();
+        if (frame == FrameAllocator.NONE) {
+            return false;
+        }
+        swap.readPage(slot, memory, frame);
+        table.map(page, frame);
+        if (slotShares != null && slotShares[slot] > 0) {
+            // Another process's page table still points at the slot: this copy is private.
+            slotShares[slot]--;
+            track(frame, nodeID, page, -1, true);
+        } else {
+            track(frame, nodeID, page, slot, false);
+        }
+        fluxCache.access(frame);
+        swapIns++;
+        return true;
+    }
+
+    // One memory reference by a running task: a use of the frame for the replacement
+    // policy, and a store marks the page dirty. Returns false on a page fault, i.e. the
+    // page is swapped out (see pageIn) or not mapped.
+    public synchronized boolean touch(int nodeID, long page, boolean write) {
+        long physical = translateLocked(nodeID, page * cellSize);
+        if (physical == FAULT) {
+            return false;
+        }
+        if (write) {
+            if (sharedFrames > 0 && frameShares[(int) (physical / cellSize)] > 0) {
+                physical = copyOnWrite(nodeID, page, physical);
+                if (physical == FAULT) {
+                    return false;
+                }
+            }
+            if (swap != null) {
+                markDirty((int) (physical / cellSize));
+            }
+        }
+        return true;
+    }
+
+    // Gives childID a copy of the parent's address space that shares every frame until
+    // one side writes to a page (see copyOnWrite); nothing is copied and no frame is
+    // taken. A swapped-out page shares its swap slot instead, and each sharer that pages
+    // it in gets a private copy. Returns false if the parent has no memory or the child
+    // already has some.
+    public synchronized boolean forkMemory(int parentID, int childID) {
+        NodeMemory parent = getNodeMemory(parentID);
+        if (parent == null || nodeSlots.get(childID) >= 0) {
+            return false;
+        }
+        if (frameShares == null) {
+            frameShares = new int[frames.getTotalFrames()];
+        }
+        if (swap != null && slotShares == null) {
+            slotShares = new int[swap.getSlots()];
+        }
+        NodeMemory child = nodeMemory(childID);
+        PageTable from = parent.getPageTable();
+        PageTable to = child.getPageTable();
+        for (long page = 0; page < from.getPageCount(); page++) {
+            int frame = from.frameOf(page);
+            if (frame == PageTable.UNMAPPED) {
+                int slot = swap == null ? -1 : from.swapSlotOf(page);
+                if (slot >= 0) {
+                    to.mapSwapped(page, slot);
+                    slotShares[slot]++;
+                }
+            } else if (from.wasHuge()) {
+                // Pages are visited in order, so this is the huge page's first one.
+                to.mapHuge(page, frame);
+                for (int i = 0; i < from.getHugePages(); i++) {
+                    share(frame + i, childID);
+                }
+                page += from.getHugePages() - 1;
+            } else {
+                to.map(page, frame);
+                share(frame, childID);
+            }
+        }
+        child.copyLayout(parent);
+        forks++;
+        return true;
+    }
+
+    // A shared frame maps the same page in every sharer, and its swap copy stays valid
+    // since nobody writes to it. frameOwner holds the XOR of the sharers' IDs, so once
+    // only one is left it is that process again.
+    private void share(int frame, int nodeID) {
+        if (frameShares[frame]++ == 0) {
+            sharedFrames++;
+        }
+        sharedMappings++;
+        if (swap != null) {
+            frameOwner[frame] ^= nodeID;
+        }
+    }
+
+    private void unshare(int frame, int nodeID) {
+        if (--frameShares[frame] == 0) {
+            sharedFrames--;
+        }
+        sharedMappings--;
+        if (swap != null) {
+            frameOwner[frame] ^= nodeID;
+        }
+    }
+
+    // A write to a frame that other processes still map: the writer gets its own copy,
+    // of the whole huge page if the frame is part of one. Returns the physical address
+    // in the copy, or FAULT when no frame is free for it.
+    private long copyOnWrite(int nodeID, long page, long physical) {
+        int frame = (int) (physical / cellSize);
+        long offset = physical - (long) frame * cellSize;
+        PageTable table = nodes[nodeSlots.get(nodeID)].getPageTable();
+        table.frameOf(page);
+        if (table.wasHuge()) {
+            int hugePages = 1 << hugeShift;
+            int first = frame - (int) (page & (hugePages - 1));
+            int copy = frames.allocateContiguous(hugePages);
+            if (copy == FrameAllocator.NONE) {
+                return FAULT;
+            }
+            memory.copy((long) first * cellSize, (long) copy * cellSize, (long) hugePages * cellSize);
+            long base = page & -hugePages;
+            table.unmap(base);
+            table.mapHuge(base, copy);
+            tlb.flush(nodeID);
+            for (int i = 0; i < hugePages; i++) {
+                unshare(first + i, nodeID);
+                fluxCache.access(copy + i);
+            }
+            cowFaults++;
+            cowBytes += (long) hugePages * cellSize;
+            return (long) (copy + frame - first) * cellSize + offset;
+        }
+        // Reclaim must not swap out the frame being copied, so it leaves the replacement
+        // policy until the copy frame is found.
+        boolean pinned = swap != null && fluxCache.remove(frame);
+        int copy = takeFrame();
+        if (pinned) {
+            fluxCache.access(frame);
+        }
+        if (copy == FrameAllocator.NONE) {
+            return FAULT;
+        }
+        if (table.frameOf(page) != frame) {
+            frames.free(copy); // the page left the frame after all; fault it in again
+            return FAULT;
+        }
+        memory.copyPage(frame, copy);
+        table.map(page, copy);
+        tlb.invalidatePage(nodeID, page);
+        unshare(frame, nodeID);
+        if (swap != null) {
+            track(copy, nodeID, page, -1, true);
+        }
+        fluxCache.access(copy);
+        cowFaults++;
+        cowBytes += cellSize;
+        return (long) copy * cellSize + offset;
+    }
+
+    private int takeFrame() {
+        int frame = frames.allocate();
+        if (frame == FrameAllocator.NONE && swap != null && reclaim() > 0) {
+            frame = frames.allocate();
+        }
+        return frame;
+    }
+
+    // Swaps out up to swapBatch pages in the policy's eviction order and syncs the
+    // written ones together. Returns the frames freed.
+    private int reclaim() {
+        int freed = 0;
+        while (freed < swapBatch) {
+            int frame = fluxCache.evict();
+            if (frame < 0) {
+                break;
+            }
+            if (framePage[frame] < 0) {
+                continue; // pinned, e.g. part of a huge page: it just leaves the policy
+            }
+            if (!swapOut(frame)) {
+                fluxCache.access(frame);
+                break;
+            }
+            freed++;
+        }
+        swap.sync();
+        reclaims++;
+        return freed;
+    }
+
+    // Writes the frame's page to swap unless a clean copy is already there, points the
+    // page table entry at the slot and frees the frame. False when swap is full.
+    private boolean swapOut(int frame) {
+        int slot = frameSlot[frame];
+        boolean write = slot < 0 || (dirty[frame >>> 6] & (1L << frame)) != 0;
+        if (slot < 0 && (slot = swap.allocateSlot()) == SwapDevice.NONE) {
+            return false;
+        }
+        if (write) {
+            swap.writePage(slot, memory, frame);
+        }
+        long page = framePage[frame];
+        if (sharedFrames > 0 && frameShares[frame] > 0) {
+            // Every process still mapping the frame has it at this page; they all point
+            // at the slot now and share it as they shared the frame.
+            for (int i = 0; i < slotLimit; i++) {
+                PageTable table = nodes[i] == null ? null : nodes[i].getPageTable();
+                if (table != null && table.frameOf(page) == frame) {
+                    table.swapOut(page, slot);
+                    tlb.invalidatePage(nodes[i].getNodeID(), page);
+                }
+            }
+            slotShares[slot] += frameShares[frame];
+            sharedMappings -= frameShares[frame];
+            frameShares[frame] = 0;
+            sharedFrames--;
+        } else {
+            int owner = frameOwner[frame];
+            nodes[nodeSlots.get(owner)].getPageTable().swapOut(page, slot);
+            tlb.invalidatePage(owner, page);
+        }
+        forget(frame);
+        frames.free(frame);
+        swapOuts++;
+        return true;
+    }
+
+    private void track(int frame, int owner, long page, int slot, boolean isDirty) {
+        frameOwner[frame] = owner;
+        framePage[frame] = page;
+        frameSlot[frame] = slot;
+        if (isDirty) {
+            dirty[frame >>> 6] |= 1L << frame;
+        } else {
+            dirty[frame >>> 6] &= ~(1L << frame);
+        }
+        pageableFrames++;
+    }
+
+    private void forget(int frame) {
+        if (framePage[frame] >= 0) {
+            framePage[frame] = -1;
+            frameSlot[frame] = -1;
+            dirty[frame >>> 6] &= ~(1L << frame);
+            pageableFrames--;
+        }
+    }
+
+    private void markDirty(int frame) {
+        dirty[frame >>> 6] |= 1L << frame;
+    }
+
+    // Maps count huge pages (getHugePageSize() bytes, each an aligned run of contiguous
+    // frames) after the process's existing pages. Returns false, allocating nothing,
+    // when memory is too full or too fragmented.
+    public synchronized boolean allocateHugePages(int nodeID, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Invalid huge page count: " + count);
+        }
+        int hugePages = 1 << hugeShift;
+        ensureScratch(count);
+        for (int i = 0; i < count; i++) {
+            scratch[i] = frames.allocateContiguous(hugePages);
+            if (scratch[i] == FrameAllocator.NONE) {
+                for (int j = 0; j < i; j++) {
+                    frames.freeContiguous(scratch[j], hugePages);
+                }
+                return false;
+            }
+        }
+        NodeMemory nodeMem = nodeMemory(nodeID);
+        for (int i = 0; i < count; i++) {
+            nodeMem.extendHuge(scratch[i], (long) hugePages * cellSize);
+            memory.zero((long) scratch[i] * cellSize, (long) hugePages * cellSize);
+            for (int frame = scratch[i]; frame < scratch[i] + hugePages; frame++) {
+                fluxCache.access(frame);
+            }
+        }
+        return true;
+    }
+
+    // Takes 2^order contiguous frames out of the pool as a zone for a buddy allocator
+    // (and slabs on top of it). Returns null when no aligned run that large is free.
+    public synchronized BuddyAllocator reserveZone(int order) {
+        if (order < 0 || order > 30) {
+            throw new IllegalArgumentException("Invalid zone order: " + order);
+        }
+        int first = frames.allocateContiguous(1 << order);
+        return first == FrameAllocator.NONE ? null : new BuddyAllocator(first, 1 << order);
+    }
+
+    // Returns a zone's frames to the pool; everything allocated from it must be freed first.
+    public synchronized void releaseZone(BuddyAllocator zone) {
+        if (zone.getFreePages() != zone.getFrames()) {
+            throw new IllegalStateException("Zone at frame " + zone.getBaseFrame() + " still has "
+                    + zone.getAllocatedPages() + " pages allocated");
+        }
+        frames.freeContiguous(zone.getBaseFrame(), zone.getFrames());
+    }
+
+    // Frees every frame the process holds, or drops its share of frames another process
+    // still maps; returns how many there were.
+    public synchronized int releaseMemory(int nodeID) {
+        int slot = nodeSlots.remove(nodeID);
+        if (slot < 0) {
+            return 0;
+        }
+        NodeMemory nodeMem = nodes[slot];
+        nodes[slot] = null;
+        freeSlots[freeSlotCount++] = slot;
+        residentNodes--;
+        tlb.flush(nodeID);
+
+        PageTable table = nodeMem.getPageTable();
+        int released = 0;
+        for (long page = 0; page < table.getPageCount(); page++) {
+            int frame = table.frameOf(page);
+            if (frame != PageTable.UNMAPPED && sharedFrames > 0 && frameShares[frame] > 0) {
+                unshare(frame, nodeID); // another process still maps it
+                released++;
+            } else if (frame != PageTable.UNMAPPED) {
+                fluxCache.remove(frame);
+                if (swap != null) {
+                    if (frameSlot[frame] >= 0) {
+                        swap.freeSlot(frameSlot[frame]);
                     }
+                    forget(frame);
+                }
+                frames.free(frame);
+                released++;
+            } else if (swap != null && table.swapSlotOf(page) >= 0) {
+                int swapSlot = table.swapSlotOf(page);
+                if (slotShares != null && slotShares[swapSlot] > 0) {
+                    slotShares[swapSlot]--;
+                } else {
+                    swap.freeSlot(swapSlot);
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error reading config. Defaulting.");
         }
-        return defaultCapacity;
+        if (pooledTables < TABLE_POOL && table.clear()) {
+            tablePool[pooledTables++] = table;
+        }
+        return released;
     }
 
-    public void allocateMemoryToProcess(int nodeID) {
-        NodeMemory nodeMem = new NodeMemory(nodeID, cellSize);
-        nodeMemoryMap.put(nodeID, nodeMem);
+    // Cheap check that lets callers skip releaseMemory when nothing is allocated.
+    public boolean hasAllocations() {
+        return residentNodes > 0;
+    }
+
+    // Translates a virtual address of the process to a physical one, or FAULT when the
+    // page is not mapped. A TLB miss walks the page table and caches the result.
+    public synchronized long translate(int nodeID, long virtualAddress) {
+        return translateLocked(nodeID, virtualAddress);
+    }
 
-        for (CellUnit unit : nodeMem.getUnits()) {
-            fluxCache.accessPage(unit.unitID);
+    // Translates count addresses under one lock acquisition, which is most of the cost
+    // of a TLB hit; physical[i] is FAULT where the page is unmapped. Returns the faults.
+    public synchronized int translateAll(int nodeID, long[] virtualAddresses, long[] physical, int count) {
+        int faulted = 0;
+        for (int i = 0; i < count; i++) {
+            long address = translateLocked(nodeID, virtualAddresses[i]);
+            physical[i] = address;
+            if (address == FAULT) {
+                faulted++;
+            }
+        }
+        return faulted;
+    }
+
+    private long translateLocked(int nodeID, long virtualAddress) {
+        if (virtualAddress < 0) {
+            faults++;
+            return FAULT;
+        }
+        long page;
+        long offset;
+        if (pageShift >= 0) {
+            page = virtualAddress >>> pageShift;
+            offset = virtualAddress & (cellSize - 1);
+        } else {
+            page = virtualAddress / cellSize;
+            offset = virtualAddress - page * cellSize;
+        }
+        translations++;
+        int frame = tlb.lookup(nodeID, page);
+        if (frame == Tlb.MISS) {
+            frame = walk(nodeID, page);
+            if (frame == PageTable.UNMAPPED) {
+                faults++;
+                return FAULT;
+            }
         }
+        if (swap != null && framePage[frame] >= 0) {
+            fluxCache.access(frame);
+        }
+        return (long) frame * cellSize + offset;
+    }
+
+    private int walk(int nodeID, long page) {
+        int slot = nodeSlots.get(nodeID);
+        if (slot < 0) {
+            return PageTable.UNMAPPED;
+        }
+        PageTable table = nodes[slot].getPageTable();
+        int frame = table.frameOf(page);
+        pageWalks++;
+        walkReads += table.getLastWalkReads();
+        if (frame != PageTable.UNMAPPED) {
+            boolean huge = table.wasHuge();
+            int first = huge ? frame - (int) (page & ((1 << hugeShift) - 1)) : frame;
+            tlb.insert(nodeID, page, first, huge);
+        }
+        return frame;
+    }
+
+    // Reads dst.remaining() bytes of the process's memory from a virtual address into
+    // dst, translating page by page. Returns the bytes read, fewer if a page is unmapped.
+    public synchronized int read(int nodeID, long virtualAddress, ByteBuffer dst) {
+        int length = dst.remaining();
+        int done = 0;
+        while (done < length) {
+            long physical = resolve(nodeID, virtualAddress + done, false);
+            if (physical == FAULT) {
+                break;
+            }
+            int run = (int) Math.min(length - done, cellSize - physical % cellSize);
+            memory.read(physical, dst, run);
+            done += run;
+        }
+        return done;
+    }
+
+    // Writes src.remaining() bytes into the process's memory; returns the bytes written.
+    public synchronized int write(int nodeID, long virtualAddress, ByteBuffer src) {
+        int length = src.remaining();
+        int done = 0;
+        while (done < length) {
+            long physical = resolve(nodeID, virtualAddress + done, true);
+            if (physical == FAULT) {
+                break;
+            }
+            int run = (int) Math.min(length - done, cellSize - physical % cellSize);
+            memory.write(physical, src, run);
+            done += run;
+        }
+        return done;
+    }
+
+    // Copies length bytes between two processes' (or one process's non-overlapping)
+    // virtual ranges frame to frame. Returns the bytes copied, fewer on an unmapped page.
+    public synchronized long copy(int fromNode, long fromAddress, int toNode, long toAddress, long length) {
+        long done = 0;
+        while (done < length) {
+            long from = resolve(fromNode, fromAddress + done, false);
+            if (from == FAULT) {
+                break;
+            }
+            // Paging in or copying the destination may reclaim frames, so the source
+            // frame leaves the replacement policy until the destination is resolved.
+            int fromFrame = (int) (from / cellSize);
+            boolean pinned = swap != null && fluxCache.remove(fromFrame);
+            long to = resolve(toNode, toAddress + done, true);
+            if (pinned) {
+                fluxCache.access(fromFrame);
+            }
+            if (to == FAULT) {
+                break;
+            }
+            long run = Math.min(length - done, Math.min(cellSize - from % cellSize, cellSize - to % cellSize));
+            memory.copy(from, to, run);
+            done += run;
+        }
+        return done;
+    }
+
+    // translateLocked for data access: a swapped-out page is faulted back in on the spot,
+    // and a write copies a shared page and marks the page dirty.
+    private long resolve(int nodeID, long virtualAddress, boolean write) {
+        long physical = translateLocked(nodeID, virtualAddress);
+        if (physical == FAULT && swap != null && virtualAddress >= 0
+                && pageIn(nodeID, virtualAddress / cellSize)) {
+            physical = translateLocked(nodeID, virtualAddress);
+        }
+        if (physical == FAULT || !write) {
+            return physical;
+        }
+        if (sharedFrames > 0 && frameShares[(int) (physical / cellSize)] > 0) {
+            physical = copyOnWrite(nodeID, virtualAddress / cellSize, physical);
+        }
+        if (physical != FAULT && swap != null) {
+            markDirty((int) (physical / cellSize));
+        }
+        return physical;
+    }
+
+    // Physical frame backing the process's virtual page, or PageTable.UNMAPPED. Bypasses the TLB.
+    public synchronized int frameOf(int nodeID, long page) {
+        NodeMemory nodeMem = getNodeMemory(nodeID);
+        return nodeMem == null ? PageTable.UNMAPPED : nodeMem.getPageTable().frameOf(page);
+    }
+
+    // Valid until releaseMemory: the page table is then recycled for another process.
+    public synchronized NodeMemory getNodeMemory(int nodeID) {
+        int slot = nodeSlots.get(nodeID);
+        return slot < 0 ? null : nodes[slot];
+    }
+
+    // The process's NodeMemory, created on first use.
+    private NodeMemory nodeMemory(int nodeID) {
+        int slot = nodeSlots.get(nodeID);
+        if (slot >= 0) {
+            return nodes[slot];
+        }
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotLimit == nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            slot = slotLimit++;
+        }
+        PageTable table = pooledTables > 0 ? tablePool[--pooledTables] : new PageTable(pageTableLevels);
+        tablePool[pooledTables] = null;
+        NodeMemory nodeMem = new NodeMemory(nodeID, cellSize, table);
+        nodes[slot] = nodeMem;
+        nodeSlots.put(nodeID, slot);
+        residentNodes++;
+        return nodeMem;
+    }
+
+    private void ensureScratch(int length) {
+        if (length > scratch.length) {
+            scratch = new int[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    // Swaps the page replacement policy; the new one is warmed with the allocated frames.
+    public synchronized void setReplacementPolicy(String name) {
+        ReplacementPolicy next = ReplacementPolicy.forName(name, frames.getTotalFrames());
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (nodes[slot] == null) {
+                continue;
+            }
+            PageTable table = nodes[slot].getPageTable();
+            for (long page = 0; page < table.getPageCount(); page++) {
+                int frame = table.frameOf(page);
+                if (frame != PageTable.UNMAPPED) {
+                    next.access(frame);
+                }
+            }
+        }
+        next.resetStats();
+        fluxCache = next;
+    }
+
+    public synchronized ReplacementPolicy getReplacementPolicy() {
+        return fluxCache;
+    }
+
+    // The frames' backing store; like any part of CellStore, use it under the store's lock.
+    public PhysicalMemory getPhysicalMemory() {
+        return memory;
+    }
+
+    public synchronized SwapDevice getSwapDevice() {
+        return swap;
+    }
+
+    public synchronized long getSwapIns() {
+        return swapIns;
+    }
+
+    public synchronized long getSwapOuts() {
+        return swapOuts;
+    }
+
+    // Reclaim passes; each swaps out up to the batch size and syncs once.
+    public synchronized long getReclaims() {
+        return reclaims;
+    }
+
+    public synchronized long getForks() {
+        return forks;
+    }
+
+    // Writes that had to copy a shared page, and the bytes they copied.
+    public synchronized long getCowFaults() {
+        return cowFaults;
+    }
+
+    public synchronized long getCowBytes() {
+        return cowBytes;
+    }
+
+    // Frames mapped by more than one process.
+    public synchronized int getSharedFrames() {
+        return sharedFrames;
+    }
+
+    // Bytes an eager fork would have copied that are still shared.
+    public synchronized long getSavedBytes() {
+        return sharedMappings * cellSize;
+    }
+
+    public synchronized Tlb getTlb() {
+        return tlb;
     }
 
     public int getPageSize() {
         return cellSize;
     }
+
+    public long getHugePageSize() {
+        return (long) cellSize << hugeShift;
+    }
+
+    public int getPageTableLevels() {
+        return pageTableLevels;
+    }
+
+    public int getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public synchronized int getTotalFrames() {
+        return frames.getTotalFrames();
+    }
+
+    public synchronized int getFreeFrames() {
+        return frames.getFreeFrames();
+    }
+
+    public synchronized int getUsedFrames() {
+        return frames.getUsedFrames();
+    }
+
+    public synchronized int getProcessCount() {
+        return nodeSlots.size();
+    }
+
+    public synchronized long getTranslations() {
+        return translations;
+    }
+
+    public synchronized long getPageWalks() {
+        return pageWalks;
+    }
+
+    // Page table entries read by all walks; over getPageWalks() it is the mean walk depth.
+    public synchronized long getWalkReads() {
+        return walkReads;
+    }
+
+    public synchronized long getTranslationFaults() {
+        return faults;
+    }
+
+    public synchronized void resetTranslationStats() {
+        translations = 0;
+        pageWalks = 0;
+        walkReads = 0;
+        faults = 0;
+        tlb.resetStats();
+    }
 }
@@ -1,9 +0,0 @@
-package aether.model.memory;
-
-public class CellUnit {
-    public int unitID;
-
-    public CellUnit(int unitID) {
-        this.unitID = unitID;
-    }
-}
@@ -0,0 +1,114 @@
+package aether.model.memory;
+
+import java.util.function.IntConsumer;
+
+// CLOCK (second chance): frames form a ring swept by a hand. A hit only sets the
+// frame's reference bit; on a miss the hand clears set bits until it finds a frame
+// whose bit is already clear, and replaces that one.
+public class ClockPolicy extends AbstractReplacementPolicy {
+    private final int[] pages;
+    private final boolean[] referenced;
+    private final PageIndex frameOf;
+    private int hand;
+    private int size;
+
+    public ClockPolicy(int capacity) {
+        super(capacity);
+        pages = new int[this.capacity];
+        referenced = new boolean[this.capacity];
+        frameOf = new PageIndex(this.capacity);
+    }
+
+    @Override
+    public String getName() {
+        return "CLOCK";
+    }
+
+    @Override
+    public boolean access(int page) {
+        lastEvicted = NIL;
+        int frame = frameOf.get(page);
+        if (frame >= 0) {
+            hits++;
+            referenced[frame] = true;
+            return true;
+        }
+        misses++;
+        if (capacity == 0) {
+            return false;
+        }
+        if (size < capacity) {
+            frame = size++;
+        } else {
+            frame = sweep();
+            frameOf.remove(pages[frame]);
+            lastEvicted = pages[frame];
+            evictions++;
+        }
+        pages[frame] = page;
+        referenced[frame] = false;
+        frameOf.put(page, frame);
+        return false;
+    }
+
+    @Override
+    public int evict() {
+        lastEvicted = NIL;
+        if (size == 0) {
+            return NIL;
+        }
+        int page = pages[sweep()];
+        remove(page);
+        lastEvicted = page;
+        evictions++;
+        return page;
+    }
+
+    @Override
+    public boolean remove(int page) {
+        int frame = frameOf.remove(page);
+        if (frame < 0) {
+            return false;
+        }
+        // Compact the ring so frames 0..size-1 stay in use.
+        int last = --size;
+        if (frame != last) {
+            pages[frame] = pages[last];
+            referenced[frame] = referenced[last];
+            frameOf.put(pages[frame], frame);
+        }
+        if (hand >= size) {
+            hand = 0;
+        }
+        return true;
+    }
+
+    // Advances the hand to the next frame without a second chance and steps past it.
+    private int sweep() {
+        int limit = size;
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == limit ? 0 : hand + 1;
+        }
+        int frame = hand;
+        hand = hand + 1 == limit ? 0 : hand + 1;
+        return frame;
+    }
+
+    @Override
+    public boolean contains(int page) {
+        return frameOf.get(page) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEachResident(IntConsumer action) {
+        for (int frame = 0; frame < size; frame++) {
+            action.accept(pages[frame]);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package aether.model.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+// LRU over int page numbers shared by many threads. Pages are hashed onto shards,
+// each a FluxCache with its share of the capacity behind its own StampedLock. A hit
+// checks residency under an optimistic read, which writes no shared state, and only
+// records the page in the shard's read buffer; the buffer is replayed into the
+// shard's recency order by whichever thread next holds the lock, or by a hit that
+// finds the buffer half full and the lock free. Reads that find the buffer full or
+// lose a race for a slot are dropped: recency becomes approximate, never wrong about
+// residency. Misses, removals and drains take the shard's write lock. Statistics are
+// global LongAdders. Nothing is allocated per access.
+public class ConcurrentFluxCache {
+    private static final int READ_BUFFER_SIZE = 64;
+    private static final int DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+    private static final int NIL = -1;
+
+    private static final class Shard {
+        final StampedLock lock = new StampedLock();
+        final FluxCache lru;
+        // Ring of recorded hits, page | 1L << 32 so that 0 marks a claimed slot whose
+        // page is not written yet. writes is the next slot to claim, drained the next
+        // one to replay; drained only moves under the write lock.
+        final AtomicLongArray reads = new AtomicLongArray(READ_BUFFER_SIZE);
+        final AtomicLong writes = new AtomicLong();
+        volatile long drained;
+
+        Shard(int capacity) {
+            lru = new FluxCache(capacity);
+        }
+    }
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int capacity;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder droppedReads = new LongAdder();
+
+    // Four shards per available processor.
+    public ConcurrentFluxCache(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    // shardCount is rounded up to a power of two and down so every shard holds a page.
+    public ConcurrentFluxCache(int capacity, int shardCount) {
+        if (capacity < 1 || shardCount < 1) {
+            throw new IllegalArgumentException("Capacity and shard count must be positive: " + capacity + ", "
+                    + shardCount);
+        }
+        int count = Integer.highestOneBit(Math.max(shardCount * 2 - 1, 1));
+        while (count > capacity) {
+            count >>>= 1;
+        }
+        this.capacity = capacity;
+        this.shards = new Shard[count];
+        this.shardMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    // Returns true on a hit. A miss loads the page into its shard, evicting that
+    // shard's least recently used page when the shard is full.
+    public boolean access(int page) {
+        Shard shard = shards[shardOf(page)];
+        long stamp = shard.lock.tryOptimisticRead();
+        if (stamp != 0 && shard.lru.containsRacy(page) && shard.lock.validate(stamp)) {
+            hits.increment();
+            if (record(shard, page)) {
+                tryDrain(shard);
+            }
+            return true;
+        }
+        stamp = shard.lock.writeLock();
+        try {
+            drain(shard);
+            boolean hit = shard.lru.accessPage(page);
+            if (hit) {
+                hits.increment();
+            } else {
+                misses.increment();
+                if (shard.lru.getLastEvicted() != NIL) {
+                    evictions.increment();
+                }
+            }
+            return hit;
+        } finally {
+            shard.lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(int page) {
+        Shard shard = shards[shardOf(page)];
+        long stamp = shard.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean resident = shard.lru.containsRacy(page);
+            if (shard.lock.validate(stamp)) {
+                return resident;
+            }
+        }
+        stamp = shard.lock.readLock();
+        try {
+            return shard.lru.contains(page);
+        } finally {
+            shard.lock.unlockRead(stamp);
+        }
+    }
+
+    // Forgets a page without counting an eviction; false if it was not resident.
+    public boolean remove(int page) {
+        Shard shard = shards[shardOf(page)];
+        long stamp = shard.lock.writeLock();
+        try {
+            drain(shard);
+            return shard.lru.remove(page);
+        } finally {
+            shard.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Claims a slot in the read buffer; returns whether the buffer wants draining.
+    private boolean record(Shard shard, int page) {
+        long head = shard.drained;
+        long tail = shard.writes.get();
+        long pending = tail - head;
+        if (pending >= READ_BUFFER_SIZE || !shard.writes.compareAndSet(tail, tail + 1)) {
+            droppedReads.increment();
+            return pending >= DRAIN_THRESHOLD;
+        }
+        shard.reads.lazySet((int) tail & (READ_BUFFER_SIZE - 1), page & 0xFFFF_FFFFL | 1L << 32);
+        return pending + 1 >= DRAIN_THRESHOLD;
+    }
+
+    private void tryDrain(Shard shard) {
+        long stamp = shard.lock.tryWriteLock();
+        if (stamp != 0) {
+            try {
+                drain(shard);
+            } finally {
+                shard.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    // Under the write lock: replays recorded hits in order, stopping at a slot that
+    // is claimed but not yet written.
+    private void drain(Shard shard) {
+        long head = shard.drained;
+        long tail = shard.writes.get();
+        for (; head < tail; head++) {
+            int index = (int) head & (READ_BUFFER_SIZE - 1);
+            long recorded = shard.reads.get(index);
+            if (recorded == 0) {
+                break;
+            }
+            shard.reads.lazySet(index, 0);
+            shard.lru.promote((int) recorded);
+        }
+        shard.drained = head;
+    }
+
+    private int shardOf(int page) {
+        // Murmur3's finalizer, so the shard does not follow the in-shard table's hash.
+        int h = page;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & shardMask;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            long stamp = shard.lock.readLock();
+            try {
+                size += shard.lru.size();
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Hits whose recency update was skipped because the read buffer was busy.
+    public long getDroppedReads() {
+        return droppedReads.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long accesses = h + misses.sum();
+        return accesses == 0 ? 0 : (double) h / accesses;
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        droppedReads.reset();
+    }
+}
@@ -0,0 +1,119 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// A fixed pool of entries and doubly-linked lists threaded through their indexes,
+// so the multi-list policies (2Q, ARC) move entries between lists without
+// allocating. Head is most recently inserted, tail the oldest.
+class EntryLists {
+    static final int NIL = -1;
+
+    private final int[] prev;
+    private final int[] next;
+    private final byte[] owner; // list + 1, 0 when in no list
+    private final int[] heads;
+    private final int[] tails;
+    private final int[] counts;
+    private final int[] free;
+    private int freeCount;
+
+    EntryLists(int entries, int lists) {
+        prev = new int[entries];
+        next = new int[entries];
+        owner = new byte[entries];
+        heads = new int[lists];
+        tails = new int[lists];
+        counts = new int[lists];
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+        free = new int[entries];
+        releaseAll();
+    }
+
+    int allocate() {
+        return freeCount == 0 ? NIL : free[--freeCount];
+    }
+
+    // Unlinks the entry and returns it to the pool.
+    void release(int entry) {
+        remove(entry);
+        free[freeCount++] = entry;
+    }
+
+    void addHead(int list, int entry) {
+        int h = heads[list];
+        prev[entry] = NIL;
+        next[entry] = h;
+        if (h != NIL) {
+            prev[h] = entry;
+        } else {
+            tails[list] = entry;
+        }
+        heads[list] = entry;
+        owner[entry] = (byte) (list + 1);
+        counts[list]++;
+    }
+
+    void remove(int entry) {
+        int list = owner[entry] - 1;
+        if (list < 0) {
+            return;
+        }
+        int p = prev[entry];
+        int n = next[entry];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            heads[list] = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tails[list] = p;
+        }
+        owner[entry] = 0;
+        counts[list]--;
+    }
+
+    void moveToHead(int list, int entry) {
+        if (heads[list] != entry) {
+            remove(entry);
+            addHead(list, entry);
+        }
+    }
+
+    int listOf(int entry) {
+        return owner[entry] - 1;
+    }
+
+    int head(int list) {
+        return heads[list];
+    }
+
+    int tail(int list) {
+        return tails[list];
+    }
+
+    int next(int entry) {
+        return next[entry];
+    }
+
+    int count(int list) {
+        return counts[list];
+    }
+
+    void clear() {
+        Arrays.fill(owner, (byte) 0);
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+        Arrays.fill(counts, 0);
+        releaseAll();
+    }
+
+    private void releaseAll() {
+        freeCount = free.length;
+        for (int i = 0; i < free.length; i++) {
+            free[i] = free.length - 1 - i;
+        }
+    }
+}
@@ -1,27 +1,307 @@
 package aether.model.memory;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
 
-public class FluxCache {
-    private int capacity;
-    private LinkedHashMap<Integer, Integer> cache;
+// Fixed-capacity LRU over int page numbers. Entries live in parallel arrays linked
+// into a recency list by index, and an open-addressing table maps a page to its
+// entry, so an access is one probe sequence plus a few array writes and never
+// allocates. Not thread-safe. This is the LRU ReplacementPolicy.
+public class FluxCache extends AbstractReplacementPolicy {
+    // Optional observer, called for one access in every sampleRate.
+    public interface Listener {
+        default void onHit(int page) {
+        }
+
+        default void onLoad(int page) {
+        }
+
+        default void onEvict(int evictedPage, int loadedPage) {
+        }
+    }
+
+    // The messages FluxCache used to print on every access.
+    public static final Listener CONSOLE = new Listener() {
+        @Override
+        public void onHit(int page) {
+            System.out.println("Flux Hit: Block " + page);
+        }
+
+        @Override
+        public void onLoad(int page) {
+            System.out.println("Flux Load: Block " + page);
+        }
+
+        @Override
+        public void onEvict(int evictedPage, int loadedPage) {
+            System.out.println("Flux Shift: Expelled " + evictedPage + " for " + loadedPage);
+        }
+    };
+
+    // Entries: page number and recency links, head = most recently used.
+    private final int[] pages;
+    private final int[] prev;
+    private final int[] next;
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+
+    // Page -> entry table with linear probing; tableEntries holds entry + 1, 0 = empty.
+    private final int[] tableKeys;
+    private final int[] tableEntries;
+    private final int mask;
+
+    private Listener listener;
+    private int sampleRate;
+    private int untilSample;
 
     public FluxCache(int capacity) {
-        this.capacity = capacity;
-        cache = new LinkedHashMap<>(capacity, 0.75f, true);
+        super(capacity);
+        pages = new int[this.capacity];
+        prev = new int[this.capacity];
+        next = new int[this.capacity];
+        int tableSize = Integer.highestOneBit(Math.max(this.capacity * 2 - 1, 1)) << 1;
+        tableKeys = new int[tableSize];
+        tableEntries = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    @Override
+    public String getName() {
+        return "LRU";
     }
 
-    public void accessPage(int key) {
-        if (cache.containsKey(key)) {
-            System.out.println("Flux Hit: Block " + key);
+    // Returns true on a hit. A miss loads the page, evicting the least recently used one when full.
+    public boolean accessPage(int key) {
+        lastEvicted = NIL;
+        boolean sampled = listener != null && --untilSample <= 0;
+        if (sampled) {
+            untilSample = sampleRate;
+        }
+
+        int entry = find(key);
+        if (entry != NIL) {
+            hits++;
+            moveToHead(entry);
+            if (sampled) {
+                listener.onHit(key);
+            }
+            return true;
+        }
+
+        misses++;
+        if (capacity == 0) {
+            return false;
+        }
+        if (size == capacity) {
+            entry = tail;
+            int evicted = pages[entry];
+            unlink(entry);
+            tableRemove(evicted);
+            lastEvicted = evicted;
+            evictions++;
+            if (sampled) {
+                listener.onEvict(evicted, key);
+            }
         } else {
-            if (cache.size() >= capacity && capacity > 0) {
-                Integer lru = cache.keySet().iterator().next();
-                cache.remove(lru);
-                System.out.println("Flux Shift: Expelled " + lru + " for " + key);
+            entry = size++;
+        }
+        pages[entry] = key;
+        linkHead(entry);
+        tableInsert(key, entry);
+        if (sampled) {
+            listener.onLoad(key);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean access(int page) {
+        return accessPage(page);
+    }
+
+    @Override
+    public int evict() {
+        lastEvicted = NIL;
+        if (size == 0) {
+            return NIL;
+        }
+        int page = pages[tail];
+        removeEntry(tail);
+        lastEvicted = page;
+        evictions++;
+        return page;
+    }
+
+    @Override
+    public boolean remove(int page) {
+        int entry = find(page);
+        if (entry == NIL) {
+            return false;
+        }
+        removeEntry(entry);
+        return true;
+    }
+
+    // Keeps entries 0..size-1 in use by moving the last one into the freed slot.
+    private void removeEntry(int entry) {
+        unlink(entry);
+        tableRemove(pages[entry]);
+        int last = --size;
+        if (entry != last) {
+            pages[entry] = pages[last];
+            int p = prev[last];
+            int n = next[last];
+            prev[entry] = p;
+            next[entry] = n;
+            if (p != NIL) {
+                next[p] = entry;
+            } else {
+                head = entry;
+            }
+            if (n != NIL) {
+                prev[n] = entry;
+            } else {
+                tail = entry;
             }
-            cache.put(key, key);
-            System.out.println("Flux Load: Block " + key);
+            tableRemove(pages[entry]);
+            tableInsert(pages[entry], entry);
+        }
+    }
+
+    @Override
+    public boolean contains(int key) {
+        return find(key) != NIL;
+    }
+
+    // Moves a resident page to the head without counting an access; for replaying
+    // buffered hits. Returns false if the page has left since.
+    boolean promote(int key) {
+        int entry = find(key);
+        if (entry == NIL) {
+            return false;
         }
+        moveToHead(entry);
+        return true;
+    }
+
+    // contains() for readers racing a writer (validated afterwards by the caller): the
+    // probe is bounded so a table changing underneath cannot keep it spinning.
+    boolean containsRacy(int key) {
+        int i = mix(key) & mask;
+        for (int probes = 0; probes <= mask && tableEntries[i] != 0; probes++) {
+            if (tableKeys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachResident(IntConsumer action) {
+        for (int e = head; e != NIL; e = next[e]) {
+            action.accept(pages[e]);
+        }
+    }
+
+    // Reports one access in every sampleRate to the listener; null turns reporting off.
+    public void setListener(Listener listener, int sampleRate) {
+        this.listener = listener;
+        this.sampleRate = Math.max(sampleRate, 1);
+        this.untilSample = 1;
+    }
+
+    public void clear() {
+        Arrays.fill(tableEntries, 0);
+        head = NIL;
+        tail = NIL;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void moveToHead(int entry) {
+        if (entry != head) {
+            unlink(entry);
+            linkHead(entry);
+        }
+    }
+
+    private void linkHead(int entry) {
+        prev[entry] = NIL;
+        next[entry] = head;
+        if (head != NIL) {
+            prev[head] = entry;
+        } else {
+            tail = entry;
+        }
+        head = entry;
+    }
+
+    private void unlink(int entry) {
+        int p = prev[entry];
+        int n = next[entry];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private int find(int key) {
+        int i = mix(key) & mask;
+        int e;
+        while ((e = tableEntries[i]) != 0) {
+            if (tableKeys[i] == key) {
+                return e - 1;
+            }
+            i = (i + 1) & mask;
+        }
+        return NIL;
+    }
+
+    private void tableInsert(int key, int entry) {
+        int i = mix(key) & mask;
+        while (tableEntries[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        tableKeys[i] = key;
+        tableEntries[i] = entry + 1;
+    }
+
+    // Backward-shift deletion keeps probe sequences intact without tombstones.
+    private void tableRemove(int key) {
+        int gap = mix(key) & mask;
+        while (tableKeys[gap] != key || tableEntries[gap] == 0) {
+            gap = (gap + 1) & mask;
+        }
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (tableEntries[i] == 0) {
+                break;
+            }
+            int home = mix(tableKeys[i]) & mask;
+            if (gap <= i ? (home <= gap || home > i) : (home <= gap && home > i)) {
+                tableKeys[gap] = tableKeys[i];
+                tableEntries[gap] = tableEntries[i];
+                gap = i;
+            }
+        }
+        tableEntries[gap] = 0;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
 }
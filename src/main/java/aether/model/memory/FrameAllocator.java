@@ -0,0 +1,152 @@
+package aether.model.memory;
+
+// Physical frames tracked in a bitmap, one bit per frame (set = in use). A second,
+// coarser bitmap marks the words that still have a free bit, so finding a free frame
+// scans one summary bit per 64 frames, starting where the last search stopped or the
+// last frame was freed. That makes the search O(1) amortized. Not thread-safe.
+public class FrameAllocator {
+    public static final int NONE = -1;
+
+    private final int totalFrames;
+    private final long[] words;
+    private final long[] summary;
+    private int freeFrames;
+    private int cursor; // summary word the next search starts from
+
+    public FrameAllocator(int totalFrames) {
+        if (totalFrames < 0) {
+            throw new IllegalArgumentException("Negative frame count: " + totalFrames);
+        }
+        this.totalFrames = totalFrames;
+        words = new long[(totalFrames + 63) >>> 6];
+        summary = new long[(words.length + 63) >>> 6];
+        freeFrames = totalFrames;
+        for (int w = 0; w < words.length; w++) {
+            summary[w >>> 6] |= 1L << w;
+        }
+        // Bits past the last frame are permanently in use.
+        int tail = totalFrames & 63;
+        if (tail != 0) {
+            words[words.length - 1] = -1L << tail;
+        }
+    }
+
+    // Returns a free frame, or NONE when memory is exhausted.
+    public int allocate() {
+        if (freeFrames == 0) {
+            return NONE;
+        }
+        int s = cursor;
+        while (summary[s] == 0) {
+            s = s + 1 == summary.length ? 0 : s + 1;
+        }
+        cursor = s;
+        int w = (s << 6) + Long.numberOfTrailingZeros(summary[s]);
+        int bit = Long.numberOfTrailingZeros(~words[w]);
+        words[w] |= 1L << bit;
+        if (words[w] == -1L) {
+            summary[s] &= ~(1L << w);
+        }
+        freeFrames--;
+        return (w << 6) + bit;
+    }
+
+    // Fills frames[0..count) or, if fewer than count frames are free, allocates nothing.
+    public boolean allocate(int[] frames, int count) {
+        if (count > freeFrames) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            frames[i] = allocate();
+        }
+        return true;
+    }
+
+    // Allocates count contiguous frames aligned to count, a power of two, and returns the
+    // first, or NONE when no aligned run is free. Scans the bitmap, so it is O(frames / 64);
+    // it backs huge pages, which are allocated rarely.
+    public int allocateContiguous(int count) {
+        if (count <= 0 || Integer.bitCount(count) != 1) {
+            throw new IllegalArgumentException("Contiguous runs are a power of two frames, not " + count);
+        }
+        if (count > freeFrames) {
+            return NONE;
+        }
+        if (count < 64) {
+            long run = (1L << count) - 1;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                if (word == -1L) {
+                    continue;
+                }
+                for (int bit = 0; bit < 64; bit += count) {
+                    if ((word & (run << bit)) == 0) {
+                        words[w] = word | run << bit;
+                        if (words[w] == -1L) {
+                            summary[w >>> 6] &= ~(1L << w);
+                        }
+                        freeFrames -= count;
+                        return (w << 6) + bit;
+                    }
+                }
+            }
+            return NONE;
+        }
+        int span = count >>> 6;
+        for (int first = 0; first + span <= words.length; first += span) {
+            int w = first;
+            while (w < first + span && words[w] == 0) {
+                w++;
+            }
+            if (w == first + span) {
+                for (w = first; w < first + span; w++) {
+                    words[w] = -1L;
+                    summary[w >>> 6] &= ~(1L << w);
+                }
+                freeFrames -= count;
+                return first << 6;
+            }
+        }
+        return NONE;
+    }
+
+    public void freeContiguous(int first, int count) {
+        for (int frame = first; frame < first + count; frame++) {
+            free(frame);
+        }
+    }
+
+    public void free(int frame) {
+        if (!isAllocated(frame)) {
+            throw new IllegalStateException("Frame " + frame + " is not allocated");
+        }
+        int w = frame >>> 6;
+        words[w] &= ~(1L << frame);
+        summary[w >>> 6] |= 1L << w;
+        cursor = w >>> 6; // the next search finds this frame without scanning
+        freeFrames++;
+    }
+
+    public boolean isAllocated(int frame) {
+        if (frame < 0 || frame >= totalFrames) {
+            throw new IllegalArgumentException("No frame " + frame + " in " + totalFrames);
+        }
+        return (words[frame >>> 6] & (1L << frame)) != 0;
+    }
+
+    public int getTotalFrames() {
+        return totalFrames;
+    }
+
+    public int getFreeFrames() {
+        return freeFrames;
+    }
+
+    public int getUsedFrames() {
+        return totalFrames - freeFrames;
+    }
+
+    public double getUtilization() {
+        return totalFrames == 0 ? 0 : (double) getUsedFrames() / totalFrames;
+    }
+}
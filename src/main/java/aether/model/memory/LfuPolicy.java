@@ -0,0 +1,232 @@
+package aether.model.memory;
+
+import java.util.function.IntConsumer;
+
+// LFU with O(1) operations (Shah, Mitra and Matani): entries hang off frequency
+// buckets kept in a list sorted by count. A hit moves the entry to the bucket for
+// count + 1, creating it next to the current one if needed; the victim is the least
+// recently touched entry of the lowest bucket.
+public class LfuPolicy extends AbstractReplacementPolicy {
+    // Entries, linked oldest-first within their bucket.
+    private final int[] pages;
+    private final int[] bucketOf;
+    private final int[] prev;
+    private final int[] next;
+    private final PageIndex entryOf;
+    private int size;
+
+    // Buckets, linked in ascending count order from lowest.
+    private final long[] counts;
+    private final int[] bucketPrev;
+    private final int[] bucketNext;
+    private final int[] first;
+    private final int[] last;
+    private final int[] freeBuckets;
+    private int freeBucketCount;
+    private int lowest = NIL;
+
+    public LfuPolicy(int capacity) {
+        super(capacity);
+        pages = new int[this.capacity];
+        bucketOf = new int[this.capacity];
+        prev = new int[this.capacity];
+        next = new int[this.capacity];
+        entryOf = new PageIndex(this.capacity);
+
+        // At most one bucket per entry, plus the one created before an emptied bucket is freed.
+        int buckets = this.capacity + 1;
+        counts = new long[buckets];
+        bucketPrev = new int[buckets];
+        bucketNext = new int[buckets];
+        first = new int[buckets];
+        last = new int[buckets];
+        freeBuckets = new int[buckets];
+        for (int i = 0; i < buckets; i++) {
+            freeBuckets[i] = buckets - 1 - i;
+        }
+        freeBucketCount = buckets;
+    }
+
+    @Override
+    public String getName() {
+        return "LFU";
+    }
+
+    @Override
+    public boolean access(int page) {
+        lastEvicted = NIL;
+        int entry = entryOf.get(page);
+        if (entry >= 0) {
+            hits++;
+            int bucket = bucketOf[entry];
+            int target = bucketNext[bucket];
+            if (target == NIL || counts[target] != counts[bucket] + 1) {
+                target = newBucket(counts[bucket] + 1, bucket);
+            }
+            unlink(entry);
+            append(target, entry);
+            return true;
+        }
+        misses++;
+        if (capacity == 0) {
+            return false;
+        }
+        if (size == capacity) {
+            entry = evictEntry();
+        } else {
+            entry = size++;
+        }
+        int target = lowest != NIL && counts[lowest] == 1 ? lowest : newBucket(1, NIL);
+        pages[entry] = page;
+        entryOf.put(page, entry);
+        append(target, entry);
+        return false;
+    }
+
+    @Override
+    public int evict() {
+        lastEvicted = NIL;
+        if (size == 0) {
+            return NIL;
+        }
+        compact(evictEntry());
+        return lastEvicted;
+    }
+
+    @Override
+    public boolean remove(int page) {
+        int entry = entryOf.remove(page);
+        if (entry < 0) {
+            return false;
+        }
+        unlink(entry);
+        compact(entry);
+        return true;
+    }
+
+    // Keeps entries 0..size-1 in use by moving the last one into the freed slot.
+    private void compact(int entry) {
+        int tail = --size;
+        if (entry != tail) {
+            int bucket = bucketOf[tail];
+            int p = prev[tail];
+            int n = next[tail];
+            pages[entry] = pages[tail];
+            bucketOf[entry] = bucket;
+            prev[entry] = p;
+            next[entry] = n;
+            if (p != NIL) {
+                next[p] = entry;
+            } else {
+                first[bucket] = entry;
+            }
+            if (n != NIL) {
+                prev[n] = entry;
+            } else {
+                last[bucket] = entry;
+            }
+            entryOf.put(pages[entry], entry);
+        }
+    }
+
+    // Unlinks the victim and returns its now unused entry.
+    private int evictEntry() {
+        int entry = first[lowest];
+        unlink(entry);
+        entryOf.remove(pages[entry]);
+        lastEvicted = pages[entry];
+        evictions++;
+        return entry;
+    }
+
+    public long frequencyOf(int page) {
+        int entry = entryOf.get(page);
+        return entry < 0 ? 0 : counts[bucketOf[entry]];
+    }
+
+    private void append(int bucket, int entry) {
+        bucketOf[entry] = bucket;
+        int tail = last[bucket];
+        prev[entry] = tail;
+        next[entry] = NIL;
+        if (tail != NIL) {
+            next[tail] = entry;
+        } else {
+            first[bucket] = entry;
+        }
+        last[bucket] = entry;
+    }
+
+    // Removes the entry from its bucket, freeing the bucket once it is empty.
+    private void unlink(int entry) {
+        int bucket = bucketOf[entry];
+        int p = prev[entry];
+        int n = next[entry];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            first[bucket] = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            last[bucket] = p;
+        }
+        if (first[bucket] == NIL) {
+            removeBucket(bucket);
+        }
+    }
+
+    // Creates a bucket for count right after the given one, or first when after is NIL.
+    private int newBucket(long count, int after) {
+        int bucket = freeBuckets[--freeBucketCount];
+        counts[bucket] = count;
+        first[bucket] = NIL;
+        last[bucket] = NIL;
+        int n = after == NIL ? lowest : bucketNext[after];
+        bucketPrev[bucket] = after;
+        bucketNext[bucket] = n;
+        if (after != NIL) {
+            bucketNext[after] = bucket;
+        } else {
+            lowest = bucket;
+        }
+        if (n != NIL) {
+            bucketPrev[n] = bucket;
+        }
+        return bucket;
+    }
+
+    private void removeBucket(int bucket) {
+        int p = bucketPrev[bucket];
+        int n = bucketNext[bucket];
+        if (p != NIL) {
+            bucketNext[p] = n;
+        } else {
+            lowest = n;
+        }
+        if (n != NIL) {
+            bucketPrev[n] = p;
+        }
+        freeBuckets[freeBucketCount++] = bucket;
+    }
+
+    @Override
+    public boolean contains(int page) {
+        return entryOf.get(page) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEachResident(IntConsumer action) {
+        for (int b = lowest; b != NIL; b = bucketNext[b]) {
+            for (int e = first[b]; e != NIL; e = next[e]) {
+                action.accept(pages[e]);
+            }
+        }
+    }
+}
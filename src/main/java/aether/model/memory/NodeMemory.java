@@ -1,21 +1,84 @@
 package aether.model.memory;
 
-import java.util.*;
-
+// The memory a process holds: its requested size and the page table mapping its
+// virtual pages onto physical frames.
 public class NodeMemory {
-    private List<CellUnit> units;
+    private final int nodeID;
+    private final int unitSize;
+    private final PageTable pageTable;
+    private long size;
+    private long nextPage;
+
+    public NodeMemory(int nodeID, int unitSize, int pageTableLevels) {
+        this(nodeID, unitSize, new PageTable(pageTableLevels));
+    }
 
-    public NodeMemory(int nodeID, int unitSize) {
-        this.units = new ArrayList<>();
+    // Takes an empty page table, e.g. one recycled from an exited process.
+    public NodeMemory(int nodeID, int unitSize, PageTable pageTable) {
+        this.nodeID = nodeID;
+        this.unitSize = unitSize;
+        this.pageTable = pageTable;
+    }
+
+    public static int pagesFor(long size, int unitSize) {
+        return (int) Math.max((size + unitSize - 1) / unitSize, 1);
+    }
 
-        int defaultMagnitude = 4096;
-        int numUnits = (int) Math.ceil((double) defaultMagnitude / unitSize);
-        for (int i = 0; i < numUnits; i++) {
-            units.add(new CellUnit(i));
+    // Maps the frames onto the next virtual pages and grows the size to match.
+    void extend(int[] frames, int count, long bytes) {
+        for (int i = 0; i < count; i++) {
+            pageTable.map(nextPage++, frames[i]);
         }
+        size += bytes;
+    }
+
+    // Maps one frame onto the next virtual page and returns that page; see grow.
+    long mapNext(int frame) {
+        pageTable.map(nextPage, frame);
+        return nextPage++;
+    }
+
+    void grow(long bytes) {
+        size += bytes;
+    }
+
+    // Takes over a forked parent's size and break; the caller maps the pages.
+    void copyLayout(NodeMemory parent) {
+        size = parent.size;
+        nextPage = parent.nextPage;
+    }
+
+    // Maps one huge page at the next aligned virtual page.
+    void extendHuge(int firstFrame, long bytes) {
+        int hugePages = pageTable.getHugePages();
+        nextPage = (nextPage + hugePages - 1) & -hugePages;
+        pageTable.mapHuge(nextPage, firstFrame);
+        nextPage += hugePages;
+        size += bytes;
+    }
+
+    public int getNodeID() {
+        return nodeID;
+    }
+
+    public int getUnitSize() {
+        return unitSize;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getPageCount() {
+        return pageTable.getMappedPages();
+    }
+
+    // First virtual address past the mapped region.
+    public long getBreak() {
+        return nextPage * unitSize;
     }
 
-    public List<CellUnit> getUnits() {
-        return units;
+    public PageTable getPageTable() {
+        return pageTable;
     }
 }
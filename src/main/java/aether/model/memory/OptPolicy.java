@@ -0,0 +1,186 @@
+package aether.model.memory;
+
+import java.util.function.IntConsumer;
+
+// Belady's optimal replacement, computed offline: the reference string is known up
+// front, so each reference is tagged with the position of the next reference to the
+// same page, and a miss evicts the resident page whose next use is farthest away.
+// access() must be called with the references in order. The next-use table costs
+// four bytes per reference; residents sit in a max-heap keyed by next use.
+public class OptPolicy extends AbstractReplacementPolicy {
+    private static final int NEVER = Integer.MAX_VALUE;
+
+    private final int[] trace;
+    private final int length;
+    private final int[] nextUse;
+    private int cursor;
+
+    private final int[] pages;
+    private final PageIndex frameOf;
+    private final int[] heap;     // frames ordered by nextUseOf, farthest first
+    private final int[] heapSlot; // frame -> heap position
+    private final int[] nextUseOf;
+    private int size;
+
+    public OptPolicy(int capacity, int[] trace) {
+        this(capacity, trace, trace.length);
+    }
+
+    public OptPolicy(int capacity, int[] trace, int length) {
+        super(capacity);
+        this.trace = trace;
+        this.length = length;
+        nextUse = new int[length];
+        PageIndex seen = new PageIndex(1024);
+        for (int i = length - 1; i >= 0; i--) {
+            int later = seen.get(trace[i]);
+            nextUse[i] = later < 0 ? NEVER : later;
+            seen.put(trace[i], i);
+        }
+        pages = new int[this.capacity];
+        frameOf = new PageIndex(this.capacity);
+        heap = new int[this.capacity];
+        heapSlot = new int[this.capacity];
+        nextUseOf = new int[this.capacity];
+    }
+
+    @Override
+    public String getName() {
+        return "OPT";
+    }
+
+    @Override
+    public boolean access(int page) {
+        if (cursor >= length || trace[cursor] != page) {
+            throw new IllegalStateException("OPT must replay its reference string in order; reference "
+                    + cursor + " is not page " + page);
+        }
+        lastEvicted = NIL;
+        int next = nextUse[cursor++];
+        int frame = frameOf.get(page);
+        if (frame >= 0) {
+            hits++;
+            nextUseOf[frame] = next;
+            siftUp(heapSlot[frame]); // next use only moves later
+            return true;
+        }
+        misses++;
+        if (capacity == 0) {
+            return false;
+        }
+        if (size < capacity) {
+            frame = size;
+            heap[size] = frame;
+            heapSlot[frame] = size++;
+        } else {
+            frame = heap[0];
+            frameOf.remove(pages[frame]);
+            lastEvicted = pages[frame];
+            evictions++;
+        }
+        pages[frame] = page;
+        nextUseOf[frame] = next;
+        frameOf.put(page, frame);
+        siftUp(heapSlot[frame]);
+        siftDown(heapSlot[frame]);
+        return false;
+    }
+
+    @Override
+    public int evict() {
+        lastEvicted = NIL;
+        if (size == 0) {
+            return NIL;
+        }
+        int page = pages[heap[0]];
+        remove(page);
+        lastEvicted = page;
+        evictions++;
+        return page;
+    }
+
+    @Override
+    public boolean remove(int page) {
+        int frame = frameOf.remove(page);
+        if (frame < 0) {
+            return false;
+        }
+        int last = --size;
+        int slot = heapSlot[frame];
+        if (slot != last) {
+            int moved = heap[last];
+            heap[slot] = moved;
+            heapSlot[moved] = slot;
+            siftUp(slot);
+            siftDown(heapSlot[moved]);
+        }
+        // Keep frames dense: the highest-numbered frame moves into the freed one.
+        if (frame != last) {
+            pages[frame] = pages[last];
+            nextUseOf[frame] = nextUseOf[last];
+            frameOf.put(pages[frame], frame);
+            int lastSlot = heapSlot[last];
+            heap[lastSlot] = frame;
+            heapSlot[frame] = lastSlot;
+        }
+        return true;
+    }
+
+    public int getPosition() {
+        return cursor;
+    }
+
+    private void siftUp(int slot) {
+        int frame = heap[slot];
+        int key = nextUseOf[frame];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (nextUseOf[heap[parent]] >= key) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            heapSlot[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = frame;
+        heapSlot[frame] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int frame = heap[slot];
+        int key = nextUseOf[frame];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && nextUseOf[heap[right]] > nextUseOf[heap[child]]) {
+                child = right;
+            }
+            if (nextUseOf[heap[child]] <= key) {
+                break;
+            }
+            heap[slot] = heap[child];
+            heapSlot[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = frame;
+        heapSlot[frame] = slot;
+    }
+
+    @Override
+    public boolean contains(int page) {
+        return frameOf.get(page) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEachResident(IntConsumer action) {
+        for (int frame = 0; frame < size; frame++) {
+            action.accept(pages[frame]);
+        }
+    }
+}
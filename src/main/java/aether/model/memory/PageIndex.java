@@ -0,0 +1,142 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// Open-addressing page -> int map for the replacement policies. Any int is a valid
+// page; values must be non-negative and are stored plus one so 0 marks an empty
+// slot. Deletion shifts entries back instead of leaving tombstones.
+class PageIndex {
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    PageIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2 - 1, 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int get(int key) {
+        int i = mix(key) & mask;
+        int v;
+        while ((v = values[i]) != 0) {
+            if (keys[i] == key) {
+                return v - 1;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    void put(int key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int i = mix(key) & mask;
+        while (values[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value + 1;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value + 1;
+        size++;
+    }
+
+    // Adds delta to the key's value (absent counts as 0) in one probe and returns the
+    // new value; an entry that drops to 0 is removed. For counters only.
+    int addTo(int key, int delta) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int i = mix(key) & mask;
+        int v;
+        while ((v = values[i]) != 0) {
+            if (keys[i] == key) {
+                int next = v - 1 + delta;
+                if (next == 0) {
+                    shiftBack(i);
+                    size--;
+                } else {
+                    values[i] = next + 1;
+                }
+                return next;
+            }
+            i = (i + 1) & mask;
+        }
+        if (delta != 0) {
+            keys[i] = key;
+            values[i] = delta + 1;
+            size++;
+        }
+        return delta;
+    }
+
+    int remove(int key) {
+        int gap = mix(key) & mask;
+        int v;
+        while ((v = values[gap]) != 0) {
+            if (keys[gap] == key) {
+                shiftBack(gap);
+                size--;
+                return v - 1;
+            }
+            gap = (gap + 1) & mask;
+        }
+        return -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == 0) {
+                break;
+            }
+            int home = mix(keys[i]) & mask;
+            // Move the entry into the gap unless its home lies cyclically in (gap, i].
+            if (gap <= i ? (home <= gap || home > i) : (home <= gap && home > i)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int j = mix(oldKeys[i]) & mask;
+                while (values[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,300 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// One process's virtual page -> physical frame map as a radix tree of 2 to 4 levels,
+// like the hardware tables it models: 10 index bits per level for two levels, 9 for
+// three or four. Table nodes live in one int array so a walk only reads ints. An
+// entry is 0 when empty, a child node number on inner levels, frame + 1 on the last
+// level, or -(frame + 1) one level up for a huge page covering a whole last-level
+// table of contiguous frames. A last-level entry of -(slot + 1) is a page swapped out
+// to that swap slot; huge pages are never swapped.
+//
+// A table starts direct: entries holds just the last-level entries of pages 0 to
+// DIRECT_PAGES - 1, so a small process costs a few dozen bytes instead of a table
+// node per level. Walks still report the reads the tree would make. Mapping a page
+// past them, or a huge page, builds the tree.
+public class PageTable {
+    public static final int UNMAPPED = -1;
+    private static final int DIRECT_PAGES = 16;
+
+    private final int levels;
+    private final int bits;
+    private final int fanout;
+    private final long maxPages;
+    private int[] entries;
+    private boolean direct = true;
+    private int nodes = 1; // node 0 is the root; while direct, the nodes the tree would have
+    private long pageCount;
+    private long mappedPages;
+    private long swappedPages;
+    private boolean leafHuge;   // set by leafSlot
+    private boolean lastWalkHuge;
+    private int lastWalkReads;
+
+    public PageTable(int levels) {
+        if (levels < 2 || levels > 4) {
+            throw new IllegalArgumentException("Page tables have 2 to 4 levels, not " + levels);
+        }
+        this.levels = levels;
+        this.bits = levels == 2 ? 10 : 9;
+        this.fanout = 1 << bits;
+        this.maxPages = 1L << (bits * levels);
+        this.entries = new int[DIRECT_PAGES];
+    }
+
+    public void map(long page, int frame) {
+        int slot = newLeafSlot(page);
+        if (entries[slot] <= 0) {
+            mappedPages++;
+            if (entries[slot] < 0) {
+                swappedPages--;
+            }
+        }
+        entries[slot] = frame + 1;
+        pageCount = Math.max(pageCount, page + 1);
+    }
+
+    // Maps the huge page starting at page (aligned to getHugePages()) onto the
+    // getHugePages() contiguous frames from firstFrame.
+    public void mapHuge(long page, int firstFrame) {
+        if ((page & (fanout - 1)) != 0) {
+            throw new IllegalArgumentException("Huge page " + page + " is not aligned to " + fanout + " pages");
+        }
+        if (direct) {
+            buildTree();
+        }
+        int node = nodeFor(page, levels - 2);
+        int slot = node * fanout + index(page, levels - 2);
+        if (entries[slot] != 0) {
+            throw new IllegalStateException("Pages " + page + ".." + (page + fanout - 1) + " are already mapped");
+        }
+        entries[slot] = -(firstFrame + 1);
+        mappedPages += fanout;
+        pageCount = Math.max(pageCount, page + fanout);
+    }
+
+    // Returns the frame that was mapped, or UNMAPPED. Huge pages are unmapped whole; a
+    // swapped-out page is forgotten (free its slot first, see swapSlotOf).
+    public int unmap(long page) {
+        int slot = leafSlot(page);
+        if (slot < 0 || entries[slot] == 0) {
+            return UNMAPPED;
+        }
+        int entry = entries[slot];
+        entries[slot] = 0;
+        if (entry < 0) {
+            if (!leafHuge) {
+                swappedPages--;
+                return UNMAPPED;
+            }
+            mappedPages -= fanout;
+            return -entry - 1;
+        }
+        mappedPages--;
+        return entry - 1;
+    }
+
+    // Replaces the page's frame with a swap slot; returns the frame it was mapped to.
+    public int swapOut(long page, int swapSlot) {
+        int slot = leafSlot(page);
+        if (slot < 0 || leafHuge || entries[slot] <= 0) {
+            throw new IllegalStateException("Page " + page + " is not a resident base page");
+        }
+        int frame = entries[slot] - 1;
+        entries[slot] = -(swapSlot + 1);
+        mappedPages--;
+        swappedPages++;
+        return frame;
+    }
+
+    // Records an unmapped page as swapped out to swapSlot, e.g. in a forked child.
+    public void mapSwapped(long page, int swapSlot) {
+        int slot = newLeafSlot(page);
+        if (entries[slot] != 0) {
+            throw new IllegalStateException("Page " + page + " is already mapped");
+        }
+        entries[slot] = -(swapSlot + 1);
+        swappedPages++;
+        pageCount = Math.max(pageCount, page + 1);
+    }
+
+    // The swap slot holding the page, or -1 if it is not swapped out.
+    public int swapSlotOf(long page) {
+        int slot = leafSlot(page);
+        return slot < 0 || leafHuge || entries[slot] >= 0 ? -1 : -entries[slot] - 1;
+    }
+
+    // Walks the tree; returns the frame or UNMAPPED.
+    public int frameOf(long page) {
+        lastWalkHuge = false;
+        lastWalkReads = 0;
+        if (page < 0 || page >= maxPages) {
+            return UNMAPPED;
+        }
+        if (direct) {
+            if (page >= DIRECT_PAGES || entries[(int) page] <= 0) {
+                // The tree would hold only the path to page 0, and read down it as far
+                // as this page shares it.
+                lastWalkReads = 1;
+                for (int level = 0; nodes > 1 && level < levels - 1 && index(page, level) == 0; level++) {
+                    lastWalkReads++;
+                }
+                return UNMAPPED;
+            }
+            lastWalkReads = levels;
+            return entries[(int) page] - 1;
+        }
+        int node = 0;
+        for (int level = 0; level < levels - 1; level++) {
+            int entry = entries[node * fanout + index(page, level)];
+            lastWalkReads++;
+            if (entry <= 0) {
+                if (entry == 0) {
+                    return UNMAPPED;
+                }
+                lastWalkHuge = true;
+                return -entry - 1 + (int) (page & (fanout - 1));
+            }
+            node = entry;
+        }
+        lastWalkReads++;
+        int entry = entries[node * fanout + index(page, levels - 1)];
+        return entry > 0 ? entry - 1 : UNMAPPED;
+    }
+
+    // Whether the latest frameOf resolved through a huge page.
+    public boolean wasHuge() {
+        return lastWalkHuge;
+    }
+
+    // Entries the latest frameOf read: one per level, fewer for huge or unmapped pages.
+    public int getLastWalkReads() {
+        return lastWalkReads;
+    }
+
+    public int getLevels() {
+        return levels;
+    }
+
+    // Base pages per huge page.
+    public int getHugePages() {
+        return fanout;
+    }
+
+    public int getHugeShift() {
+        return bits;
+    }
+
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    public long getMappedPages() {
+        return mappedPages;
+    }
+
+    public long getSwappedPages() {
+        return swappedPages;
+    }
+
+    // Empties the table for reuse. Returns false, leaving it as is, once it has grown
+    // into a tree, which is cheaper to drop than to keep.
+    public boolean clear() {
+        if (!direct) {
+            return false;
+        }
+        Arrays.fill(entries, 0);
+        nodes = 1;
+        pageCount = 0;
+        mappedPages = 0;
+        swappedPages = 0;
+        return true;
+    }
+
+    public int getTableNodes() {
+        return nodes;
+    }
+
+    // The entry slot that maps page (last-level slot, or the huge entry above it), or -1.
+    private int leafSlot(long page) {
+        leafHuge = false;
+        if (page < 0 || page >= maxPages) {
+            return -1;
+        }
+        if (direct) {
+            return page < DIRECT_PAGES ? (int) page : -1;
+        }
+        int node = 0;
+        for (int level = 0; level < levels - 1; level++) {
+            int slot = node * fanout + index(page, level);
+            int entry = entries[slot];
+            if (entry <= 0) {
+                leafHuge = entry != 0;
+                return entry == 0 ? -1 : slot;
+            }
+            node = entry;
+        }
+        return node * fanout + index(page, levels - 1);
+    }
+
+    // The last-level slot for a page about to be mapped, building the tree when the
+    // page is past the direct entries.
+    private int newLeafSlot(long page) {
+        if (direct) {
+            if (page >= 0 && page < DIRECT_PAGES) {
+                nodes = levels; // the path down to the first last-level table
+                return (int) page;
+            }
+            buildTree();
+        }
+        int node = nodeFor(page, levels - 1);
+        return node * fanout + index(page, levels - 1);
+    }
+
+    // Moves the direct entries into a real tree, below the root as the tree would
+    // hold them.
+    private void buildTree() {
+        int[] leaves = entries;
+        boolean used = nodes > 1;
+        entries = new int[fanout * levels];
+        nodes = 1;
+        direct = false;
+        if (used) {
+            int leaf = nodeFor(0, levels - 1);
+            System.arraycopy(leaves, 0, entries, leaf * fanout, DIRECT_PAGES);
+        }
+    }
+
+    // Returns the node at depth, creating the inner tables on the way down.
+    private int nodeFor(long page, int depth) {
+        if (page < 0 || page >= maxPages) {
+            throw new IllegalArgumentException("Page " + page + " is outside the " + levels + "-level address space");
+        }
+        int node = 0;
+        for (int level = 0; level < depth; level++) {
+            int slot = node * fanout + index(page, level);
+            int entry = entries[slot];
+            if (entry < 0) {
+                throw new IllegalStateException("Page " + page + " lies inside a huge page");
+            }
+            if (entry == 0) {
+                entry = newNode();
+                entries[slot] = entry;
+            }
+            node = entry;
+        }
+        return node;
+    }
+
+    private int newNode() {
+        if ((nodes + 1) * fanout > entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        return nodes++;
+    }
+
+    private int index(long page, int level) {
+        return (int) (page >>> (bits * (levels - 1 - level))) & (fanout - 1);
+    }
+}
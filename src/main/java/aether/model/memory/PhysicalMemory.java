@@ -0,0 +1,254 @@
+package aether.model.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// The bytes behind the frames, kept off the Java heap. Physical memory is one linear
+// address space (frame * pageSize + offset) split into direct ByteBuffer chunks of a
+// power-of-two number of frames. A chunk is allocated on its first write, so a
+// simulator configured with gigabytes of RAM only commits what it touches, and none
+// of it is heap for the GC to trace or copy; untouched chunks read as zeros. Bulk
+// copies between frames or into direct buffers never pass through a heap array.
+// Direct memory counts against -XX:MaxDirectMemorySize (by default the heap limit).
+// Not thread-safe; CellStore uses it under its own lock.
+public class PhysicalMemory {
+    private static final int CHUNK_BYTES = 1 << 24;
+
+    private final int pageSize;
+    private final int frames;
+    private final long capacity;
+    private final long chunkBytes;
+    private final ByteBuffer[] chunks;
+    private final ByteBuffer zeros;  // one page of zeros, the source for zeroing
+    private int allocatedChunks;
+
+    private long bytesRead;
+    private long bytesWritten;
+    private long bytesCopied;
+    private long bytesZeroed;
+
+    public PhysicalMemory(int pageSize, int frames) {
+        if (pageSize <= 0 || frames < 0) {
+            throw new IllegalArgumentException("Invalid memory geometry: " + frames + " x " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.frames = frames;
+        this.capacity = (long) frames * pageSize;
+        int framesPerChunk = Integer.highestOneBit(Math.max(CHUNK_BYTES / pageSize, 1));
+        this.chunkBytes = (long) framesPerChunk * pageSize;
+        this.chunks = new ByteBuffer[(frames + framesPerChunk - 1) / framesPerChunk];
+        this.zeros = ByteBuffer.allocateDirect(pageSize);
+    }
+
+    // Copies the frame into dst at its position, advancing it by one page.
+    public void readPage(int frame, ByteBuffer dst) {
+        read(pageAddress(frame), dst, pageSize);
+    }
+
+    // Overwrites the frame with one page from src at its position, advancing it.
+    public void writePage(int frame, ByteBuffer src) {
+        write(pageAddress(frame), src, pageSize);
+    }
+
+    public void copyPage(int fromFrame, int toFrame) {
+        copy(pageAddress(fromFrame), pageAddress(toFrame), pageSize);
+    }
+
+    public void zeroPage(int frame) {
+        zero(pageAddress(frame), pageSize);
+    }
+
+    // Copies length bytes starting at a physical address into dst, advancing its position.
+    public void read(long address, ByteBuffer dst, int length) {
+        check(address, length);
+        if (dst.remaining() < length) {
+            throw new IllegalArgumentException("Buffer has " + dst.remaining() + " bytes left, not " + length);
+        }
+        int at = dst.position();
+        long end = address + length;
+        while (address < end) {
+            int index = (int) (address / chunkBytes);
+            int offset = (int) (address - index * chunkBytes);
+            int run = (int) Math.min(end - address, chunkBytes - offset);
+            ByteBuffer chunk = chunks[index];
+            if (chunk == null) {
+                fillZeros(dst, at, run);
+            } else {
+                dst.put(at, chunk, offset, run);
+            }
+            at += run;
+            address += run;
+        }
+        dst.position(at);
+        bytesRead += length;
+    }
+
+    // Copies length bytes from src into physical memory, advancing src's position.
+    public void write(long address, ByteBuffer src, int length) {
+        check(address, length);
+        if (src.remaining() < length) {
+            throw new IllegalArgumentException("Buffer has " + src.remaining() + " bytes left, not " + length);
+        }
+        int at = src.position();
+        long end = address + length;
+        while (address < end) {
+            int index = (int) (address / chunkBytes);
+            int offset = (int) (address - index * chunkBytes);
+            int run = (int) Math.min(end - address, chunkBytes - offset);
+            chunk(index).put(offset, src, at, run);
+            at += run;
+            address += run;
+        }
+        src.position(at);
+        bytesWritten += length;
+    }
+
+    // Copies between physical addresses; the ranges must not overlap.
+    public void copy(long from, long to, long length) {
+        check(from, length);
+        check(to, length);
+        long end = from + length;
+        while (from < end) {
+            int fromIndex = (int) (from / chunkBytes);
+            int toIndex = (int) (to / chunkBytes);
+            int fromOffset = (int) (from - fromIndex * chunkBytes);
+            int toOffset = (int) (to - toIndex * chunkBytes);
+            int run = (int) Math.min(end - from, Math.min(chunkBytes - fromOffset, chunkBytes - toOffset));
+            ByteBuffer source = chunks[fromIndex];
+            if (source == null) {
+                clear(to, run);
+            } else {
+                chunk(toIndex).put(toOffset, source, fromOffset, run);
+            }
+            from += run;
+            to += run;
+        }
+        bytesCopied += length;
+    }
+
+    // Clears a range; chunks never written are already zero and stay unallocated.
+    public void zero(long address, long length) {
+        check(address, length);
+        clear(address, length);
+        bytesZeroed += length;
+    }
+
+    private void clear(long address, long length) {
+        long end = address + length;
+        while (address < end) {
+            int index = (int) (address / chunkBytes);
+            int offset = (int) (address - index * chunkBytes);
+            int run = (int) Math.min(end - address, chunkBytes - offset);
+            ByteBuffer chunk = chunks[index];
+            if (chunk != null) {
+                fillZeros(chunk, offset, run);
+            }
+            address += run;
+        }
+    }
+
+    private void fillZeros(ByteBuffer buffer, int at, int length) {
+        for (int done = 0; done < length; done += pageSize) {
+            buffer.put(at + done, zeros, 0, Math.min(length - done, pageSize));
+        }
+    }
+
+    // Word access for simulated loads and stores; the address must be 8-byte aligned.
+    public long getLong(long address) {
+        checkWord(address);
+        int index = (int) (address / chunkBytes);
+        ByteBuffer chunk = chunks[index];
+        return chunk == null ? 0 : chunk.getLong((int) (address - index * chunkBytes));
+    }
+
+    public void putLong(long address, long value) {
+        checkWord(address);
+        int index = (int) (address / chunkBytes);
+        chunk(index).putLong((int) (address - index * chunkBytes), value);
+    }
+
+    public byte getByte(long address) {
+        check(address, 1);
+        int index = (int) (address / chunkBytes);
+        ByteBuffer chunk = chunks[index];
+        return chunk == null ? 0 : chunk.get((int) (address - index * chunkBytes));
+    }
+
+    public void putByte(long address, byte value) {
+        check(address, 1);
+        int index = (int) (address / chunkBytes);
+        chunk(index).put((int) (address - index * chunkBytes), value);
+    }
+
+    private ByteBuffer chunk(int index) {
+        ByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+            long start = index * chunkBytes;
+            chunk = ByteBuffer.allocateDirect((int) Math.min(chunkBytes, capacity - start))
+                    .order(ByteOrder.nativeOrder());
+            chunks[index] = chunk;
+            allocatedChunks++;
+        }
+        return chunk;
+    }
+
+    private long pageAddress(int frame) {
+        if (frame < 0 || frame >= frames) {
+            throw new IllegalArgumentException("No frame " + frame + " in " + frames);
+        }
+        return (long) frame * pageSize;
+    }
+
+    private void check(long address, long length) {
+        if (address < 0 || length < 0 || address + length > capacity) {
+            throw new IllegalArgumentException("Range " + address + "+" + length + " is outside " + capacity
+                    + " bytes of physical memory");
+        }
+    }
+
+    private void checkWord(long address) {
+        if ((address & 7) != 0 || chunkBytes % 8 != 0) {
+            throw new IllegalArgumentException("Unaligned word access at " + address);
+        }
+        check(address, 8);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    // Off-heap bytes actually allocated so far.
+    public long getResidentBytes() {
+        long resident = 0;
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                resident += chunk.capacity();
+            }
+        }
+        return resident;
+    }
+
+    public int getAllocatedChunks() {
+        return allocatedChunks;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getBytesCopied() {
+        return bytesCopied;
+    }
+
+    public long getBytesZeroed() {
+        return bytesZeroed;
+    }
+}
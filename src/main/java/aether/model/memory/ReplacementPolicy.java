@@ -0,0 +1,62 @@
+package aether.model.memory;
+
+import java.util.function.IntConsumer;
+
+// Page replacement over a fixed number of frames. access() is the whole protocol: it
+// reports a hit, or loads the page on a miss and evicts the policy's victim when
+// every frame is in use. Implementations allocate nothing per access.
+public interface ReplacementPolicy {
+    String getName();
+
+    int getCapacity();
+
+    // Returns true on a hit.
+    boolean access(int page);
+
+    boolean contains(int page);
+
+    // Evicts the page the policy would replace next; returns it, or -1 when empty.
+    int evict();
+
+    // Forgets a page whose frame was released, without counting an eviction. Returns
+    // false if the page was not resident.
+    boolean remove(int page);
+
+    // The page evicted by the latest access or evict call, or -1 if none was.
+    int getLastEvicted();
+
+    int size();
+
+    void forEachResident(IntConsumer action);
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    void resetStats();
+
+    default double getFaultRate() {
+        long accesses = getHits() + getMisses();
+        return accesses == 0 ? 0 : (double) getMisses() / accesses;
+    }
+
+    // OPT is not listed: it needs the reference string up front (see OptPolicy).
+    static ReplacementPolicy forName(String name, int capacity) {
+        switch (name.toUpperCase()) {
+            case "LRU":
+                return new FluxCache(capacity);
+            case "CLOCK":
+                return new ClockPolicy(capacity);
+            case "2Q":
+                return new TwoQueuePolicy(capacity);
+            case "ARC":
+                return new ArcPolicy(capacity);
+            case "LFU":
+                return new LfuPolicy(capacity);
+            default:
+                throw new IllegalArgumentException("Unknown replacement policy: " + name);
+        }
+    }
+}
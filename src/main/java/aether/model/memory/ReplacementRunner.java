@@ -0,0 +1,137 @@
+package aether.model.memory;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Replays one reference string against every replacement policy and reports fault
+// rates side by side. OPT is included as the lower bound any online policy can reach.
+public class ReplacementRunner {
+    public static final String[] POLICIES = { "LRU", "CLOCK", "2Q", "ARC", "LFU" };
+
+    public static class Result {
+        private final String policy;
+        private final int capacity;
+        private final long faults;
+        private final double faultRate;
+        private final double seconds;
+
+        Result(ReplacementPolicy policy, double seconds) {
+            this.policy = policy.getName();
+            this.capacity = policy.getCapacity();
+            this.faults = policy.getMisses();
+            this.faultRate = policy.getFaultRate();
+            this.seconds = seconds;
+        }
+
+        public String getPolicy() {
+            return policy;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public long getFaults() {
+            return faults;
+        }
+
+        public double getFaultRate() {
+            return faultRate;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+    }
+
+    public static List<Result> compare(int[] references, int capacity, boolean withOpt) {
+        List<Result> results = new ArrayList<>();
+        for (String name : POLICIES) {
+            results.add(replay(ReplacementPolicy.forName(name, capacity), references));
+        }
+        if (withOpt) {
+            long start = System.nanoTime();
+            OptPolicy opt = new OptPolicy(capacity, references);
+            replay(opt, references);
+            results.add(new Result(opt, (System.nanoTime() - start) / 1e9));
+        }
+        return results;
+    }
+
+    public static Result replay(ReplacementPolicy policy, int[] references) {
+        long start = System.nanoTime();
+        for (int page : references) {
+            policy.access(page);
+        }
+        return new Result(policy, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Skewed references over `pages` distinct pages (log-uniform, so a few pages are
+    // very hot), interrupted by sequential one-touch scans of pages outside that set.
+    // Scans are what separate recency-only policies from scan-resistant ones.
+    public static int[] generate(int length, int pages, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] references = new int[length];
+        double logPages = Math.log(pages);
+        int scanPage = pages;
+        int scanLeft = 0;
+        for (int i = 0; i < length; i++) {
+            if (scanLeft == 0 && random.nextInt(20_000) == 0) {
+                scanLeft = 1 + random.nextInt(Math.max(pages / 4, 1));
+            }
+            if (scanLeft > 0) {
+                scanLeft--;
+                references[i] = scanPage++;
+            } else {
+                references[i] = (int) Math.exp(random.nextDouble() * logPages) - 1;
+            }
+        }
+        return references;
+    }
+
+    // A file of big-endian 4-byte page numbers.
+    public static int[] load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long count = channel.size() / 4;
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("Reference string too long: " + count);
+            }
+            int[] references = new int[(int) count];
+            IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, 0, count * 4)
+                    .order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+            ints.get(references);
+            return references;
+        }
+    }
+
+    // Usage: ReplacementRunner [references] [capacities, comma separated] [distinct pages] [referenceFile]
+    // 10^8 references need about 1 GB of heap with OPT (the string plus its next-use table).
+    public static void main(String[] args) throws IOException {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String capacities = args.length > 1 ? args[1] : "1000,10000";
+        int pages = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        long start = System.nanoTime();
+        int[] references = args.length > 3 ? load(Paths.get(args[3])) : generate(length, pages, 42);
+        System.out.printf("%d references ready in %.2f s%n", references.length, (System.nanoTime() - start) / 1e9);
+
+        for (String capacity : capacities.split(",")) {
+            int frames = Integer.parseInt(capacity.trim());
+            System.out.printf("%n%-6s %10s %12s %10s %9s %10s%n", "Policy", "Frames", "Faults", "FaultRate", "Seconds",
+                    "Mrefs/s");
+            for (Result result : compare(references, frames, true)) {
+                System.out.printf("%-6s %10d %12d %9.3f%% %9.2f %10.1f%n", result.getPolicy(), result.getCapacity(),
+                        result.getFaults(), result.getFaultRate() * 100, result.getSeconds(),
+                        references.length / result.getSeconds() / 1e6);
+            }
+        }
+    }
+}
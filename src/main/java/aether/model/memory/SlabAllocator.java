@@ -0,0 +1,204 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// Size-class allocator for objects smaller than a page, in the style of a slab
+// allocator. Each class (powers of two from MIN_OBJECT bytes to half a page) carves
+// single pages from a BuddyAllocator into equal objects tracked by a per-page bitmap.
+// Pages with a free object are linked per class, and a page whose last object is
+// freed goes back to the buddy allocator. An object's address is its frame times the
+// page size plus its offset. O(1) apart from the buddy calls. Not thread-safe.
+public class SlabAllocator {
+    public static final long NONE = -1;
+    public static final int MIN_OBJECT = 16;
+    private static final int NIL = -1;
+    private static final byte NO_CLASS = -1;
+
+    private final BuddyAllocator pages;
+    private final int pageSize;
+    private final int pageShift;
+    private final int classes;
+    private final int words;        // bitmap words per slab
+
+    // Per slab, indexed by frame offset in the buddy zone.
+    private final long[] used;      // bit set = object in use, or past the end of the slab
+    private final byte[] classOf;
+    private final int[] inUse;
+    private final int[] next;       // partial-slab links within the class
+    private final int[] prev;
+    private final int[] partial;    // per class: first slab with a free object
+
+    private long requestedBytes;
+    private long objectBytes;
+    private int slabs;
+    private long allocations;
+    private long failures;
+
+    public SlabAllocator(BuddyAllocator pages, int pageSize) {
+        if (Integer.bitCount(pageSize) != 1 || pageSize < 2 * MIN_OBJECT) {
+            throw new IllegalArgumentException("Slabs need a power-of-two page of at least " + 2 * MIN_OBJECT
+                    + " bytes, not " + pageSize);
+        }
+        this.pages = pages;
+        this.pageSize = pageSize;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+        this.classes = pageShift - Integer.numberOfTrailingZeros(MIN_OBJECT);
+        this.words = Math.max(pageSize / MIN_OBJECT / 64, 1);
+        int frames = pages.getFrames();
+        used = new long[frames * words];
+        classOf = new byte[frames];
+        inUse = new int[frames];
+        next = new int[frames];
+        prev = new int[frames];
+        partial = new int[classes];
+        Arrays.fill(classOf, NO_CLASS);
+        Arrays.fill(partial, NIL);
+    }
+
+    // Largest size served from slabs; bigger requests belong to the buddy allocator.
+    public int getMaxObject() {
+        return pageSize >>> 1;
+    }
+
+    // Returns the address of a free object of at least size bytes, or NONE when the
+    // buddy allocator has no page left for a new slab.
+    public long allocate(int size) {
+        int cls = classFor(size);
+        int slab = partial[cls];
+        if (slab == NIL) {
+            slab = newSlab(cls);
+            if (slab == NIL) {
+                failures++;
+                return NONE;
+            }
+        }
+        int base = slab * words;
+        int w = base;
+        while (used[w] == -1L) {
+            w++;
+        }
+        int bit = Long.numberOfTrailingZeros(~used[w]);
+        used[w] |= 1L << bit;
+        if (++inUse[slab] == objectsPerSlab(cls)) {
+            unlink(slab, cls);
+        }
+        requestedBytes += size;
+        objectBytes += MIN_OBJECT << cls;
+        allocations++;
+        int object = ((w - base) << 6) + bit;
+        return ((long) (pages.getBaseFrame() + slab) << pageShift) + ((long) object << (cls + 4));
+    }
+
+    // Frees an object; size is the size it was allocated with.
+    public void free(long address, int size) {
+        int cls = classFor(size);
+        int slab = (int) (address >>> pageShift) - pages.getBaseFrame();
+        if (slab < 0 || slab >= classOf.length || classOf[slab] != cls) {
+            throw new IllegalStateException("No " + (MIN_OBJECT << cls) + "-byte slab holds address " + address);
+        }
+        int object = (int) (address & (pageSize - 1)) >>> (cls + 4);
+        int w = slab * words + (object >>> 6);
+        long mask = 1L << object;
+        if ((address & ((MIN_OBJECT << cls) - 1)) != 0 || (used[w] & mask) == 0) {
+            throw new IllegalStateException("Address " + address + " is not an allocated object");
+        }
+        used[w] &= ~mask;
+        requestedBytes -= size;
+        objectBytes -= MIN_OBJECT << cls;
+        int live = --inUse[slab];
+        if (live == 0) {
+            // Every slab holds at least two objects, so an emptied one is on the partial list.
+            unlink(slab, cls);
+            classOf[slab] = NO_CLASS;
+            slabs--;
+            pages.free(pages.getBaseFrame() + slab);
+        } else if (live == objectsPerSlab(cls) - 1) {
+            push(slab, cls);
+        }
+    }
+
+    private int classFor(int size) {
+        if (size <= 0 || size > getMaxObject()) {
+            throw new IllegalArgumentException("Slab objects are 1.." + getMaxObject() + " bytes, not " + size);
+        }
+        return size <= MIN_OBJECT ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1) - 4;
+    }
+
+    private int objectsPerSlab(int cls) {
+        return pageSize >>> (cls + 4);
+    }
+
+    private int newSlab(int cls) {
+        int frame = pages.allocate(1);
+        if (frame == BuddyAllocator.NONE) {
+            return NIL;
+        }
+        int slab = frame - pages.getBaseFrame();
+        int objects = objectsPerSlab(cls);
+        for (int w = 0; w < words; w++) {
+            int valid = Math.min(Math.max(objects - (w << 6), 0), 64);
+            used[slab * words + w] = valid == 64 ? 0 : -1L << valid;
+        }
+        classOf[slab] = (byte) cls;
+        inUse[slab] = 0;
+        slabs++;
+        push(slab, cls);
+        return slab;
+    }
+
+    private void push(int slab, int cls) {
+        int head = partial[cls];
+        next[slab] = head;
+        prev[slab] = NIL;
+        if (head != NIL) {
+            prev[head] = slab;
+        }
+        partial[cls] = slab;
+    }
+
+    private void unlink(int slab, int cls) {
+        int p = prev[slab];
+        int n = next[slab];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            partial[cls] = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        }
+    }
+
+    public int getSlabs() {
+        return slabs;
+    }
+
+    public long getRequestedBytes() {
+        return requestedBytes;
+    }
+
+    // Bytes of the size classes handed out, i.e. requests rounded up to their class.
+    public long getObjectBytes() {
+        return objectBytes;
+    }
+
+    // Share of slab memory not holding requested bytes: class rounding plus free slots.
+    public double getInternalFragmentation() {
+        long slabBytes = (long) slabs << pageShift;
+        return slabBytes == 0 ? 0 : 1 - (double) requestedBytes / slabBytes;
+    }
+
+    public long getAllocations() {
+        return allocations;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Slab[%d classes] slabs=%d requested=%d internal=%.3f", classes, slabs, requestedBytes,
+                getInternalFragmentation());
+    }
+}
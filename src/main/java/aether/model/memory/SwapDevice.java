@@ -0,0 +1,135 @@
+package aether.model.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A swap area: a file on local disk, memory-mapped and cut into page-sized slots,
+// with free slots tracked by a FrameAllocator bitmap. Pages move between the mapping
+// and PhysicalMemory without touching the heap. Written slots collect in a batch
+// until sync(), which forces only the dirty range to disk, so a reclaim pass that
+// swaps out many pages costs one flush instead of one per page. Not thread-safe;
+// CellStore uses it under its own lock.
+public class SwapDevice implements Closeable {
+    public static final int NONE = -1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int pageSize;
+    private final FrameAllocator slots;
+
+    private int batchLow = Integer.MAX_VALUE; // range of slots written since the last sync
+    private int batchHigh = -1;
+    private int batched;
+
+    private long pagesWritten;
+    private long pagesRead;
+    private long syncs;
+
+    public SwapDevice(Path file, int slotCount, int pageSize) throws IOException {
+        if (slotCount <= 0 || pageSize <= 0 || (long) slotCount * pageSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Swap of " + slotCount + " x " + pageSize
+                    + " bytes does not fit one mapping");
+        }
+        this.file = file;
+        this.pageSize = pageSize;
+        this.slots = new FrameAllocator(slotCount);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slotCount * pageSize);
+    }
+
+    // Returns a free slot, or NONE when swap is full.
+    public int allocateSlot() {
+        return slots.allocate();
+    }
+
+    public void freeSlot(int slot) {
+        slots.free(slot);
+    }
+
+    // Copies the frame into the slot; it reaches the disk at the next sync().
+    public void writePage(int slot, PhysicalMemory memory, int frame) {
+        map.position(offset(slot));
+        memory.read((long) frame * pageSize, map, pageSize);
+        batchLow = Math.min(batchLow, slot);
+        batchHigh = Math.max(batchHigh, slot);
+        batched++;
+        pagesWritten++;
+    }
+
+    public void readPage(int slot, PhysicalMemory memory, int frame) {
+        map.position(offset(slot));
+        memory.write((long) frame * pageSize, map, pageSize);
+        pagesRead++;
+    }
+
+    // Flushes the slots written since the last sync in one call.
+    public void sync() {
+        if (batched == 0) {
+            return;
+        }
+        map.force(batchLow * pageSize, (batchHigh - batchLow + 1) * pageSize);
+        batchLow = Integer.MAX_VALUE;
+        batchHigh = -1;
+        batched = 0;
+        syncs++;
+    }
+
+    private int offset(int slot) {
+        if (!slots.isAllocated(slot)) {
+            throw new IllegalStateException("Swap slot " + slot + " is not allocated");
+        }
+        return slot * pageSize;
+    }
+
+    // Syncs and closes the file; the mapping itself goes away when it is collected.
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getSlots() {
+        return slots.getTotalFrames();
+    }
+
+    public int getFreeSlots() {
+        return slots.getFreeFrames();
+    }
+
+    public int getUsedSlots() {
+        return slots.getUsedFrames();
+    }
+
+    public long getPagesWritten() {
+        return pagesWritten;
+    }
+
+    public long getPagesRead() {
+        return pagesRead;
+    }
+
+    // Disk flushes; pages written over this is the write-back batching factor.
+    public long getSyncs() {
+        return syncs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Swap[%d slots] used=%d written=%d read=%d syncs=%d", getSlots(), getUsedSlots(),
+                pagesWritten, pagesRead, syncs);
+    }
+}
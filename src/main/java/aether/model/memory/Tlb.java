@@ -0,0 +1,220 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// Set-associative TLB over parallel arrays. An entry is tagged with the address space
+// (ASID, the owning task's ID) and the virtual page number, so switching tasks needs
+// no flush. The set comes from the low bits of the page number, as in hardware. Huge
+// page entries share the arrays and are tagged with the huge page number and a flag
+// bit; a lookup tries the base page first and the huge page only if any are cached.
+// Lookups allocate nothing. Not thread-safe.
+public class Tlb {
+    public enum Replacement {
+        LRU, RANDOM
+    }
+
+    public static final int MISS = -1;
+    private static final long INVALID = -1L;
+    private static final int NONE = -1;
+
+    private final int sets;
+    private final int ways;
+    private final int setMask;
+    private final Replacement replacement;
+    private final long[] tags;   // page number << 1 | huge flag, INVALID when empty
+    private final int[] asids;
+    private final int[] frames;  // frame, or the first frame of a huge page
+    private final long[] stamps; // last use, for LRU
+    private long clock;
+    private int random = 0x2545F491;
+    private int hugeShift;
+    private int hugeEntries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long flushes;
+
+    public Tlb(int sets, int ways, Replacement replacement) {
+        if (sets <= 0 || Integer.bitCount(sets) != 1 || ways <= 0) {
+            throw new IllegalArgumentException("TLB needs a power-of-two set count and at least one way: "
+                    + sets + " x " + ways);
+        }
+        this.sets = sets;
+        this.ways = ways;
+        this.setMask = sets - 1;
+        this.replacement = replacement;
+        tags = new long[sets * ways];
+        asids = new int[sets * ways];
+        frames = new int[sets * ways];
+        stamps = new long[sets * ways];
+        Arrays.fill(tags, INVALID);
+    }
+
+    // Huge pages cover 2^shift base pages; set by the CellStore that owns the TLB.
+    void setHugeShift(int shift) {
+        hugeShift = shift;
+    }
+
+    // Returns the frame holding the page, or MISS.
+    public int lookup(int asid, long page) {
+        int frame = probe(asid, page << 1);
+        if (frame == MISS && hugeEntries > 0) {
+            frame = probe(asid, (page >>> hugeShift) << 1 | 1);
+            if (frame != MISS) {
+                frame += (int) (page & ((1L << hugeShift) - 1));
+            }
+        }
+        if (frame == MISS) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return frame;
+    }
+
+    // Caches a translation; for a huge page, frame is the huge page's first frame.
+    public void insert(int asid, long page, int frame, boolean huge) {
+        long tag = huge ? (page >>> hugeShift) << 1 | 1 : page << 1;
+        int base = ((int) (tag >>> 1) & setMask) * ways;
+        int victim = NONE;
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag && asids[i] == asid) {
+                frames[i] = frame;
+                stamps[i] = ++clock;
+                return;
+            }
+            if (victim == NONE || (tags[victim] != INVALID
+                    && (tags[i] == INVALID || stamps[i] < stamps[victim]))) {
+                victim = i;
+            }
+        }
+        if (tags[victim] != INVALID) {
+            if (replacement == Replacement.RANDOM) {
+                random ^= random << 13;
+                random ^= random >>> 17;
+                random ^= random << 5;
+                victim = base + (random >>> 1) % ways;
+            }
+            evictions++;
+            if ((tags[victim] & 1) != 0) {
+                hugeEntries--;
+            }
+        }
+        if (huge) {
+            hugeEntries++;
+        }
+        tags[victim] = tag;
+        asids[victim] = asid;
+        frames[victim] = frame;
+        stamps[victim] = ++clock;
+    }
+
+    // Drops every entry of one address space, e.g. when its task exits and the ID is reused.
+    public void flush(int asid) {
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i] != INVALID && asids[i] == asid) {
+                invalidate(i);
+            }
+        }
+        flushes++;
+    }
+
+    // Drops the base-page entry for one page, e.g. when it is swapped out.
+    public void invalidatePage(int asid, long page) {
+        long tag = page << 1;
+        int base = ((int) page & setMask) * ways;
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag && asids[i] == asid) {
+                invalidate(i);
+            }
+        }
+    }
+
+    public void flushAll() {
+        Arrays.fill(tags, INVALID);
+        hugeEntries = 0;
+        flushes++;
+    }
+
+    private int probe(int asid, long tag) {
+        int base = ((int) (tag >>> 1) & setMask) * ways;
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag && asids[i] == asid) {
+                if (replacement == Replacement.LRU) {
+                    stamps[i] = ++clock;
+                }
+                return frames[i];
+            }
+        }
+        return MISS;
+    }
+
+    private void invalidate(int i) {
+        if ((tags[i] & 1) != 0) {
+            hugeEntries--;
+        }
+        tags[i] = INVALID;
+    }
+
+    public int getSets() {
+        return sets;
+    }
+
+    public int getWays() {
+        return ways;
+    }
+
+    public int getEntries() {
+        return tags.length;
+    }
+
+    public Replacement getReplacement() {
+        return replacement;
+    }
+
+    // Base pages the cached entries currently cover; times the page size gives TLB reach.
+    public long getCoveredPages() {
+        long pages = 0;
+        for (long tag : tags) {
+            if (tag != INVALID) {
+                pages += (tag & 1) != 0 ? 1L << hugeShift : 1;
+            }
+        }
+        return pages;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        flushes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TLB %dx%d %s hits=%d misses=%d hitRatio=%.4f", sets, ways, replacement, hits, misses,
+                getHitRatio());
+    }
+}
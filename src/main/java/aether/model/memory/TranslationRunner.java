@@ -0,0 +1,109 @@
+package aether.model.memory;
+
+// Replays skewed virtual page references through CellStore.translate for growing
+// working sets, once mapped with base pages and once with huge pages, and reports
+// TLB hit rate, page walks and TLB reach. Shows where a working set outgrows the TLB
+// and how much of that huge pages win back.
+public class TranslationRunner {
+    private static final int BATCH = 4096;
+
+    public static class Result {
+        private final boolean huge;
+        private final int workingSet;
+        private final Tlb tlb;
+        private final long walks;
+        private final long walkReads;
+        private final long coveredPages;
+        private final double seconds;
+
+        Result(boolean huge, int workingSet, CellStore store, double seconds) {
+            this.huge = huge;
+            this.workingSet = workingSet;
+            this.tlb = store.getTlb();
+            this.walks = store.getPageWalks();
+            this.walkReads = store.getWalkReads();
+            this.coveredPages = tlb.getCoveredPages();
+            this.seconds = seconds;
+        }
+
+        public boolean isHuge() {
+            return huge;
+        }
+
+        public int getWorkingSet() {
+            return workingSet;
+        }
+
+        public double getTlbHitRatio() {
+            return tlb.getHitRatio();
+        }
+
+        public long getWalks() {
+            return walks;
+        }
+
+        public double getReadsPerWalk() {
+            return walks == 0 ? 0 : (double) walkReads / walks;
+        }
+
+        public long getCoveredPages() {
+            return coveredPages;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+    }
+
+    // references are page numbers; each is folded into the working set.
+    public static Result run(int[] references, int workingSet, boolean huge, int levels, int sets, int ways) {
+        int pageSize = 4;
+        int hugePages = new PageTable(levels).getHugePages();
+        int frames = workingSet + 2 * hugePages;
+        CellStore store = new CellStore(pageSize, frames * pageSize, levels, new Tlb(sets, ways, Tlb.Replacement.LRU));
+        boolean mapped = huge ? store.allocateHugePages(1, (workingSet + hugePages - 1) / hugePages)
+                : store.allocateMemoryToProcess(1, (long) workingSet * pageSize);
+        if (!mapped) {
+            throw new IllegalStateException("Cannot map a working set of " + workingSet + " pages");
+        }
+
+        long[] virtual = new long[BATCH];
+        long[] physical = new long[BATCH];
+        long start = System.nanoTime();
+        for (int from = 0; from < references.length; from += BATCH) {
+            int count = Math.min(BATCH, references.length - from);
+            for (int i = 0; i < count; i++) {
+                virtual[i] = (long) (references[from + i] % workingSet) * pageSize;
+            }
+            if (store.translateAll(1, virtual, physical, count) != 0) {
+                throw new IllegalStateException("Translation fault while replaying");
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(huge, workingSet, store, seconds);
+    }
+
+    // Usage: TranslationRunner [references] [working sets in pages, comma separated] [levels] [sets x ways]
+    public static void main(String[] args) {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        String workingSets = args.length > 1 ? args[1] : "64,1024,16384,262144";
+        int levels = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        String[] geometry = (args.length > 3 ? args[3] : "16x4").split("x");
+        int sets = Integer.parseInt(geometry[0]);
+        int ways = Integer.parseInt(geometry[1]);
+
+        System.out.printf("%d-level tables, %dx%d TLB, %d references per run%n", levels, sets, ways, length);
+        System.out.printf("%n%10s %5s %9s %12s %11s %10s %10s%n", "Pages", "Huge", "TLB hit", "Walks", "Reads/walk",
+                "Reach", "Mtrans/s");
+        for (String value : workingSets.split(",")) {
+            int workingSet = Integer.parseInt(value.trim());
+            int[] references = ReplacementRunner.generate(length, workingSet, 42);
+            for (boolean huge : new boolean[] { false, true }) {
+                Result result = run(references, workingSet, huge, levels, sets, ways);
+                System.out.printf("%10d %5s %8.3f%% %12d %11.2f %10d %10.1f%n", workingSet, huge ? "yes" : "no",
+                        result.getTlbHitRatio() * 100, result.getWalks(), result.getReadsPerWalk(),
+                        result.getCoveredPages(), length / result.getSeconds() / 1e6);
+            }
+        }
+    }
+}
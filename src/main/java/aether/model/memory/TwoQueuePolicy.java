@@ -0,0 +1,133 @@
+package aether.model.memory;
+
+import java.util.function.IntConsumer;
+
+// Full 2Q (Johnson and Shasha). New pages enter the FIFO A1in; pages evicted from
+// A1in are remembered, without their data, in the ghost FIFO A1out. Only a page
+// referenced again while in A1out is promoted to the LRU queue Am, so one-touch scans
+// pass through A1in without displacing the hot set.
+public class TwoQueuePolicy extends AbstractReplacementPolicy {
+    private static final int AM = 0;
+    private static final int A1IN = 1;
+    private static final int A1OUT = 2;
+
+    private final int inLimit;
+    private final int outLimit;
+    private final int[] pages;
+    private final EntryLists lists;
+    private final PageIndex entryOf;
+
+    public TwoQueuePolicy(int capacity) {
+        this(capacity, Math.max(capacity / 4, 1), Math.max(capacity / 2, 1));
+    }
+
+    public TwoQueuePolicy(int capacity, int inLimit, int outLimit) {
+        super(capacity);
+        this.inLimit = inLimit;
+        this.outLimit = outLimit;
+        int entries = this.capacity + outLimit;
+        pages = new int[entries];
+        lists = new EntryLists(entries, 3);
+        entryOf = new PageIndex(entries);
+    }
+
+    @Override
+    public String getName() {
+        return "2Q";
+    }
+
+    @Override
+    public boolean access(int page) {
+        lastEvicted = NIL;
+        int entry = entryOf.get(page);
+        int list = entry >= 0 ? lists.listOf(entry) : NIL;
+        if (list == AM) {
+            hits++;
+            lists.moveToHead(AM, entry);
+            return true;
+        }
+        if (list == A1IN) {
+            hits++;
+            return true;
+        }
+        misses++;
+        if (capacity == 0) {
+            return false;
+        }
+        if (list == A1OUT) {
+            // Detach the ghost first so making room cannot drop it.
+            lists.remove(entry);
+        }
+        if (size() == capacity) {
+            evictResident();
+        }
+        if (list == A1OUT) {
+            lists.addHead(AM, entry);
+        } else {
+            entry = lists.allocate();
+            pages[entry] = page;
+            entryOf.put(page, entry);
+            lists.addHead(A1IN, entry);
+        }
+        return false;
+    }
+
+    @Override
+    public int evict() {
+        lastEvicted = NIL;
+        return size() == 0 ? NIL : evictResident();
+    }
+
+    @Override
+    public boolean remove(int page) {
+        int entry = entryOf.remove(page);
+        if (entry < 0) {
+            return false;
+        }
+        boolean resident = lists.listOf(entry) != A1OUT;
+        lists.release(entry);
+        return resident;
+    }
+
+    private int evictResident() {
+        int entry;
+        if (lists.count(A1IN) > inLimit || lists.count(AM) == 0) {
+            entry = lists.tail(A1IN);
+            lists.remove(entry);
+            if (lists.count(A1OUT) >= outLimit) {
+                int ghost = lists.tail(A1OUT);
+                entryOf.remove(pages[ghost]);
+                lists.release(ghost);
+            }
+            lists.addHead(A1OUT, entry);
+        } else {
+            entry = lists.tail(AM);
+            entryOf.remove(pages[entry]);
+            lists.release(entry);
+        }
+        lastEvicted = pages[entry];
+        evictions++;
+        return lastEvicted;
+    }
+
+    @Override
+    public boolean contains(int page) {
+        int entry = entryOf.get(page);
+        return entry >= 0 && lists.listOf(entry) != A1OUT;
+    }
+
+    @Override
+    public int size() {
+        return lists.count(AM) + lists.count(A1IN);
+    }
+
+    @Override
+    public void forEachResident(IntConsumer action) {
+        for (int e = lists.head(AM); e != NIL; e = lists.next(e)) {
+            action.accept(pages[e]);
+        }
+        for (int e = lists.head(A1IN); e != NIL; e = lists.next(e)) {
+            action.accept(pages[e]);
+        }
+    }
+}
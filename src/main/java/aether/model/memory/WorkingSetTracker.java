@@ -0,0 +1,211 @@
+package aether.model.memory;
+
+import java.util.Arrays;
+
+// Denning's working set and page-fault frequency, kept up to date one reference at
+// a time. Each process has a ring of its last `window` references (tau, counted in
+// the process's own references) and a count per page inside it: a page entering the
+// window with count 0 grows the working set, the reference falling out of the window
+// shrinks it when its count drops to 0. Fault bits ride along in the ring, so the
+// fault frequency is faults per reference over the same window. A global ring of
+// fault bits over the last `globalWindow` references of all processes gives the
+// system-wide fault rate. O(1) amortized per reference, no allocation after a
+// process's first reference. Pages are tracked by their low 32 bits. Not thread-safe.
+public class WorkingSetTracker {
+    private final int window;
+    private final int globalWindow;
+
+    // nodeID -> slot; slots of released processes are reused with their buffers.
+    private final PageIndex slots = new PageIndex(64);
+    private Window[] windows = new Window[64];
+    private int[] freeSlots = new int[64];
+    private int freeSlotCount;
+    private int slotLimit;
+
+    private final long[] globalFaults;  // ring of fault bits
+    private int globalHead;
+    private int globalFilled;
+    private int globalFaultCount;
+
+    private long totalWorkingSet;
+    private long references;
+    private long faults;
+
+    private static final class Window {
+        final int[] pages;
+        final long[] faultBits;
+        final PageIndex counts;
+        int head;
+        int filled;
+        int size;     // distinct pages in the window
+        int faults;   // faulting references in the window
+        long references;
+        long lastFault = -1;
+        long faultDistance = -1; // references between the last two faults
+
+        Window(int window) {
+            pages = new int[window];
+            faultBits = new long[(window + 63) >>> 6];
+            counts = new PageIndex(Math.min(window, 1024));
+        }
+
+        void clear() {
+            counts.clear();
+            Arrays.fill(faultBits, 0);
+            head = 0;
+            filled = 0;
+            size = 0;
+            faults = 0;
+            references = 0;
+            lastFault = -1;
+            faultDistance = -1;
+        }
+    }
+
+    public WorkingSetTracker(int window, int globalWindow) {
+        if (window <= 0 || globalWindow <= 0) {
+            throw new IllegalArgumentException("Windows must be positive: " + window + ", " + globalWindow);
+        }
+        this.window = window;
+        this.globalWindow = globalWindow;
+        this.globalFaults = new long[(globalWindow + 63) >>> 6];
+    }
+
+    // Records one reference by the process; fault says whether it missed memory.
+    public void reference(int nodeID, long page, boolean fault) {
+        Window w = windowOf(nodeID);
+        int key = (int) page;
+        int slot = w.head;
+        if (w.filled == window) {
+            // The oldest reference leaves the window.
+            if (w.counts.addTo(w.pages[slot], -1) == 0) {
+                w.size--;
+                totalWorkingSet--;
+            }
+            if ((w.faultBits[slot >>> 6] & (1L << slot)) != 0) {
+                w.faults--;
+            }
+        } else {
+            w.filled++;
+        }
+        if (w.counts.addTo(key, 1) == 1) {
+            w.size++;
+            totalWorkingSet++;
+        }
+        w.pages[slot] = key;
+        if (fault) {
+            w.faultBits[slot >>> 6] |= 1L << slot;
+            w.faults++;
+            if (w.lastFault >= 0) {
+                w.faultDistance = w.references - w.lastFault;
+            }
+            w.lastFault = w.references;
+            faults++;
+        } else {
+            w.faultBits[slot >>> 6] &= ~(1L << slot);
+        }
+        w.head = slot + 1 == window ? 0 : slot + 1;
+        w.references++;
+        references++;
+        recordGlobal(fault);
+    }
+
+    private void recordGlobal(boolean fault) {
+        int slot = globalHead;
+        long bit = 1L << slot;
+        if (globalFilled == globalWindow) {
+            if ((globalFaults[slot >>> 6] & bit) != 0) {
+                globalFaultCount--;
+            }
+        } else {
+            globalFilled++;
+        }
+        if (fault) {
+            globalFaults[slot >>> 6] |= bit;
+            globalFaultCount++;
+        } else {
+            globalFaults[slot >>> 6] &= ~bit;
+        }
+        globalHead = slot + 1 == globalWindow ? 0 : slot + 1;
+    }
+
+    private Window windowOf(int nodeID) {
+        int slot = slots.get(nodeID);
+        if (slot >= 0) {
+            return windows[slot];
+        }
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotLimit == windows.length) {
+                windows = Arrays.copyOf(windows, windows.length * 2);
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            slot = slotLimit++;
+        }
+        if (windows[slot] == null) {
+            windows[slot] = new Window(window);
+        }
+        slots.put(nodeID, slot);
+        return windows[slot];
+    }
+
+    // Forgets an exited process; its buffers go to the next new one.
+    public void release(int nodeID) {
+        int slot = slots.remove(nodeID);
+        if (slot >= 0) {
+            totalWorkingSet -= windows[slot].size;
+            windows[slot].clear();
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    // Distinct pages among the process's last `window` references.
+    public int getWorkingSetSize(int nodeID) {
+        int slot = slots.get(nodeID);
+        return slot < 0 ? 0 : windows[slot].size;
+    }
+
+    // Faults per reference over the process's window.
+    public double getFaultFrequency(int nodeID) {
+        int slot = slots.get(nodeID);
+        return slot < 0 || windows[slot].filled == 0 ? 0 : (double) windows[slot].faults / windows[slot].filled;
+    }
+
+    // The process's references between its last two faults, or -1 before its second
+    // fault; the classic PFF signal for growing or shrinking its allocation.
+    public long getFaultDistance(int nodeID) {
+        int slot = slots.get(nodeID);
+        return slot < 0 ? -1 : windows[slot].faultDistance;
+    }
+
+    // Faults per reference over the last globalWindow references of all processes.
+    public double getGlobalFaultRate() {
+        return globalFilled == 0 ? 0 : (double) globalFaultCount / globalFilled;
+    }
+
+    // Sum of every tracked process's working set.
+    public long getTotalWorkingSet() {
+        return totalWorkingSet;
+    }
+
+    public int getProcessCount() {
+        return slots.size();
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getGlobalWindow() {
+        return globalWindow;
+    }
+
+    public long getReferences() {
+        return references;
+    }
+
+    public long getFaults() {
+        return faults;
+    }
+}
@@ -0,0 +1,122 @@
+package aether.model.process;
+
+import java.util.Arrays;
+
+// Open-addressing int -> int map with linear probing and backward-shift deletion,
+// so there are no tombstones and no boxing. Keys must be non-negative.
+public class IntIndex {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public IntIndex(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2 - 1, 15)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    public int get(int key) {
+        int i = mix(key) & mask;
+        int k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must be non-negative: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int i = mix(key) & mask;
+        int k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    public int remove(int key) {
+        int i = mix(key) & mask;
+        int k;
+        while ((k = keys[i]) != EMPTY) {
+            if (k == key) {
+                int old = values[i];
+                shiftBack(i);
+                size--;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long footprintBytes() {
+        return (long) keys.length * 8;
+    }
+
+    private void shiftBack(int gap) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            int k = keys[i];
+            if (k == EMPTY) {
+                break;
+            }
+            int home = mix(k) & mask;
+            // Move the entry into the gap unless its home lies cyclically in (gap, i].
+            if (gap <= i ? (home <= gap || home > i) : (home <= gap && home > i)) {
+                keys[gap] = k;
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k != EMPTY) {
+                int j = mix(k) & mask;
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
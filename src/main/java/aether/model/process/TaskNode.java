@@ -1,32 +1,75 @@
 package aether.model.process;
 
+// A task control block. Standalone nodes hold their own fields; nodes handed out
+// by a TaskStore are read-only views of the store's columns while the task is live
+// and keep the last values they saw once it has been removed. A live task changes
+// only through AetherKernel, which keeps the state lists, the policy's queues and
+// the listeners in step, so the public setters are for standalone nodes only.
 public class TaskNode {
     private int taskID;
-    private String state;
+    private TaskState state;
     private String owner;
     private int priority;
     private int burstTime;
     private int arrivalTime;
+    private int remainingTime;
+    private long startTime = -1;
+    private long completionTime = -1;
+    private int affinity = -1;
 
-    public TaskNode(int taskID, String state, String owner, int priority, int burstTime, int arrivalTime) {
+    private TaskStore store;
+    private int slot = -1;
+
+    public TaskNode(int taskID, TaskState state, String owner, int priority, int burstTime, int arrivalTime) {
         this.taskID = taskID;
         this.state = state;
         this.owner = owner;
         this.priority = priority;
         this.burstTime = burstTime;
         this.arrivalTime = arrivalTime;
+        this.remainingTime = burstTime;
+    }
+
+    void load(int taskID, String owner, int burstTime, int arrivalTime) {
+        this.taskID = taskID;
+        this.owner = owner;
+        this.burstTime = burstTime;
+        this.arrivalTime = arrivalTime;
+    }
+
+    void bind(TaskStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+        this.state = store.state(slot);
+        this.priority = store.priority(slot);
+        this.remainingTime = store.remaining(slot);
+        this.startTime = store.startTime(slot);
+        this.completionTime = store.completionTime(slot);
+        this.affinity = store.affinity(slot);
+    }
+
+    private boolean live() {
+        return store != null && store.idAt(slot) == taskID;
     }
 
     public int getProcessID() {
         return taskID;
     }
 
-    public String getState() {
+    public TaskState getState() {
+        if (live()) {
+            state = store.state(slot);
+        } else if (store != null) {
+            state = TaskState.TERMINATED;
+        }
         return state;
     }
 
-    public void setState(String state) {
+    void setState(TaskState state) {
         this.state = state;
+        if (live()) {
+            store.setState(slot, state);
+        }
     }
 
     public String getOwner() {
@@ -34,10 +77,15 @@ public class TaskNode {
     }
 
     public int getPriority() {
+        if (live()) {
+            priority = store.priority(slot);
+        }
         return priority;
     }
 
+    // Standalone nodes only; use AetherKernel.changePriority for a live task.
     public void setPriority(int priority) {
+        checkStandalone();
         this.priority = priority;
     }
 
@@ -49,12 +97,74 @@ public class TaskNode {
         return arrivalTime;
     }
 
+    public int getRemainingTime() {
+        if (live()) {
+            remainingTime = store.remaining(slot);
+        }
+        return remainingTime;
+    }
+
+    void setRemainingTime(int remainingTime) {
+        this.remainingTime = remainingTime;
+        if (live()) {
+            store.setRemaining(slot, remainingTime);
+        }
+    }
+
+    public long getStartTime() {
+        if (live()) {
+            startTime = store.startTime(slot);
+        }
+        return startTime;
+    }
+
+    void setStartTime(long startTime) {
+        this.startTime = startTime;
+        if (live()) {
+            store.setStartTime(slot, startTime);
+        }
+    }
+
+    public long getCompletionTime() {
+        if (live()) {
+            completionTime = store.completionTime(slot);
+        }
+        return completionTime;
+    }
+
+    void setCompletionTime(long completionTime) {
+        this.completionTime = completionTime;
+        if (live()) {
+            store.setCompletionTime(slot, completionTime);
+        }
+    }
+
+    public int getAffinity() {
+        if (live()) {
+            affinity = store.affinity(slot);
+        }
+        return affinity;
+    }
+
+    // Pins the task to one CPU in SMP mode; -1 lets it run anywhere. Standalone
+    // nodes only.
+    public void setAffinity(int affinity) {
+        checkStandalone();
+        this.affinity = affinity;
+    }
+
+    private void checkStandalone() {
+        if (store != null) {
+            throw new IllegalStateException("Task " + taskID + " is held by the kernel; change it through AetherKernel");
+        }
+    }
+
     @Override
     public String toString() {
         return "Task ID: " + taskID +
-                ", State: " + state +
+                ", State: " + getState() +
                 ", Owner: " + owner +
-                ", Priority: " + priority +
+                ", Priority: " + getPriority() +
                 ", Burst Time: " + burstTime +
                 ", Arrival Time: " + arrivalTime;
     }
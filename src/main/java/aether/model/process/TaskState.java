@@ -0,0 +1,37 @@
+package aether.model.process;
+
+public enum TaskState {
+    NEW("New"),
+    READY("Ready"),
+    RUNNING("Running"),
+    BLOCKED("Blocked"),
+    SUSPENDED("Suspended"),
+    TERMINATED("Terminated");
+
+    private final String label;
+
+    TaskState(String label) {
+        this.label = label;
+    }
+
+    public boolean canTransitionTo(TaskState next) {
+        switch (this) {
+            case NEW:
+                return next == READY || next == TERMINATED;
+            case READY:
+                return next == RUNNING || next == BLOCKED || next == SUSPENDED || next == TERMINATED;
+            case RUNNING:
+                return next == READY || next == BLOCKED || next == SUSPENDED || next == TERMINATED;
+            case BLOCKED:
+            case SUSPENDED:
+                return next == READY || next == TERMINATED;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
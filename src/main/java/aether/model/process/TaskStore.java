@@ -0,0 +1,319 @@
+package aether.model.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Struct-of-arrays task table: one primitive column per field. A task ID is its
+// slot in the low SLOT_BITS and the slot's generation above them, so lookups need
+// no index and per-task arrays elsewhere can be indexed by slotIndex(taskID). A
+// freed slot is reused under the next generation, and an ID kept from before
+// then no longer matches. IDs are reserved from any thread; everything else,
+// insert and remove included, belongs to the kernel's scheduler thread. Once the
+// columns have grown to the peak live task count, nothing allocates.
+//
+// A slot costs 31 bytes: the generation byte, a flags short holding the state and
+// the affinity, and int columns for burst, remaining time, priority, arrival,
+// owner, and start and completion times as offsets from arrival.
+public class TaskStore {
+    public static final int SLOT_BITS = 24;
+    public static final int MAX_AFFINITY = (1 << 13) - 2;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = 0x7F;
+    private static final int STATE_BITS = 3;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int UNSET = Integer.MIN_VALUE;
+    private static final int BLOCK_SIZE = 64;
+    private static final TaskState[] STATES = TaskState.values();
+    private static final int FREE = -1;
+
+    private byte[] generation; // of the live ID, or of the next one while free
+    private short[] flags; // state + 1 (0 when free) | (affinity + 1) << STATE_BITS
+    private int[] burst;
+    private int[] remaining;
+    private int[] priority;
+    private int[] arrival;
+    private int[] started; // start time - arrival, UNSET before the first dispatch
+    private int[] completed; // completion time - arrival, UNSET until it completes
+    private int[] owner; // index into owners
+
+    private final List<String> owners = new ArrayList<>();
+    private final Map<String, Integer> ownersByName = new HashMap<>();
+    private int highWater;
+    private int size;
+
+    // Freed slots form a lock-free stack linked through the remaining column; the head
+    // is version << 32 | slot, versioned against ABA. Slot 0 is never used, so a zero
+    // slot means empty. Fresh slots come in per-thread blocks so concurrent producers
+    // touch the shared counter once per block.
+    private final AtomicLong freeHead = new AtomicLong();
+    private final AtomicInteger nextBlock = new AtomicInteger(1);
+    private final ThreadLocal<int[]> block = ThreadLocal.withInitial(() -> new int[] { 0, 0 });
+
+    public TaskStore() {
+        this(1024);
+    }
+
+    public TaskStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        generation = new byte[capacity];
+        flags = new short[capacity];
+        burst = new int[capacity];
+        remaining = new int[capacity];
+        priority = new int[capacity];
+        arrival = new int[capacity];
+        started = new int[capacity];
+        completed = new int[capacity];
+        owner = new int[capacity];
+    }
+
+    public static int slotIndex(int taskID) {
+        return taskID & SLOT_MASK;
+    }
+
+    // Reserves a slot and returns the ID a task inserted there will have. Safe from
+    // any thread; the ID stays unused until insert, or release if it never is.
+    public int reserve() {
+        long head;
+        int slot;
+        while ((slot = (int) (head = freeHead.get())) != 0) {
+            long next = ((head >>> 32) + 1) << 32 | (remaining[slot] & 0xFFFFFFFFL);
+            if (freeHead.compareAndSet(head, next)) {
+                return generation[slot] << SLOT_BITS | slot;
+            }
+        }
+        int[] range = block.get(); // { next, end }
+        if (range[0] == range[1]) {
+            range[0] = nextBlock.getAndAdd(BLOCK_SIZE);
+            range[1] = range[0] + BLOCK_SIZE;
+        }
+        slot = range[0]++;
+        if (slot > SLOT_MASK || slot < 0) {
+            throw new IllegalStateException("More than " + SLOT_MASK + " task slots reserved");
+        }
+        return slot; // a fresh slot's first generation is 0
+    }
+
+    // Whether the ID is a reservation that has not been inserted or released.
+    public boolean isReserved(int taskID) {
+        int slot = taskID & SLOT_MASK;
+        if (taskID <= 0 || slot >= flags.length) {
+            return taskID > 0 && taskID == slot;
+        }
+        return flags[slot] == 0 && generation[slot] == taskID >>> SLOT_BITS;
+    }
+
+    // Returns a reservation that will not be inserted.
+    public boolean release(int taskID) {
+        if (!isReserved(taskID)) {
+            return false;
+        }
+        free(taskID & SLOT_MASK);
+        return true;
+    }
+
+    public int insert(int taskID, TaskState taskState, String taskOwner, int taskPriority, int burstTime,
+            int arrivalTime) {
+        if (slotOf(taskID) >= 0) {
+            throw new IllegalStateException("Task " + taskID + " is already stored");
+        }
+        if (!isReserved(taskID)) {
+            throw new IllegalArgumentException("Task ID " + taskID + " was not reserved from this store");
+        }
+        int slot = taskID & SLOT_MASK;
+        if (slot >= flags.length) {
+            grow(Math.max(slot + 1, flags.length * 2));
+        }
+        highWater = Math.max(highWater, slot + 1);
+        flags[slot] = (short) (taskState.ordinal() + 1);
+        burst[slot] = burstTime;
+        remaining[slot] = burstTime;
+        priority[slot] = taskPriority;
+        arrival[slot] = arrivalTime;
+        started[slot] = UNSET;
+        completed[slot] = UNSET;
+        owner[slot] = ownerIndex(taskOwner);
+        size++;
+        return slot;
+    }
+
+    // Copies a standalone node into the store and turns it into a live view.
+    public int insert(TaskNode node) {
+        int slot = insert(node.getProcessID(), node.getState(), node.getOwner(), node.getPriority(),
+                node.getBurstTime(), node.getArrivalTime());
+        remaining[slot] = node.getRemainingTime();
+        setAffinity(slot, node.getAffinity());
+        setStartTime(slot, node.getStartTime());
+        setCompletionTime(slot, node.getCompletionTime());
+        node.bind(this, slot);
+        return slot;
+    }
+
+    public boolean remove(int taskID) {
+        int slot = slotOf(taskID);
+        if (slot < 0) {
+            return false;
+        }
+        flags[slot] = 0;
+        free(slot);
+        size--;
+        return true;
+    }
+
+    // The slot is reused under the next generation, wrapping after 128 reuses.
+    private void free(int slot) {
+        if (slot >= flags.length) {
+            grow(Math.max(slot + 1, flags.length * 2));
+        }
+        generation[slot] = (byte) ((generation[slot] + 1) & GENERATION_MASK);
+        long head;
+        do {
+            head = freeHead.get();
+            remaining[slot] = (int) head;
+        } while (!freeHead.compareAndSet(head, ((head >>> 32) + 1) << 32 | slot));
+    }
+
+    public int slotOf(int taskID) {
+        int slot = taskID & SLOT_MASK;
+        return taskID > 0 && slot < flags.length && flags[slot] != 0
+                && generation[slot] == taskID >>> SLOT_BITS ? slot : -1;
+    }
+
+    public boolean contains(int taskID) {
+        return slotOf(taskID) >= 0;
+    }
+
+    public TaskNode view(int slot) {
+        return viewInto(new TaskNode(-1, TaskState.NEW, null, 0, 0, 0), slot);
+    }
+
+    // Re-points an existing view at another slot, for hot paths that must not allocate.
+    public TaskNode viewInto(TaskNode node, int slot) {
+        node.load(idAt(slot), owner(slot), burst[slot], arrival[slot]);
+        node.bind(this, slot);
+        return node;
+    }
+
+    public TaskNode get(int taskID) {
+        int slot = slotOf(taskID);
+        return slot < 0 ? null : view(slot);
+    }
+
+    public List<TaskNode> views() {
+        List<TaskNode> nodes = new ArrayList<>(size);
+        for (int slot = 0; slot < highWater; slot++) {
+            if (flags[slot] != 0) {
+                nodes.add(view(slot));
+            }
+        }
+        return nodes;
+    }
+
+    public int idAt(int slot) {
+        return flags[slot] == 0 ? FREE : generation[slot] << SLOT_BITS | slot;
+    }
+
+    public int burst(int slot) {
+        return burst[slot];
+    }
+
+    public int remaining(int slot) {
+        return remaining[slot];
+    }
+
+    public void setRemaining(int slot, int value) {
+        remaining[slot] = value;
+    }
+
+    public int priority(int slot) {
+        return priority[slot];
+    }
+
+    public void setPriority(int slot, int value) {
+        priority[slot] = value;
+    }
+
+    public int arrival(int slot) {
+        return arrival[slot];
+    }
+
+    public int affinity(int slot) {
+        return ((flags[slot] & 0xFFFF) >>> STATE_BITS) - 1;
+    }
+
+    public void setAffinity(int slot, int value) {
+        if (value < -1 || value > MAX_AFFINITY) {
+            throw new IllegalArgumentException("Affinity out of range: " + value);
+        }
+        flags[slot] = (short) ((value + 1) << STATE_BITS | (flags[slot] & STATE_MASK));
+    }
+
+    public long startTime(int slot) {
+        return started[slot] == UNSET ? -1 : (long) arrival[slot] + started[slot];
+    }
+
+    // Times are stored relative to arrival and must fall within an int of it.
+    public void setStartTime(int slot, long value) {
+        started[slot] = value < 0 ? UNSET : Math.toIntExact(value - arrival[slot]);
+    }
+
+    public long completionTime(int slot) {
+        return completed[slot] == UNSET ? -1 : (long) arrival[slot] + completed[slot];
+    }
+
+    public void setCompletionTime(int slot, long value) {
+        completed[slot] = value < 0 ? UNSET : Math.toIntExact(value - arrival[slot]);
+    }
+
+    public TaskState state(int slot) {
+        return STATES[(flags[slot] & STATE_MASK) - 1];
+    }
+
+    public void setState(int slot, TaskState value) {
+        flags[slot] = (short) ((flags[slot] & ~STATE_MASK) | (value.ordinal() + 1));
+    }
+
+    public String owner(int slot) {
+        return owners.get(owner[slot]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int highWater() {
+        return highWater;
+    }
+
+    public long footprintBytes() {
+        long perSlot = 1 + 2 + 7 * 4;
+        return perSlot * flags.length;
+    }
+
+    // Owner names are free-form, so they are interned once and stored by index.
+    private int ownerIndex(String taskOwner) {
+        Integer i = ownersByName.get(taskOwner);
+        if (i == null) {
+            i = owners.size();
+            owners.add(taskOwner);
+            ownersByName.put(taskOwner, i);
+        }
+        return i;
+    }
+
+    private void grow(int capacity) {
+        generation = Arrays.copyOf(generation, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        burst = Arrays.copyOf(burst, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        arrival = Arrays.copyOf(arrival, capacity);
+        started = Arrays.copyOf(started, capacity);
+        completed = Arrays.copyOf(completed, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+    }
+}
@@ -0,0 +1,159 @@
+package aether.net;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// Blocking LinkProtocol client for tools and load generators. Submissions are
+// pipelined: up to a window of requests is written before any reply is awaited, and
+// both directions move in buffer-sized batches. EVENT frames arriving in between are
+// counted and skipped. Not thread-safe; use one client per thread.
+public class LinkClient implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private int nextTag = 1;
+    private long events;
+    private long lastEventClock;
+
+    public LinkClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.flip();
+    }
+
+    // Submits count identical tasks with at most window unanswered at a time; returns
+    // how many the server accepted.
+    public int submitAll(int count, int window, int burst, int priority, int arrival) throws IOException {
+        int sent = 0;
+        int answered = 0;
+        int accepted = 0;
+        while (answered < count) {
+            while (sent < count && sent - answered < window && out.remaining() >= LinkProtocol.SUBMIT_SIZE) {
+                out.putInt(LinkProtocol.SUBMIT_SIZE - 4).put(LinkProtocol.SUBMIT).putInt(nextTag++).putInt(burst)
+                        .putInt(priority).putInt(arrival);
+                sent++;
+            }
+            send();
+            do {
+                byte type = nextFrame();
+                if (type == LinkProtocol.SUBMITTED) {
+                    answered++;
+                    if (in.getInt(in.position() + 9) >= 0) {
+                        accepted++;
+                    }
+                }
+                skipFrame();
+            } while (answered < count && hasFrame());
+        }
+        return accepted;
+    }
+
+    public int submit(int burst, int priority, int arrival) throws IOException {
+        int tag = nextTag++;
+        out.putInt(LinkProtocol.SUBMIT_SIZE - 4).put(LinkProtocol.SUBMIT).putInt(tag).putInt(burst).putInt(priority)
+                .putInt(arrival);
+        send();
+        awaitReply(LinkProtocol.SUBMITTED, tag);
+        int taskID = in.getInt(in.position() + 9);
+        skipFrame();
+        return taskID;
+    }
+
+    // The task's TaskState ordinal, or -1 if the kernel does not know it.
+    public int queryState(int taskID) throws IOException {
+        int tag = nextTag++;
+        out.putInt(LinkProtocol.QUERY_SIZE - 4).put(LinkProtocol.QUERY).putInt(tag).putInt(taskID);
+        send();
+        awaitReply(LinkProtocol.STATE, tag);
+        int state = in.get(in.position() + 13);
+        skipFrame();
+        return state;
+    }
+
+    public void subscribe() throws IOException {
+        int tag = nextTag++;
+        out.putInt(LinkProtocol.SUBSCRIBED_SIZE - 4).put(LinkProtocol.SUBSCRIBE).putInt(tag);
+        send();
+        awaitReply(LinkProtocol.SUBSCRIBED, tag);
+        skipFrame();
+    }
+
+    // Blocks until at least one more event has arrived, or the server closes the link.
+    // Returns the events received so far.
+    public long awaitEvents() throws IOException {
+        long seen = events;
+        while (events == seen) {
+            nextFrame();
+            skipFrame();
+        }
+        return events;
+    }
+
+    private void awaitReply(byte type, int tag) throws IOException {
+        while (true) {
+            byte received = nextFrame();
+            if (received == LinkProtocol.ERROR) {
+                throw new IOException("Link error " + in.getInt(in.position() + 9));
+            }
+            if (received == type && in.getInt(in.position() + 5) == tag) {
+                return;
+            }
+            skipFrame();
+        }
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    private boolean hasFrame() {
+        return in.remaining() >= 4 && in.remaining() >= 4 + in.getInt(in.position());
+    }
+
+    // Waits for a whole frame at the read position and returns its type; events are
+    // counted here. The frame stays in place until skipFrame.
+    private byte nextFrame() throws IOException {
+        while (!hasFrame()) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) {
+                throw new EOFException("Link closed");
+            }
+        }
+        byte type = in.get(in.position() + 4);
+        if (type == LinkProtocol.EVENT) {
+            events++;
+            lastEventClock = in.getLong(in.position() + 14);
+        }
+        return type;
+    }
+
+    private void skipFrame() {
+        in.position(in.position() + 4 + in.getInt(in.position()));
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public long getLastEventClock() {
+        return lastEventClock;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,90 @@
+package aether.net;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import aether.core.AetherKernel;
+import aether.model.memory.CellStore;
+import aether.model.process.TaskState;
+
+// Pushes task submissions into a kernel over loopback: a SocketLink on a free port,
+// client threads pipelining SUBMIT frames and one subscriber taking the event
+// stream. Reports submissions per second and checks that every accepted task was
+// admitted and can be queried.
+public class LinkLoadRunner {
+    // Usage: LinkLoadRunner [clients] [tasksPerClient] [window]
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int tasksPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 2048;
+
+        AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+        ExecutorService scheduler = Executors.newSingleThreadExecutor(r -> new Thread(r, "aether-scheduler"));
+        ExecutorService load = Executors.newFixedThreadPool(clients + 1);
+        try (SocketLink link = new SocketLink(kernel, scheduler, 0)) {
+            link.start();
+            int port = link.getPort();
+            LinkClient watcher = new LinkClient("127.0.0.1", port);
+            watcher.subscribe();
+            // One Ready event per task plus the probe's below; a slow reader loses some.
+            long expectedEvents = (long) clients * tasksPerClient + 1;
+            Future<?> watching = load.submit(() -> {
+                while (watcher.getEvents() + link.getDroppedEvents() < expectedEvents) {
+                    watcher.awaitEvents();
+                }
+                return null;
+            });
+
+            System.out.printf("%d clients x %d tasks, window %d, port %d%n", clients, tasksPerClient, window, port);
+            long start = System.nanoTime();
+            Future<?>[] runs = new Future<?>[clients];
+            for (int i = 0; i < clients; i++) {
+                runs[i] = load.submit(() -> {
+                    try (LinkClient client = new LinkClient("127.0.0.1", port)) {
+                        return client.submitAll(tasksPerClient, window, 10, 1, 0);
+                    }
+                });
+            }
+            long accepted = 0;
+            for (Future<?> run : runs) {
+                accepted += (Integer) run.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Accepted %d submissions in %.2f s: %.0f per second%n", accepted, seconds,
+                    accepted / seconds);
+
+            int admitted = waitForAdmission(kernel, scheduler, accepted);
+            LinkClient probe = new LinkClient("127.0.0.1", port);
+            int first = probe.submit(5, 0, 0);
+            int state = probe.queryState(first);
+            System.out.printf("Admitted %d of %d; task %d queried as %s%n", admitted, accepted, first,
+                    state < 0 ? "unknown" : TaskState.values()[state]);
+            watching.get();
+            System.out.printf("Subscriber received %d events, %d dropped, through %d queries%n",
+                    watcher.getEvents(), link.getDroppedEvents(), link.getQueries());
+            probe.close();
+            watcher.close();
+        } finally {
+            load.shutdownNow();
+            scheduler.shutdown();
+        }
+    }
+
+    // Admission runs on the scheduler thread behind the last read; polls until it caught up.
+    private static int waitForAdmission(AetherKernel kernel, ExecutorService scheduler, long expected)
+            throws InterruptedException, ExecutionException, IOException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            int ready = scheduler.submit(() -> {
+                kernel.levelOneScheduling();
+                return kernel.countInState(TaskState.READY);
+            }).get();
+            if (ready >= expected) {
+                return ready;
+            }
+            Thread.sleep(10);
+        }
+        throw new IOException("Only part of " + expected + " submissions reached the kernel");
+    }
+}
@@ -0,0 +1,62 @@
+package aether.net;
+
+// Wire format of the Socket Link, big-endian. Every frame is int length (the bytes
+// after it), byte type, int tag, then a body fixed by the type. Tags are chosen by
+// the client and echoed in replies, so requests can be pipelined and replies matched
+// even though queries are answered after submissions that follow them.
+//
+// Requests:  SUBMIT     int burst, int priority, int arrival
+//            QUERY      int taskID
+//            SUBSCRIBE  (no body) - the connection then receives EVENT frames
+// Replies:   SUBMITTED  int taskID, or -1 when the task was rejected
+//            STATE      int taskID, byte state (TaskState ordinal, -1 if unknown),
+//                       int priority, int remaining burst
+//            SUBSCRIBED (no body)
+//            EVENT      tag 0; int taskID, byte state, long kernel clock
+//            ERROR      int code; the server closes the connection after BAD_FRAME
+public final class LinkProtocol {
+    public static final int DEFAULT_PORT = 9091;
+
+    public static final byte SUBMIT = 1;
+    public static final byte QUERY = 2;
+    public static final byte SUBSCRIBE = 3;
+
+    public static final byte SUBMITTED = 0x41;
+    public static final byte STATE = 0x42;
+    public static final byte SUBSCRIBED = 0x43;
+    public static final byte EVENT = 0x44;
+    public static final byte ERROR = 0x7F;
+
+    public static final int UNKNOWN_TYPE = 1;
+    public static final int BAD_FRAME = 2;
+
+    public static final int HEADER = 4 + 1 + 4; // length, type, tag
+    public static final int MAX_FRAME = 64;     // larger lengths are protocol errors
+
+    // Frame sizes including the length prefix.
+    public static final int SUBMIT_SIZE = HEADER + 12;
+    public static final int QUERY_SIZE = HEADER + 4;
+    public static final int SUBSCRIBE_SIZE = HEADER;
+    public static final int SUBMITTED_SIZE = HEADER + 4;
+    public static final int STATE_SIZE = HEADER + 4 + 1 + 4 + 4;
+    public static final int SUBSCRIBED_SIZE = HEADER;
+    public static final int EVENT_SIZE = HEADER + 4 + 1 + 8;
+    public static final int ERROR_SIZE = HEADER + 4;
+
+    private LinkProtocol() {
+    }
+
+    // Size of a request frame of the given type, or -1 for an unknown type.
+    public static int requestSize(byte type) {
+        switch (type) {
+            case SUBMIT:
+                return SUBMIT_SIZE;
+            case QUERY:
+                return QUERY_SIZE;
+            case SUBSCRIBE:
+                return SUBSCRIBE_SIZE;
+            default:
+                return -1;
+        }
+    }
+}
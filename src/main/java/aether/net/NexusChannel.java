@@ -0,0 +1,33 @@
+package aether.net;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+// Remote interface of the Sync Link's RMI registry. Besides the original broadcast and
+// pulse signal, remote drivers reach the kernel in batches: one call submits many
+// tasks, queries many task states or returns every kernel event after a sequence
+// number, so a driver pays one round trip per batch instead of one per task.
+public interface NexusChannel extends Remote {
+    String NAME = "NexusChannel";
+    int REGISTRY_PORT = 1101;
+
+    // Task specs travel packed as { burst, priority, arrival } triples.
+    int SPEC_SIZE = 3;
+    // Most events one pollEvents call returns.
+    int MAX_EVENTS = 1 << 14;
+
+    void broadcast(String signal) throws RemoteException;
+
+    String pulse() throws RemoteException;
+
+    // The new tasks' IDs in spec order, -1 for a rejected spec. The tasks become
+    // Ready at the kernel's next admission pass.
+    int[] submitTasks(int[] specs) throws RemoteException;
+
+    // The TaskState ordinal of each task, -1 for a task the kernel does not know.
+    byte[] queryStates(int[] taskIDs) throws RemoteException;
+
+    // Events numbered sequence and up, at most max of them. Waits up to waitMillis
+    // for the first one; returns an empty batch if none arrived.
+    NexusEvents pollEvents(long sequence, int max, long waitMillis) throws RemoteException;
+}
@@ -0,0 +1,54 @@
+package aether.net;
+
+import java.io.Serializable;
+
+// A batch of kernel events returned by NexusChannel.pollEvents: task state changes
+// numbered from getFirst on, in the order the scheduler made them. Events older than
+// the server's buffer are gone; getMissed says how many the caller skipped that way.
+public class NexusEvents implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long first;
+    private final long missed;
+    private final int[] taskIDs;
+    private final byte[] states;
+    private final long[] clocks;
+
+    public NexusEvents(long first, long missed, int[] taskIDs, byte[] states, long[] clocks) {
+        this.first = first;
+        this.missed = missed;
+        this.taskIDs = taskIDs;
+        this.states = states;
+        this.clocks = clocks;
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    // The sequence number to poll from next.
+    public long getNext() {
+        return first + taskIDs.length;
+    }
+
+    public long getMissed() {
+        return missed;
+    }
+
+    public int size() {
+        return taskIDs.length;
+    }
+
+    public int taskID(int index) {
+        return taskIDs[index];
+    }
+
+    // TaskState ordinal.
+    public byte state(int index) {
+        return states[index];
+    }
+
+    public long clock(int index) {
+        return clocks[index];
+    }
+}
@@ -0,0 +1,106 @@
+package aether.net;
+
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import aether.core.AetherKernel;
+import aether.model.memory.CellStore;
+import aether.model.process.TaskState;
+
+// Drives a kernel through the Nexus Channel over RMI: binds a NexusServer in the
+// registry (sharing it if another local JVM already runs one), looks it up again
+// like a remote driver would and compares one round trip per task with batched
+// submission, then queries every task in bulk while a follower streams the events
+// through the pollEvents cursor.
+public class NexusLoadRunner {
+    // Usage: NexusLoadRunner [tasks] [batch] [port]
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int batch = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : NexusChannel.REGISTRY_PORT;
+        int singles = Math.min(tasks, 5_000);
+
+        AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+        ExecutorService scheduler = Executors.newSingleThreadExecutor(r -> new Thread(r, "aether-scheduler"));
+        ExecutorService follower = Executors.newSingleThreadExecutor();
+        NexusServer server = new NexusServer(kernel, scheduler);
+        server.start();
+        String name = NexusChannel.NAME + "-" + ProcessHandle.current().pid();
+        Registry registry = NexusServer.locateRegistry(port);
+        registry.rebind(name, server);
+        try {
+            NexusChannel nexus = (NexusChannel) LocateRegistry.getRegistry(port).lookup(name);
+            System.out.printf("Bound %s on registry port %d%n", name, port);
+
+            // One Ready event per task; the follower starts before any task exists.
+            long expected = singles + tasks;
+            nexus.pollEvents(0, 0, 0);
+            Future<long[]> following = follower.submit(() -> {
+                long next = 0;
+                long events = 0;
+                long calls = 0;
+                while (events < expected) {
+                    NexusEvents batchOfEvents = nexus.pollEvents(next, NexusChannel.MAX_EVENTS, 1000);
+                    events += batchOfEvents.size() + batchOfEvents.getMissed();
+                    next = batchOfEvents.getNext();
+                    calls++;
+                }
+                return new long[] { events, calls };
+            });
+
+            long start = System.nanoTime();
+            for (int i = 0; i < singles; i++) {
+                nexus.submitTasks(new int[] { 10, 1, 0 });
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("One task per call:   %8d tasks in %6.2f s: %9.0f per second%n", singles, seconds,
+                    singles / seconds);
+
+            int[] ids = new int[tasks];
+            int[] specs = new int[batch * NexusChannel.SPEC_SIZE];
+            for (int i = 0; i < specs.length; i += NexusChannel.SPEC_SIZE) {
+                specs[i] = 10;
+                specs[i + 1] = 1;
+            }
+            start = System.nanoTime();
+            for (int done = 0; done < tasks; done += batch) {
+                int count = Math.min(batch, tasks - done);
+                int[] accepted = nexus.submitTasks(count == batch ? specs
+                        : Arrays.copyOf(specs, count * NexusChannel.SPEC_SIZE));
+                System.arraycopy(accepted, 0, ids, done, count);
+            }
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d tasks per call: %8d tasks in %6.2f s: %9.0f per second%n", batch, tasks, seconds,
+                    tasks / seconds);
+
+            long[] followed = following.get();
+            start = System.nanoTime();
+            int ready = 0;
+            for (int done = 0; done < tasks; done += batch) {
+                byte[] states = nexus.queryStates(
+                        Arrays.copyOfRange(ids, done, Math.min(tasks, done + batch)));
+                for (byte state : states) {
+                    if (state == TaskState.READY.ordinal()) {
+                        ready++;
+                    }
+                }
+            }
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Bulk queries: %d of %d Ready, %.0f states per second%n", ready, tasks, tasks / seconds);
+            System.out.printf("Follower: %d events in %d polls (%.0f per round trip)%n", followed[0], followed[1],
+                    (double) followed[0] / followed[1]);
+        } finally {
+            try {
+                registry.unbind(name);
+            } catch (Exception e) {
+                // the registry left with the JVM that ran it
+            }
+            server.close();
+            follower.shutdownNow();
+            scheduler.shutdown();
+        }
+    }
+}
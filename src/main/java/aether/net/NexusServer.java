@@ -0,0 +1,220 @@
+package aether.net;
+
+import java.io.Closeable;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.ExportException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import aether.core.AetherKernel;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskStore;
+
+// Kernel-backed NexusChannel. Submitted tasks go through the kernel's thread-safe
+// addNewTask, with one admission pass per batch handed to the scheduler thread, and a
+// batch of state queries is answered by one scheduler task. From the first
+// pollEvents on, every task state change is recorded on the scheduler thread into a
+// ring of recent events; a poll waits on the ring, so a driver following the kernel
+// gets everything that piled up since its last call in one reply, and one that falls
+// more than a ring behind is told how many events it missed.
+public class NexusServer extends UnicastRemoteObject implements NexusChannel, Closeable {
+    private static final long serialVersionUID = 1L;
+    private static final int EVENT_CAPACITY = 1 << 16;
+    private static final String OWNER = "Nexus";
+
+    private final transient AetherKernel kernel;
+    private final transient Executor scheduler;
+    private final transient AtomicBoolean admissionPending = new AtomicBoolean();
+    private volatile String signal = "";
+
+    // The latest events, guarded by the eventTasks monitor.
+    private final int[] eventTasks = new int[EVENT_CAPACITY];
+    private final byte[] eventStates = new byte[EVENT_CAPACITY];
+    private final long[] eventClocks = new long[EVENT_CAPACITY];
+    private long nextSequence;
+    private int pollers;
+    private volatile boolean following;
+    private final transient AetherKernel.TaskListener listener = this::taskChanged;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder polls = new LongAdder();
+
+    public NexusServer(AetherKernel kernel, Executor scheduler) throws RemoteException {
+        super();
+        this.kernel = kernel;
+        this.scheduler = scheduler;
+    }
+
+    // The registry on the port: created in this JVM if nothing listens there yet,
+    // otherwise the one that does, whether an earlier panel or another local JVM
+    // started it. Several local JVMs can so share one registry under different names.
+    public static Registry locateRegistry(int port) throws RemoteException {
+        try {
+            return LocateRegistry.createRegistry(port);
+        } catch (ExportException e) {
+            return LocateRegistry.getRegistry(port);
+        }
+    }
+
+    public void start() {
+        scheduler.execute(() -> kernel.addTaskListener(listener));
+    }
+
+    @Override
+    public void broadcast(String signal) {
+        this.signal = signal;
+    }
+
+    @Override
+    public String pulse() {
+        return signal;
+    }
+
+    @Override
+    public int[] submitTasks(int[] specs) {
+        if (specs.length % SPEC_SIZE != 0) {
+            throw new IllegalArgumentException("Task specs must be burst, priority, arrival triples");
+        }
+        int[] taskIDs = new int[specs.length / SPEC_SIZE];
+        int accepted = 0;
+        for (int i = 0; i < taskIDs.length; i++) {
+            int burst = specs[i * SPEC_SIZE];
+            int priority = specs[i * SPEC_SIZE + 1];
+            int arrival = specs[i * SPEC_SIZE + 2];
+            if (burst > 0 && priority >= 0 && arrival >= 0) {
+                TaskNode task = kernel.newTask(burst, arrival, priority, OWNER);
+                kernel.addNewTask(task);
+                taskIDs[i] = task.getProcessID();
+                accepted++;
+            } else {
+                taskIDs[i] = -1;
+                rejected.increment();
+            }
+        }
+        batches.increment();
+        if (accepted > 0) {
+            submitted.add(accepted);
+            if (!admissionPending.getAndSet(true)) {
+                scheduler.execute(() -> {
+                    admissionPending.set(false);
+                    kernel.levelOneScheduling();
+                });
+            }
+        }
+        return taskIDs;
+    }
+
+    @Override
+    public byte[] queryStates(int[] taskIDs) {
+        queries.add(taskIDs.length);
+        return CompletableFuture.supplyAsync(() -> {
+            TaskStore tasks = kernel.getTaskStore();
+            byte[] states = new byte[taskIDs.length];
+            for (int i = 0; i < taskIDs.length; i++) {
+                int slot = tasks.slotOf(taskIDs[i]);
+                states[i] = slot < 0 ? -1 : (byte) tasks.state(slot).ordinal();
+            }
+            return states;
+        }, scheduler).join();
+    }
+
+    @Override
+    public NexusEvents pollEvents(long sequence, int max, long waitMillis) {
+        polls.increment();
+        following = true;
+        sequence = Math.max(0, sequence);
+        max = Math.max(0, Math.min(max, MAX_EVENTS));
+        synchronized (eventTasks) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            long left;
+            while (nextSequence <= sequence && (left = deadline - System.nanoTime()) > 0) {
+                pollers++;
+                try {
+                    eventTasks.wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(left)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    pollers--;
+                }
+            }
+            long oldest = Math.max(0, nextSequence - EVENT_CAPACITY);
+            long first = Math.min(Math.max(sequence, oldest), nextSequence);
+            int count = (int) Math.min(max, nextSequence - first);
+            int[] taskIDs = new int[count];
+            byte[] states = new byte[count];
+            long[] clocks = new long[count];
+            for (int i = 0; i < count; i++) {
+                int index = (int) (first + i) & (EVENT_CAPACITY - 1);
+                taskIDs[i] = eventTasks[index];
+                states[i] = eventStates[index];
+                clocks[i] = eventClocks[index];
+            }
+            return new NexusEvents(first, first - Math.min(sequence, first), taskIDs, states, clocks);
+        }
+    }
+
+    // Scheduler thread.
+    private void taskChanged(TaskNode task) {
+        if (!following) {
+            return;
+        }
+        synchronized (eventTasks) {
+            int index = (int) nextSequence & (EVENT_CAPACITY - 1);
+            eventTasks[index] = task.getProcessID();
+            eventStates[index] = (byte) task.getState().ordinal();
+            eventClocks[index] = kernel.getClock();
+            nextSequence++;
+            if (pollers > 0) {
+                eventTasks.notifyAll();
+            }
+        }
+    }
+
+    // Stops accepting calls and removes this server's task listener. Unbinding
+    // from the registry is up to whoever bound it.
+    @Override
+    public void close() {
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (RemoteException e) {
+            // not exported any more
+        }
+        scheduler.execute(() -> kernel.removeTaskListener(listener));
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    // submitTasks calls.
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    public long getEvents() {
+        synchronized (eventTasks) {
+            return nextSequence;
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package aether.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import aether.core.AetherKernel;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskStore;
+
+// Non-blocking Socket Link server speaking LinkProtocol. One selector thread accepts
+// connections and parses pipelined frames straight out of each connection's buffer.
+// Submissions go through the kernel's thread-safe addNewTask and are acknowledged at
+// once, with a single admission pass (levelOneScheduling) per read handed to the
+// scheduler thread. Queries read the task table, so each read's queries are answered
+// together on the scheduler thread and their replies come back through a queue. All
+// replies a read produces leave in one write; a peer that stops reading stops being
+// read from until its replies drain. Subscribers get an EVENT per task state change,
+// recorded on the scheduler thread into a shared buffer that the selector fans out;
+// once the slowest subscriber has let that buffer fill, new events are dropped and
+// counted, so the scheduler never waits on a socket.
+public class SocketLink implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int EVENT_BUFFER_SIZE = 1 << 20;
+    private static final String OWNER = "Link";
+
+    private final AetherKernel kernel;
+    private final Executor scheduler;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+    private volatile boolean running;
+
+    // Selector thread only.
+    private final List<Connection> subscribers = new ArrayList<>();
+    private byte[] fanOut = new byte[0];
+
+    private final ConcurrentLinkedQueue<Connection> answered = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean admissionPending = new AtomicBoolean();
+
+    // Written on the scheduler thread under its own lock, drained by the selector.
+    private final ByteBuffer events = ByteBuffer.allocate(EVENT_BUFFER_SIZE);
+    private volatile int subscriberCount;
+    private final AetherKernel.TaskListener listener = this::taskChanged;
+
+    private volatile int connections;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        // Queries of the current read as tag, taskID pairs.
+        int[] pendingQueries = new int[64];
+        int pendingCount;
+        // STATE replies answered on the scheduler thread, waiting for room in out.
+        final ConcurrentLinkedQueue<ByteBuffer> replies = new ConcurrentLinkedQueue<>();
+        boolean subscribed;
+        boolean paused; // input left unparsed until the output drains
+
+        Connection(SocketChannel channel) throws IOException {
+            this.channel = channel;
+            this.key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+    }
+
+    // scheduler runs every call that touches the kernel's single-threaded state, e.g.
+    // the executor AetherShell drives the kernel with. Port 0 picks a free port.
+    public SocketLink(AetherKernel kernel, Executor scheduler, int port) throws IOException {
+        this.kernel = kernel;
+        this.scheduler = scheduler;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        this.thread = new Thread(this::loop, "aether-socket-link");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        scheduler.execute(() -> kernel.addTaskListener(listener));
+        thread.start();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    // Scheduler thread.
+    private void taskChanged(TaskNode task) {
+        if (subscriberCount == 0) {
+            return;
+        }
+        boolean wake;
+        synchronized (events) {
+            if (events.remaining() < LinkProtocol.EVENT_SIZE) {
+                droppedEvents.increment();
+                return;
+            }
+            wake = events.position() == 0;
+            events.putInt(LinkProtocol.EVENT_SIZE - 4).put(LinkProtocol.EVENT).putInt(0)
+                    .putInt(task.getProcessID()).put((byte) task.getState().ordinal()).putLong(kernel.getClock());
+        }
+        if (wake) {
+            selector.wakeup();
+        }
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                selector.select();
+                Connection c;
+                while ((c = answered.poll()) != null) {
+                    if (c.key.isValid()) {
+                        writeReplies(c);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    c = (Connection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            onWritable(c);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            onReadable(c);
+                        }
+                    } catch (IOException e) {
+                        close(c);
+                    }
+                }
+                while (fanOutEvents()) {
+                    // keep going while subscribers' sockets take everything
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Socket Link stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    close((Connection) key.attachment());
+                }
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        new Connection(channel);
+        connections++;
+    }
+
+    private void onReadable(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            close(c);
+            return;
+        }
+        process(c);
+    }
+
+    private void onWritable(Connection c) throws IOException {
+        drainReplies(c);
+        if (flush(c)) {
+            process(c); // input left unparsed while the peer was not reading
+        }
+    }
+
+    // Parses every complete frame in the input buffer, stopping early when the output
+    // buffer has no room for another reply and cannot be flushed.
+    private void process(Connection c) throws IOException {
+        ByteBuffer in = c.in;
+        in.flip();
+        c.paused = false;
+        boolean admit = false;
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length < LinkProtocol.HEADER - 4 || length > LinkProtocol.MAX_FRAME) {
+                fail(c, LinkProtocol.BAD_FRAME, 0);
+                return;
+            }
+            if (in.remaining() < 4 + length) {
+                break;
+            }
+            if (c.out.remaining() < LinkProtocol.MAX_FRAME && !flush(c)) {
+                c.paused = true;
+                break;
+            }
+            byte type = in.get(start + 4);
+            int tag = in.getInt(start + 5);
+            int size = LinkProtocol.requestSize(type);
+            if (size < 0) {
+                error(c, LinkProtocol.UNKNOWN_TYPE, tag);
+            } else if (size != 4 + length) {
+                fail(c, LinkProtocol.BAD_FRAME, tag);
+                return;
+            } else if (type == LinkProtocol.SUBMIT) {
+                submit(c, tag, in.getInt(start + 9), in.getInt(start + 13), in.getInt(start + 17));
+                admit = true;
+            } else if (type == LinkProtocol.QUERY) {
+                queueQuery(c, tag, in.getInt(start + 9));
+            } else {
+                subscribe(c, tag);
+            }
+            in.position(start + 4 + length);
+        }
+        in.compact();
+        if (admit && !admissionPending.getAndSet(true)) {
+            scheduler.execute(() -> {
+                admissionPending.set(false);
+                kernel.levelOneScheduling();
+            });
+        }
+        if (c.pendingCount > 0) {
+            answerQueries(c);
+        }
+        flush(c);
+    }
+
+    private void submit(Connection c, int tag, int burst, int priority, int arrival) {
+        int taskID = -1;
+        if (burst > 0 && priority >= 0 && arrival >= 0) {
+            TaskNode task = kernel.newTask(burst, arrival, priority, OWNER);
+            kernel.addNewTask(task);
+            taskID = task.getProcessID();
+            submitted.increment();
+        } else {
+            rejected.increment();
+        }
+        c.out.putInt(LinkProtocol.SUBMITTED_SIZE - 4).put(LinkProtocol.SUBMITTED).putInt(tag).putInt(taskID);
+    }
+
+    private void queueQuery(Connection c, int tag, int taskID) {
+        if (c.pendingCount * 2 == c.pendingQueries.length) {
+            c.pendingQueries = Arrays.copyOf(c.pendingQueries, c.pendingQueries.length * 2);
+        }
+        c.pendingQueries[c.pendingCount * 2] = tag;
+        c.pendingQueries[c.pendingCount * 2 + 1] = taskID;
+        c.pendingCount++;
+    }
+
+    private void subscribe(Connection c, int tag) {
+        if (!c.subscribed) {
+            c.subscribed = true;
+            subscribers.add(c);
+            subscriberCount = subscribers.size();
+        }
+        c.out.putInt(LinkProtocol.SUBSCRIBED_SIZE - 4).put(LinkProtocol.SUBSCRIBED).putInt(tag);
+    }
+
+    // Hands the read's queries to the scheduler thread in one task.
+    private void answerQueries(Connection c) {
+        int[] batch = Arrays.copyOf(c.pendingQueries, c.pendingCount * 2);
+        c.pendingCount = 0;
+        scheduler.execute(() -> {
+            TaskStore tasks = kernel.getTaskStore();
+            ByteBuffer reply = ByteBuffer.allocate(batch.length / 2 * LinkProtocol.STATE_SIZE);
+            for (int i = 0; i < batch.length; i += 2) {
+                int slot = tasks.slotOf(batch[i + 1]);
+                reply.putInt(LinkProtocol.STATE_SIZE - 4).put(LinkProtocol.STATE).putInt(batch[i])
+                        .putInt(batch[i + 1]);
+                if (slot < 0) {
+                    reply.put((byte) -1).putInt(0).putInt(0);
+                } else {
+                    reply.put((byte) tasks.state(slot).ordinal()).putInt(tasks.priority(slot))
+                            .putInt(tasks.remaining(slot));
+                }
+            }
+            reply.flip();
+            queries.add(batch.length / 2);
+            c.replies.offer(reply);
+            answered.offer(c);
+            selector.wakeup();
+        });
+    }
+
+    private void writeReplies(Connection c) {
+        try {
+            drainReplies(c);
+            flush(c);
+        } catch (IOException e) {
+            close(c);
+        }
+    }
+
+    // Moves answered queries into the output buffer, whole frames only.
+    private void drainReplies(Connection c) {
+        ByteBuffer reply;
+        while ((reply = c.replies.peek()) != null) {
+            int room = c.out.remaining() / LinkProtocol.STATE_SIZE * LinkProtocol.STATE_SIZE;
+            int n = Math.min(reply.remaining(), room);
+            if (n == 0) {
+                return;
+            }
+            int limit = reply.limit();
+            reply.limit(reply.position() + n);
+            c.out.put(reply);
+            reply.limit(limit);
+            if (!reply.hasRemaining()) {
+                c.replies.poll();
+            }
+        }
+    }
+
+    // Moves as many recorded events as every subscriber has room for; the rest wait in
+    // the shared buffer, which absorbs bursts for the slowest subscriber. Returns true
+    // when events are left although every subscriber flushed completely, i.e. when
+    // nothing else would wake the selector for them.
+    private boolean fanOutEvents() {
+        int length;
+        boolean left;
+        synchronized (events) {
+            int count = events.position() / LinkProtocol.EVENT_SIZE;
+            if (subscribers.isEmpty()) {
+                events.clear();
+                return false;
+            }
+            for (Connection c : subscribers) {
+                count = Math.min(count, c.out.remaining() / LinkProtocol.EVENT_SIZE);
+            }
+            if (count == 0) {
+                return false;
+            }
+            length = count * LinkProtocol.EVENT_SIZE;
+            if (fanOut.length < length) {
+                fanOut = new byte[events.capacity()];
+            }
+            events.flip();
+            events.get(fanOut, 0, length);
+            events.compact();
+            left = events.position() > 0;
+        }
+        boolean flushed = true;
+        for (int i = subscribers.size() - 1; i >= 0; i--) {
+            Connection c = subscribers.get(i);
+            try {
+                c.out.put(fanOut, 0, length);
+                sentEvents.add(length / LinkProtocol.EVENT_SIZE);
+                flushed &= flush(c);
+            } catch (IOException e) {
+                close(c);
+            }
+        }
+        return left && flushed;
+    }
+
+    // Writes what is buffered; returns whether all of it went out. Until it has, and
+    // until a paused connection's leftover input is parsed, the connection waits for
+    // OP_WRITE instead of reading more requests.
+    private boolean flush(Connection c) throws IOException {
+        ByteBuffer out = c.out;
+        out.flip();
+        if (out.hasRemaining()) {
+            c.channel.write(out);
+        }
+        boolean done = !out.hasRemaining();
+        out.compact();
+        c.key.interestOps(done && !c.paused ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+        return done;
+    }
+
+    private void error(Connection c, int code, int tag) {
+        c.out.putInt(LinkProtocol.ERROR_SIZE - 4).put(LinkProtocol.ERROR).putInt(tag).putInt(code);
+    }
+
+    // Reports a malformed frame and drops the connection: its framing is lost.
+    private void fail(Connection c, int code, int tag) {
+        try {
+            if (c.out.remaining() >= LinkProtocol.ERROR_SIZE) {
+                error(c, code, tag);
+            }
+            flush(c);
+        } catch (IOException ignored) {
+        }
+        close(c);
+    }
+
+    private void close(Connection c) {
+        if (!c.key.isValid() && !c.channel.isOpen()) {
+            return;
+        }
+        c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (c.subscribed) {
+            subscribers.remove(c);
+            subscriberCount = subscribers.size();
+        }
+        connections--;
+    }
+
+    // Stops the selector thread, drops every connection and removes this link's task
+    // listener.
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler.execute(() -> kernel.removeTaskListener(listener));
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    public long getSentEvents() {
+        return sentEvents.sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+}
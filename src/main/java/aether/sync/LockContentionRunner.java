@@ -0,0 +1,131 @@
+package aether.sync;
+
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless contention mode for the quantum lock: spawns a large number of short-lived
+// nodes, each a task of its own that takes the lock once, holds it for a critical
+// section, thinks outside it and exits. Java 17 has no virtual threads and a platform
+// thread per node does not scale to 10^6, so nodes run on a fixed pool of workers, as
+// SyncLink runs its nodes on the node thread. Compares every QuantumLock on throughput
+// and on the time a node waits to acquire, and checks that the critical sections never
+// overlapped.
+public class LockContentionRunner {
+    private static final String[] LOCKS = { "semaphore-fair", "semaphore-unfair", "reentrant-fair",
+            "reentrant-unfair", "spin-backoff", "ticket" };
+
+    public static class Result {
+        private final String lock;
+        private final int nodes;
+        private final double seconds;
+        private final long[] waits; // sorted acquire latencies, nanoseconds
+
+        Result(String lock, int nodes, double seconds, long[] waits) {
+            this.lock = lock;
+            this.nodes = nodes;
+            this.seconds = seconds;
+            this.waits = waits;
+        }
+
+        public String getLock() {
+            return lock;
+        }
+
+        public double getNodesPerSecond() {
+            return nodes / seconds;
+        }
+
+        // Acquire latency at the given percentile, in microseconds.
+        public double getWaitMicros(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * waits.length) - 1;
+            return waits[Math.max(0, Math.min(index, waits.length - 1))] / 1e3;
+        }
+
+        public double getMaxWaitMicros() {
+            return waits[waits.length - 1] / 1e3;
+        }
+    }
+
+    // Critical sections only run under the lock, so plain fields are enough here.
+    private static class Shared {
+        long entered;
+        int inside;
+        boolean overlapped;
+    }
+
+    public static Result run(String lockName, int nodes, int workers, long criticalNanos, long thinkNanos)
+            throws InterruptedException {
+        QuantumLock lock = QuantumLock.forName(lockName);
+        Shared shared = new Shared();
+        long[] waits = new long[nodes]; // each node writes its own index
+        AtomicInteger workerCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> new Thread(r, "aether-node-worker-" + workerCount.getAndIncrement()));
+        pool.prestartAllCoreThreads(); // the workers exist before the clock starts
+
+        long begin = System.nanoTime();
+        for (int n = 0; n < nodes; n++) {
+            int node = n;
+            pool.execute(() -> {
+                long requested = System.nanoTime();
+                lock.acquire();
+                long granted = System.nanoTime();
+                try {
+                    if (++shared.inside != 1) {
+                        shared.overlapped = true;
+                    }
+                    shared.entered++;
+                    spin(criticalNanos);
+                    shared.inside--;
+                } finally {
+                    lock.release();
+                }
+                waits[node] = granted - requested;
+                spin(thinkNanos);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        if (shared.overlapped || shared.entered != nodes) {
+            throw new IllegalStateException(lockName + " let " + shared.entered + " of " + nodes
+                    + " nodes in" + (shared.overlapped ? " with overlapping critical sections" : ""));
+        }
+        Arrays.sort(waits);
+        return new Result(lockName, nodes, seconds, waits);
+    }
+
+    private static void spin(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long until = System.nanoTime() + nanos;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Usage: LockContentionRunner [nodes] [workers] [criticalNanos] [thinkNanos] [lock...]
+    public static void main(String[] args) throws InterruptedException {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long criticalNanos = args.length > 2 ? Long.parseLong(args[2]) : 1_000;
+        long thinkNanos = args.length > 3 ? Long.parseLong(args[3]) : 1_000;
+        String[] locks = args.length > 4 ? Arrays.copyOfRange(args, 4, args.length) : LOCKS;
+
+        System.out.printf("%d nodes on %d workers (%d CPUs), %d ns critical section, %d ns outside%n", nodes,
+                workers, Runtime.getRuntime().availableProcessors(), criticalNanos, thinkNanos);
+        System.out.printf("%n%-17s %12s %10s %10s %10s %12s%n", "Lock", "Nodes/s", "p50 us", "p99 us", "p99.9 us",
+                "max us");
+        for (String lock : locks) {
+            run(lock, Math.min(nodes, 20_000), workers, criticalNanos, thinkNanos); // warm-up
+            Result r = run(lock, nodes, workers, criticalNanos, thinkNanos);
+            System.out.printf("%-17s %12.0f %10.1f %10.1f %10.1f %12.1f%n", r.getLock(), r.getNodesPerSecond(),
+                    r.getWaitMicros(50), r.getWaitMicros(99), r.getWaitMicros(99.9), r.getMaxWaitMicros());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package aether.sync;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The smallest lock interface the contention runner needs, so JDK locks and the spin
+// locks here can be compared through the same call sites.
+public interface QuantumLock {
+    void acquire();
+
+    void release();
+
+    String getName();
+
+    static QuantumLock of(Semaphore semaphore, String name) {
+        return new QuantumLock() {
+            @Override
+            public void acquire() {
+                semaphore.acquireUninterruptibly();
+            }
+
+            @Override
+            public void release() {
+                semaphore.release();
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    static QuantumLock of(ReentrantLock lock, String name) {
+        return new QuantumLock() {
+            @Override
+            public void acquire() {
+                lock.lock();
+            }
+
+            @Override
+            public void release() {
+                lock.unlock();
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    // Every lock LockContentionRunner knows, by name: semaphore-fair, semaphore-unfair,
+    // reentrant-fair, reentrant-unfair, spin-backoff and ticket.
+    static QuantumLock forName(String name) {
+        switch (name.toLowerCase()) {
+            case "semaphore-fair":
+                return of(new Semaphore(1, true), name);
+            case "semaphore-unfair":
+                return of(new Semaphore(1, false), name);
+            case "reentrant-fair":
+                return of(new ReentrantLock(true), name);
+            case "reentrant-unfair":
+                return of(new ReentrantLock(false), name);
+            case "spin-backoff":
+                return new SpinBackoffLock();
+            case "ticket":
+                return new TicketLock();
+            default:
+                throw new IllegalArgumentException("Unknown lock: " + name);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package aether.sync;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Test-and-test-and-set lock with randomized exponential backoff: a waiter spins on a
+// plain read and only tries the CAS once the lock looks free, then backs off for a
+// growing random number of spins after each lost race. Once a waiter has spun
+// SPINS_BEFORE_YIELD times, watching the lock or backing off, it yields the CPU
+// instead of spinning, as TicketLock does, so a descheduled holder gets to run when
+// there are more threads than cores. Not fair and not reentrant.
+public class SpinBackoffLock implements QuantumLock {
+    private static final int MIN_BACKOFF = 16;
+    private static final int MAX_BACKOFF = 4096;
+    private static final int SPINS_BEFORE_YIELD = 128;
+
+    private final AtomicBoolean locked = new AtomicBoolean();
+
+    @Override
+    public void acquire() {
+        int backoff = MIN_BACKOFF;
+        int spins = 0;
+        while (true) {
+            while (locked.get()) {
+                spins = pause(spins);
+            }
+            if (!locked.getAndSet(true)) {
+                return;
+            }
+            if (spins < SPINS_BEFORE_YIELD) {
+                for (int i = ThreadLocalRandom.current().nextInt(backoff); i > 0; i--) {
+                    Thread.onSpinWait();
+                }
+                spins += backoff;
+                backoff = Math.min(backoff << 1, MAX_BACKOFF);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static int pause(int spins) {
+        if (spins < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+            return spins + 1;
+        }
+        Thread.yield();
+        return spins;
+    }
+
+    public boolean tryAcquire() {
+        return !locked.get() && !locked.getAndSet(true);
+    }
+
+    @Override
+    public void release() {
+        locked.set(false);
+    }
+
+    @Override
+    public String getName() {
+        return "spin-backoff";
+    }
+}
@@ -0,0 +1,42 @@
+package aether.sync;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// FIFO spin lock: each acquirer takes the next ticket and waits until it is served, so
+// the lock is granted strictly in arrival order with one atomic increment per acquire.
+// Waiters spin briefly and then yield, since the holder may need their core. Not
+// reentrant.
+public class TicketLock implements QuantumLock {
+    private static final int SPINS_BEFORE_YIELD = 128;
+
+    private final AtomicInteger nextTicket = new AtomicInteger();
+    private volatile int serving;
+
+    @Override
+    public void acquire() {
+        int ticket = nextTicket.getAndIncrement();
+        int spins = 0;
+        while (serving != ticket) {
+            if (++spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        serving = serving + 1; // only the holder writes serving
+    }
+
+    // Acquirers that hold or wait for the lock.
+    public int getQueueLength() {
+        return nextTicket.get() - serving;
+    }
+
+    @Override
+    public String getName() {
+        return "ticket";
+    }
+}
@@ -0,0 +1,136 @@
+package aether.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Streaming writer over a direct buffer that is drained to the channel whenever it
+// fills, so output of any length uses a fixed amount of memory. Numbers are
+// formatted in place rather than through String.
+class ChannelOutput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private final Map<String, Integer> owners = new HashMap<>();
+    private final List<byte[]> ownerBytes = new ArrayList<>();
+
+    ChannelOutput(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    void putShort(int value) throws IOException {
+        ensure(2);
+        buffer.putShort((short) value);
+    }
+
+    void putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    void putByte(char value) throws IOException {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    void putDecimal(long value) throws IOException {
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            buffer.put("-9223372036854775808".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+    }
+
+    // Index of the owner, or -1 the first time it is seen; the caller then defines it.
+    int ownerIndex(String owner) {
+        Integer i = owners.get(owner);
+        if (i != null) {
+            return i;
+        }
+        if (owners.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct task owners");
+        }
+        if (owner.indexOf(',') >= 0 || owner.indexOf('\n') >= 0 || owner.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Owner cannot contain separators: " + owner);
+        }
+        owners.put(owner, owners.size());
+        ownerBytes.add(owner.getBytes(StandardCharsets.UTF_8));
+        return -1;
+    }
+
+    byte[] ownerBytes(String owner) {
+        int i = ownerIndex(owner);
+        return ownerBytes.get(i >= 0 ? i : owners.size() - 1);
+    }
+
+    // Binary owner reference, emitting its definition record on first use.
+    int binaryOwner(String owner) throws IOException {
+        int i = ownerIndex(owner);
+        if (i >= 0) {
+            return i;
+        }
+        i = owners.size() - 1;
+        byte[] name = ownerBytes.get(i);
+        putInt(TraceFormat.OWNER_DEFINITION);
+        putShort(i);
+        putShort(name.length);
+        putBytes(name);
+        return i;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
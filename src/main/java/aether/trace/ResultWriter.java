@@ -0,0 +1,97 @@
+package aether.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import aether.core.SimulationEngine;
+import aether.model.process.TaskNode;
+
+// Streams one result per completed task as the simulation produces it, as CSV when
+// the file name ends in .csv and in the binary layout otherwise.
+public class ResultWriter implements SimulationEngine.CompletionListener, Closeable {
+    private static final byte[] CSV_HEADER = "id,owner,arrival,burst,priority,start,completion,waiting,turnaround,response\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final ChannelOutput out;
+    private final boolean csv;
+    private long written;
+
+    public ResultWriter(Path path) throws IOException {
+        out = new ChannelOutput(path);
+        csv = TraceFormat.isCsv(path);
+        if (csv) {
+            out.putBytes(CSV_HEADER);
+        } else {
+            out.putInt(TraceFormat.RESULT_MAGIC);
+            out.putInt(TraceFormat.VERSION);
+        }
+    }
+
+    @Override
+    public void taskCompleted(TaskNode task, long waitingTime, long turnaroundTime, long responseTime) {
+        try {
+            if (csv) {
+                writeCsv(task, waitingTime, turnaroundTime, responseTime);
+            } else {
+                writeBinary(task, waitingTime, turnaroundTime, responseTime);
+            }
+            written++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsv(TaskNode task, long waiting, long turnaround, long response) throws IOException {
+        byte[] name = out.ownerBytes(task.getOwner());
+        out.putDecimal(task.getProcessID());
+        out.putByte(',');
+        out.putBytes(name);
+        out.putByte(',');
+        out.putDecimal(task.getArrivalTime());
+        out.putByte(',');
+        out.putDecimal(task.getBurstTime());
+        out.putByte(',');
+        out.putDecimal(task.getPriority());
+        out.putByte(',');
+        out.putDecimal(task.getStartTime());
+        out.putByte(',');
+        out.putDecimal(task.getCompletionTime());
+        out.putByte(',');
+        out.putDecimal(waiting);
+        out.putByte(',');
+        out.putDecimal(turnaround);
+        out.putByte(',');
+        out.putDecimal(response);
+        out.putByte('\n');
+    }
+
+    private void writeBinary(TaskNode task, long waiting, long turnaround, long response) throws IOException {
+        int priority = task.getPriority();
+        if (priority < Short.MIN_VALUE || priority > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Priority out of range for binary results: " + priority);
+        }
+        int ownerIndex = out.binaryOwner(task.getOwner());
+        out.ensure(56);
+        out.putInt(task.getProcessID());
+        out.putInt(task.getArrivalTime());
+        out.putInt(task.getBurstTime());
+        out.putShort(priority);
+        out.putShort(ownerIndex);
+        out.putLong(task.getStartTime());
+        out.putLong(task.getCompletionTime());
+        out.putLong(waiting);
+        out.putLong(turnaround);
+        out.putLong(response);
+    }
+
+    public long getWrittenResults() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
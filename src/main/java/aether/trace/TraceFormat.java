@@ -0,0 +1,33 @@
+package aether.trace;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+// On-disk layouts shared by the trace reader and writers. Binary files are big-endian.
+//
+// CSV task trace:    arrival,burst,priority[,owner]   (header, blank and '#' lines skipped)
+// Binary task trace: int TRACE_MAGIC, int VERSION, then 12-byte task records
+//                    int arrival, int burst, short priority, short owner.
+// CSV results:       id,owner,arrival,burst,priority,start,completion,waiting,turnaround,response
+// Binary results:    int RESULT_MAGIC, int VERSION, then 56-byte result records
+//                    int id, int arrival, int burst, short priority, short owner,
+//                    long start, completion, waiting, turnaround, response.
+//
+// Binary owners are small indexes; each is defined once, before its first use, by
+// int OWNER_DEFINITION, short index, short length, then the name in UTF-8. Arrivals
+// are never negative, so a record starting with OWNER_DEFINITION is unambiguous; the
+// writer and both readers reject negative arrivals.
+public final class TraceFormat {
+    public static final int TRACE_MAGIC = 0x41545243; // "ATRC"
+    public static final int RESULT_MAGIC = 0x41524553; // "ARES"
+    public static final int VERSION = 1;
+    public static final int OWNER_DEFINITION = -1;
+    public static final String DEFAULT_OWNER = "User";
+
+    private TraceFormat() {
+    }
+
+    public static boolean isCsv(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+}
@@ -0,0 +1,330 @@
+package aether.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import aether.core.AetherKernel;
+import aether.core.SimulationEngine;
+
+// Streams a CSV or binary task trace (see TraceFormat) through a memory-mapped window
+// that slides along the file, so only WINDOW bytes are mapped at a time and nothing
+// but the current record is decoded. The format is detected from the file's magic.
+public class TraceReader implements SimulationEngine.TaskSource, Closeable {
+    private static final int WINDOW = 1 << 26;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final boolean binary;
+    private MappedByteBuffer buffer;
+    private long base;
+    private long lineNumber;
+
+    private boolean loaded;
+    private boolean exhausted;
+    private int arrival;
+    private int burst;
+    private int priority;
+    private String owner;
+    private long readTasks;
+
+    // Owner names seen so far; CSV lines are matched against the cached bytes so a
+    // repeated owner costs no allocation.
+    private final List<String> owners = new ArrayList<>();
+    private final List<byte[]> ownerBytes = new ArrayList<>();
+    private String[] binaryOwners = new String[16];
+    private int cursor;
+
+    public TraceReader(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        if (size == 0) {
+            binary = false;
+            exhausted = true;
+            return;
+        }
+        map(0);
+        binary = size >= 8 && buffer.getInt(0) == TraceFormat.TRACE_MAGIC;
+        if (binary) {
+            int version = buffer.getInt(4);
+            if (version != TraceFormat.VERSION) {
+                throw new IOException("Unsupported trace version " + version + " in " + path);
+            }
+            buffer.position(8);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (loaded) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        loaded = binary ? readBinary() : readCsv();
+        exhausted = !loaded;
+        return loaded;
+    }
+
+    @Override
+    public int arrival() {
+        return arrival;
+    }
+
+    @Override
+    public int burst() {
+        return burst;
+    }
+
+    @Override
+    public int priority() {
+        return priority;
+    }
+
+    @Override
+    public String owner() {
+        return owner;
+    }
+
+    @Override
+    public void consume() {
+        if (loaded) {
+            loaded = false;
+            readTasks++;
+        }
+    }
+
+    // Submits every task arriving at or before untilTime through addNewTask. They become
+    // Ready at the kernel's next levelOneScheduling pass.
+    public int feed(AetherKernel kernel, long untilTime) {
+        int fed = 0;
+        while (hasNext() && arrival <= untilTime) {
+            kernel.addNewTask(kernel.newTask(burst, arrival, priority, owner));
+            consume();
+            fed++;
+        }
+        return fed;
+    }
+
+    public long getReadTasks() {
+        return readTasks;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    private boolean readBinary() {
+        while (available(4)) {
+            int first = buffer.getInt();
+            if (first == TraceFormat.OWNER_DEFINITION) {
+                require(4);
+                int index = buffer.getShort();
+                int length = buffer.getShort() & 0xFFFF;
+                require(length);
+                byte[] name = new byte[length];
+                buffer.get(name);
+                if (index < 0) {
+                    throw malformed("negative owner index");
+                }
+                if (index >= binaryOwners.length) {
+                    binaryOwners = Arrays.copyOf(binaryOwners, Math.max(index + 1, binaryOwners.length * 2));
+                }
+                binaryOwners[index] = new String(name, StandardCharsets.UTF_8);
+                continue;
+            }
+            if (first < 0) {
+                throw malformed("negative arrival " + first);
+            }
+            require(8);
+            arrival = first;
+            burst = buffer.getInt();
+            priority = buffer.getShort();
+            int index = buffer.getShort();
+            if (index < 0 || index >= binaryOwners.length || binaryOwners[index] == null) {
+                throw malformed("undefined owner " + index);
+            }
+            owner = binaryOwners[index];
+            return true;
+        }
+        return false;
+    }
+
+    private boolean readCsv() {
+        while (base + buffer.position() < size) {
+            int from = buffer.position();
+            int end = from;
+            int limit = buffer.limit();
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            if (end == limit && base + limit < size) {
+                // The line runs past the window: slide the window to the line start.
+                if (from == 0) {
+                    throw malformed("line longer than " + WINDOW + " bytes");
+                }
+                map(base + from);
+                continue;
+            }
+            lineNumber++;
+            buffer.position(end < limit ? end + 1 : end);
+            if (end > from && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (parseCsvLine(from, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns false for blank, comment and header lines.
+    private boolean parseCsvLine(int from, int to) {
+        cursor = skipSpaces(from, to);
+        if (cursor == to || buffer.get(cursor) == '#' || Character.isLetter(buffer.get(cursor))) {
+            return false;
+        }
+        arrival = parseInt(to);
+        if (arrival < 0) {
+            throw malformed("negative arrival " + arrival);
+        }
+        expectComma(to);
+        burst = parseInt(to);
+        expectComma(to);
+        priority = parseInt(to);
+        if (cursor == to) {
+            owner = TraceFormat.DEFAULT_OWNER;
+            return true;
+        }
+        expectComma(to);
+        int start = skipSpaces(cursor, to);
+        int end = to;
+        while (end > start && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        owner = end == start ? TraceFormat.DEFAULT_OWNER : ownerAt(start, end);
+        return true;
+    }
+
+    private int parseInt(int to) {
+        cursor = skipSpaces(cursor, to);
+        boolean negative = cursor < to && buffer.get(cursor) == '-';
+        if (negative) {
+            cursor++;
+        }
+        int start = cursor;
+        long value = 0;
+        while (cursor < to) {
+            int digit = buffer.get(cursor) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw malformed("number out of range");
+            }
+            cursor++;
+        }
+        if (cursor == start) {
+            throw malformed("expected a number");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw malformed("number out of range");
+        }
+        cursor = skipSpaces(cursor, to);
+        return (int) value;
+    }
+
+    private void expectComma(int to) {
+        if (cursor == to || buffer.get(cursor) != ',') {
+            throw malformed("expected ','");
+        }
+        cursor++;
+    }
+
+    private int skipSpaces(int from, int to) {
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private String ownerAt(int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < ownerBytes.size(); i++) {
+            byte[] candidate = ownerBytes.get(i);
+            if (candidate.length == length && matches(candidate, start)) {
+                return owners.get(i);
+            }
+        }
+        byte[] name = new byte[length];
+        buffer.get(start, name);
+        String value = new String(name, StandardCharsets.UTF_8);
+        owners.add(value);
+        ownerBytes.add(name);
+        return value;
+    }
+
+    private boolean matches(byte[] candidate, int start) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (buffer.get(start + i) != candidate[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True when at least bytes more are readable; false at a clean end of file.
+    private boolean available(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        long position = base + buffer.position();
+        if (position == size) {
+            return false;
+        }
+        require(bytes);
+        return true;
+    }
+
+    private void require(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        long position = base + buffer.position();
+        if (size - position < bytes) {
+            throw malformed("truncated record");
+        }
+        map(position);
+    }
+
+    private void map(long position) {
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+            base = position;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map " + path + " at " + position, e);
+        }
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        String where = binary ? "offset " + (base + buffer.position()) : "line " + lineNumber;
+        return new IllegalArgumentException("Malformed trace " + path + " at " + where + ": " + reason);
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,61 @@
+package aether.trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import aether.core.AetherKernel;
+import aether.core.SchedulingPolicy;
+import aether.core.SimulationEngine;
+
+// Replays a task trace through the simulation engine, optionally streaming the
+// per-task results, or generates a synthetic Poisson trace to replay.
+public class TraceReplay {
+
+    // Usage: TraceReplay <trace> [algorithm] [quantum] [results]
+    //        TraceReplay --generate <trace> [tasks] [meanInterArrival] [meanBurst]
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceReplay <trace> [algorithm] [quantum] [results]");
+            System.out.println("       TraceReplay --generate <trace> [tasks] [meanInterArrival] [meanBurst]");
+            return;
+        }
+        if (args[0].equals("--generate")) {
+            int tasks = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+            double meanGap = args.length > 3 ? Double.parseDouble(args[3]) : 10;
+            double meanBurst = args.length > 4 ? Double.parseDouble(args[4]) : 9;
+            generate(Paths.get(args[1]), tasks, meanGap, meanBurst);
+            return;
+        }
+
+        String algorithm = args.length > 1 ? args[1] : "SJF";
+        int quantum = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        SimulationEngine engine = new SimulationEngine(new AetherKernel(), SchedulingPolicy.forName(algorithm, quantum));
+        try (TraceReader trace = new TraceReader(Paths.get(args[0]));
+                ResultWriter results = args.length > 3 ? new ResultWriter(Paths.get(args[3])) : null) {
+            engine.setTaskSource(trace);
+            if (results != null) {
+                engine.setCompletionListener(results);
+            }
+            long start = System.nanoTime();
+            engine.run();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(engine.summary());
+            System.out.printf("Replayed %d tasks in %.2f s (%.0f tasks/s)%n", trace.getReadTasks(), seconds,
+                    trace.getReadTasks() / seconds);
+        }
+    }
+
+    public static void generate(Path path, int tasks, double meanGap, double meanBurst) throws IOException {
+        String[] owners = { "User", "System" };
+        Random random = new Random(42);
+        double arrival = 0;
+        try (TraceWriter writer = new TraceWriter(path)) {
+            for (int i = 0; i < tasks; i++) {
+                arrival += -Math.log(1 - random.nextDouble()) * meanGap;
+                int burst = 1 + (int) (-Math.log(1 - random.nextDouble()) * meanBurst);
+                writer.writeTask((int) arrival, burst, random.nextInt(10), owners[random.nextInt(10) == 0 ? 1 : 0]);
+            }
+        }
+    }
+}
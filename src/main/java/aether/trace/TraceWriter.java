@@ -0,0 +1,64 @@
+package aether.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+// Writes a task trace, as CSV when the file name ends in .csv and in the binary
+// layout otherwise. Tasks should be written in arrival order.
+public class TraceWriter implements Closeable {
+    private static final byte[] CSV_HEADER = "arrival,burst,priority,owner\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ChannelOutput out;
+    private final boolean csv;
+    private long written;
+
+    public TraceWriter(Path path) throws IOException {
+        out = new ChannelOutput(path);
+        csv = TraceFormat.isCsv(path);
+        if (csv) {
+            out.putBytes(CSV_HEADER);
+        } else {
+            out.putInt(TraceFormat.TRACE_MAGIC);
+            out.putInt(TraceFormat.VERSION);
+        }
+    }
+
+    public void writeTask(int arrival, int burst, int priority, String owner) throws IOException {
+        if (arrival < 0) {
+            throw new IllegalArgumentException("Arrival cannot be negative: " + arrival);
+        }
+        if (csv) {
+            byte[] name = out.ownerBytes(owner);
+            out.putDecimal(arrival);
+            out.putByte(',');
+            out.putDecimal(burst);
+            out.putByte(',');
+            out.putDecimal(priority);
+            out.putByte(',');
+            out.putBytes(name);
+            out.putByte('\n');
+        } else {
+            if (priority < Short.MIN_VALUE || priority > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Priority out of range for a binary trace: " + priority);
+            }
+            int ownerIndex = out.binaryOwner(owner);
+            out.ensure(12);
+            out.putInt(arrival);
+            out.putInt(burst);
+            out.putShort(priority);
+            out.putShort(ownerIndex);
+        }
+        written++;
+    }
+
+    public long getWrittenTasks() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -1,19 +1,34 @@
 package aether.ui;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import javax.swing.table.TableCellRenderer;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.nio.file.Path;
 
 import aether.core.AetherKernel;
+import aether.core.FcfsPolicy;
+import aether.core.PriorityPolicy;
+import aether.core.SchedulingPolicy;
+import aether.core.SjfPolicy;
 import aether.model.process.TaskNode;
+import aether.trace.TraceReader;
 
 public class AetherShell extends JFrame {
+    private static final long serialVersionUID = 1L;
     private AetherKernel kernel;
     private JTable taskTable;
-    private DefaultTableModel taskModel;
+    private TaskTableModel taskModel;
+
+    // The kernel's scheduler thread: every kernel call from the UI runs here, never on the EDT.
+    private final ExecutorService scheduler = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "aether-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     // Internal Panels
     private JPanel mainMenuPanel;
@@ -28,6 +43,13 @@ public class AetherShell extends JFrame {
 
     public AetherShell(AetherKernel kernel) {
         this.kernel = kernel;
+        this.taskModel = new TaskTableModel();
+        scheduler.execute(() -> {
+            kernel.addTaskListener(taskModel);
+            for (TaskNode node : kernel.getTasks()) {
+                taskModel.taskChanged(node);
+            }
+        });
         initFrameSettings();
         initInterface();
     }
@@ -118,7 +140,6 @@ public class AetherShell extends JFrame {
         setContentPane(processManagerPanel);
         revalidate();
         repaint();
-        refreshTaskList();
     }
     
     private void createProcessManager() {
@@ -145,14 +166,14 @@ public class AetherShell extends JFrame {
         tools.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
         tools.add(createAetherButton("ADD VECTOR", e -> createTask()));
+        tools.add(createAetherButton("FORK VECTOR", e -> forkTask()));
         tools.add(createAetherButton("KILL VECTOR", e -> destroyTask()));
         tools.add(createAetherButton("SUSPEND", e -> suspendTask()));
         tools.add(createAetherButton("RESUME", e -> resumeTask()));
         tools.add(createAetherButton("DISPATCH", e -> dispatchBatch()));
+        tools.add(createAetherButton("IMPORT TRACE", e -> importTrace()));
 
         // Data Table
-        String[] cols = { "ID", "STATE", "PRIORITY", "BURST", "ARRIVAL", "OWNER" };
-        taskModel = new DefaultTableModel(cols, 0);
         taskTable = new JTable(taskModel) {
             @Override
             public Component prepareRenderer(TableCellRenderer r, int row, int col) {
@@ -192,7 +213,7 @@ public class AetherShell extends JFrame {
     }
 
     private void openSyncLink() {
-        SyncLink sl = new SyncLink(() -> initInterface());
+        SyncLink sl = new SyncLink(kernel, scheduler, () -> initInterface());
         setContentPane(sl);
         revalidate();
         repaint();
@@ -242,8 +263,19 @@ public class AetherShell extends JFrame {
             return;
 
         try {
-            kernel.createTask(Integer.parseInt(burst), Integer.parseInt(arrival), Integer.parseInt(priority));
-            refreshTaskList();
+            int burstTime = Integer.parseInt(burst);
+            int arrivalTime = Integer.parseInt(arrival);
+            int priorityLevel = Integer.parseInt(priority);
+            scheduler.execute(() -> {
+                if (kernel.createTask(burstTime, arrivalTime, priorityLevel) == null) {
+                    // Every vector holds one frame; report the refusal rather than drop it.
+                    int frames = kernel.getCellStore().getTotalFrames();
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                            "Memory Exhausted: all " + frames + " frames are held, no frame for a new vector"));
+                    return;
+                }
+                kernel.levelOneScheduling();
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(null, "Matrix Mismatch: Invalid Input");
         }
@@ -253,61 +285,77 @@ public class AetherShell extends JFrame {
         String idStr = JOptionPane.showInputDialog("Target Vector ID:");
         if (idStr == null)
             return;
-        kernel.destroyTask(Integer.parseInt(idStr));
-        refreshTaskList();
+        int taskID = Integer.parseInt(idStr);
+        scheduler.execute(() -> kernel.destroyTask(taskID));
+    }
+
+    private void forkTask() {
+        String idStr = JOptionPane.showInputDialog("Fork Vector ID:");
+        if (idStr == null)
+            return;
+        int taskID = Integer.parseInt(idStr);
+        scheduler.execute(() -> {
+            if (kernel.fork(taskID) < 0) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                        "Fork Rejected: no such vector or no memory to share"));
+            }
+        });
     }
 
     private void suspendTask() {
         String idStr = JOptionPane.showInputDialog("Suspend Vector ID:");
         if (idStr == null)
             return;
-        kernel.suspendTask(Integer.parseInt(idStr));
-        refreshTaskList();
+        int taskID = Integer.parseInt(idStr);
+        scheduler.execute(() -> kernel.suspendTask(taskID));
     }
 
     private void resumeTask() {
         String idStr = JOptionPane.showInputDialog("Resume Vector ID:");
         if (idStr == null)
             return;
-        kernel.resumeTask(Integer.parseInt(idStr));
-        refreshTaskList();
+        int taskID = Integer.parseInt(idStr);
+        scheduler.execute(() -> kernel.resumeTask(taskID));
+    }
+
+    private void importTrace() {
+        JFileChooser chooser = new JFileChooser(".");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+
+        Path path = chooser.getSelectedFile().toPath();
+        scheduler.execute(() -> {
+            try (TraceReader trace = new TraceReader(path)) {
+                trace.feed(kernel, Long.MAX_VALUE);
+                kernel.levelOneScheduling();
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, "Trace Rejected: " + e.getMessage()));
+            }
+        });
     }
 
     private void dispatchBatch() {
-        String[] options = { "SJF", "FCFS" };
+        SchedulingPolicy[] policies = { new SjfPolicy(), new FcfsPolicy(), new PriorityPolicy(false, 0) };
+        String[] options = new String[policies.length];
+        for (int i = 0; i < policies.length; i++) {
+            options[i] = policies[i].getName();
+        }
         int choice = JOptionPane.showOptionDialog(null, "Select Logic Gateway", "Dispatch", 0, 0, null, options,
                 options[0]);
         if (choice == -1)
             return;
 
-        while (!kernel.getReadyQueue().isEmpty()) {
-            TaskNode node = kernel.lowLevelScheduling(options[choice]);
-            if (node != null) {
-                node.setState("PROCESSING");
-                refreshTaskList();
+        SchedulingPolicy policy = policies[choice];
+        scheduler.execute(() -> {
+            kernel.levelOneScheduling();
+            kernel.setSchedulingPolicy(policy);
+            int taskID;
+            while ((taskID = kernel.dispatchNext()) >= 0) {
                 // Simulation of work
-                node.setState("TERMINATED");
-                kernel.getTaskTable().remove(node.getProcessID());
+                kernel.completeTask(taskID);
             }
-        }
-        refreshTaskList();
-        JOptionPane.showMessageDialog(null, "Batch Processing Complete.");
-    }
-
-    private void refreshTaskList() {
-        if (taskModel == null)
-            return;
-        taskModel.setRowCount(0);
-        for (TaskNode node : kernel.getTaskTable().values()) {
-            taskModel.addRow(new Object[] {
-                    node.getProcessID(),
-                    node.getState(),
-                    node.getPriority(),
-                    node.getBurstTime(),
-                    node.getArrivalTime(),
-                    node.getOwner()
-            });
-        }
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, "Batch Processing Complete."));
+        });
     }
 
     public static void main(String[] args) {
@@ -5,23 +5,35 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 import java.util.*;
 import aether.core.AetherKernel;
+import aether.model.memory.BuddyAllocator;
+import aether.model.memory.CellStore;
+import aether.model.memory.FluxCache;
+import aether.model.memory.ReplacementPolicy;
 
 public class CellMonitor {
 
     private static final Color ACCENT_COLOR = new Color(189, 0, 255); // Neon Purple
 
-    private int cellSize;
-    private LinkedHashMap<Integer, Integer> cellRegistry;
+    private ReplacementPolicy fluxFrames;
+    private Map<Integer, Integer> cellOwners;
+    private Map<Integer, Integer> cellBlocks;    // cell frame -> first frame of its block
+    private Map<Integer, Integer> liveCells;     // block -> cells not yet expelled
+    private BuddyAllocator cellZone;
+    private int nextNodeID = 1;
     private JTextArea monitorOutput;
     private int frameLimit;
     private JPanel contentPanel;
     private Runnable backAction;
+    private CellStore cellStore;
 
     public CellMonitor(AetherKernel kernel, Runnable backAction) {
         this.backAction = backAction;
-        this.cellRegistry = new LinkedHashMap<>(16, 0.75f, true);
-        this.cellSize = 4096;
+        this.cellStore = kernel.getCellStore();
         this.frameLimit = 5;
+        this.fluxFrames = new FluxCache(frameLimit);
+        this.cellOwners = new HashMap<>();
+        this.cellBlocks = new HashMap<>();
+        this.liveCells = new HashMap<>();
 
         contentPanel = new JPanel() {
             @Override
@@ -93,7 +105,8 @@ public class CellMonitor {
         }));
 
         nav.add(createModernButton("Provision Cells", e -> provisionCells(kernel)));
-        nav.add(createModernButton("Flux Cycle (LRU)", e -> fluxIteration()));
+        nav.add(createModernButton("Flux Cycle", e -> fluxIteration()));
+        nav.add(createModernButton("Flux Policy", e -> selectFluxPolicy()));
 
         return nav;
     }
@@ -127,53 +140,137 @@ public class CellMonitor {
         sb.append(">> OPTIMUSPRIME CELL REGISTRY STATUS\n");
         sb.append("------------------------------------------------\n");
 
-        if (cellRegistry.isEmpty()) {
+        if (fluxFrames.size() == 0) {
             sb.append("\n[!] No cells currently active in the quantum field.\n");
         } else {
-            for (Map.Entry<Integer, Integer> entry : cellRegistry.entrySet()) {
-                sb.append(String.format("Block %04X -> Owner Node %04X\n", entry.getKey(), entry.getValue()));
-            }
+            fluxFrames.forEachResident(block -> sb.append(
+                    String.format("Block %04X -> Owner Node %04X\n", block, cellOwners.get(block))));
         }
 
         sb.append("\n------------------------------------------------\n");
-        sb.append("Active Flux Channels: ").append(cellRegistry.size()).append(" / ").append(frameLimit);
+        sb.append("Active Flux Channels: ").append(fluxFrames.size()).append(" / ").append(frameLimit);
+        sb.append("  [").append(fluxFrames.getName()).append("]");
+        sb.append("\nPhysical Frames: ").append(cellStore.getUsedFrames()).append(" / ")
+                .append(cellStore.getTotalFrames()).append(" held by ").append(cellStore.getProcessCount())
+                .append(" vectors, ").append(cellStore.getPhysicalMemory().getResidentBytes() / 1024)
+                .append(" KB backed off-heap");
+        sb.append("\nTLB: ").append(cellStore.getTlb().getEntries()).append(" entries, ")
+                .append(String.format("%.1f%% hits, %d page walks", cellStore.getTlb().getHitRatio() * 100,
+                        cellStore.getPageWalks()));
+
+        if (cellStore.getSwapDevice() != null) {
+            sb.append(String.format("%nSwap: %d / %d slots used, %d pages out, %d in, %d syncs",
+                    cellStore.getSwapDevice().getUsedSlots(), cellStore.getSwapDevice().getSlots(),
+                    cellStore.getSwapOuts(), cellStore.getSwapIns(), cellStore.getSwapDevice().getSyncs()));
+        }
+
+        if (cellStore.getForks() > 0) {
+            sb.append(String.format("%nCopy-on-write: %d forks, %d frames shared, %d KB saved, %d copies (%d KB)",
+                    cellStore.getForks(), cellStore.getSharedFrames(), cellStore.getSavedBytes() / 1024,
+                    cellStore.getCowFaults(), cellStore.getCowBytes() / 1024));
+        }
+
+        if (cellZone != null) {
+            sb.append(String.format("%nCell Zone: %d / %d frames free, largest block %d, fragmentation %.0f%% internal"
+                    + " / %.0f%% external", cellZone.getFreePages(), cellZone.getFrames(),
+                    cellZone.getLargestFreeBlock(), cellZone.getInternalFragmentation() * 100,
+                    cellZone.getExternalFragmentation() * 100));
+        }
 
         monitorOutput.setText(sb.toString());
     }
 
+    // Places the cells in one buddy block of the zone and gives them a fresh node ID.
     private void provisionCells(AetherKernel kernel) {
         String input = JOptionPane.showInputDialog("Enter Allocation Magnitude:");
         if (input == null)
             return;
 
+        int cellsNeeded;
         try {
-            int magnitude = Integer.parseInt(input);
-            int cellsNeeded = (int) Math.ceil((double) magnitude / cellSize);
-            int nodeID = new Random().nextInt(0xFFFF);
+            int magnitude = Integer.parseInt(input.trim());
+            if (magnitude <= 0) {
+                throw new NumberFormatException(input);
+            }
+            cellsNeeded = (magnitude + cellStore.getPageSize() - 1) / cellStore.getPageSize();
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(null, "Input Matrix Corrupted.");
+            return;
+        }
 
-            for (int i = 0; i < cellsNeeded; i++) {
-                cellRegistry.put(new Random().nextInt(0xFFFF), nodeID);
+        if (cellZone == null && (cellZone = reserveCellZone()) == null) {
+            JOptionPane.showMessageDialog(null, "No free frames left for a cell zone.");
+            return;
+        }
+        int block = cellZone.allocate(cellsNeeded);
+        if (block == BuddyAllocator.NONE) {
+            JOptionPane.showMessageDialog(null, "Cell zone exhausted: largest free block is "
+                    + cellZone.getLargestFreeBlock() + " cells.");
+            return;
+        }
+
+        int nodeID = nextNodeID++;
+        liveCells.put(block, cellsNeeded);
+        for (int cell = block; cell < block + cellsNeeded; cell++) {
+            cellOwners.put(cell, nodeID);
+            cellBlocks.put(cell, block);
+            fluxFrames.access(cell);
+            if (fluxFrames.getLastEvicted() >= 0) {
+                expel(fluxFrames.getLastEvicted());
             }
+        }
 
-            JOptionPane.showMessageDialog(null, "Provisioned " + cellsNeeded + " quantum cells.");
-            updateMetrics();
+        JOptionPane.showMessageDialog(null, "Provisioned " + cellsNeeded + " quantum cells for node "
+                + String.format("%04X", nodeID) + " at block " + String.format("%04X", block) + ".");
+        updateMetrics();
+    }
 
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, "Input Matrix Corrupted.");
+    // Half of the free frames, rounded down to a power of two, so vectors keep the rest.
+    private BuddyAllocator reserveCellZone() {
+        int free = cellStore.getFreeFrames();
+        for (int order = 31 - Integer.numberOfLeadingZeros(Math.max(free / 2, 1)); order >= 0; order--) {
+            BuddyAllocator zone = cellStore.reserveZone(order);
+            if (zone != null) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    // Forgets an expelled cell and frees its block once none of its cells are left.
+    private void expel(int cell) {
+        cellOwners.remove(cell);
+        Integer block = cellBlocks.remove(cell);
+        if (block != null && liveCells.merge(block, -1, Integer::sum) == 0) {
+            liveCells.remove(block);
+            cellZone.free(block);
         }
     }
 
     private void fluxIteration() {
-        if (cellRegistry.isEmpty()) {
+        int expelled = fluxFrames.evict();
+        if (expelled < 0) {
             JOptionPane.showMessageDialog(null, "Flux vacuum detected.");
             return;
         }
+        expel(expelled);
+
+        JOptionPane.showMessageDialog(null,
+                "Cell block " + expelled + " returned to void (" + fluxFrames.getName() + ").");
+        updateMetrics();
+    }
 
-        Iterator<Map.Entry<Integer, Integer>> it = cellRegistry.entrySet().iterator();
-        Map.Entry<Integer, Integer> expelled = it.next();
-        it.remove();
+    // Switches the replacement policy, reloading the resident blocks into the new one.
+    private void selectFluxPolicy() {
+        String[] options = { "LRU", "CLOCK", "2Q", "ARC", "LFU" };
+        int choice = JOptionPane.showOptionDialog(null, "Select Flux Policy", "Flux Policy", 0, 0, null, options,
+                fluxFrames.getName());
+        if (choice == -1)
+            return;
 
-        JOptionPane.showMessageDialog(null, "Cell block " + expelled.getKey() + " returned to void (LRU).");
+        ReplacementPolicy next = ReplacementPolicy.forName(options[choice], frameLimit);
+        fluxFrames.forEachResident(next::access);
+        fluxFrames = next;
         updateMetrics();
     }
 }
@@ -4,48 +4,47 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
-import java.net.*;
-import java.rmi.*;
 import java.rmi.registry.*;
-import java.rmi.server.*;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
-
-interface NexusChannel extends Remote {
-    void broadcast(String signal) throws RemoteException;
-
-    String pulse() throws RemoteException;
-}
-
-class NexusChannelImpl extends UnicastRemoteObject implements NexusChannel {
-    private String signal;
-
-    protected NexusChannelImpl() throws RemoteException {
-        super();
-        signal = "";
-    }
-
-    @Override
-    public synchronized void broadcast(String signal) throws RemoteException {
-        this.signal = signal;
-    }
-
-    @Override
-    public synchronized String pulse() throws RemoteException {
-        return signal;
-    }
-}
+import java.util.concurrent.TimeUnit;
+import aether.core.AetherKernel;
+import aether.net.LinkProtocol;
+import aether.net.NexusChannel;
+import aether.net.NexusEvents;
+import aether.net.NexusServer;
+import aether.net.SocketLink;
 
 public class SyncLink extends JPanel {
+    private static final long serialVersionUID = 1L;
     private static final Color NEON_CYAN = new Color(0, 255, 209);
     private static final Color NEON_PURPLE = new Color(189, 0, 255);
 
     private JTextArea logTerminal;
     private int nodeCount;
     private Semaphore quantumLock;
-    private NexusChannel nexus;
+    // Nodes waiting for the quantum lock; only touched on the node thread.
+    private final ArrayDeque<String> waitingNodes = new ArrayDeque<>();
     private Runnable backAction;
-
-    public SyncLink(Runnable backAction) {
+    private AetherKernel kernel;
+    private Executor scheduler;
+    // One Socket Link and one Nexus Channel per shell, kept across visits to this panel.
+    private static SocketLink socketLink;
+    private static NexusServer nexus;
+    // All spawned nodes run on this one thread; a node holding the lock is a pending
+    // release, not a sleeping thread, so thousands of nodes cost no more than one.
+    private static final ScheduledExecutorService nodeThread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "aether-nodes");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SyncLink(AetherKernel kernel, Executor scheduler, Runnable backAction) {
+        this.kernel = kernel;
+        this.scheduler = scheduler;
         this.backAction = backAction;
         this.quantumLock = new Semaphore(1);
         this.nodeCount = 0;
@@ -148,27 +147,46 @@ public class SyncLink extends JPanel {
         return btn;
     }
 
+    // Binds the kernel's Nexus Channel, reusing the registry if another local JVM
+    // already runs one on the port.
     private void initializeNexus() {
-        try {
-            nexus = new NexusChannelImpl();
-            // Using a slightly different port for local testing to avoid conflicts
-            Registry reg = LocateRegistry.createRegistry(1101);
-            reg.rebind("NexusChannel", nexus);
-            log("Nexus Core Online | Port 1101");
-        } catch (Exception e) {
-            log("Nexus Core Initialization Failed: " + e.getMessage());
+        synchronized (SyncLink.class) {
+            if (nexus != null) {
+                log("Nexus Core Online | Port " + NexusChannel.REGISTRY_PORT + " | " + nexus.getSubmitted()
+                        + " vectors received in " + nexus.getBatches() + " batches");
+                return;
+            }
+            try {
+                nexus = new NexusServer(kernel, scheduler);
+                nexus.start();
+                Registry reg = NexusServer.locateRegistry(NexusChannel.REGISTRY_PORT);
+                reg.rebind(NexusChannel.NAME, nexus);
+                log("Nexus Core Online | Port " + NexusChannel.REGISTRY_PORT);
+            } catch (Exception e) {
+                log("Nexus Core Initialization Failed: " + e.getMessage());
+            }
         }
     }
 
     private void spawnNode() {
         nodeCount++;
         String nodeID = "NODE_" + String.format("%03d", nodeCount);
-        new Thread(() -> {
+        log(nodeID + " requesting quantum lock...");
+        nodeThread.execute(() -> {
+            if (quantumLock.tryAcquire()) {
+                holdLock(nodeID);
+            } else {
+                waitingNodes.add(nodeID);
+            }
+        });
+    }
+
+    // Runs on the node thread with the lock taken: releases it after 1.5 s and hands it
+    // to the longest-waiting node.
+    private void holdLock(String nodeID) {
+        log(nodeID + " locked critical frequency.");
+        nodeThread.schedule(() -> {
             try {
-                log(nodeID + " requesting quantum lock...");
-                quantumLock.acquire();
-                log(nodeID + " locked critical frequency.");
-                Thread.sleep(1500);
                 log(nodeID + " releasing frequency.");
                 nexus.broadcast(nodeID + " signal pulsed.");
             } catch (Exception e) {
@@ -176,27 +194,46 @@ public class SyncLink extends JPanel {
             } finally {
                 quantumLock.release();
             }
-        }).start();
+            String next = waitingNodes.poll();
+            if (next != null && quantumLock.tryAcquire()) {
+                holdLock(next);
+            }
+        }, 1500, TimeUnit.MILLISECONDS);
     }
 
+    // Opens the binary task-submission port (see aether.net.LinkProtocol).
     private void initSocketLink() {
-        new Thread(() -> {
-            try (ServerSocket ss = new ServerSocket(9091)) {
-                log("Socket Link listening on 9091");
-                while (true) {
-                    try (Socket s = ss.accept()) {
-                        log("Inbound signal detected: " + s.getInetAddress());
-                    }
-                }
+        synchronized (SyncLink.class) {
+            if (socketLink != null) {
+                log("Socket Link already listening on " + socketLink.getPort() + " | " + socketLink.getConnections()
+                        + " peers, " + socketLink.getSubmitted() + " vectors received");
+                return;
+            }
+            try {
+                socketLink = new SocketLink(kernel, scheduler, LinkProtocol.DEFAULT_PORT);
+                socketLink.start();
+                log("Socket Link listening on " + socketLink.getPort());
             } catch (IOException e) {
                 log("Socket Link Fault: " + e.getMessage());
             }
-        }).start();
+        }
     }
 
+    // Looks the channel up through the registry like a remote driver would and reads
+    // its signal and the latest kernel events.
     private void initRMILink() {
         log("Attempting RMI bridge to master node...");
-        // Placeholder for real logic
+        new Thread(() -> {
+            try {
+                Registry reg = LocateRegistry.getRegistry(NexusChannel.REGISTRY_PORT);
+                NexusChannel remote = (NexusChannel) reg.lookup(NexusChannel.NAME);
+                NexusEvents events = remote.pollEvents(0, NexusChannel.MAX_EVENTS, 0);
+                log("RMI bridge up | pulse: \"" + remote.pulse() + "\" | " + events.getNext()
+                        + " kernel events recorded");
+            } catch (Exception e) {
+                log("RMI bridge failed: " + e.getMessage());
+            }
+        }, "aether-rmi-bridge").start();
     }
 
     private void log(String msg) {
@@ -0,0 +1,234 @@
+package aether.ui;
+
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+import aether.core.AetherKernel;
+import aether.model.process.IntIndex;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+
+// Vector Core table model. Kernel callbacks arrive on the scheduler thread and only
+// record the latest snapshot of each task in a pending batch; a Swing timer applies
+// the batch on the EDT at most every FLUSH_MILLIS and fires one coalesced event, so
+// dispatching n tasks never rebuilds the table per task.
+public class TaskTableModel extends AbstractTableModel implements AetherKernel.TaskListener {
+    private static final long serialVersionUID = 1L;
+    public static final int FLUSH_MILLIS = 16;
+
+    private static final String[] COLUMNS = { "ID", "STATE", "PRIORITY", "BURST", "ARRIVAL", "OWNER" };
+    private static final TaskState[] STATES = TaskState.values();
+    private static final int REMOVED = -1;
+
+    // Double-buffered pending changes: the scheduler thread fills one while the EDT
+    // drains the other.
+    private final Object lock = new Object();
+    private Batch pending = new Batch();
+    private Batch draining = new Batch();
+
+    // Table rows, touched only on the EDT.
+    private int[] ids = new int[1024];
+    private byte[] states = new byte[1024];
+    private int[] priorities = new int[1024];
+    private int[] bursts = new int[1024];
+    private int[] arrivals = new int[1024];
+    private String[] owners = new String[1024];
+    private final IntIndex rowOf = new IntIndex(1024);
+    private int rowCount;
+
+    private final Timer timer;
+
+    public TaskTableModel() {
+        timer = new Timer(FLUSH_MILLIS, e -> flush());
+        timer.setCoalesce(true);
+        timer.start();
+    }
+
+    @Override
+    public void taskChanged(TaskNode task) {
+        synchronized (lock) {
+            pending.record(task);
+        }
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    // Applies everything recorded since the last flush. Runs on the EDT.
+    public void flush() {
+        Batch batch;
+        synchronized (lock) {
+            if (pending.count == 0) {
+                return;
+            }
+            batch = pending;
+            pending = draining;
+            draining = batch;
+        }
+
+        int oldCount = rowCount;
+        int firstUpdated = Integer.MAX_VALUE;
+        int lastUpdated = -1;
+        boolean removed = false;
+        for (int i = 0; i < batch.count; i++) {
+            int id = batch.ids[i];
+            int row = rowOf.get(id);
+            if (batch.states[i] == TaskState.TERMINATED.ordinal()) {
+                if (row >= 0) {
+                    rowOf.remove(id);
+                    ids[row] = REMOVED;
+                    removed = true;
+                }
+                continue;
+            }
+            if (row < 0) {
+                row = appendRow(id);
+            } else if (row < oldCount) {
+                firstUpdated = Math.min(firstUpdated, row);
+                lastUpdated = Math.max(lastUpdated, row);
+            }
+            states[row] = batch.states[i];
+            priorities[row] = batch.priorities[i];
+            bursts[row] = batch.bursts[i];
+            arrivals[row] = batch.arrivals[i];
+            owners[row] = batch.owners[i];
+        }
+        batch.clear();
+
+        if (removed) {
+            compact();
+            fireTableDataChanged();
+            return;
+        }
+        if (lastUpdated >= 0) {
+            fireTableRowsUpdated(firstUpdated, lastUpdated);
+        }
+        if (rowCount > oldCount) {
+            fireTableRowsInserted(oldCount, rowCount - 1);
+        }
+    }
+
+    private int appendRow(int id) {
+        if (rowCount == ids.length) {
+            int capacity = rowCount * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            states = Arrays.copyOf(states, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            bursts = Arrays.copyOf(bursts, capacity);
+            arrivals = Arrays.copyOf(arrivals, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+        ids[rowCount] = id;
+        rowOf.put(id, rowCount);
+        return rowCount++;
+    }
+
+    // Closes the gaps left by removed rows in one pass, keeping row order.
+    private void compact() {
+        int kept = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (ids[row] == REMOVED) {
+                continue;
+            }
+            if (kept != row) {
+                ids[kept] = ids[row];
+                states[kept] = states[row];
+                priorities[kept] = priorities[row];
+                bursts[kept] = bursts[row];
+                arrivals[kept] = arrivals[row];
+                owners[kept] = owners[row];
+                rowOf.put(ids[kept], kept);
+            }
+            kept++;
+        }
+        Arrays.fill(owners, kept, rowCount, null);
+        rowCount = kept;
+    }
+
+    public int getTaskID(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0:
+                return ids[row];
+            case 1:
+                return STATES[states[row]];
+            case 2:
+                return priorities[row];
+            case 3:
+                return bursts[row];
+            case 4:
+                return arrivals[row];
+            default:
+                return owners[row];
+        }
+    }
+
+    // Latest snapshot per task since the last flush; a task changed many times
+    // between flushes occupies one entry.
+    private static class Batch {
+        private int[] ids = new int[256];
+        private byte[] states = new byte[256];
+        private int[] priorities = new int[256];
+        private int[] bursts = new int[256];
+        private int[] arrivals = new int[256];
+        private String[] owners = new String[256];
+        private final IntIndex positions = new IntIndex(256);
+        private int count;
+
+        void record(TaskNode task) {
+            int id = task.getProcessID();
+            int i = positions.get(id);
+            if (i < 0) {
+                if (count == ids.length) {
+                    grow(count * 2);
+                }
+                i = count++;
+                ids[i] = id;
+                positions.put(id, i);
+            }
+            states[i] = (byte) task.getState().ordinal();
+            priorities[i] = task.getPriority();
+            bursts[i] = task.getBurstTime();
+            arrivals[i] = task.getArrivalTime();
+            owners[i] = task.getOwner();
+        }
+
+        void clear() {
+            for (int i = 0; i < count; i++) {
+                positions.remove(ids[i]);
+                owners[i] = null;
+            }
+            count = 0;
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            states = Arrays.copyOf(states, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            bursts = Arrays.copyOf(bursts, capacity);
+            arrivals = Arrays.copyOf(arrivals, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+    }
+}
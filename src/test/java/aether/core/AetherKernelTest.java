@@ -0,0 +1,150 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import aether.model.memory.CellStore;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+import org.junit.jupiter.api.Test;
+
+class AetherKernelTest {
+    private final AetherKernel kernel = new AetherKernel();
+
+    @Test
+    void admitsSubmittedNodes() {
+        TaskNode task = kernel.newTask(5, 0, 2);
+        task.setPriority(1);
+        kernel.addNewTask(task);
+        kernel.levelOneScheduling();
+        assertEquals(TaskState.READY, task.getState());
+        assertEquals(1, task.getPriority());
+        assertEquals(1, kernel.countInState(TaskState.READY));
+    }
+
+    @Test
+    void resubmittingALiveTaskChangesNothing() {
+        TaskNode task = kernel.newTask(5, 0, 2);
+        kernel.addNewTask(task);
+        kernel.levelOneScheduling();
+        assertEquals(task.getProcessID(), kernel.dispatchNext());
+
+        kernel.addNewTask(task);
+        kernel.levelOneScheduling();
+        assertEquals(TaskState.RUNNING, task.getState());
+        assertEquals(0, kernel.countInState(TaskState.NEW));
+        assertEquals(0, kernel.countInState(TaskState.READY));
+        assertEquals(1, kernel.countInState(TaskState.RUNNING));
+    }
+
+    @Test
+    void aTerminatedTasksIDDoesNotReachTheTaskReusingItsSlot() {
+        int first = kernel.spawnTask(5, 0, 2);
+        kernel.admitTask(first);
+        TaskNode stale = kernel.getTask(first);
+        kernel.destroyTask(first);
+
+        int second = kernel.spawnTask(7, 0, 3);
+        assertEquals(TaskStore.slotIndex(first), TaskStore.slotIndex(second));
+        assertNotEquals(first, second);
+        assertNull(kernel.getTask(first));
+        assertFalse(kernel.admitTask(first));
+        kernel.changePriority(first, 0);
+        assertTrue(kernel.admitTask(second));
+        assertEquals(3, kernel.getTask(second).getPriority());
+        assertEquals(TaskState.TERMINATED, stale.getState());
+    }
+
+    @Test
+    void aRefusedCreateTaskFreesItsID() {
+        CellStore memory = new CellStore(4, 8); // two frames
+        AetherKernel small = new AetherKernel(memory);
+        assertNotNull(small.createTask(5, 0, 1));
+        assertNotNull(small.createTask(5, 0, 1));
+        assertNull(small.createTask(5, 0, 1));
+        small.levelOneScheduling();
+        assertEquals(2, small.countInState(TaskState.READY));
+        assertEquals(0, small.countInState(TaskState.NEW));
+        assertEquals(2, small.getTaskStore().size());
+    }
+
+    @Test
+    void theDefaultConfigurationHoldsThousandsOfCreatedTasks() {
+        for (int i = 0; i < 10_000; i++) {
+            assertNotNull(kernel.createTask(5, 0, 1));
+        }
+        kernel.levelOneScheduling();
+        assertEquals(10_000, kernel.countInState(TaskState.READY));
+    }
+
+    @Test
+    void allocatesNothingPerTaskOnceWarm() {
+        for (String policy : new String[] { "FCFS", "PRIORITY_AGING", "MLFQ" }) {
+            AetherKernel warm = new AetherKernel();
+            warm.setSchedulingPolicy(SchedulingPolicy.forName(policy, 4));
+            churn(warm, 100_000); // grows every per-task array to the live count
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            churn(warm, 100_000);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            assertTrue(allocated < 1024, policy + " allocated " + allocated + " bytes");
+        }
+    }
+
+    // Keeps 64 tasks live while creating, running and retiring the given number.
+    private static void churn(AetherKernel kernel, int tasks) {
+        for (int i = 0; i < tasks; i++) {
+            int taskID = kernel.spawnTask(1 + i % 7, i, i % 10);
+            kernel.admitTask(taskID);
+            if (kernel.countInState(TaskState.READY) > 64) {
+                int running = kernel.dispatchNext();
+                if (i % 3 == 0) {
+                    kernel.expireSlice(running);
+                    running = kernel.dispatchNext();
+                }
+                kernel.completeTask(running);
+            }
+        }
+    }
+
+    @Test
+    void liveTasksChangeOnlyThroughTheKernel() {
+        int taskID = kernel.spawnTask(5, 0, 2);
+        kernel.admitTask(taskID);
+        TaskNode view = kernel.getTask(taskID);
+        assertThrows(IllegalStateException.class, () -> view.setPriority(0));
+        assertThrows(IllegalStateException.class, () -> view.setAffinity(0));
+        kernel.changePriority(taskID, 0);
+        assertEquals(0, view.getPriority());
+    }
+
+    @Test
+    void listenersCanBeRemovedInAnyOrder() {
+        int[] calls = new int[2];
+        AetherKernel.TaskListener first = task -> calls[0]++;
+        AetherKernel.TaskListener second = task -> calls[1]++;
+        kernel.addTaskListener(first);
+        kernel.addTaskListener(second);
+        kernel.admitTask(kernel.spawnTask(3, 0, 0));
+        int perTask = calls[0];
+        assertTrue(perTask > 0);
+        assertEquals(perTask, calls[1]);
+
+        assertTrue(kernel.removeTaskListener(first));
+        kernel.admitTask(kernel.spawnTask(3, 0, 0));
+        assertEquals(perTask, calls[0]);
+        assertEquals(2 * perTask, calls[1]);
+        assertTrue(kernel.removeTaskListener(second));
+        assertFalse(kernel.removeTaskListener(second));
+        kernel.admitTask(kernel.spawnTask(3, 0, 0));
+        assertEquals(2 * perTask, calls[1]);
+    }
+}
@@ -0,0 +1,118 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import aether.model.memory.CellStore;
+import aether.model.process.TaskState;
+import org.junit.jupiter.api.Test;
+
+class MailboxesTest {
+    private final AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+    private final Mailboxes mailboxes = kernel.getMailboxes();
+
+    private int task() {
+        int taskID = kernel.spawnTask(10, 0, 0);
+        kernel.admitTask(taskID);
+        return taskID;
+    }
+
+    private TaskState state(int taskID) {
+        return kernel.getTaskStore().state(kernel.getTaskStore().slotOf(taskID));
+    }
+
+    private void fill(int sender, int receiver) {
+        int capacity = mailboxes.getCapacity(receiver);
+        assertEquals(capacity, mailboxes.send(sender, receiver, new long[capacity], 0, capacity));
+    }
+
+    @Test
+    void blocksAndWakesBothSides() {
+        int producer = task();
+        int other = task();
+        int consumer = task();
+        assertTrue(mailboxes.open(consumer, 4, false));
+        assertFalse(mailboxes.open(consumer, 4, false));
+        long[] in = new long[8];
+
+        assertEquals(0, mailboxes.receive(consumer, in, 0, 8));
+        assertEquals(TaskState.BLOCKED, state(consumer));
+        assertEquals(1, mailboxes.send(producer, consumer, 7));
+        assertEquals(TaskState.READY, state(consumer));
+
+        assertEquals(Mailboxes.INVALID, mailboxes.send(other, consumer, 1)); // single producer
+        assertEquals(3, mailboxes.send(producer, consumer, new long[] { 1, 2, 3, 4, 5 }, 0, 5));
+        assertEquals(0, mailboxes.send(producer, consumer, 9));
+        assertEquals(TaskState.BLOCKED, state(producer));
+        assertEquals(4, mailboxes.getDepth(consumer));
+
+        assertEquals(2, mailboxes.receive(consumer, in, 0, 2));
+        assertEquals(7, in[0]);
+        assertEquals(1, in[1]);
+        assertEquals(TaskState.READY, state(producer));
+        assertEquals(1, mailboxes.send(producer, consumer, 9));
+        assertEquals(3, mailboxes.receive(consumer, in, 0, 8));
+        assertEquals(9, in[2]);
+
+        assertEquals(5, mailboxes.getSent(consumer));
+        assertEquals(5, mailboxes.getReceived(consumer));
+        assertEquals(4, mailboxes.getMaxDepth(consumer));
+        assertEquals(1, mailboxes.getFullWaits(consumer));
+        assertEquals(1, mailboxes.getEmptyWaits(consumer));
+    }
+
+    @Test
+    void acceptsManyProducersAndRebindsASoleSender() {
+        int a = task();
+        int b = task();
+        int c = task();
+        int shared = task();
+        assertTrue(mailboxes.open(shared, 2, true));
+        assertEquals(1, mailboxes.send(a, shared, 1));
+        assertEquals(1, mailboxes.send(b, shared, 2));
+        assertEquals(0, mailboxes.send(c, shared, 3));
+
+        assertTrue(mailboxes.open(c, 2, false));
+        assertEquals(1, mailboxes.send(a, c, 1));
+        kernel.destroyTask(a);
+        assertEquals(1, mailboxes.send(b, c, 2));
+    }
+
+    @Test
+    void closeWakesSendersAndTheWaitingReceiver() {
+        int sender = task();
+        int receiver = task();
+        int full = task();
+        assertTrue(mailboxes.open(receiver, 1, false));
+        assertTrue(mailboxes.open(full, 1, false));
+        long[] in = new long[1];
+        assertEquals(0, mailboxes.receive(receiver, in, 0, 1));
+        fill(sender, full);
+        assertEquals(0, mailboxes.send(sender, full, 2));
+
+        assertTrue(mailboxes.close(receiver));
+        assertEquals(TaskState.READY, state(receiver));
+        assertEquals(Mailboxes.INVALID, mailboxes.receive(receiver, in, 0, 1));
+        assertTrue(mailboxes.close(full));
+        assertEquals(TaskState.READY, state(sender));
+        assertEquals(Mailboxes.INVALID, mailboxes.send(sender, full, 2));
+
+        // A reopened mailbox starts with nobody waiting on it.
+        assertTrue(mailboxes.open(receiver, 1, false));
+        assertEquals(1, mailboxes.send(sender, receiver, 3));
+        assertEquals(TaskState.READY, state(receiver));
+    }
+
+    @Test
+    void exitClosesTheMailbox() {
+        int sender = task();
+        int receiver = task();
+        assertTrue(mailboxes.open(receiver, 1, true));
+        fill(sender, receiver);
+        assertEquals(0, mailboxes.send(sender, receiver, 2));
+        kernel.destroyTask(receiver);
+        assertFalse(mailboxes.hasMailbox(receiver));
+        assertEquals(TaskState.READY, state(sender));
+    }
+}
@@ -0,0 +1,107 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+class MessageRingTest {
+    private static final long PER_PRODUCER = 100_000;
+
+    @Test
+    void spscFillsDrainsAndWrapsAround() {
+        checkSequential(new SpscRing(5));
+    }
+
+    @Test
+    void mpscFillsDrainsAndWrapsAround() {
+        checkSequential(new MpscRing(5));
+    }
+
+    private static void checkSequential(MessageRing ring) {
+        assertEquals(8, ring.capacity()); // rounded up to a power of two
+        long[] out = new long[20];
+        long next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 5; i++) {
+                out[i] = next + i;
+            }
+            assertEquals(5, ring.offer(out, 0, 5));
+            assertTrue(ring.offer(next + 5));
+            assertEquals(2, ring.offer(new long[] { next + 6, next + 7, -1 }, 0, 3));
+            assertFalse(ring.offer(-1));
+            assertEquals(8, ring.size());
+            long[] in = new long[20];
+            assertEquals(3, ring.drain(in, 0, 3));
+            assertEquals(5, ring.drain(in, 3, 20));
+            for (int i = 0; i < 8; i++) {
+                assertEquals(next + i, in[i]);
+            }
+            assertEquals(0, ring.drain(in, 0, 20));
+            next += 8;
+        }
+    }
+
+    @Test
+    void spscKeepsOrderAcrossThreads() throws InterruptedException {
+        for (boolean batch : new boolean[] { false, true }) {
+            checkConcurrent(new SpscRing(16), 1, batch);
+        }
+    }
+
+    @Test
+    void mpscKeepsEachProducersOrderAcrossThreads() throws InterruptedException {
+        for (boolean batch : new boolean[] { false, true }) {
+            checkConcurrent(new MpscRing(16), 4, batch);
+        }
+    }
+
+    // Each producer sends (producer << 40 | sequence); the consumer checks that every
+    // producer's sequence arrives complete and in order.
+    private static void checkConcurrent(MessageRing ring, int producers, boolean batch) throws InterruptedException {
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads[p] = new Thread(() -> {
+                long[] out = new long[64];
+                long next = 0;
+                while (next < PER_PRODUCER) {
+                    int length = batch ? (int) Math.min(1 + ThreadLocalRandom.current().nextInt(64), PER_PRODUCER - next) : 1;
+                    for (int i = 0; i < length; i++) {
+                        out[i] = producer << 40 | (next + i);
+                    }
+                    int offset = 0;
+                    while (offset < length) {
+                        int sent = ring.offer(out, offset, length - offset);
+                        if (sent == 0) {
+                            Thread.yield();
+                        }
+                        offset += sent;
+                    }
+                    next += length;
+                }
+            });
+            threads[p].start();
+        }
+        long[] expected = new long[producers];
+        long[] in = new long[50];
+        long received = 0;
+        while (received < PER_PRODUCER * producers) {
+            int count = ring.drain(in, 0, batch ? in.length : 1);
+            if (count == 0) {
+                Thread.yield();
+            }
+            for (int i = 0; i < count; i++) {
+                int producer = (int) (in[i] >>> 40);
+                assertEquals(expected[producer]++, in[i] & ((1L << 40) - 1));
+            }
+            received += count;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, ring.size());
+    }
+}
@@ -0,0 +1,52 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+import org.junit.jupiter.api.Test;
+
+class PriorityPolicyTest {
+    private static TaskNode task(int taskID, int priority) {
+        return new TaskNode(taskID, TaskState.READY, "User", priority, 100, 0);
+    }
+
+    @Test
+    void dispatchesLowestPriorityFirstAndPreemptsOnHigher() {
+        PriorityPolicy policy = new PriorityPolicy(true, 0);
+        TaskNode running = task(1, 5);
+        policy.enqueue(task(2, 7), 0);
+        policy.enqueue(task(3, 5), 0);
+        assertEquals(3, policy.peekNext());
+        assertFalse(policy.shouldPreempt(running, task(3, 5), 100));
+        assertTrue(policy.shouldPreempt(running, task(4, 4), 0));
+    }
+
+    @Test
+    void agedTaskPreemptsOnlyAfterAWholeLevel() {
+        PriorityPolicy policy = new PriorityPolicy(true, 10);
+        TaskNode running = task(1, 5);
+        TaskNode equal = task(2, 5);
+        policy.enqueue(equal, 0);
+        for (long now = 0; now < 10; now++) {
+            assertFalse(policy.shouldPreempt(running, equal, now), "preempted at " + now);
+        }
+        assertEquals(4, policy.effectivePriority(equal, 10));
+        assertTrue(policy.shouldPreempt(running, equal, 10));
+
+        TaskNode lower = task(3, 6);
+        policy.enqueue(lower, 100);
+        assertFalse(policy.shouldPreempt(running, lower, 119));
+        assertTrue(policy.shouldPreempt(running, lower, 120));
+    }
+
+    @Test
+    void nonPreemptiveNeverPreempts() {
+        PriorityPolicy policy = new PriorityPolicy(false, 10);
+        TaskNode candidate = task(2, 0);
+        policy.enqueue(candidate, 0);
+        assertFalse(policy.shouldPreempt(task(1, 9), candidate, 1000));
+    }
+}
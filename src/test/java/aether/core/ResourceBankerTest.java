@@ -0,0 +1,147 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import aether.model.memory.CellStore;
+import aether.model.process.TaskState;
+import org.junit.jupiter.api.Test;
+
+class ResourceBankerTest {
+    private final AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+    private final ResourceBanker banker = kernel.getBanker();
+
+    private int task() {
+        int taskID = kernel.spawnTask(10, 0, 0);
+        kernel.admitTask(taskID);
+        return taskID;
+    }
+
+    private TaskState state(int taskID) {
+        return kernel.getTaskStore().state(kernel.getTaskStore().slotOf(taskID));
+    }
+
+    // The textbook state: 12 units; claims 10, 4 and 9 holding 5, 2 and 2.
+    @Test
+    void blocksTheRequestThatWouldBeUnsafe() {
+        int drives = banker.createClass(12);
+        int p0 = task();
+        int p1 = task();
+        int p2 = task();
+        assertTrue(banker.declareClaim(p0, drives, 10));
+        assertTrue(banker.declareClaim(p1, drives, 4));
+        assertTrue(banker.declareClaim(p2, drives, 9));
+        assertEquals(ResourceBanker.GRANTED, banker.request(p0, drives, 5));
+        assertEquals(ResourceBanker.GRANTED, banker.request(p1, drives, 2));
+        assertEquals(ResourceBanker.GRANTED, banker.request(p2, drives, 2));
+        assertEquals(3, banker.getAvailable(drives));
+
+        assertEquals(ResourceBanker.BLOCKED, banker.request(p2, drives, 1));
+        assertEquals(TaskState.BLOCKED, state(p2));
+        assertEquals(1, banker.getWaiting(drives));
+
+        // p1 runs to completion, which is still not enough for p2; p0 then can.
+        assertEquals(ResourceBanker.GRANTED, banker.request(p1, drives, 2));
+        assertTrue(banker.release(p1, drives, 4));
+        assertEquals(TaskState.BLOCKED, state(p2));
+        assertEquals(ResourceBanker.GRANTED, banker.request(p0, drives, 5));
+        assertTrue(banker.release(p0, drives, 10));
+        assertEquals(TaskState.READY, state(p2));
+        assertEquals(3, banker.getHeld(p2, drives));
+        assertEquals(0, banker.getWaiting(drives));
+    }
+
+    @Test
+    void refusesInvalidClaimsAndHoldAndWait() {
+        int a = banker.createClass(2);
+        int b = banker.createClass(2);
+        int t = task();
+        int u = task();
+        assertFalse(banker.declareClaim(t, a, 3));
+        assertTrue(banker.declareClaim(t, a, 2));
+        assertFalse(banker.declareClaim(t, a, 1));
+        assertEquals(ResourceBanker.REFUSED, banker.request(t, b, 1));
+        assertEquals(ResourceBanker.REFUSED, banker.request(t, a, 3));
+
+        assertTrue(banker.declareClaim(t, b, 1));
+        assertTrue(banker.declareClaim(u, b, 2));
+        assertEquals(ResourceBanker.GRANTED, banker.request(u, b, 2));
+        assertEquals(ResourceBanker.GRANTED, banker.request(t, a, 1));
+        assertEquals(ResourceBanker.REFUSED, banker.request(t, b, 1));
+    }
+
+    @Test
+    void exitReleasesEverything() {
+        int units = banker.createClass(4);
+        int t = task();
+        int u = task();
+        assertTrue(banker.declareClaim(t, units, 4));
+        assertTrue(banker.declareClaim(u, units, 4));
+        assertEquals(ResourceBanker.GRANTED, banker.request(t, units, 3));
+        assertEquals(ResourceBanker.BLOCKED, banker.request(u, units, 1));
+        kernel.destroyTask(t);
+        assertEquals(TaskState.READY, state(u));
+        assertEquals(1, banker.getHeld(u, units));
+        assertEquals(3, banker.getAvailable(units));
+    }
+
+    // Random requests and releases, checked after each against a plain Banker's
+    // safety test that runs the claimants to completion in any order that works.
+    @Test
+    void staysSafeUnderRandomTraffic() {
+        Random random = new Random(11);
+        int total = 20;
+        int units = banker.createClass(total);
+        int n = 12;
+        int[] ids = new int[n];
+        int[] max = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = task();
+            max[i] = 1 + random.nextInt(total);
+            if (!banker.declareClaim(ids[i], units, max[i])) {
+                max[i] = 0;
+            }
+        }
+        for (int step = 0; step < 20_000; step++) {
+            int i = random.nextInt(n);
+            if (max[i] == 0 || state(ids[i]) == TaskState.BLOCKED) {
+                continue;
+            }
+            int held = banker.getHeld(ids[i], units);
+            if (held < max[i] && random.nextInt(3) > 0) {
+                int request = 1 + random.nextInt(max[i] - held);
+                int result = banker.request(ids[i], units, request);
+                assertTrue(result == ResourceBanker.GRANTED || result == ResourceBanker.BLOCKED);
+            } else if (held > 0) {
+                assertTrue(banker.release(ids[i], units, 1 + random.nextInt(held)));
+            }
+            int available = total;
+            for (int j = 0; j < n; j++) {
+                available -= banker.getHeld(ids[j], units);
+            }
+            assertEquals(available, banker.getAvailable(units));
+            assertSafe(ids, max, units, total);
+        }
+    }
+
+    private void assertSafe(int[] ids, int[] max, int units, int total) {
+        int n = ids.length;
+        boolean[] done = new boolean[n];
+        int available = banker.getAvailable(units);
+        for (int round = 0; round < n; round++) {
+            for (int j = 0; j < n; j++) {
+                int held = banker.getHeld(ids[j], units);
+                if (!done[j] && max[j] - held <= available) {
+                    done[j] = true;
+                    available += held;
+                }
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            assertTrue(done[j], "no safe sequence finishes task " + ids[j]);
+        }
+        assertEquals(total, available);
+    }
+}
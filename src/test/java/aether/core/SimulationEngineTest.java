@@ -0,0 +1,35 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import aether.model.memory.CellStore;
+import aether.model.memory.WorkingSetTracker;
+import org.junit.jupiter.api.Test;
+
+class SimulationEngineTest {
+    @Test
+    void suspendedRunKeepsOnlyTheReferencesItReached() {
+        AetherKernel kernel = new AetherKernel(new CellStore(4096, 1 << 20));
+        SimulationEngine engine = new SimulationEngine(kernel, SchedulingPolicy.forName("RR", 10));
+        WorkingSetTracker workingSets = new WorkingSetTracker(100, 100);
+        long[] drawn = new long[1];
+        // Stores to the 16 pages in turn.
+        engine.setPaging(taskID -> (drawn[0]++ % 16 << 1) | 1, 16, 5);
+        engine.setWorkingSetTracker(workingSets);
+        int taskID = engine.submit(100, 0, 0);
+
+        engine.runUntil(3);
+        assertEquals(taskID, engine.getRunningTaskID());
+        assertEquals(10, drawn[0]);
+        engine.suspend(taskID);
+        assertEquals(3, engine.getReferences());
+        assertEquals(3, workingSets.getWorkingSetSize(taskID));
+
+        engine.resume(taskID);
+        engine.submit(1, 3, 0);
+        engine.run();
+        assertEquals(2, engine.getCompletedTasks());
+        assertEquals(101, engine.getReferences());
+        assertEquals(0, engine.getPageFaults());
+    }
+}
@@ -0,0 +1,99 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+import org.junit.jupiter.api.Test;
+
+class SmpSchedulerTest {
+    @Test
+    void queuedTasksStayReadyAndOnlyTasksOnACoreRun() {
+        AetherKernel kernel = new AetherKernel();
+        kernel.setSchedulingPolicy(SchedulingPolicy.forName("RR", 2));
+        SmpScheduler smp = new SmpScheduler(kernel, 2);
+        for (int i = 0; i < 20; i++) {
+            kernel.addNewTask(kernel.newTask(1 + i % 5, 0, 0));
+        }
+        assertEquals(20, smp.distribute());
+        assertEquals(20, kernel.countInState(TaskState.READY));
+        assertEquals(0, kernel.countInState(TaskState.RUNNING));
+
+        int[] maxRunning = new int[1];
+        kernel.addTaskListener(task -> maxRunning[0] = Math.max(maxRunning[0], kernel.countInState(TaskState.RUNNING)));
+        smp.runSequential();
+        assertEquals(1, maxRunning[0]);
+        assertEquals(20, smp.getCompleted());
+        assertTrue(kernel.getTasks().isEmpty());
+    }
+
+    @Test
+    void eachCoreOrdersItsQueueByTheKernelsPolicy() {
+        AetherKernel kernel = new AetherKernel();
+        kernel.setSchedulingPolicy(new SjfPolicy());
+        SmpScheduler smp = new SmpScheduler(kernel, 1);
+        for (int burst : new int[] { 5, 1, 3 }) {
+            kernel.addNewTask(kernel.newTask(burst, 0, 0));
+        }
+        smp.distribute();
+
+        List<Integer> finished = new ArrayList<>();
+        kernel.addTaskListener(task -> {
+            if (task.getState() == TaskState.TERMINATED) {
+                finished.add(task.getBurstTime());
+            }
+        });
+        smp.runSequential();
+        assertEquals(List.of(1, 3, 5), finished);
+    }
+
+    @Test
+    void stealingSkipsTasksPinnedElsewhere() {
+        TaskStore store = new TaskStore();
+        WaitQueues order = new WaitQueues(2);
+        CpuCore victim = new CpuCore(0, store, new FcfsPolicy(), order);
+        int[] ids = new int[3];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.reserve();
+            victim.push(store.view(store.insert(ids[i], TaskState.READY, "User", 0, 5, 0)), 0);
+        }
+        store.setAffinity(TaskStore.slotIndex(ids[2]), 0);
+
+        assertEquals(ids[1], victim.stealTail(1));
+        assertEquals(ids[0], victim.stealTail(1));
+        assertEquals(CpuCore.EMPTY, victim.stealTail(1));
+        assertEquals(ids[2], victim.pop());
+    }
+
+    @Test
+    void admitsTaskSourceArrivalsAsTheClocksReachThem() {
+        AetherKernel kernel = new AetherKernel();
+        SmpScheduler smp = new SmpScheduler(kernel, 4);
+        smp.setTaskSource(new SimulationEngine.RandomSource(1000, 3, 9, 7));
+        int[] early = new int[1];
+        kernel.addTaskListener(task -> {
+            if (task.getState() == TaskState.READY && kernel.getClock() < task.getArrivalTime()) {
+                early[0]++;
+            }
+        });
+        smp.runSequential();
+        assertEquals(1000, smp.getCompleted());
+        assertEquals(0, early[0]);
+        assertTrue(kernel.getTasks().isEmpty());
+    }
+
+    @Test
+    void parallelRunsRetireEveryTask() throws InterruptedException {
+        AetherKernel kernel = new AetherKernel();
+        kernel.setSchedulingPolicy(SchedulingPolicy.forName("MLFQ", 2));
+        SmpScheduler smp = new SmpScheduler(kernel, 4);
+        smp.setTaskSource(new SimulationEngine.RandomSource(5000, 3, 9, 7));
+        smp.setParallelWindow(100);
+        smp.runParallel(2);
+        assertEquals(5000, smp.getCompleted());
+        assertTrue(kernel.getTasks().isEmpty());
+    }
+}
@@ -0,0 +1,108 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import aether.model.process.TaskStore;
+import org.junit.jupiter.api.Test;
+
+class TaskHeapTest {
+    @Test
+    void pollsInKeyOrder() {
+        TaskHeap heap = new TaskHeap(2);
+        heap.add(7, 30);
+        heap.add(3, 10);
+        heap.add(9, 20);
+        assertEquals(3, heap.peek());
+        assertEquals(10, heap.peekKey());
+        assertEquals(3, heap.poll());
+        assertEquals(9, heap.poll());
+        assertEquals(7, heap.poll());
+        assertEquals(-1, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void removesAndRekeysByTaskID() {
+        TaskHeap heap = new TaskHeap();
+        for (int id = 0; id < 10; id++) {
+            heap.add(id, 100 - id);
+        }
+        assertTrue(heap.remove(9));
+        assertFalse(heap.remove(9));
+        assertFalse(heap.contains(9));
+        assertTrue(heap.changeKey(0, 1));
+        assertEquals(1, heap.keyOf(0));
+        assertEquals(0, heap.poll());
+        assertEquals(8, heap.poll());
+        assertEquals(7, heap.size());
+    }
+
+    @Test
+    void aNewGenerationReplacesTheSlotsStaleEntry() {
+        TaskHeap heap = new TaskHeap();
+        int old = 5;
+        int reused = 1 << TaskStore.SLOT_BITS | 5;
+        heap.add(old, 10);
+        heap.add(6, 20);
+        assertFalse(heap.contains(reused));
+        heap.add(reused, 30);
+        assertFalse(heap.contains(old));
+        assertFalse(heap.remove(old));
+        assertTrue(heap.contains(reused));
+        assertEquals(2, heap.size());
+        assertEquals(6, heap.poll());
+        assertEquals(reused, heap.poll());
+    }
+
+    @Test
+    void matchesASortedMapUnderRandomOperations() {
+        Random random = new Random(1);
+        TaskHeap heap = new TaskHeap();
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        Map<Integer, Long> keys = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int id = random.nextInt(5000);
+            long key = ((long) random.nextInt(100) << 32) | id; // unique per task
+            switch (random.nextInt(4)) {
+                case 0:
+                    if (!keys.containsKey(id)) {
+                        heap.add(id, key);
+                        keys.put(id, key);
+                        expected.put(key, id);
+                    }
+                    break;
+                case 1:
+                    int polled = heap.poll();
+                    if (expected.isEmpty()) {
+                        assertEquals(-1, polled);
+                    } else {
+                        assertEquals(expected.pollFirstEntry().getValue(), polled);
+                        keys.remove(polled);
+                    }
+                    break;
+                case 2:
+                    boolean removed = heap.remove(id);
+                    assertEquals(keys.containsKey(id), removed);
+                    if (removed) {
+                        expected.remove(keys.remove(id));
+                    }
+                    break;
+                default:
+                    if (keys.containsKey(id)) {
+                        expected.remove(keys.get(id));
+                        heap.changeKey(id, key);
+                        keys.put(id, key);
+                        expected.put(key, id);
+                    }
+                    break;
+            }
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import aether.model.process.TaskState;
+import aether.model.process.TaskStore;
+import org.junit.jupiter.api.Test;
+
+class TaskListsTest {
+    @Test
+    void keepsOneFifoPerState() {
+        TaskLists lists = new TaskLists();
+        lists.add(1, TaskState.READY);
+        lists.add(2, TaskState.READY);
+        lists.add(3, TaskState.BLOCKED);
+        lists.add(4, TaskState.READY);
+        assertEquals(3, lists.count(TaskState.READY));
+        assertEquals(TaskState.BLOCKED, lists.stateOf(3));
+
+        lists.add(2, TaskState.RUNNING);
+        assertEquals(2, lists.count(TaskState.READY));
+        assertEquals(1, lists.first(TaskState.READY));
+        assertEquals(4, lists.next(1));
+        assertEquals(-1, lists.next(4));
+
+        assertEquals(1, lists.poll(TaskState.READY));
+        assertTrue(lists.remove(4));
+        assertFalse(lists.remove(4));
+        assertNull(lists.stateOf(4));
+        assertEquals(-1, lists.poll(TaskState.READY));
+    }
+
+    @Test
+    void linksAreIndexedBySlotNotByID() {
+        TaskLists lists = new TaskLists();
+        int generation = 1 << TaskStore.SLOT_BITS;
+        int a = 3 * generation | 2;
+        int b = 5 * generation | 9;
+        lists.add(a, TaskState.READY);
+        lists.add(b, TaskState.READY);
+        assertEquals(a, lists.first(TaskState.READY));
+        assertEquals(b, lists.next(a));
+        assertEquals(TaskState.READY, lists.stateOf(b));
+        assertTrue(lists.remove(a));
+        assertEquals(b, lists.first(TaskState.READY));
+        assertEquals(1, lists.count(TaskState.READY));
+    }
+}
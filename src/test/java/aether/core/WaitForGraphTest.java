@@ -0,0 +1,95 @@
+package aether.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class WaitForGraphTest {
+    @Test
+    void refusesTheWaitThatClosesACycle() {
+        WaitForGraph graph = new WaitForGraph();
+        assertTrue(graph.addHold(1, 10));
+        assertTrue(graph.addHold(2, 20));
+        assertTrue(graph.addWait(10, 2));
+        assertFalse(graph.addWait(20, 1));
+        assertEquals(1, graph.getCycles());
+
+        assertTrue(graph.removeWait(10, 2));
+        assertTrue(graph.addWait(20, 1));
+        assertTrue(graph.holds(10, 1));
+        assertEquals(1, graph.heldCount(20));
+        assertEquals(2, graph.firstHeld(20));
+    }
+
+    @Test
+    void findsLongCycles() {
+        WaitForGraph graph = new WaitForGraph();
+        int n = 1000;
+        for (int i = 0; i < n; i++) {
+            assertTrue(graph.addHold(i, i));
+        }
+        for (int i = 0; i + 1 < n; i++) {
+            assertTrue(graph.addWait(i, i + 1));
+        }
+        assertFalse(graph.addWait(n - 1, 0));
+        assertTrue(graph.removeHold(0, 0));
+        assertTrue(graph.addWait(n - 1, 0));
+    }
+
+    // Random edges against a depth-first search over the same graph: an edge is
+    // refused exactly when its target already reaches its source.
+    @Test
+    void agreesWithABruteForceSearch() {
+        Random random = new Random(5);
+        WaitForGraph graph = new WaitForGraph();
+        int nodes = 40;
+        List<Set<Integer>> out = new ArrayList<>();
+        for (int i = 0; i < 2 * nodes; i++) {
+            out.add(new HashSet<>());
+        }
+        for (int i = 0; i < 20_000; i++) {
+            int task = random.nextInt(nodes);
+            int resource = random.nextInt(nodes);
+            int t = WaitForGraph.taskNode(task);
+            int r = WaitForGraph.resourceNode(resource);
+            boolean wait = random.nextBoolean();
+            int from = wait ? t : r;
+            int to = wait ? r : t;
+            if (random.nextInt(3) == 0) {
+                boolean removed = wait ? graph.removeWait(task, resource) : graph.removeHold(resource, task);
+                assertEquals(out.get(from).remove(to), removed);
+            } else if (!out.get(from).contains(to)) {
+                boolean added = wait ? graph.addWait(task, resource) : graph.addHold(resource, task);
+                assertEquals(!reaches(out, to, from), added);
+                if (added) {
+                    out.get(from).add(to);
+                }
+            }
+        }
+    }
+
+    private static boolean reaches(List<Set<Integer>> out, int start, int target) {
+        boolean[] seen = new boolean[out.size()];
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == target) {
+                return true;
+            }
+            if (!seen[node]) {
+                seen[node] = true;
+                out.get(node).forEach(stack::push);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,214 @@
+package aether.model.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CellStoreTest {
+    private static final int PAGE = 4096;
+
+    @TempDir
+    Path dir;
+
+    private final ByteBuffer word = ByteBuffer.allocate(Long.BYTES);
+
+    private long read(CellStore memory, int nodeID, long address) {
+        word.clear();
+        assertEquals(Long.BYTES, memory.read(nodeID, address, word));
+        return word.getLong(0);
+    }
+
+    private void write(CellStore memory, int nodeID, long address, long value) {
+        word.clear();
+        word.putLong(0, value);
+        assertEquals(Long.BYTES, memory.write(nodeID, address, word));
+    }
+
+    @Test
+    void mapsPagesOntoDistinctFramesAndFreesThemOnRelease() {
+        CellStore memory = new CellStore(PAGE, 16 * PAGE);
+        assertTrue(memory.allocateMemoryToProcess(1, 10L * PAGE));
+        assertTrue(memory.allocateMemoryToProcess(2, 6L * PAGE));
+        assertEquals(0, memory.getFreeFrames());
+        assertFalse(memory.allocateMemoryToProcess(3, PAGE));
+
+        Set<Integer> frames = new HashSet<>();
+        for (int page = 0; page < 10; page++) {
+            int frame = memory.frameOf(1, page);
+            assertTrue(frames.add(frame));
+            assertEquals((long) frame * PAGE + 24, memory.translate(1, (long) page * PAGE + 24));
+        }
+        for (int page = 0; page < 6; page++) {
+            assertTrue(frames.add(memory.frameOf(2, page)));
+        }
+        assertEquals(PageTable.UNMAPPED, memory.frameOf(2, 6));
+        assertEquals(CellStore.FAULT, memory.translate(2, 6L * PAGE));
+
+        write(memory, 1, 0, 7);
+        write(memory, 2, 0, 9);
+        assertEquals(7, read(memory, 1, 0));
+        assertEquals(9, read(memory, 2, 0));
+
+        assertEquals(10, memory.releaseMemory(1));
+        assertEquals(10, memory.getFreeFrames());
+        assertEquals(CellStore.FAULT, memory.translate(1, 0));
+        // Reused frames come back zeroed.
+        assertTrue(memory.allocateMemoryToProcess(3, 10L * PAGE));
+        for (int page = 0; page < 10; page++) {
+            assertNotEquals(PageTable.UNMAPPED, memory.frameOf(3, page));
+            assertEquals(0, read(memory, 3, (long) page * PAGE));
+        }
+    }
+
+    @Test
+    void swapsPagesOutAndBackIn() throws IOException {
+        try (SwapDevice swap = new SwapDevice(dir.resolve("swap.bin"), 4096, PAGE)) {
+            CellStore memory = new CellStore(PAGE, 64 * PAGE);
+            memory.attachSwap(swap, 8);
+            int nodes = 8;
+            int pages = 40; // 320 pages over 64 frames
+            for (int node = 1; node <= nodes; node++) {
+                assertTrue(memory.allocateMemoryToProcess(node, pages * (long) PAGE));
+            }
+            long[][] values = new long[nodes + 1][pages];
+            Random random = new Random(1);
+            for (int i = 0; i < 5000; i++) {
+                int node = 1 + random.nextInt(nodes);
+                int page = random.nextInt(pages);
+                if (random.nextBoolean()) {
+                    long value = random.nextLong();
+                    write(memory, node, (long) page * PAGE + 8, value);
+                    values[node][page] = value;
+                } else {
+                    assertEquals(values[node][page], read(memory, node, (long) page * PAGE + 8));
+                }
+            }
+            assertTrue(memory.getSwapOuts() > 0);
+            assertTrue(memory.getSwapIns() > 0);
+            assertFalse(memory.allocateMemoryToProcess(99, 5000L * PAGE));
+            for (int node = 1; node <= nodes; node++) {
+                memory.releaseMemory(node);
+            }
+            assertEquals(0, swap.getUsedSlots());
+            assertEquals(64, memory.getFreeFrames());
+        }
+    }
+
+    @Test
+    void forkSharesFramesUntilWritten() {
+        CellStore memory = new CellStore(PAGE, 64 * PAGE);
+        assertTrue(memory.allocateMemoryToProcess(1, 10L * PAGE));
+        for (int page = 0; page < 10; page++) {
+            write(memory, 1, (long) page * PAGE, 100 + page);
+        }
+        int used = memory.getUsedFrames();
+        assertTrue(memory.forkMemory(1, 2));
+        assertEquals(used, memory.getUsedFrames());
+        assertEquals(10L * PAGE, memory.getSavedBytes());
+        for (int page = 0; page < 10; page++) {
+            assertEquals(100 + page, read(memory, 2, (long) page * PAGE));
+        }
+
+        write(memory, 2, 3L * PAGE, 5);
+        assertEquals(5, read(memory, 2, 3L * PAGE));
+        assertEquals(103, read(memory, 1, 3L * PAGE));
+        assertEquals(used + 1, memory.getUsedFrames());
+        assertEquals(1, memory.getCowFaults());
+
+        // The last mapping of a frame is written in place.
+        write(memory, 1, 3L * PAGE, 6);
+        assertEquals(used + 1, memory.getUsedFrames());
+        assertEquals(5, read(memory, 2, 3L * PAGE));
+
+        memory.releaseMemory(1);
+        assertEquals(104, read(memory, 2, 4L * PAGE));
+        memory.releaseMemory(2);
+        assertEquals(0, memory.getUsedFrames());
+        assertEquals(0, memory.getSharedFrames());
+        assertEquals(0, memory.getSavedBytes());
+    }
+
+    @Test
+    void forkKeepsSwappedPagesShared() throws IOException {
+        try (SwapDevice swap = new SwapDevice(dir.resolve("swap.bin"), 256, PAGE)) {
+            CellStore memory = new CellStore(PAGE, 64 * PAGE);
+            memory.attachSwap(swap, 8);
+            // Only frames already in use can be paged out, so grow past RAM in two steps.
+            assertTrue(memory.allocateMemoryToProcess(1, 50L * PAGE));
+            assertTrue(memory.allocateMemoryToProcess(1, 50L * PAGE));
+            for (int page = 0; page < 100; page++) {
+                write(memory, 1, (long) page * PAGE, page * 3);
+            }
+            assertTrue(memory.forkMemory(1, 2));
+            for (int page = 0; page < 100; page++) {
+                write(memory, 2, (long) page * PAGE, -page);
+            }
+            for (int page = 0; page < 100; page++) {
+                assertEquals(page * 3, read(memory, 1, (long) page * PAGE));
+                assertEquals(-page, read(memory, 2, (long) page * PAGE));
+            }
+            memory.releaseMemory(1);
+            memory.releaseMemory(2);
+            assertEquals(0, memory.getUsedFrames());
+            assertEquals(0, swap.getUsedSlots());
+        }
+    }
+
+    // A copy-on-write fault that has to reclaim must not swap out the frame it copies:
+    // that used to leave both processes writing one frame and the share counts negative.
+    @Test
+    void copyOnWriteUnderMemoryPressureCopies() throws IOException {
+        try (SwapDevice swap = new SwapDevice(dir.resolve("swap.bin"), 64, PAGE)) {
+            CellStore memory = new CellStore(PAGE, 4 * PAGE);
+            memory.attachSwap(swap, 32);
+            assertTrue(memory.allocateMemoryToProcess(1, 4L * PAGE));
+            assertTrue(memory.forkMemory(1, 2));
+            write(memory, 1, 0, 11);
+            assertTrue(memory.forkMemory(1, 3));
+            write(memory, 3, 0, 55);
+
+            assertEquals(11, read(memory, 1, 0));
+            assertEquals(0, read(memory, 2, 0));
+            assertEquals(55, read(memory, 3, 0));
+            assertTrue(memory.getSavedBytes() >= 0);
+            memory.releaseMemory(1);
+            memory.releaseMemory(2);
+            memory.releaseMemory(3);
+            assertEquals(0, memory.getUsedFrames());
+            assertEquals(0, memory.getSharedFrames());
+            assertEquals(0, memory.getSavedBytes());
+            assertEquals(0, swap.getUsedSlots());
+        }
+    }
+
+    // Paging in a copy's destination reclaims a batch of frames, which must not take
+    // the source frame: that used to leave the source unmapped and the copy short.
+    @Test
+    void copyingIntoASwappedOutPageKeepsTheSource() throws IOException {
+        try (SwapDevice swap = new SwapDevice(dir.resolve("swap.bin"), 16, PAGE)) {
+            CellStore memory = new CellStore(PAGE, 2 * PAGE);
+            memory.attachSwap(swap, 8);
+            assertTrue(memory.allocateMemoryToProcess(2, 2L * PAGE));
+            write(memory, 2, 0, 7);
+            write(memory, 2, PAGE, 8);
+            assertTrue(memory.allocateMemoryToProcess(1, PAGE));
+            write(memory, 1, 0, 42);
+            assertEquals(8, read(memory, 2, PAGE)); // both frames full, destination swapped out
+
+            assertEquals(Long.BYTES, memory.copy(1, 0, 2, 0, Long.BYTES));
+            assertEquals(42, read(memory, 2, 0));
+            assertEquals(42, read(memory, 1, 0));
+            assertEquals(8, read(memory, 2, PAGE));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package aether.model.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PageTableTest {
+    @Test
+    void aSmallTableWalksLikeTheTreeItStandsFor() {
+        PageTable direct = new PageTable(3);
+        PageTable tree = new PageTable(3);
+        tree.map(5000, 99); // past the direct entries, so this one is a tree
+        tree.unmap(5000);
+        for (long page = 0; page < 16; page += 3) {
+            direct.map(page, (int) page + 1);
+            tree.map(page, (int) page + 1);
+        }
+        for (long page : new long[] { 0, 1, 3, 15, 16, 511, 512, 1 << 18 }) {
+            assertEquals(tree.frameOf(page), direct.frameOf(page), "page " + page);
+            assertEquals(tree.getLastWalkReads(), direct.getLastWalkReads(), "reads for page " + page);
+        }
+        assertEquals(3, direct.getTableNodes());
+    }
+
+    @Test
+    void growingPastTheDirectPagesKeepsEveryMapping() {
+        PageTable table = new PageTable(2);
+        for (int page = 0; page < 16; page++) {
+            table.map(page, 100 + page);
+        }
+        table.swapOut(7, 4);
+        assertTrue(table.clear());
+        for (int page = 0; page < 16; page++) {
+            table.map(page, 100 + page);
+        }
+        table.swapOut(7, 4);
+
+        table.map(2000, 7);
+        for (int page = 0; page < 16; page++) {
+            assertEquals(page == 7 ? PageTable.UNMAPPED : 100 + page, table.frameOf(page));
+        }
+        assertEquals(4, table.swapSlotOf(7));
+        assertEquals(7, table.frameOf(2000));
+        assertEquals(16, table.getMappedPages());
+        assertEquals(1, table.getSwappedPages());
+        assertFalse(table.clear());
+    }
+}
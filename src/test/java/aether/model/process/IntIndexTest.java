@@ -0,0 +1,49 @@
+package aether.model.process;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntIndexTest {
+    @Test
+    void getsPutsAndRemoves() {
+        IntIndex index = new IntIndex(4);
+        assertEquals(-1, index.get(5));
+        index.put(5, 50);
+        index.put(5, 51);
+        index.put(21, 210);
+        assertEquals(51, index.get(5));
+        assertEquals(2, index.size());
+        assertEquals(51, index.remove(5));
+        assertEquals(-1, index.remove(5));
+        assertEquals(210, index.get(21));
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomOperations() {
+        Random random = new Random(3);
+        IntIndex index = new IntIndex(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 500_000; i++) {
+            int key = random.nextInt(3000);
+            switch (random.nextInt(3)) {
+                case 0:
+                    int value = random.nextInt(1 << 20);
+                    index.put(key, value);
+                    expected.put(key, value);
+                    break;
+                case 1:
+                    assertEquals(expected.getOrDefault(key, -1), index.remove(key));
+                    expected.remove(key);
+                    break;
+                default:
+                    assertEquals(expected.getOrDefault(key, -1), index.get(key));
+                    break;
+            }
+            assertEquals(expected.size(), index.size());
+        }
+    }
+}
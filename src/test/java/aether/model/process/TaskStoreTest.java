@@ -0,0 +1,150 @@
+package aether.model.process;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TaskStoreTest {
+    @Test
+    void storesColumnsPerSlot() {
+        TaskStore store = new TaskStore(4);
+        int id = store.reserve();
+        int slot = store.insert(id, TaskState.NEW, "Alice", 3, 10, 5);
+        assertEquals(slot, store.slotOf(id));
+        assertEquals(TaskStore.slotIndex(id), slot);
+        assertEquals(id, store.idAt(slot));
+        assertEquals(TaskState.NEW, store.state(slot));
+        assertEquals("Alice", store.owner(slot));
+        assertEquals(3, store.priority(slot));
+        assertEquals(10, store.burst(slot));
+        assertEquals(10, store.remaining(slot));
+        assertEquals(5, store.arrival(slot));
+        assertEquals(-1, store.affinity(slot));
+        assertEquals(-1, store.startTime(slot));
+    }
+
+    @Test
+    void reusesFreedSlotsUnderANewGeneration() {
+        TaskStore store = new TaskStore(4);
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.reserve();
+            store.insert(ids[i], TaskState.READY, "User", 0, 1, 0);
+        }
+        int old = ids[50];
+        int slot = store.slotOf(old);
+        TaskNode stale = store.get(old);
+        assertTrue(store.remove(old));
+        assertFalse(store.remove(old));
+        assertFalse(store.contains(old));
+        assertNull(store.get(old));
+
+        int reused = store.reserve();
+        assertEquals(slot, TaskStore.slotIndex(reused));
+        assertNotEquals(old, reused);
+        assertEquals(slot, store.insert(reused, TaskState.READY, "User", 0, 1, 0));
+        assertEquals(-1, store.slotOf(old));
+        assertEquals(TaskState.TERMINATED, stale.getState());
+        assertEquals(100, store.size());
+        assertEquals(100, store.views().size());
+    }
+
+    @Test
+    void slotsStopGrowingAtThePeakLiveCount() {
+        TaskStore store = new TaskStore(16);
+        int[] live = new int[10];
+        for (int i = 0; i < live.length; i++) {
+            live[i] = store.reserve();
+            store.insert(live[i], TaskState.READY, "User", 0, 1, 0);
+        }
+        int highWater = store.highWater();
+        for (int round = 0; round < 10_000; round++) {
+            int i = round % live.length;
+            store.remove(live[i]);
+            live[i] = store.reserve();
+            store.insert(live[i], TaskState.READY, "User", 0, 1, 0);
+        }
+        assertEquals(highWater, store.highWater());
+        assertEquals(live.length, store.size());
+    }
+
+    @Test
+    void releasedReservationsAreReused() {
+        TaskStore store = new TaskStore();
+        int id = store.reserve();
+        assertTrue(store.isReserved(id));
+        assertTrue(store.release(id));
+        assertFalse(store.isReserved(id));
+        assertFalse(store.release(id));
+        assertThrows(IllegalArgumentException.class, () -> store.insert(id, TaskState.NEW, "User", 0, 1, 0));
+        assertEquals(TaskStore.slotIndex(id), TaskStore.slotIndex(store.reserve()));
+    }
+
+    @Test
+    void reservesDistinctIDsAcrossThreads() throws InterruptedException {
+        TaskStore store = new TaskStore();
+        int perThread = 10_000;
+        int[][] reserved = new int[4][perThread];
+        Thread[] threads = new Thread[reserved.length];
+        for (int t = 0; t < threads.length; t++) {
+            int[] into = reserved[t];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    into[i] = store.reserve();
+                }
+            });
+            threads[t].start();
+        }
+        Set<Integer> slots = new HashSet<>();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            for (int id : reserved[t]) {
+                assertTrue(slots.add(TaskStore.slotIndex(id)));
+            }
+        }
+    }
+
+    @Test
+    void rejectsDuplicateIDs() {
+        TaskStore store = new TaskStore();
+        int id = store.reserve();
+        store.insert(id, TaskState.NEW, "User", 0, 1, 0);
+        assertThrows(IllegalStateException.class, () -> store.insert(id, TaskState.NEW, "User", 0, 1, 0));
+    }
+
+    @Test
+    void storesAnyNumberOfOwners() {
+        TaskStore store = new TaskStore();
+        int[] ids = new int[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.reserve();
+            store.insert(ids[i], TaskState.NEW, "owner-" + (i % 300), 0, 1, 0);
+        }
+        assertEquals("owner-299", store.owner(store.slotOf(ids[299])));
+        assertEquals("owner-0", store.owner(store.slotOf(ids[900])));
+    }
+
+    @Test
+    void viewsReadThroughToTheStore() {
+        TaskStore store = new TaskStore();
+        int id = store.reserve();
+        TaskNode node = new TaskNode(id, TaskState.NEW, "Bob", 2, 9, 1);
+        node.setRemainingTime(4);
+        int slot = store.insert(node);
+        assertEquals(4, store.remaining(slot));
+        store.setPriority(slot, 6);
+        store.setState(slot, TaskState.READY);
+        assertEquals(6, node.getPriority());
+        assertEquals(TaskState.READY, node.getState());
+        TaskNode view = store.viewInto(new TaskNode(-1, TaskState.NEW, null, 0, 0, 0), slot);
+        assertEquals(id, view.getProcessID());
+        assertEquals("Bob", view.getOwner());
+    }
+}
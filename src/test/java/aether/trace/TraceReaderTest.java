@@ -0,0 +1,93 @@
+package aether.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import aether.core.AetherKernel;
+import aether.core.SchedulingPolicy;
+import aether.core.SimulationEngine;
+import aether.model.process.TaskNode;
+import aether.model.process.TaskState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TraceReaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysATraceWithHundredsOfOwners() throws IOException {
+        Path trace = dir.resolve("owners.csv");
+        StringBuilder csv = new StringBuilder("arrival,burst,priority,owner\n");
+        for (int i = 0; i < 300; i++) {
+            csv.append(i).append(",3,").append(i % 10).append(",owner-").append(i).append('\n');
+        }
+        Files.writeString(trace, csv);
+
+        SimulationEngine engine = new SimulationEngine(new AetherKernel(), SchedulingPolicy.forName("FCFS", 0));
+        String[] last = new String[1];
+        engine.setCompletionListener((task, waiting, turnaround, response) -> last[0] = task.getOwner());
+        try (TraceReader reader = new TraceReader(trace)) {
+            engine.setTaskSource(reader);
+            engine.run();
+        }
+        assertEquals(300, engine.getCompletedTasks());
+        assertEquals("owner-299", last[0]);
+    }
+
+    @Test
+    void roundTripsBinaryTracesWithOwners() throws IOException {
+        Path trace = dir.resolve("trace.bin");
+        try (TraceWriter writer = new TraceWriter(trace)) {
+            writer.writeTask(0, 5, 2, "Alice");
+            writer.writeTask(3, 7, -1, "Bob");
+            writer.writeTask(4, 1, 9, "Alice");
+        }
+        try (TraceReader reader = new TraceReader(trace)) {
+            assertTrue(reader.isBinary());
+            assertTrue(reader.hasNext());
+            assertEquals("Alice", reader.owner());
+            reader.consume();
+            assertTrue(reader.hasNext());
+            assertEquals(3, reader.arrival());
+            assertEquals(-1, reader.priority());
+            assertEquals("Bob", reader.owner());
+            reader.consume();
+            assertTrue(reader.hasNext());
+            assertEquals("Alice", reader.owner());
+            reader.consume();
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    // -1 marks an owner definition in binary traces, so no arrival may be negative.
+    @Test
+    void rejectsNegativeArrivals() throws IOException {
+        for (String name : new String[] { "trace.bin", "trace.csv" }) {
+            try (TraceWriter writer = new TraceWriter(dir.resolve(name))) {
+                assertThrows(IllegalArgumentException.class, () -> writer.writeTask(-1, 5, 0, "User"));
+            }
+        }
+        Path csv = dir.resolve("negative.csv");
+        Files.writeString(csv, "0,1,0\n-1,5,0\n");
+        try (TraceReader reader = new TraceReader(csv)) {
+            assertTrue(reader.hasNext());
+            reader.consume();
+            assertThrows(IllegalArgumentException.class, reader::hasNext);
+        }
+    }
+
+    @Test
+    void rejectsPrioritiesOutsideTheBinaryRange() throws IOException {
+        try (ResultWriter results = new ResultWriter(dir.resolve("results.bin"))) {
+            TaskNode task = new TaskNode(1, TaskState.TERMINATED, "User", 70_000, 5, 0);
+            assertThrows(IllegalArgumentException.class, () -> results.taskCompleted(task, 0, 5, 0));
+            assertEquals(0, results.getWrittenResults());
+        }
+    }
+}